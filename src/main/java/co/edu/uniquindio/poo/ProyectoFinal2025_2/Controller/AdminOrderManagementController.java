@@ -2,18 +2,17 @@ package co.edu.uniquindio.poo.ProyectoFinal2025_2.Controller;
 
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.DeliveryPerson;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Order;
-import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Shipment;
-import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.User;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.AvailabilityStatus;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.CoverageArea;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.OrderStatus;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.PageRequestDTO;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.DeliveryPersonRepository;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.OrderRepository;
-import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.ShipmentRepository;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.UserRepository;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Services.OrderService;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Services.ReportService;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilController.DialogUtil;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilController.PagedTableLoader;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilController.TabStateManager;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.Logger;
 import javafx.beans.property.SimpleStringProperty;
@@ -33,6 +32,7 @@ import java.io.File;
 import java.net.URL;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.ResourceBundle;
 import java.util.stream.Collectors;
@@ -86,12 +86,16 @@ public class AdminOrderManagementController implements Initializable {
     private final OrderRepository orderRepository = OrderRepository.getInstance();
     private final UserRepository userRepository = UserRepository.getInstance();
     private final DeliveryPersonRepository deliveryPersonRepository = DeliveryPersonRepository.getInstance();
-    private final ShipmentRepository shipmentRepository = ShipmentRepository.getInstance();
     private final OrderService orderService = new OrderService();
     private final ReportService reportService = ReportService.getInstance();
 
     // Data
-    private ObservableList<Order> ordersData;
+    private PagedTableLoader<Order> orderPages;
+
+    // Current query; the table is filled page by page from it
+    private OrderStatus currentStatus;
+    private String currentSearchText;
+    private boolean currentAscending = false;
 
     // Navigation context
     private String sourceView = null; // The view that navigated to this view (e.g., "ManageUsers.fxml")
@@ -104,7 +108,6 @@ public class AdminOrderManagementController implements Initializable {
         setupTable();
         setupFilters();
         loadAllOrders();
-        updateCounters();
         restoreViewState();
 
         Logger.info("AdminOrderManagementController initialized");
@@ -219,6 +222,14 @@ public class AdminOrderManagementController implements Initializable {
 
             return row;
         });
+
+        // Rows are fetched page by page, so only the creation date, the query's order, can be sorted
+        orderPages = new PagedTableLoader<>(VIEW_NAME, ordersTable);
+        ordersTable.getColumns().forEach(column -> column.setSortable(column == colCreatedDate));
+        ordersTable.setSortPolicy(table -> {
+            applyColumnSort();
+            return true;
+        });
     }
 
     /**
@@ -277,15 +288,7 @@ public class AdminOrderManagementController implements Initializable {
      * Once approved, orders become shipments and are managed separately.
      */
     private void loadAllOrders() {
-        List<Order> allOrders = orderRepository.findAll().stream()
-                .filter(order -> order.getStatus() == OrderStatus.PENDING_APPROVAL ||
-                               order.getStatus() == OrderStatus.CANCELLED ||
-                               order.getStatus() == OrderStatus.AWAITING_PAYMENT ||
-                               order.getStatus() == OrderStatus.PAID)
-                .collect(Collectors.toList());
-        ordersData = FXCollections.observableArrayList(allOrders);
-        ordersTable.setItems(ordersData);
-        ordersTable.refresh(); // Force table refresh to update UI
+        loadOrders(null, null);
     }
 
     /**
@@ -293,54 +296,44 @@ public class AdminOrderManagementController implements Initializable {
      */
     @FXML
     private void applyFilters() {
-        List<Order> allOrders = orderRepository.findAll().stream()
-                .filter(order -> order.getStatus() == OrderStatus.PENDING_APPROVAL ||
-                               order.getStatus() == OrderStatus.CANCELLED ||
-                               order.getStatus() == OrderStatus.AWAITING_PAYMENT ||
-                               order.getStatus() == OrderStatus.PAID)
-                .collect(Collectors.toList());
-
-        // Filter by status
-        if (filterStatus != null && filterStatus.getValue() != null) {
-            allOrders = allOrders.stream()
-                    .filter(order -> order.getStatus() == filterStatus.getValue())
-                    .collect(Collectors.toList());
-        }
-
-        // Filter by search text (searches by order ID, user email, and shipment ID)
-        if (searchField != null && searchField.getText() != null && !searchField.getText().isEmpty()) {
-            String searchText = searchField.getText().toLowerCase();
-            allOrders = allOrders.stream()
-                    .filter(order -> {
-                        // Search by order ID
-                        if (order.getId().toLowerCase().contains(searchText)) {
-                            return true;
-                        }
+        OrderStatus status = filterStatus != null ? filterStatus.getValue() : null;
+        String searchText = searchField != null ? searchField.getText() : null;
+        loadOrders(status, searchText);
+    }
 
-                        // Search by user email
-                        if (order.getUserId() != null) {
-                            User user = userRepository.findById(order.getUserId()).orElse(null);
-                            if (user != null && user.getEmail().toLowerCase().contains(searchText)) {
-                                return true;
-                            }
-                        }
+    /**
+     * Runs a new order query, showing its first page and loading the rest as the user scrolls.
+     */
+    private void loadOrders(OrderStatus status, String searchText) {
+        currentStatus = status;
+        currentSearchText = searchText;
+        reloadOrders();
+    }
 
-                        // Search by shipment ID associated with this order
-                        Optional<Shipment> shipmentOpt = shipmentRepository.findAll().stream()
-                                .filter(s -> order.getId().equals(s.getOrderId()))
-                                .findFirst();
-                        if (shipmentOpt.isPresent() && shipmentOpt.get().getId().toLowerCase().contains(searchText)) {
-                            return true;
-                        }
+    /**
+     * Runs the current query and sort again from the first page.
+     */
+    private void reloadOrders() {
+        OrderStatus status = currentStatus;
+        String searchText = currentSearchText;
+        boolean ascending = currentAscending;
+        orderPages.reset((offset, size) -> orderService.getOrdersPage(status, searchText,
+                new PageRequestDTO(offset, size, ascending)), page -> {
+            Logger.info("Showing " + page.getItems().size() + " of " + page.getTotalItems() + " orders");
+            updateCounters();
+        }, error -> DialogUtil.showError("Error", "No se pudieron cargar las órdenes"));
+    }
 
-                        return false;
-                    })
-                    .collect(Collectors.toList());
+    /**
+     * Reloads the table when the user changes the creation date sort direction.
+     */
+    private void applyColumnSort() {
+        boolean ascending = !ordersTable.getSortOrder().isEmpty()
+                && ordersTable.getSortOrder().get(0).getSortType() == TableColumn.SortType.ASCENDING;
+        if (ascending != currentAscending) {
+            currentAscending = ascending;
+            reloadOrders();
         }
-
-        ordersData = FXCollections.observableArrayList(allOrders);
-        ordersTable.setItems(ordersData);
-        updateCounters();
     }
 
     /**
@@ -351,7 +344,6 @@ public class AdminOrderManagementController implements Initializable {
         if (filterStatus != null) filterStatus.setValue(null);
         if (searchField != null) searchField.clear();
         loadAllOrders();
-        updateCounters();
     }
 
     /**
@@ -360,25 +352,23 @@ public class AdminOrderManagementController implements Initializable {
     @FXML
     private void refresh() {
         loadAllOrders();
-        updateCounters();
         Logger.info("Orders table refreshed");
     }
 
     /**
-     * Update counter labels.
+     * Update counter labels from the order counts the repository keeps per status.
      */
     private void updateCounters() {
-        List<Order> allOrders = orderRepository.findAll();
-
-        if (lblTotalOrders != null) lblTotalOrders.setText(String.valueOf(allOrders.size()));
+        Map<String, Long> countsByStatus = orderService.countOrdersByStatus();
+        if (lblTotalOrders != null) lblTotalOrders.setText(String.valueOf(orderService.countOrders()));
         if (lblPending != null) lblPending.setText(String.valueOf(
-            allOrders.stream().filter(o -> o.getStatus() == OrderStatus.AWAITING_PAYMENT).count()));
+            countsByStatus.getOrDefault(OrderStatus.AWAITING_PAYMENT.name(), 0L)));
         if (lblProcessing != null) lblProcessing.setText(String.valueOf(
-            allOrders.stream().filter(o -> o.getStatus() == OrderStatus.PENDING_APPROVAL).count()));
+            countsByStatus.getOrDefault(OrderStatus.PENDING_APPROVAL.name(), 0L)));
         if (lblReadyForShipment != null) lblReadyForShipment.setText(String.valueOf(
-            allOrders.stream().filter(o -> o.getStatus() == OrderStatus.APPROVED).count()));
+            countsByStatus.getOrDefault(OrderStatus.APPROVED.name(), 0L)));
         if (lblCompleted != null) lblCompleted.setText(String.valueOf(
-            allOrders.stream().filter(o -> o.getStatus() == OrderStatus.CANCELLED).count()));
+            countsByStatus.getOrDefault(OrderStatus.CANCELLED.name(), 0L)));
     }
 
     /**
@@ -885,7 +875,7 @@ public class AdminOrderManagementController implements Initializable {
      */
     @FXML
     private void handleExport() {
-        if (ordersData == null || ordersData.isEmpty()) {
+        if (orderPages.getTotalItems() == 0) {
             DialogUtil.showWarning("Sin Datos", "No hay órdenes para exportar.");
             return;
         }
@@ -894,7 +884,7 @@ public class AdminOrderManagementController implements Initializable {
         Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
         alert.setTitle("Exportar Órdenes");
         alert.setHeaderText("Seleccione el formato de exportación");
-        alert.setContentText(String.format("Se exportarán %d órdenes (filtradas).", ordersData.size()));
+        alert.setContentText(String.format("Se exportarán %d órdenes (filtradas).", orderPages.getTotalItems()));
 
         ButtonType btnCSV = new ButtonType("CSV");
         ButtonType btnPDF = new ButtonType("PDF");
@@ -916,7 +906,8 @@ public class AdminOrderManagementController implements Initializable {
      */
     private void exportToCSV() {
         try {
-            List<Order> orders = ordersData.stream().collect(Collectors.toList());
+            // Every match of the current query, not only the pages scrolled so far
+            List<Order> orders = orderService.findMatchingOrders(currentStatus, currentSearchText);
 
             File file = reportService.exportOrdersToCSV(orders);
 
@@ -938,7 +929,8 @@ public class AdminOrderManagementController implements Initializable {
      */
     private void exportToPDF() {
         try {
-            List<Order> orders = ordersData.stream().collect(Collectors.toList());
+            // Every match of the current query, not only the pages scrolled so far
+            List<Order> orders = orderService.findMatchingOrders(currentStatus, currentSearchText);
 
             File file = reportService.exportOrdersToPDF(orders);
 
@@ -82,18 +82,19 @@ public class DeliveryDashboardController implements Initializable {
     }
 
     private void loadStatistics() {
-        if (currentDeliveryPerson == null || currentDeliveryPerson.getAssignedShipments() == null) {
+        if (currentDeliveryPerson == null) {
             return;
         }
 
-        int total = currentDeliveryPerson.getAssignedShipments().size();
-        long inTransit = currentDeliveryPerson.getAssignedShipments().stream()
+        List<Shipment> assignedShipments = deliveryPersonService.getAssignedShipments(currentDeliveryPerson);
+        int total = assignedShipments.size();
+        long inTransit = assignedShipments.stream()
                 .filter(s -> s.getStatus() == ShipmentStatus.IN_TRANSIT || s.getStatus() == ShipmentStatus.OUT_FOR_DELIVERY)
                 .count();
-        long pending = currentDeliveryPerson.getAssignedShipments().stream()
+        long pending = assignedShipments.stream()
                 .filter(s -> s.getStatus() == ShipmentStatus.READY_FOR_PICKUP || s.getStatus() == ShipmentStatus.PENDING_ASSIGNMENT)
                 .count();
-        long deliveredToday = currentDeliveryPerson.getAssignedShipments().stream()
+        long deliveredToday = assignedShipments.stream()
                 .filter(s -> s.getStatus() == ShipmentStatus.DELIVERED)
                 .filter(this::isDeliveredToday)
                 .count();
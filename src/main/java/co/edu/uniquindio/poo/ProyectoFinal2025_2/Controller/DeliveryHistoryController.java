@@ -6,6 +6,7 @@ import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.ShipmentDTO;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Services.AuthenticationService;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Services.ShipmentService;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Services.ReportService;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilController.BackgroundLoader;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilController.DialogUtil;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilController.TabStateManager;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.DistanceCalculator;
@@ -110,6 +111,7 @@ public class DeliveryHistoryController implements Initializable {
 
     private DeliveryPerson currentDeliveryPerson;
     private List<ShipmentDTO> completedShipments;
+    private final BackgroundLoader<List<ShipmentDTO>> historyLoader = new BackgroundLoader<>("DeliveryHistory");
     private ObservableList<DeliveryHistoryEntry> historyEntries;
     private FilteredList<DeliveryHistoryEntry> filteredHistory;
 
@@ -258,13 +260,21 @@ public class DeliveryHistoryController implements Initializable {
     // =================================================================================================================
 
     private void loadHistoryData() {
-        try {
-            completedShipments = shipmentService.listAll().stream()
-                    .filter(shipment -> currentDeliveryPerson.getId().equals(shipment.getDeliveryPersonId()))
-                    .filter(shipment -> shipment.getStatus() == ShipmentStatus.DELIVERED ||
-                            shipment.getStatus() == ShipmentStatus.CANCELLED ||
-                            shipment.getStatus() == ShipmentStatus.RETURNED)
-                    .collect(Collectors.toList());
+        loadHistoryData(null);
+    }
+
+    /**
+     * Loads the completed shipments in the background, then refreshes entries, statistics and charts.
+     * @param afterLoad Runs on the FX thread after the view was updated (may be null)
+     */
+    private void loadHistoryData(Runnable afterLoad) {
+        String deliveryPersonId = currentDeliveryPerson.getId();
+        historyLoader.load(() -> shipmentService.getShipmentsByDeliveryPerson(deliveryPersonId).stream()
+                .filter(shipment -> shipment.getStatus() == ShipmentStatus.DELIVERED ||
+                        shipment.getStatus() == ShipmentStatus.CANCELLED ||
+                        shipment.getStatus() == ShipmentStatus.RETURNED)
+                .collect(Collectors.toList()), shipments -> {
+            completedShipments = shipments;
 
             updateHistoryEntries();
             updateStatistics();
@@ -276,11 +286,10 @@ public class DeliveryHistoryController implements Initializable {
             }
 
             Logger.info("Loaded " + completedShipments.size() + " completed shipments");
-
-        } catch (Exception e) {
-            Logger.error("Error loading history data: " + e.getMessage());
-            DialogUtil.showError("Error", "No se pudieron cargar los datos del historial.");
-        }
+            if (afterLoad != null) {
+                afterLoad.run();
+            }
+        }, error -> DialogUtil.showError("Error", "No se pudieron cargar los datos del historial."));
     }
 
     private void updateHistoryEntries() {
@@ -628,8 +637,7 @@ public class DeliveryHistoryController implements Initializable {
     @FXML
     private void handleRefresh() {
         Logger.info("Refreshing history data...");
-        loadHistoryData();
-        DialogUtil.showSuccess("Actualizado", "Datos actualizados correctamente.");
+        loadHistoryData(() -> DialogUtil.showSuccess("Actualizado", "Datos actualizados correctamente."));
     }
 
     @FXML
@@ -108,9 +108,7 @@ public class DeliveryProfileController implements Initializable {
             : "--");
 
         // Total shipments
-        int totalShipments = currentDeliveryPerson.getAssignedShipments() != null
-            ? currentDeliveryPerson.getAssignedShipments().size()
-            : 0;
+        int totalShipments = currentDeliveryPerson.getAssignedShipmentCount();
         lblTotalShipments.setText(String.valueOf(totalShipments));
 
         // Vehicle information
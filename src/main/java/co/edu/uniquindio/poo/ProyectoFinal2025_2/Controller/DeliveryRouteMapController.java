@@ -27,6 +27,9 @@ import java.util.stream.Collectors;
  */
 public class DeliveryRouteMapController implements Initializable {
 
+    private static final String NEARBY_VIEW = "Envíos Cercanos";
+    private static final double NEARBY_RADIUS_KM = 5.0;
+
     // =================================================================================================================
     // FXML Fields
     // =================================================================================================================
@@ -99,6 +102,7 @@ public class DeliveryRouteMapController implements Initializable {
                 "Vista General",
                 "Solo Recolecciones",
                 "Solo Entregas",
+                NEARBY_VIEW,
                 "Vista Satélite"
         );
 
@@ -269,6 +273,24 @@ public class DeliveryRouteMapController implements Initializable {
         }
     }
 
+    /**
+     * Lists unassigned shipments whose pickup is close to the delivery person's current position.
+     */
+    private void showNearbyShipments() {
+        List<ShipmentDTO> nearby = shipmentService.getNearbyUnassignedShipments(
+                currentDeliveryPerson.getId(), NEARBY_RADIUS_KM);
+
+        List<String> nearbyPoints = nearby.stream()
+                .map(shipment -> String.format("🟢 Envío #%s - %s", shipment.getId(), shipment.getOriginAddressComplete()))
+                .collect(Collectors.toList());
+        listPickupPoints.getItems().setAll(nearbyPoints);
+        listPickupPoints.setPlaceholder(new Label("No hay envíos sin asignar cerca de tu ubicación"));
+
+        lblMapStatus.setText(nearby.isEmpty() ?
+                "Sin envíos cercanos (radio " + (int) NEARBY_RADIUS_KM + " km)" :
+                nearby.size() + " envío(s) sin asignar a menos de " + (int) NEARBY_RADIUS_KM + " km");
+    }
+
     /**
      * Handles map view change from ComboBox.
      */
@@ -276,6 +298,12 @@ public class DeliveryRouteMapController implements Initializable {
         String selectedView = cmbMapView.getSelectionModel().getSelectedItem();
         Logger.info("Map view changed to: " + selectedView);
 
+        if (NEARBY_VIEW.equals(selectedView)) {
+            showNearbyShipments();
+            return;
+        }
+        updateRoutePointsLists();
+
         // In a real app, this would filter the map markers
         // For now, we just update the status label
         lblMapStatus.setText("Vista: " + selectedView);
@@ -12,6 +12,7 @@ import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.OrderRepository;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.ShipmentRepository;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Services.AuthenticationService;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Services.ShipmentService;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilController.BackgroundLoader;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilController.DialogUtil;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilController.TabStateManager;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.Logger;
@@ -31,7 +32,6 @@ import javafx.stage.Modality;
 import javafx.stage.Stage;
 
 import java.net.URL;
-import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Optional;
@@ -100,9 +100,11 @@ public class DeliveryShipmentsController implements Initializable {
     private DeliveryPerson currentDeliveryPerson;
     private ObservableList<ShipmentDTO> shipmentsData;
     private FilteredList<ShipmentDTO> filteredShipments;
+    private final BackgroundLoader<List<ShipmentDTO>> shipmentsLoader = new BackgroundLoader<>("DeliveryShipments");
 
     private static final String VIEW_NAME = "DeliveryShipments";
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final String STATUS_CHANGE_REASON = "Actualizado por el repartidor";
 
     // =================================================================================================================
     // Initialization
@@ -122,7 +124,6 @@ public class DeliveryShipmentsController implements Initializable {
         setupTable();
         setupFilters();
         loadShipments();
-        updateStatistics();
         restoreViewState();
 
         Logger.info("DeliveryShipmentsController initialized successfully");
@@ -314,24 +315,32 @@ public class DeliveryShipmentsController implements Initializable {
     // =================================================================================================================
 
     private void loadShipments() {
-        try {
-            List<ShipmentDTO> allShipments = shipmentService.listAll().stream()
-                    .filter(shipment -> currentDeliveryPerson.getId().equals(shipment.getDeliveryPersonId()))
-                    .collect(Collectors.toList());
+        loadShipments(null);
+    }
 
-            shipmentsData = FXCollections.observableArrayList(allShipments);
+    /**
+     * Loads the delivery person's shipments in the background, then updates the table and statistics.
+     * @param afterLoad Runs on the FX thread after the table was updated (may be null)
+     */
+    private void loadShipments(Runnable afterLoad) {
+        String deliveryPersonId = currentDeliveryPerson.getId();
+        shipmentsLoader.load(() -> shipmentService.getShipmentsByDeliveryPerson(deliveryPersonId), shipments -> {
+            shipmentsData = FXCollections.observableArrayList(shipments);
             filteredShipments = new FilteredList<>(shipmentsData, p -> true);
             shipmentsTable.setItems(filteredShipments);
+            applyFilters();
+            updateStatistics();
 
-            Logger.info("Loaded " + allShipments.size() + " shipments for delivery person");
-
-        } catch (Exception e) {
-            Logger.error("Error loading shipments: " + e.getMessage());
-            DialogUtil.showError("Error", "No se pudieron cargar los envíos.");
-        }
+            Logger.info("Loaded " + shipments.size() + " shipments for delivery person");
+            if (afterLoad != null) {
+                afterLoad.run();
+            }
+        }, error -> DialogUtil.showError("Error", "No se pudieron cargar los envíos."));
     }
 
     private void updateStatistics() {
+        if (shipmentsData == null) return;
+
         int total = shipmentsData != null ? shipmentsData.size() : 0;
         long pending = shipmentsData.stream()
                 .filter(s -> s.getStatus() == ShipmentStatus.PENDING_ASSIGNMENT || s.getStatus() == ShipmentStatus.READY_FOR_PICKUP)
@@ -500,9 +509,7 @@ public class DeliveryShipmentsController implements Initializable {
     @FXML
     private void handleRefresh() {
         Logger.info("Refreshing shipments...");
-        loadShipments();
-        updateStatistics();
-        DialogUtil.showSuccess("Actualizado", "Envíos actualizados correctamente.");
+        loadShipments(() -> DialogUtil.showSuccess("Actualizado", "Envíos actualizados correctamente."));
     }
 
     @FXML
@@ -532,7 +539,6 @@ public class DeliveryShipmentsController implements Initializable {
 
             // Refresh after closing details
             loadShipments();
-            updateStatistics();
 
         } catch (Exception e) {
             Logger.error("Error opening shipment details: " + e.getMessage());
@@ -605,21 +611,15 @@ public class DeliveryShipmentsController implements Initializable {
                 };
 
                 if (newStatus != null) {
-                    // Get full Shipment object and update
-                    Optional<Shipment> shipmentOpt = shipmentRepository.findById(shipmentDTO.getId());
-                    if (shipmentOpt.isPresent()) {
-                        Shipment shipment = shipmentOpt.get();
-                        shipment.setStatus(newStatus);
-                        if (newStatus == ShipmentStatus.DELIVERED) {
-                            shipment.setDeliveredDate(LocalDateTime.now());
-                        }
-                        shipmentRepository.update(shipment);
-
-                        loadShipments();
-                        updateStatistics();
-                        DialogUtil.showSuccess("Éxito", "Estado del envío actualizado correctamente.");
-                    }
+                    // Locked read-modify-write with transition checks, history and observers
+                    shipmentService.changeStatus(shipmentDTO.getId(), newStatus, STATUS_CHANGE_REASON,
+                        currentDeliveryPerson.getId());
+
+                    loadShipments();
+                    DialogUtil.showSuccess("Éxito", "Estado del envío actualizado correctamente.");
                 }
+            } catch (IllegalArgumentException e) {
+                DialogUtil.showError("Error", e.getMessage());
             } catch (Exception e) {
                 Logger.error("Error updating shipment status: " + e.getMessage());
                 DialogUtil.showError("Error", "No se pudo actualizar el estado del envío.");
@@ -637,22 +637,16 @@ public class DeliveryShipmentsController implements Initializable {
             );
 
             if (confirmed) {
-                // Get full Shipment object and update
-                Optional<Shipment> shipmentOpt = shipmentRepository.findById(shipmentDTO.getId());
-                if (shipmentOpt.isPresent()) {
-                    Shipment shipment = shipmentOpt.get();
-                    shipment.setStatus(newStatus);
-                    if (newStatus == ShipmentStatus.DELIVERED) {
-                        shipment.setDeliveredDate(LocalDateTime.now());
-                    }
-                    shipmentRepository.update(shipment);
+                // Locked read-modify-write with transition checks, history and observers
+                shipmentService.changeStatus(shipmentDTO.getId(), newStatus, STATUS_CHANGE_REASON,
+                    currentDeliveryPerson.getId());
 
-                    loadShipments();
-                    updateStatistics();
-                    DialogUtil.showSuccess("Éxito", "Estado actualizado a: " + getStatusSpanish(newStatus));
-                    Logger.info("Updated shipment " + shipmentDTO.getId() + " to status: " + newStatus);
-                }
+                loadShipments();
+                DialogUtil.showSuccess("Éxito", "Estado actualizado a: " + getStatusSpanish(newStatus));
+                Logger.info("Updated shipment " + shipmentDTO.getId() + " to status: " + newStatus);
             }
+        } catch (IllegalArgumentException e) {
+            DialogUtil.showError("Error", e.getMessage());
         } catch (Exception e) {
             Logger.error("Error updating shipment status: " + e.getMessage());
             DialogUtil.showError("Error", "No se pudo actualizar el estado del envío.");
@@ -755,7 +749,6 @@ public class DeliveryShipmentsController implements Initializable {
 
             // Refresh after incident report
             loadShipments();
-            updateStatistics();
 
         } catch (Exception e) {
             Logger.error("Error opening incident report dialog: " + e.getMessage());
@@ -230,7 +230,7 @@ public class ManageDeliveryPersonsController {
         colAvailability.setCellValueFactory(data -> new SimpleStringProperty(getAvailabilityLabel(data.getValue().getAvailability())));
         colCoverageArea.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getCoverageArea() != null ? getCoverageAreaSpanish(data.getValue().getCoverageArea()) : "--"));
         colVehicle.setCellValueFactory(data -> new SimpleStringProperty(getVehicleLabel(data.getValue().getAssignedVehicle())));
-        colShipments.setCellValueFactory(data -> new SimpleIntegerProperty(data.getValue().getAssignedShipments() != null ? data.getValue().getAssignedShipments().size() : 0).asObject());
+        colShipments.setCellValueFactory(data -> new SimpleIntegerProperty(data.getValue().getAssignedShipmentCount()).asObject());
 
         // Apply badge style to availability column
         colAvailability.setCellFactory(column -> new TableCell<DeliveryPerson, String>() {
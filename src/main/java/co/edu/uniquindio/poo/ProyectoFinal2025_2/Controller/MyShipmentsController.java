@@ -6,6 +6,7 @@ import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Shipment;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.User;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.OrderDetailDTO;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.OrderShipmentViewDTO;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.PageDTO;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.ShipmentDTO;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.InvoiceRepository;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.OrderRepository;
@@ -13,8 +14,10 @@ import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.ShipmentRepository
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Services.AuthenticationService;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Services.OrderService;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Services.ShipmentService;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Services.UserTimelineService;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.Adapter.OrderShipmentConverterUtil;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilController.DialogUtil;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilController.PagedTableLoader;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilController.TabStateManager;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.Logger;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.PdfUtility;
@@ -39,7 +42,6 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.ResourceBundle;
-import java.util.stream.Collectors;
 
 /**
  * Controller for user's orders and shipments view.
@@ -79,13 +81,14 @@ public class MyShipmentsController implements Initializable {
     // Services
     private final ShipmentService shipmentService = new ShipmentService();
     private final OrderService orderService = new OrderService();
+    private final UserTimelineService timelineService = new UserTimelineService();
     private final OrderRepository orderRepository = OrderRepository.getInstance();
     private final InvoiceRepository invoiceRepository = InvoiceRepository.getInstance();
     private final AuthenticationService authService = AuthenticationService.getInstance();
 
-    // Data
-    private ObservableList<OrderShipmentViewDTO> allData;
+    // Data: the table holds the pages of the merged timeline scrolled so far
     private String currentUserId;
+    private PagedTableLoader<OrderShipmentViewDTO> timelinePages;
 
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
@@ -100,7 +103,6 @@ public class MyShipmentsController implements Initializable {
         setupContextMenu();
         setupFilters();
         loadAllData();
-        updateCounters();
         restoreViewState();
 
         Logger.info("MyShipmentsController initialized for user: " + currentUserId);
@@ -131,6 +133,10 @@ public class MyShipmentsController implements Initializable {
      * Sets up table columns with cell value factories.
      */
     private void setupTable() {
+        // The timeline is paged newest first; sorting only the loaded rows would be misleading
+        shipmentsTable.getColumns().forEach(column -> column.setSortable(false));
+        timelinePages = new PagedTableLoader<>(VIEW_NAME, shipmentsTable);
+
         colType.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getTypeDisplay()));
         colId.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getId()));
         colRoute.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getRoute()));
@@ -348,59 +354,40 @@ public class MyShipmentsController implements Initializable {
     }
 
     /**
-     * Loads all orders and shipments for the current user.
+     * Loads the current user's orders and shipments in the background, newest first, one page at a time.
+     * The table and counters are updated together once the first page is ready.
      */
     private void loadAllData() {
-        if (currentUserId == null) return;
-
-        List<OrderShipmentViewDTO> combined = new ArrayList<>();
-
-        // Load orders
-        List<Order> orders = orderService.getOrdersByUser(currentUserId);
-        combined.addAll(orders.stream()
-                .map(OrderShipmentConverterUtil::fromOrder)
-                .collect(Collectors.toList()));
-
-        // Load shipments
-        List<ShipmentDTO> shipments = shipmentService.getShipmentsByUser(currentUserId);
-        combined.addAll(shipments.stream()
-                .map(OrderShipmentConverterUtil::fromShipment)
-                .collect(Collectors.toList()));
-
-        // Sort by creation date (newest first)
-        combined.sort((a, b) -> {
-            if (a.getCreatedDate() == null) return 1;
-            if (b.getCreatedDate() == null) return -1;
-            return b.getCreatedDate().compareTo(a.getCreatedDate());
-        });
+        loadAllData(null);
+    }
 
-        allData = FXCollections.observableArrayList(combined);
-        shipmentsTable.setItems(allData);
+    /**
+     * Loads the current user's orders and shipments in the background, applying the current filters.
+     * @param afterLoad Runs on the FX thread after the first page was shown (may be null)
+     */
+    private void loadAllData(Runnable afterLoad) {
+        if (currentUserId == null) return;
 
-        Logger.info("Loaded " + orders.size() + " orders and " + shipments.size() + " shipments for user " + currentUserId);
+        UserTimelineService.Timeline timeline = timelineService.openTimeline(currentUserId, filterType.getValue(), searchField.getText());
+        timelinePages.reset(timeline::fetch, page -> {
+            updateCounters(page);
+            if (afterLoad != null) {
+                afterLoad.run();
+            }
+        }, error -> DialogUtil.showError("Error", "No se pudieron cargar sus envíos"));
     }
 
     /**
-     * Updates counter labels.
+     * Updates counter labels from the match counts of the current query.
      */
-    private void updateCounters() {
-        if (allData == null) return;
-
-        long total = allData.size();
-        long orders = allData.stream()
-            .filter(dto -> dto.getItemType() == OrderShipmentViewDTO.ItemType.ORDER)
-            .count();
-        long shipments = allData.stream()
-            .filter(dto -> dto.getItemType() == OrderShipmentViewDTO.ItemType.SHIPMENT)
-            .count();
-        long pending = allData.stream()
-            .filter(dto -> dto.getStatusDisplay().contains("Esperando") || dto.getStatusDisplay().contains("Pendiente"))
-            .count();
-
-        lblTotal.setText(String.valueOf(total));
+    private void updateCounters(PageDTO<OrderShipmentViewDTO> page) {
+        long orders = page.getFacetCount(UserTimelineService.FACET_ORDERS);
+        long shipments = page.getFacetCount(UserTimelineService.FACET_SHIPMENTS);
+
+        lblTotal.setText(String.valueOf(orders + shipments));
         lblOrders.setText(String.valueOf(orders));
         lblShipments.setText(String.valueOf(shipments));
-        lblPending.setText(String.valueOf(pending));
+        lblPending.setText(String.valueOf(page.getFacetCount(UserTimelineService.FACET_PENDING)));
     }
 
     /**
@@ -445,42 +432,22 @@ public class MyShipmentsController implements Initializable {
 
     @FXML
     private void handleRefresh() {
-        loadAllData();
-        updateCounters();
-        DialogUtil.showInfo("Actualizado", "La lista ha sido actualizada");
+        loadAllData(() -> DialogUtil.showInfo("Actualizado", "La lista ha sido actualizada"));
     }
 
     @FXML
     private void handleFilter() {
-        if (currentUserId == null || allData == null) return;
-
-        List<OrderShipmentViewDTO> filtered = new ArrayList<>(allData);
-
-        // Filter by type
-        if (filterType.getValue() != null) {
-            filtered = filtered.stream()
-                    .filter(dto -> dto.getItemType() == filterType.getValue())
-                    .collect(Collectors.toList());
-        }
-
-        // Filter by search text
-        String searchText = searchField.getText();
-        if (searchText != null && !searchText.trim().isEmpty()) {
-            String search = searchText.trim().toLowerCase();
-            filtered = filtered.stream()
-                    .filter(dto -> dto.getId().toLowerCase().contains(search) ||
-                                 dto.getRoute().toLowerCase().contains(search))
-                    .collect(Collectors.toList());
-        }
+        if (currentUserId == null) return;
 
-        shipmentsTable.setItems(FXCollections.observableArrayList(filtered));
+        // Type and search text are applied by the queries, so only matching rows are fetched
+        loadAllData();
     }
 
     @FXML
     private void handleClearFilter() {
         filterType.setValue(null);
         searchField.clear();
-        shipmentsTable.setItems(allData);
+        loadAllData();
     }
 
     @FXML
@@ -568,7 +535,6 @@ public class MyShipmentsController implements Initializable {
             if (success) {
                 DialogUtil.showSuccess("Cancelado", "El elemento ha sido cancelado correctamente");
                 loadAllData();
-                updateCounters();
             }
         } catch (Exception e) {
             Logger.error("Failed to cancel: " + e.getMessage());
@@ -729,7 +695,6 @@ public class MyShipmentsController implements Initializable {
             if (success) {
                 DialogUtil.showSuccess("El elemento ha sido cancelado correctamente");
                 loadAllData();
-                updateCounters();
             } else {
                 DialogUtil.showError("Error", "No se pudo cancelar el elemento");
             }
@@ -769,7 +734,6 @@ public class MyShipmentsController implements Initializable {
             if (success) {
                 DialogUtil.showSuccess("El elemento ha sido eliminado correctamente");
                 loadAllData();
-                updateCounters();
             } else {
                 DialogUtil.showError("Error", "No se pudo eliminar el elemento");
             }
@@ -853,7 +817,6 @@ public class MyShipmentsController implements Initializable {
 
             // Refresh after payment
             loadAllData();
-            updateCounters();
 
         } catch (Exception e) {
             Logger.error("Error opening payment selection: " + e.getMessage());
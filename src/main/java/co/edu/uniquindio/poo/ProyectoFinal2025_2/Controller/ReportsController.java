@@ -1,14 +1,21 @@
 package co.edu.uniquindio.poo.ProyectoFinal2025_2.Controller;
 
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.ReportFormat;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.ReportType;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.PeriodReportDTO;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Services.ReportJobScheduler;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Services.ReportJobScheduler.ReportJob;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Services.ReportService;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilController.DialogUtil;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.Logger;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.chart.*;
 import javafx.scene.control.*;
+import javafx.scene.layout.HBox;
 
 import java.awt.Desktop;
 import java.io.File;
@@ -17,12 +24,17 @@ import java.net.URL;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Controller for the Reports view.
  * Handles report generation, visualization, and analytics display.
+ * Reports are generated in the background by {@link ReportJobScheduler}; the header shows their progress.
  */
 public class ReportsController implements Initializable {
 
@@ -37,6 +49,14 @@ public class ReportsController implements Initializable {
     @FXML private Label lblActiveUsers;
     @FXML private Label lblAvgDeliveryTime;
 
+    // =================================================================================================================
+    // FXML Fields - Report Jobs
+    // =================================================================================================================
+
+    @FXML private HBox paneReportProgress;
+    @FXML private ProgressBar progressReport;
+    @FXML private Label lblReportProgress;
+
     // =================================================================================================================
     // FXML Fields - Date Pickers
     // =================================================================================================================
@@ -69,6 +89,8 @@ public class ReportsController implements Initializable {
     // =================================================================================================================
 
     private final ReportService reportService = ReportService.getInstance();
+    private final ReportJobScheduler reportJobScheduler = ReportJobScheduler.getInstance();
+    private List<ReportJob> trackedJobs = List.of();
     private static final DateTimeFormatter DATETIME_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
 
     // =================================================================================================================
@@ -115,21 +137,14 @@ public class ReportsController implements Initializable {
     private void handleRefresh() {
         Logger.info("Refreshing reports data");
 
+        if (!hasValidDateRange()) return;
+
         LocalDate from = dateFrom.getValue();
         LocalDate to = dateTo.getValue();
 
-        if (from == null || to == null) {
-            DialogUtil.showWarning("Seleccione un rango de fechas", "Por favor seleccione fecha de inicio y fin.");
-            return;
-        }
-
-        if (from.isAfter(to)) {
-            DialogUtil.showWarning("Rango de fechas inválido", "La fecha de inicio debe ser anterior a la fecha de fin.");
-            return;
-        }
-
-        loadStatistics(from, to);
-        loadCharts(from, to);
+        PeriodReportDTO report = reportService.computePeriodReport(from, to);
+        loadStatistics(report);
+        loadCharts(report);
 
         lblLastGenerated.setText("Última generación: " + LocalDateTime.now().format(DATETIME_FORMATTER));
     }
@@ -161,18 +176,12 @@ public class ReportsController implements Initializable {
 
     @FXML
     private void handleGeneralReportPDF() {
-        generateAndOpenReport(() ->
-            reportService.generateGeneralReportPDF(dateFrom.getValue(), dateTo.getValue()),
-            "Reporte General PDF"
-        );
+        submitReport(ReportType.GENERAL, ReportFormat.PDF);
     }
 
     @FXML
     private void handleGeneralReportCSV() {
-        generateAndOpenReport(() ->
-            reportService.generateGeneralReportCSV(dateFrom.getValue(), dateTo.getValue()),
-            "Reporte General CSV"
-        );
+        submitReport(ReportType.GENERAL, ReportFormat.CSV);
     }
 
     // =================================================================================================================
@@ -181,18 +190,12 @@ public class ReportsController implements Initializable {
 
     @FXML
     private void handleFinancialReportPDF() {
-        generateAndOpenReport(() ->
-            reportService.generateFinancialReportPDF(dateFrom.getValue(), dateTo.getValue()),
-            "Reporte Financiero PDF"
-        );
+        submitReport(ReportType.FINANCIAL, ReportFormat.PDF);
     }
 
     @FXML
     private void handleFinancialReportCSV() {
-        generateAndOpenReport(() ->
-            reportService.generateFinancialReportCSV(dateFrom.getValue(), dateTo.getValue()),
-            "Reporte Financiero CSV"
-        );
+        submitReport(ReportType.FINANCIAL, ReportFormat.CSV);
     }
 
     // =================================================================================================================
@@ -201,18 +204,12 @@ public class ReportsController implements Initializable {
 
     @FXML
     private void handleShipmentsReportPDF() {
-        generateAndOpenReport(() ->
-            reportService.generateShipmentsReportPDF(dateFrom.getValue(), dateTo.getValue()),
-            "Reporte de Envíos PDF"
-        );
+        submitReport(ReportType.SHIPMENTS, ReportFormat.PDF);
     }
 
     @FXML
     private void handleShipmentsReportCSV() {
-        generateAndOpenReport(() ->
-            reportService.generateShipmentsReportCSV(dateFrom.getValue(), dateTo.getValue()),
-            "Reporte de Envíos CSV"
-        );
+        submitReport(ReportType.SHIPMENTS, ReportFormat.CSV);
     }
 
     // =================================================================================================================
@@ -221,18 +218,12 @@ public class ReportsController implements Initializable {
 
     @FXML
     private void handleUsersReportPDF() {
-        generateAndOpenReport(() ->
-            reportService.generateUsersReportPDF(dateFrom.getValue(), dateTo.getValue()),
-            "Reporte de Usuarios PDF"
-        );
+        submitReport(ReportType.USERS, ReportFormat.PDF);
     }
 
     @FXML
     private void handleUsersReportCSV() {
-        generateAndOpenReport(() ->
-            reportService.generateUsersReportCSV(dateFrom.getValue(), dateTo.getValue()),
-            "Reporte de Usuarios CSV"
-        );
+        submitReport(ReportType.USERS, ReportFormat.CSV);
     }
 
     // =================================================================================================================
@@ -241,18 +232,12 @@ public class ReportsController implements Initializable {
 
     @FXML
     private void handleDeliveryPersonnelReportPDF() {
-        generateAndOpenReport(() ->
-            reportService.generateDeliveryPersonnelReportPDF(dateFrom.getValue(), dateTo.getValue()),
-            "Reporte de Repartidores PDF"
-        );
+        submitReport(ReportType.DELIVERY_PERSONNEL, ReportFormat.PDF);
     }
 
     @FXML
     private void handleDeliveryPersonnelReportCSV() {
-        generateAndOpenReport(() ->
-            reportService.generateDeliveryPersonnelReportCSV(dateFrom.getValue(), dateTo.getValue()),
-            "Reporte de Repartidores CSV"
-        );
+        submitReport(ReportType.DELIVERY_PERSONNEL, ReportFormat.CSV);
     }
 
     // =================================================================================================================
@@ -297,36 +282,47 @@ public class ReportsController implements Initializable {
             "Esto puede tardar unos momentos."
         );
 
-        if (!confirm) return;
+        if (!confirm || !hasValidDateRange()) return;
 
-        try {
-            LocalDate from = dateFrom.getValue();
-            LocalDate to = dateTo.getValue();
-
-            // Generate all reports
-            reportService.generateGeneralReportPDF(from, to);
-            reportService.generateGeneralReportCSV(from, to);
-            reportService.generateFinancialReportPDF(from, to);
-            reportService.generateFinancialReportCSV(from, to);
-            reportService.generateShipmentsReportPDF(from, to);
-            reportService.generateShipmentsReportCSV(from, to);
-            reportService.generateUsersReportPDF(from, to);
-            reportService.generateUsersReportCSV(from, to);
-            reportService.generateDeliveryPersonnelReportPDF(from, to);
-            reportService.generateDeliveryPersonnelReportCSV(from, to);
-
-            DialogUtil.showSuccess("Todos los reportes han sido generados exitosamente en la carpeta 'reportes'.");
-
-            // Open reports folder
-            File reportsFolder = new File("reportes");
-            if (reportsFolder.exists() && Desktop.isDesktopSupported()) {
-                Desktop.getDesktop().open(reportsFolder);
-            }
+        LocalDate from = dateFrom.getValue();
+        LocalDate to = dateTo.getValue();
 
-        } catch (Exception e) {
-            Logger.error("Error exporting all reports: " + e.getMessage());
-            DialogUtil.showError("Error al generar los reportes", e.getMessage());
+        // Queue all reports; the scheduler computes the period metrics once for the ones that share them
+        List<ReportJob> jobs = new ArrayList<>();
+        for (ReportType type : ReportType.values()) {
+            for (ReportFormat format : ReportFormat.values()) {
+                jobs.add(reportJobScheduler.submit(type, format, from, to));
+            }
         }
+        trackJobs(jobs);
+
+        CompletableFuture.allOf(jobs.stream().map(ReportJob::getResult).toArray(CompletableFuture[]::new))
+                .whenComplete((ignored, error) -> Platform.runLater(() -> {
+                    if (error != null) {
+                        if (jobs.stream().anyMatch(job -> job.getState() == ReportJob.State.FAILED)) {
+                            Logger.error("Error exporting all reports: " + error.getMessage());
+                            DialogUtil.showError("Error al generar los reportes", rootMessage(error));
+                        }
+                        return;
+                    }
+
+                    DialogUtil.showSuccess("Todos los reportes han sido generados exitosamente en la carpeta 'reportes'.");
+
+                    // Open reports folder
+                    try {
+                        File reportsFolder = new File("reportes");
+                        if (reportsFolder.exists() && Desktop.isDesktopSupported()) {
+                            Desktop.getDesktop().open(reportsFolder);
+                        }
+                    } catch (IOException e) {
+                        Logger.error("Error opening reports folder: " + e.getMessage());
+                    }
+                }));
+    }
+
+    @FXML
+    private void handleCancelReport() {
+        trackedJobs.forEach(ReportJob::cancel);
     }
 
     // =================================================================================================================
@@ -334,16 +330,16 @@ public class ReportsController implements Initializable {
     // =================================================================================================================
 
     /**
-     * Loads and displays statistics for the given date range.
+     * Displays the statistics of a computed report.
      */
-    private void loadStatistics(LocalDate from, LocalDate to) {
+    private void loadStatistics(PeriodReportDTO report) {
         try {
             // Load statistics
-            double revenue = reportService.calculateTotalRevenue(from, to);
-            long shipments = reportService.countTotalShipments(from, to);
-            double successRate = reportService.calculateSuccessRate(from, to);
-            long activeUsers = reportService.countActiveUsers(from, to);
-            double avgTime = reportService.calculateAverageDeliveryTime(from, to);
+            double revenue = report.getTotalRevenue();
+            long shipments = report.getTotalShipments();
+            double successRate = report.getSuccessRate();
+            long activeUsers = report.getActiveUsers();
+            double avgTime = report.getAverageDeliveryTimeHours();
 
             // Update labels
             lblTotalRevenue.setText(String.format("$%,.2f", revenue));
@@ -360,11 +356,11 @@ public class ReportsController implements Initializable {
     /**
      * Loads and displays all charts.
      */
-    private void loadCharts(LocalDate from, LocalDate to) {
+    private void loadCharts(PeriodReportDTO report) {
         loadRevenueTrendChart();
-        loadShipmentsByStatusChart(from, to);
-        loadTopDeliveryPersonnelChart(from, to);
-        loadShipmentsByAreaChart(from, to);
+        loadShipmentsByStatusChart(report);
+        loadTopDeliveryPersonnelChart(report);
+        loadShipmentsByAreaChart(report);
     }
 
     /**
@@ -393,11 +389,11 @@ public class ReportsController implements Initializable {
     /**
      * Loads shipments by status pie chart.
      */
-    private void loadShipmentsByStatusChart(LocalDate from, LocalDate to) {
+    private void loadShipmentsByStatusChart(PeriodReportDTO report) {
         try {
             chartShipmentsByStatus.getData().clear();
 
-            Map<String, Long> byStatus = reportService.getShipmentsByStatus(from, to);
+            Map<String, Long> byStatus = reportService.getShipmentsByStatus(report);
 
             // Define colors for each status
             Map<String, String> statusColors = new java.util.HashMap<>();
@@ -430,11 +426,11 @@ public class ReportsController implements Initializable {
     /**
      * Loads top delivery personnel bar chart.
      */
-    private void loadTopDeliveryPersonnelChart(LocalDate from, LocalDate to) {
+    private void loadTopDeliveryPersonnelChart(PeriodReportDTO report) {
         try {
             chartTopDeliveryPersonnel.getData().clear();
 
-            Map<String, Long> topDelivery = reportService.getTopDeliveryPersonnel(from, to, 10);
+            Map<String, Long> topDelivery = reportService.getTopDeliveryPersonnel(report, 10);
 
             XYChart.Series<String, Number> series = new XYChart.Series<>();
             series.setName("Entregas Completadas");
@@ -453,11 +449,11 @@ public class ReportsController implements Initializable {
     /**
      * Loads shipments by coverage area bar chart.
      */
-    private void loadShipmentsByAreaChart(LocalDate from, LocalDate to) {
+    private void loadShipmentsByAreaChart(PeriodReportDTO report) {
         try {
             chartShipmentsByArea.getData().clear();
 
-            Map<String, Long> byArea = reportService.getShipmentsByCoverageArea(from, to);
+            Map<String, Long> byArea = reportService.getShipmentsByCoverageArea(report);
 
             XYChart.Series<String, Number> series = new XYChart.Series<>();
             series.setName("Envíos por Zona");
@@ -492,19 +488,34 @@ public class ReportsController implements Initializable {
     // =================================================================================================================
 
     /**
-     * Generic method to generate and open a report.
+     * Queues a report for the selected period and opens it when it is ready.
      */
-    private void generateAndOpenReport(ReportGenerator generator, String reportName) {
-        try {
-            Logger.info("Generating " + reportName);
-
-            File report = generator.generate();
-
-            if (report == null || !report.exists()) {
-                DialogUtil.showError("Error al generar el reporte", "No se pudo crear el archivo del reporte.");
-                return;
+    private void submitReport(ReportType type, ReportFormat format) {
+        if (!hasValidDateRange()) return;
+
+        String reportName = type.getDisplayName() + " " + format.getDisplayName();
+        Logger.info("Generating " + reportName);
+
+        ReportJob job = reportJobScheduler.submit(type, format, dateFrom.getValue(), dateTo.getValue());
+        trackJobs(List.of(job));
+
+        job.getResult().whenComplete((report, error) -> Platform.runLater(() -> {
+            if (job.getState() == ReportJob.State.CANCELLED) {
+                Logger.info(reportName + " cancelled");
+            } else if (error != null) {
+                Logger.error("Error generating report: " + rootMessage(error));
+                DialogUtil.showError("Error al generar el reporte", rootMessage(error));
+            } else {
+                openReport(report);
             }
+        }));
+    }
 
+    /**
+     * Asks whether to open a generated report and opens it.
+     */
+    private void openReport(File report) {
+        try {
             // Show success message
             boolean open = DialogUtil.showConfirmation(
                 "Reporte Generado",
@@ -519,18 +530,57 @@ public class ReportsController implements Initializable {
         } catch (IOException e) {
             Logger.error("Error opening report: " + e.getMessage());
             DialogUtil.showError("Error al abrir el reporte", e.getMessage());
-        } catch (Exception e) {
-            Logger.error("Error generating report: " + e.getMessage());
-            DialogUtil.showError("Error al generar el reporte", e.getMessage());
         }
     }
 
     /**
-     * Functional interface for report generation.
+     * Shows the progress of the given jobs in the header until they finish; replaces the jobs shown before.
      */
-    @FunctionalInterface
-    private interface ReportGenerator {
-        File generate();
+    private void trackJobs(List<ReportJob> jobs) {
+        trackedJobs = jobs;
+        jobs.forEach(job -> job.addListener(updated -> Platform.runLater(() -> showJobProgress(jobs))));
+    }
+
+    private void showJobProgress(List<ReportJob> jobs) {
+        if (jobs != trackedJobs) return;
+
+        long finished = jobs.stream().filter(ReportJob::isDone).count();
+        boolean running = finished < jobs.size();
+
+        paneReportProgress.setVisible(running);
+        paneReportProgress.setManaged(running);
+        progressReport.setProgress(jobs.stream().mapToDouble(ReportJob::getProgress).average().orElse(0));
+        lblReportProgress.setText(jobs.size() == 1
+                ? jobs.get(0).getType().getDisplayName() + ": " + jobs.get(0).getMessage()
+                : "Reportes listos: " + finished + " de " + jobs.size());
+
+        if (!running && jobs.stream().allMatch(job -> job.getState() == ReportJob.State.DONE)) {
+            lblLastGenerated.setText("Última generación: " + LocalDateTime.now().format(DATETIME_FORMATTER));
+        }
+    }
+
+    /**
+     * Checks the selected period, warning the user if it is missing or reversed.
+     */
+    private boolean hasValidDateRange() {
+        LocalDate from = dateFrom.getValue();
+        LocalDate to = dateTo.getValue();
+
+        if (from == null || to == null) {
+            DialogUtil.showWarning("Seleccione un rango de fechas", "Por favor seleccione fecha de inicio y fin.");
+            return false;
+        }
+
+        if (from.isAfter(to)) {
+            DialogUtil.showWarning("Rango de fechas inválido", "La fecha de inicio debe ser anterior a la fecha de fin.");
+            return false;
+        }
+        return true;
+    }
+
+    private static String rootMessage(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause.getMessage() != null ? cause.getMessage() : cause.toString();
     }
 
     // =================================================================================================================
@@ -4,12 +4,16 @@ import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.DeliveryPerson;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.AvailabilityStatus;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.CoverageArea;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.IncidentType;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.ShipmentSortKey;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.ShipmentStatus;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Order;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Shipment;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.User;
-import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.ShipmentDTO;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.PageDTO;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.PageRequestDTO;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.SearchExplainDTO;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.ShipmentFilterDTO;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.ShipmentSummaryDTO;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.DeliveryPersonRepository;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.OrderRepository;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.ShipmentRepository;
@@ -18,6 +22,7 @@ import co.edu.uniquindio.poo.ProyectoFinal2025_2.Services.AuthenticationService;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Services.ReportService;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Services.ShipmentService;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilController.DialogUtil;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilController.PagedTableLoader;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilController.TabStateManager;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.Logger;
 import javafx.application.Platform;
@@ -40,7 +45,7 @@ import java.io.IOException;
 import java.net.URL;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 import java.util.Optional;
 import java.util.ResourceBundle;
 import java.util.stream.Collectors;
@@ -58,18 +63,18 @@ public class ShipmentManagementController implements Initializable {
     @FXML private Button btnBack;
 
     // Table and Columns
-    @FXML private TableView<ShipmentDTO> shipmentsTable;
-    @FXML private TableColumn<ShipmentDTO, String> colId;
-    @FXML private TableColumn<ShipmentDTO, String> colOrderId;
-    @FXML private TableColumn<ShipmentDTO, String> colUser;
-    @FXML private TableColumn<ShipmentDTO, String> colRoute;
-    @FXML private TableColumn<ShipmentDTO, Double> colWeight;
-    @FXML private TableColumn<ShipmentDTO, String> colStatus;
-    @FXML private TableColumn<ShipmentDTO, String> colDeliveryPerson;
-    @FXML private TableColumn<ShipmentDTO, String> colCreationDate;
-    @FXML private TableColumn<ShipmentDTO, String> colEstimatedDate;
-    @FXML private TableColumn<ShipmentDTO, Double> colCost;
-    @FXML private TableColumn<ShipmentDTO, Integer> colPriority;
+    @FXML private TableView<ShipmentSummaryDTO> shipmentsTable;
+    @FXML private TableColumn<ShipmentSummaryDTO, String> colId;
+    @FXML private TableColumn<ShipmentSummaryDTO, String> colOrderId;
+    @FXML private TableColumn<ShipmentSummaryDTO, String> colUser;
+    @FXML private TableColumn<ShipmentSummaryDTO, String> colRoute;
+    @FXML private TableColumn<ShipmentSummaryDTO, Double> colWeight;
+    @FXML private TableColumn<ShipmentSummaryDTO, String> colStatus;
+    @FXML private TableColumn<ShipmentSummaryDTO, String> colDeliveryPerson;
+    @FXML private TableColumn<ShipmentSummaryDTO, String> colCreationDate;
+    @FXML private TableColumn<ShipmentSummaryDTO, String> colEstimatedDate;
+    @FXML private TableColumn<ShipmentSummaryDTO, Double> colCost;
+    @FXML private TableColumn<ShipmentSummaryDTO, Integer> colPriority;
 
     // Filters
     @FXML private ComboBox<ShipmentStatus> filterStatus;
@@ -109,8 +114,13 @@ public class ShipmentManagementController implements Initializable {
     private final AuthenticationService authService = AuthenticationService.getInstance();
     private final ReportService reportService = ReportService.getInstance();
 
-    // Data
-    private ObservableList<ShipmentDTO> shipmentsData;
+    // Data: the table holds the pages scrolled so far of the current query
+    private PagedTableLoader<ShipmentSummaryDTO> shipmentPages;
+    private ShipmentFilterDTO currentFilter = activeShipmentsFilter();
+    private String currentReferenceText;
+    private Map<TableColumn<ShipmentSummaryDTO, ?>, ShipmentSortKey> sortKeysByColumn;
+    private ShipmentSortKey currentSortKey = ShipmentSortKey.CREATED_AT;
+    private boolean currentAscending;
 
     // Navigation context
     private String sourceView = null; // The view that navigated to this view (e.g., "ManageUsers.fxml")
@@ -124,7 +134,6 @@ public class ShipmentManagementController implements Initializable {
         setupContextMenu();
         setupFilters();
         loadAllShipments();
-        updateCounters();
         restoreViewState();
 
         Logger.info("ShipmentManagementController initialized");
@@ -181,7 +190,7 @@ public class ShipmentManagementController implements Initializable {
             new SimpleIntegerProperty(data.getValue().getPriority()).asObject());
 
         // Format currency
-        colCost.setCellFactory(column -> new TableCell<ShipmentDTO, Double>() {
+        colCost.setCellFactory(column -> new TableCell<ShipmentSummaryDTO, Double>() {
             @Override
             protected void updateItem(Double item, boolean empty) {
                 super.updateItem(item, empty);
@@ -194,7 +203,7 @@ public class ShipmentManagementController implements Initializable {
         });
 
         // Color status column with badge style
-        colStatus.setCellFactory(column -> new TableCell<ShipmentDTO, String>() {
+        colStatus.setCellFactory(column -> new TableCell<ShipmentSummaryDTO, String>() {
             @Override
             protected void updateItem(String item, boolean empty) {
                 super.updateItem(item, empty);
@@ -205,7 +214,7 @@ public class ShipmentManagementController implements Initializable {
                     return;
                 }
 
-                ShipmentDTO shipment = getTableView().getItems().get(getIndex());
+                ShipmentSummaryDTO shipment = getTableView().getItems().get(getIndex());
                 if (shipment == null) return;
 
                 // Create styled label for status badge
@@ -226,6 +235,39 @@ public class ShipmentManagementController implements Initializable {
 
         // Enable multiple selection
         shipmentsTable.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+
+        // Rows are fetched page by page, so sorting is done by the query instead of the table
+        shipmentPages = new PagedTableLoader<>(VIEW_NAME, shipmentsTable);
+        sortKeysByColumn = Map.of(
+            colCreationDate, ShipmentSortKey.CREATED_AT,
+            colEstimatedDate, ShipmentSortKey.ESTIMATED_DATE,
+            colPriority, ShipmentSortKey.PRIORITY,
+            colCost, ShipmentSortKey.TOTAL_COST,
+            colStatus, ShipmentSortKey.STATUS
+        );
+        shipmentsTable.getColumns().forEach(column -> column.setSortable(sortKeysByColumn.containsKey(column)));
+        shipmentsTable.setSortPolicy(table -> {
+            applyColumnSort();
+            return true;
+        });
+    }
+
+    /**
+     * Reloads the table when the user sorts by a different column or direction.
+     */
+    private void applyColumnSort() {
+        ShipmentSortKey sortKey = ShipmentSortKey.CREATED_AT;
+        boolean ascending = false;
+        if (!shipmentsTable.getSortOrder().isEmpty()) {
+            TableColumn<ShipmentSummaryDTO, ?> column = shipmentsTable.getSortOrder().get(0);
+            sortKey = sortKeysByColumn.getOrDefault(column, ShipmentSortKey.CREATED_AT);
+            ascending = column.getSortType() == TableColumn.SortType.ASCENDING;
+        }
+        if (sortKey != currentSortKey || ascending != currentAscending) {
+            currentSortKey = sortKey;
+            currentAscending = ascending;
+            reloadShipments(null);
+        }
     }
 
     /**
@@ -233,9 +275,9 @@ public class ShipmentManagementController implements Initializable {
      */
     private void setupContextMenu() {
         shipmentsTable.setRowFactory(tv -> {
-            TableRow<ShipmentDTO> row = new TableRow<>() {
+            TableRow<ShipmentSummaryDTO> row = new TableRow<>() {
                 @Override
-                protected void updateItem(ShipmentDTO item, boolean empty) {
+                protected void updateItem(ShipmentSummaryDTO item, boolean empty) {
                     super.updateItem(item, empty);
                 }
             };
@@ -245,7 +287,7 @@ public class ShipmentManagementController implements Initializable {
             // Ver Detalles
             MenuItem viewDetailsItem = new MenuItem("Ver Detalles");
             viewDetailsItem.setOnAction(event -> {
-                ShipmentDTO selected = row.getItem();
+                ShipmentSummaryDTO selected = row.getItem();
                 if (selected != null) {
                     openShipmentDetails(selected.getId());
                 }
@@ -254,7 +296,7 @@ public class ShipmentManagementController implements Initializable {
             // Ver Orden Asociada
             MenuItem viewOrderItem = new MenuItem("Ver Orden Asociada");
             viewOrderItem.setOnAction(event -> {
-                ShipmentDTO selected = row.getItem();
+                ShipmentSummaryDTO selected = row.getItem();
                 if (selected != null) {
                     viewAssociatedOrder(selected);
                 }
@@ -263,7 +305,7 @@ public class ShipmentManagementController implements Initializable {
             // Asignar Repartidor - only show if status is PENDING_ASSIGNMENT
             MenuItem assignDeliveryItem = new MenuItem("Asignar Repartidor");
             assignDeliveryItem.setOnAction(event -> {
-                ShipmentDTO selected = row.getItem();
+                ShipmentSummaryDTO selected = row.getItem();
                 if (selected != null) {
                     showAssignDeliveryPersonDialog(selected);
                 }
@@ -272,7 +314,7 @@ public class ShipmentManagementController implements Initializable {
             // Only show assign button if shipment status is PENDING_ASSIGNMENT
             assignDeliveryItem.visibleProperty().bind(
                 javafx.beans.binding.Bindings.createBooleanBinding(() -> {
-                    ShipmentDTO shipment = row.getItem();
+                    ShipmentSummaryDTO shipment = row.getItem();
                     return shipment != null && shipment.getStatus() == ShipmentStatus.PENDING_ASSIGNMENT;
                 }, row.itemProperty())
             );
@@ -280,7 +322,7 @@ public class ShipmentManagementController implements Initializable {
             // Cambiar Estado
             MenuItem changeStatusItem = new MenuItem("Cambiar Estado");
             changeStatusItem.setOnAction(event -> {
-                ShipmentDTO selected = row.getItem();
+                ShipmentSummaryDTO selected = row.getItem();
                 if (selected != null) {
                     showChangeStatusDialog(selected);
                 }
@@ -289,7 +331,7 @@ public class ShipmentManagementController implements Initializable {
             // Registrar Incidente
             MenuItem registerIncidentItem = new MenuItem("Registrar Incidente");
             registerIncidentItem.setOnAction(event -> {
-                ShipmentDTO selected = row.getItem();
+                ShipmentSummaryDTO selected = row.getItem();
                 if (selected != null) {
                     showRegisterIncidentDialog(selected);
                 }
@@ -298,7 +340,7 @@ public class ShipmentManagementController implements Initializable {
             // Eliminar
             MenuItem deleteItem = new MenuItem("Eliminar");
             deleteItem.setOnAction(event -> {
-                ShipmentDTO selected = row.getItem();
+                ShipmentSummaryDTO selected = row.getItem();
                 if (selected != null) {
                     handleDeleteForShipment(selected);
                 }
@@ -308,7 +350,7 @@ public class ShipmentManagementController implements Initializable {
             // Ver Historial Completo
             MenuItem viewHistoryItem = new MenuItem("Ver Historial Completo");
             viewHistoryItem.setOnAction(event -> {
-                ShipmentDTO selected = row.getItem();
+                ShipmentSummaryDTO selected = row.getItem();
                 if (selected != null) {
                     showShipmentHistory(selected);
                 }
@@ -520,38 +562,59 @@ public class ShipmentManagementController implements Initializable {
     }
 
     /**
-     * Loads all shipments in the system.
+     * Loads all active shipments in the system in the background.
      */
     private void loadAllShipments() {
-        List<ShipmentDTO> shipments = shipmentService.listAll();
-        shipmentsData = FXCollections.observableArrayList(shipments);
-        shipmentsTable.setItems(shipmentsData);
+        loadAllShipments(null);
+    }
+
+    /**
+     * Loads all active shipments in the system in the background.
+     * @param afterLoad Runs on the FX thread after the first page was shown (may be null)
+     */
+    private void loadAllShipments(Runnable afterLoad) {
+        currentFilter = activeShipmentsFilter();
+        currentReferenceText = null;
+        reloadShipments(afterLoad);
+    }
+
+    private static ShipmentFilterDTO activeShipmentsFilter() {
+        ShipmentFilterDTO filter = new ShipmentFilterDTO();
+        filter.setOnlyActive(true);
+        return filter;
+    }
 
-        Logger.info("Loaded " + shipments.size() + " total shipments");
+    /**
+     * Runs the current query and sort again from the first page.
+     * @param afterLoad Runs on the FX thread after the first page was shown (may be null)
+     */
+    private void reloadShipments(Runnable afterLoad) {
+        ShipmentFilterDTO filter = currentFilter;
+        String referenceText = currentReferenceText;
+        ShipmentSortKey sortKey = currentSortKey;
+        boolean ascending = currentAscending;
+        shipmentPages.reset((offset, size) -> shipmentService.getShipmentSummaryPage(filter, referenceText, sortKey,
+                new PageRequestDTO(offset, size, ascending)), page -> {
+            Logger.info("Showing " + page.getItems().size() + " of " + page.getTotalItems() + " shipments");
+            updateCounters(page);
+            showFilterPlan(page.getExplain());
+            if (afterLoad != null) {
+                afterLoad.run();
+            }
+        }, error -> DialogUtil.showError("Error", "No se pudieron cargar los envíos"));
     }
 
     /**
-     * Updates counter labels.
+     * Updates counter labels from the match counts of the current query.
      */
-    private void updateCounters() {
-        if (shipmentsData == null) return;
-
-        long total = shipmentsData.size();
-        long pending = shipmentsData.stream()
-            .filter(s -> s.getStatus() == ShipmentStatus.READY_FOR_PICKUP)
-            .count();
-        long inRoute = shipmentsData.stream()
-            .filter(s -> s.getStatus() == ShipmentStatus.IN_TRANSIT ||
-                        s.getStatus() == ShipmentStatus.OUT_FOR_DELIVERY)
-            .count();
-        long delivered = shipmentsData.stream()
-            .filter(s -> s.getStatus() == ShipmentStatus.DELIVERED)
-            .count();
-        long incidents = shipmentsData.stream()
-            .filter(s -> s.getIncident() != null)
-            .count();
-
-        lblTotalShipments.setText(String.valueOf(total));
+    private void updateCounters(PageDTO<ShipmentSummaryDTO> page) {
+        long pending = page.getFacetCount(ShipmentStatus.READY_FOR_PICKUP.name());
+        long inRoute = page.getFacetCount(ShipmentStatus.IN_TRANSIT.name())
+            + page.getFacetCount(ShipmentStatus.OUT_FOR_DELIVERY.name());
+        long delivered = page.getFacetCount(ShipmentStatus.DELIVERED.name());
+        long incidents = page.getFacetCount(ShipmentRepository.FACET_WITH_INCIDENT);
+
+        lblTotalShipments.setText(String.valueOf(page.getTotalItems()));
         lblPending.setText(String.valueOf(pending));
         lblInRoute.setText(String.valueOf(inRoute));
         lblDelivered.setText(String.valueOf(delivered));
@@ -594,9 +657,7 @@ public class ShipmentManagementController implements Initializable {
 
     @FXML
     private void handleRefresh() {
-        loadAllShipments();
-        updateCounters();
-        DialogUtil.showInfo("Refreshed", "Shipment list has been updated");
+        loadAllShipments(() -> DialogUtil.showInfo("Refreshed", "Shipment list has been updated"));
     }
 
     @FXML
@@ -628,38 +689,21 @@ public class ShipmentManagementController implements Initializable {
             dpOpt.ifPresent(dp -> filter.setDeliveryPersonId(dp.getId()));
         }
 
-        List<ShipmentDTO> filtered = shipmentService.filterShipments(filter);
-
-        // Additional filtering by IDs (shipment ID, order ID, user email, delivery person email)
-        String idsSearchText = txtSearchIds != null ? txtSearchIds.getText() : null;
-        if (idsSearchText != null && !idsSearchText.trim().isEmpty()) {
-            String searchLower = idsSearchText.trim().toLowerCase();
-            filtered = filtered.stream()
-                    .filter(shipment -> {
-                        // Search by shipment ID
-                        if (shipment.getId() != null && shipment.getId().toLowerCase().contains(searchLower)) {
-                            return true;
-                        }
-                        // Search by order ID
-                        if (shipment.getOrderId() != null && shipment.getOrderId().toLowerCase().contains(searchLower)) {
-                            return true;
-                        }
-                        // Search by user email
-                        if (shipment.getUserEmail() != null && shipment.getUserEmail().toLowerCase().contains(searchLower)) {
-                            return true;
-                        }
-                        // Search by delivery person email
-                        if (shipment.getDeliveryPersonEmail() != null && shipment.getDeliveryPersonEmail().toLowerCase().contains(searchLower)) {
-                            return true;
-                        }
-                        return false;
-                    })
-                    .collect(Collectors.toList());
-        }
+        // Additional search by IDs (shipment ID, order ID, user email, delivery person email)
+        currentFilter = filter;
+        currentReferenceText = txtSearchIds != null ? txtSearchIds.getText() : null;
+        reloadShipments(null);
+    }
 
-        shipmentsData = FXCollections.observableArrayList(filtered);
-        shipmentsTable.setItems(shipmentsData);
-        updateCounters();
+    /**
+     * Exposes the search plan of the last filter on the total counter, so slow filters are visible.
+     */
+    private void showFilterPlan(SearchExplainDTO explain) {
+        if (explain == null) {
+            return;
+        }
+        Logger.info("Shipment filter " + explain.toSummary());
+        lblTotalShipments.setTooltip(new Tooltip(explain.toSummary()));
     }
 
     @FXML
@@ -675,12 +719,11 @@ public class ShipmentManagementController implements Initializable {
         chkDelayed.setSelected(false);
         chkIncidents.setSelected(false);
         loadAllShipments();
-        updateCounters();
     }
 
     @FXML
     private void handleViewDetails() {
-        ShipmentDTO selected = shipmentsTable.getSelectionModel().getSelectedItem();
+        ShipmentSummaryDTO selected = shipmentsTable.getSelectionModel().getSelectedItem();
         if (selected == null) {
             DialogUtil.showWarning("No Selection", "Please select a shipment to view details");
             return;
@@ -708,7 +751,7 @@ public class ShipmentManagementController implements Initializable {
 
     @FXML
     private void handleChangeStatus() {
-        ShipmentDTO selected = shipmentsTable.getSelectionModel().getSelectedItem();
+        ShipmentSummaryDTO selected = shipmentsTable.getSelectionModel().getSelectedItem();
         if (selected == null) {
             DialogUtil.showWarning("No Selection", "Please select a shipment");
             return;
@@ -719,7 +762,7 @@ public class ShipmentManagementController implements Initializable {
 
     @FXML
     private void handleBulkStatusUpdate() {
-        List<ShipmentDTO> selected = shipmentsTable.getSelectionModel().getSelectedItems();
+        List<ShipmentSummaryDTO> selected = shipmentsTable.getSelectionModel().getSelectedItems();
         if (selected.isEmpty()) {
             DialogUtil.showWarning("No Selection", "Please select at least one shipment");
             return;
@@ -730,7 +773,7 @@ public class ShipmentManagementController implements Initializable {
 
     @FXML
     private void handleRegisterIncident() {
-        ShipmentDTO selected = shipmentsTable.getSelectionModel().getSelectedItem();
+        ShipmentSummaryDTO selected = shipmentsTable.getSelectionModel().getSelectedItem();
         if (selected == null) {
             DialogUtil.showWarning("No Selection", "Please select a shipment");
             return;
@@ -741,7 +784,7 @@ public class ShipmentManagementController implements Initializable {
 
     @FXML
     private void handleDelete() {
-        ShipmentDTO selected = shipmentsTable.getSelectionModel().getSelectedItem();
+        ShipmentSummaryDTO selected = shipmentsTable.getSelectionModel().getSelectedItem();
         if (selected == null) {
             DialogUtil.showWarning("No Selection", "Please select a shipment to delete");
             return;
@@ -752,7 +795,7 @@ public class ShipmentManagementController implements Initializable {
     /**
      * Handles deleting a specific shipment.
      */
-    private void handleDeleteForShipment(ShipmentDTO selected) {
+    private void handleDeleteForShipment(ShipmentSummaryDTO selected) {
         boolean confirmed = DialogUtil.showWarningConfirmation(
             "Eliminar Envío",
             "¿Está seguro de eliminar el envío " + selected.getId() + "?",
@@ -775,7 +818,7 @@ public class ShipmentManagementController implements Initializable {
 
     @FXML
     private void handleExport() {
-        if (shipmentsData == null || shipmentsData.isEmpty()) {
+        if (shipmentPages.getTotalItems() == 0) {
             DialogUtil.showWarning("Sin Datos", "No hay envíos para exportar.");
             return;
         }
@@ -784,7 +827,7 @@ public class ShipmentManagementController implements Initializable {
         Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
         alert.setTitle("Exportar Envíos");
         alert.setHeaderText("Seleccione el formato de exportación");
-        alert.setContentText(String.format("Se exportarán %d envíos (filtrados).", shipmentsData.size()));
+        alert.setContentText(String.format("Se exportarán %d envíos (filtrados).", shipmentPages.getTotalItems()));
 
         ButtonType btnCSV = new ButtonType("CSV");
         ButtonType btnPDF = new ButtonType("PDF");
@@ -806,11 +849,8 @@ public class ShipmentManagementController implements Initializable {
      */
     private void exportToCSV() {
         try {
-            // Convert ShipmentDTO back to Shipment entities
-            List<Shipment> shipments = shipmentsData.stream()
-                    .map(dto -> shipmentRepository.findById(dto.getId()).orElse(null))
-                    .filter(Objects::nonNull)
-                    .collect(Collectors.toList());
+            // Every match of the current query, not only the pages scrolled so far
+            List<Shipment> shipments = shipmentService.findMatchingShipments(currentFilter, currentReferenceText);
 
             File file = reportService.exportShipmentsToCSV(shipments);
 
@@ -832,11 +872,8 @@ public class ShipmentManagementController implements Initializable {
      */
     private void exportToPDF() {
         try {
-            // Convert ShipmentDTO back to Shipment entities
-            List<Shipment> shipments = shipmentsData.stream()
-                    .map(dto -> shipmentRepository.findById(dto.getId()).orElse(null))
-                    .filter(Objects::nonNull)
-                    .collect(Collectors.toList());
+            // Every match of the current query, not only the pages scrolled so far
+            List<Shipment> shipments = shipmentService.findMatchingShipments(currentFilter, currentReferenceText);
 
             File file = reportService.exportShipmentsToPDF(shipments);
 
@@ -889,7 +926,7 @@ public class ShipmentManagementController implements Initializable {
     /**
      * Shows dialog to change shipment status.
      */
-    private void showChangeStatusDialog(ShipmentDTO shipment) {
+    private void showChangeStatusDialog(ShipmentSummaryDTO shipment) {
         ChoiceDialog<ShipmentStatus> dialog = new ChoiceDialog<>(shipment.getStatus(), ShipmentStatus.values());
         dialog.setTitle("Cambiar Estado");
         dialog.setHeaderText("Cambiar estado del envío: " + shipment.getId());
@@ -985,7 +1022,7 @@ public class ShipmentManagementController implements Initializable {
     /**
      * Shows dialog for bulk status update.
      */
-    private void showBulkStatusUpdateDialog(List<ShipmentDTO> shipments) {
+    private void showBulkStatusUpdateDialog(List<ShipmentSummaryDTO> shipments) {
         ChoiceDialog<ShipmentStatus> dialog = new ChoiceDialog<>(ShipmentStatus.IN_TRANSIT, ShipmentStatus.values());
         dialog.setTitle("Bulk Status Update");
         dialog.setHeaderText("Update status for " + shipments.size() + " shipments");
@@ -1003,7 +1040,7 @@ public class ShipmentManagementController implements Initializable {
                 int successCount = 0;
                 String adminId = authService.getCurrentPerson().getId();
 
-                for (ShipmentDTO shipment : shipments) {
+                for (ShipmentSummaryDTO shipment : shipments) {
                     try {
                         boolean success = shipmentService.changeStatus(shipment.getId(), newStatus, r, adminId);
                         if (success) successCount++;
@@ -1022,7 +1059,7 @@ public class ShipmentManagementController implements Initializable {
     /**
      * Shows dialog to register an incident.
      */
-    private void showRegisterIncidentDialog(ShipmentDTO shipment) {
+    private void showRegisterIncidentDialog(ShipmentSummaryDTO shipment) {
         ChoiceDialog<IncidentType> typeDialog = new ChoiceDialog<>(IncidentType.DELAY, IncidentType.values());
         typeDialog.setTitle("Registrar Incidente");
         typeDialog.setHeaderText("Registrar incidente para el envío " + shipment.getId());
@@ -1140,7 +1177,7 @@ public class ShipmentManagementController implements Initializable {
     /**
      * Shows details of the order associated with a shipment.
      */
-    private void viewAssociatedOrder(ShipmentDTO shipment) {
+    private void viewAssociatedOrder(ShipmentSummaryDTO shipment) {
         if (shipment == null || shipment.getOrderId() == null) {
             DialogUtil.showWarning("Sin Orden Asociada",
                 "Este envío no tiene una orden asociada.");
@@ -1227,7 +1264,7 @@ public class ShipmentManagementController implements Initializable {
     /**
      * Shows dialog to assign a delivery person to a shipment.
      */
-    private void showAssignDeliveryPersonDialog(ShipmentDTO shipment) {
+    private void showAssignDeliveryPersonDialog(ShipmentSummaryDTO shipment) {
         if (shipment == null) return;
 
         // Check if already assigned
@@ -1314,7 +1351,7 @@ public class ShipmentManagementController implements Initializable {
     /**
      * Shows the unified shipment history in a modal dialog.
      */
-    private void showShipmentHistory(ShipmentDTO shipment) {
+    private void showShipmentHistory(ShipmentSummaryDTO shipment) {
         if (shipment == null) return;
 
         try {
@@ -1623,5 +1660,4 @@ public class ShipmentManagementController implements Initializable {
 
         showTabContent(contentToRestore, tabIdToRestore, false); // false = don't auto-expand
     }
-
 }
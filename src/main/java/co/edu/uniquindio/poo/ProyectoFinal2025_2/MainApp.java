@@ -1,9 +1,12 @@
 package co.edu.uniquindio.poo.ProyectoFinal2025_2;
 
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Observer.ShipmentEventBus;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.Seeder.AdminSeeder;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.Seeder.TariffSeeder;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilController.ThemeManager;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.Logger;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.RepositoryWarmup;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.WriteBehindFlusher;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
@@ -26,6 +29,10 @@ public class MainApp extends Application {
             Logger.info("║   Initializing My Final Project        ║");
             Logger.info("╚════════════════════════════════════════╝");
 
+            // Load all repositories in the background; the seeders and the first screen
+            // only wait for the repositories they use
+            RepositoryWarmup.start();
+
             // Create default administrator if it doesn't exist
             AdminSeeder.seedDefaultAdmin();
 
@@ -59,6 +66,9 @@ public class MainApp extends Application {
             // Handle application close
             stage.setOnCloseRequest(event -> {
                 Logger.info("Application closing...");
+                ShipmentEventBus.getInstance().shutdown(2000);
+                // Write repository changes still waiting in the write-behind window
+                WriteBehindFlusher.getInstance().flush();
             });
 
             // Show window
@@ -0,0 +1,152 @@
+package co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Decorator;
+
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Tariff;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+
+/**
+ * A decorator chain flattened into a reusable pricing function for one tariff.
+ * <p>Every decorator in this package is affine in the cost it wraps: percentage surcharges
+ * ({@link PriorityDecorator}, {@link InsuranceDecorator}) multiply it and fees ({@link FragileDecorator},
+ * {@link SignatureDecorator}) add a constant. A whole chain is therefore {@code scale * base + offset}.
+ * {@link #compile} runs the chain once over a probe component to obtain those coefficients, plus one pair
+ * per breakdown line. Quoting then only needs a {@link BaseShippingCost} and a few multiplications,
+ * instead of a new decorator graph per quote.</p>
+ * <p>The decorators remain the single source of pricing rules. If a chain turns out not to be affine,
+ * {@link #compile} returns empty and callers keep using the chain directly.</p>
+ */
+public final class CompiledCostFunction {
+
+    private static final double PROBE_HIGH = 1_000_000.0;
+    private static final double TOLERANCE = 1e-6;
+
+    private final Tariff tariff;
+    private final Line total;
+    private final List<Line> surcharges;
+
+    private CompiledCostFunction(Tariff tariff, Line total, List<Line> surcharges) {
+        this.tariff = tariff;
+        this.total = total;
+        this.surcharges = surcharges;
+    }
+
+    /**
+     * Compiles the chain produced by {@code decorate} over the given tariff.
+     * @param tariff The tariff used for the base cost
+     * @param decorate Wraps a base component with the decorators to apply
+     * @return The compiled function, or empty if the chain is not affine in the base cost
+     */
+    public static Optional<CompiledCostFunction> compile(Tariff tariff, UnaryOperator<CostCalculator> decorate) {
+        ProbeCost probe = new ProbeCost();
+        CostCalculator chain = decorate.apply(probe);
+
+        probe.value = 0.0;
+        double totalAtZero = chain.calculateCost();
+        List<CostCalculator.CostBreakdownItem> linesAtZero = chain.getBreakdown();
+        probe.value = 1.0;
+        double totalAtOne = chain.calculateCost();
+        List<CostCalculator.CostBreakdownItem> linesAtOne = chain.getBreakdown();
+        probe.value = PROBE_HIGH;
+        double totalAtHigh = chain.calculateCost();
+        List<CostCalculator.CostBreakdownItem> linesAtHigh = chain.getBreakdown();
+
+        Line total = Line.fit(null, totalAtZero, totalAtOne, totalAtHigh);
+        if (total == null || linesAtZero.size() != linesAtOne.size() || linesAtZero.size() != linesAtHigh.size()) {
+            return Optional.empty();
+        }
+
+        // Line 0 is the probe itself; the rest are the decorators' surcharge lines
+        List<Line> surcharges = new ArrayList<>();
+        for (int i = 1; i < linesAtZero.size(); i++) {
+            String label = linesAtZero.get(i).getDescription();
+            if (!label.equals(linesAtOne.get(i).getDescription()) || !label.equals(linesAtHigh.get(i).getDescription())) {
+                return Optional.empty();
+            }
+            Line line = Line.fit(label, linesAtZero.get(i).getAmount(),
+                    linesAtOne.get(i).getAmount(), linesAtHigh.get(i).getAmount());
+            if (line == null) {
+                return Optional.empty();
+            }
+            surcharges.add(line);
+        }
+        return Optional.of(new CompiledCostFunction(tariff, total, Collections.unmodifiableList(surcharges)));
+    }
+
+    /**
+     * Calculates the total cost of a shipment.
+     * @param distanceKm Distance in kilometers
+     * @param weightKg Weight in kilograms
+     * @param volumeM3 Volume in cubic meters
+     * @return The total cost
+     */
+    public double calculateCost(double distanceKm, double weightKg, double volumeM3) {
+        return total.at(new BaseShippingCost(tariff, distanceKm, weightKg, volumeM3).calculateCost());
+    }
+
+    /**
+     * Builds the same breakdown the decorator chain would produce.
+     * @param distanceKm Distance in kilometers
+     * @param weightKg Weight in kilograms
+     * @param volumeM3 Volume in cubic meters
+     * @return The base cost lines followed by one line per decorator
+     */
+    public List<CostCalculator.CostBreakdownItem> getBreakdown(double distanceKm, double weightKg, double volumeM3) {
+        BaseShippingCost base = new BaseShippingCost(tariff, distanceKm, weightKg, volumeM3);
+        double baseCost = base.calculateCost();
+        List<CostCalculator.CostBreakdownItem> breakdown = new ArrayList<>(base.getBreakdown());
+        for (Line surcharge : surcharges) {
+            breakdown.add(new CostCalculator.CostBreakdownItem(surcharge.label, surcharge.at(baseCost)));
+        }
+        return breakdown;
+    }
+
+    public Tariff getTariff() {
+        return tariff;
+    }
+
+    /**
+     * {@code scale * base + offset}, optionally labelled.
+     */
+    private static final class Line {
+        private final String label;
+        private final double scale;
+        private final double offset;
+
+        private Line(String label, double scale, double offset) {
+            this.label = label;
+            this.scale = scale;
+            this.offset = offset;
+        }
+
+        private static Line fit(String label, double atZero, double atOne, double atHigh) {
+            Line line = new Line(label, atOne - atZero, atZero);
+            double expected = line.at(PROBE_HIGH);
+            return Math.abs(expected - atHigh) <= TOLERANCE * Math.max(1.0, Math.abs(atHigh)) ? line : null;
+        }
+
+        private double at(double base) {
+            return scale * base + offset;
+        }
+    }
+
+    /**
+     * Base component with an adjustable cost, used only while compiling.
+     */
+    private static final class ProbeCost implements CostCalculator {
+        private double value;
+
+        @Override
+        public double calculateCost() {
+            return value;
+        }
+
+        @Override
+        public String getDescription() {
+            return "Probe";
+        }
+    }
+}
@@ -2,6 +2,7 @@ package co.edu.uniquindio.poo.ProyectoFinal2025_2.Model;
 
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.AvailabilityStatus;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.CoverageArea;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
@@ -14,6 +15,8 @@ import java.util.List;
  * <p>A delivery person can be authenticated and has specific attributes such as a document ID,
  * availability status, a list of vehicles they own, their currently active vehicle,
  * a coverage area, and a list of shipments they are responsible for.</p>
+ * <p>Assigned shipments are kept as shipment IDs, the same way the active vehicle is kept as a plate, so the
+ * courier file holds no copies of shipments. {@code DeliveryPersonService#getAssignedShipments} resolves them.</p>
  */
 @Getter
 @Setter
@@ -25,6 +28,12 @@ public class DeliveryPerson extends AuthenticablePerson {
     private List<String> vehiclePlates; // List of vehicle plates owned by this delivery person
     private String activeVehiclePlate; // Currently active vehicle plate
     private CoverageArea coverageArea;
+    private List<String> assignedShipmentIds; // IDs of the shipments this delivery person is responsible for
+
+    // Older files stored full shipment copies here; read once on load by migrateLegacyAssignments()
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
     private List<Shipment> assignedShipments;
 
     /**
@@ -34,7 +43,7 @@ public class DeliveryPerson extends AuthenticablePerson {
     public DeliveryPerson() {
         super();
         this.vehiclePlates = new ArrayList<>();
-        this.assignedShipments = new ArrayList<>();
+        this.assignedShipmentIds = new ArrayList<>();
     }
 
     /**
@@ -48,7 +57,7 @@ public class DeliveryPerson extends AuthenticablePerson {
         this.vehiclePlates = builder.vehiclePlates != null ? builder.vehiclePlates : new ArrayList<>();
         this.activeVehiclePlate = builder.activeVehiclePlate;
         this.coverageArea = builder.coverageArea;
-        this.assignedShipments = new ArrayList<>(); // Always initialize list
+        this.assignedShipmentIds = new ArrayList<>(); // Always initialize list
     }
 
     // ======================================
@@ -146,16 +155,56 @@ public class DeliveryPerson extends AuthenticablePerson {
         }
     }
 
+    /**
+     * Gets the number of shipments assigned to this delivery person without resolving them.
+     *
+     * @return The number of assigned shipment IDs.
+     */
+    public int getAssignedShipmentCount() {
+        return this.assignedShipmentIds != null ? this.assignedShipmentIds.size() : 0;
+    }
+
     /**
      * Adds a shipment to the delivery person's list of assigned shipments.
      *
      * @param shipment The Shipment object to add.
      */
     public void addShipment(Shipment shipment) {
+        if (this.assignedShipmentIds == null) {
+            this.assignedShipmentIds = new ArrayList<>();
+        }
+        if (!this.assignedShipmentIds.contains(shipment.getId())) {
+            this.assignedShipmentIds.add(shipment.getId());
+        }
+    }
+
+    /**
+     * Removes a shipment from the delivery person's list of assigned shipments.
+     *
+     * @param shipmentId The ID of the shipment to remove.
+     * @return true if the shipment was assigned to this delivery person, false otherwise.
+     */
+    public boolean removeShipment(String shipmentId) {
+        return this.assignedShipmentIds != null && this.assignedShipmentIds.remove(shipmentId);
+    }
+
+    /**
+     * Moves assignments read from an older file, where full shipment copies were stored,
+     * into the list of shipment IDs. The copies are dropped, so they are not written again.
+     *
+     * @return true if there was anything to migrate, false otherwise.
+     */
+    public boolean migrateLegacyAssignments() {
         if (this.assignedShipments == null) {
-            this.assignedShipments = new ArrayList<>();
+            return false;
+        }
+        for (Shipment shipment : this.assignedShipments) {
+            if (shipment != null && shipment.getId() != null) {
+                addShipment(shipment);
+            }
         }
-        this.assignedShipments.add(shipment);
+        this.assignedShipments = null;
+        return true;
     }
 
     /**
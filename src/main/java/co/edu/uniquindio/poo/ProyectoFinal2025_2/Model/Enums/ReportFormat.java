@@ -0,0 +1,27 @@
+package co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums;
+
+/**
+ * The file formats a report can be written in.
+ */
+public enum ReportFormat {
+    PDF("PDF"),
+    CSV("CSV");
+
+    private final String displayName;
+
+    /**
+     * Constructor for ReportFormat enum.
+     * @param displayName The display name for the UI
+     */
+    ReportFormat(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * Gets the display name.
+     * @return The display name
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+}
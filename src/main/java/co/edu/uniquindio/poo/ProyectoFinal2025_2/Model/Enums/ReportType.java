@@ -0,0 +1,43 @@
+package co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums;
+
+/**
+ * The reports the reports view can generate.
+ * <p>{@code GENERAL}, {@code USERS} and {@code DELIVERY_PERSONNEL} are written from the metrics of the
+ * period computed by {@code ReportEngine}; the other two list the invoices or shipments themselves.</p>
+ */
+public enum ReportType {
+    GENERAL("Reporte General", true),
+    FINANCIAL("Reporte Financiero", false),
+    SHIPMENTS("Reporte de Envíos", false),
+    USERS("Reporte de Usuarios", true),
+    DELIVERY_PERSONNEL("Reporte de Personal de Entrega", true);
+
+    private final String displayName;
+    private final boolean periodMetrics;
+
+    /**
+     * Constructor for ReportType enum.
+     * @param displayName The display name in Spanish for the UI
+     * @param periodMetrics Whether the report is written from the computed period metrics
+     */
+    ReportType(String displayName, boolean periodMetrics) {
+        this.displayName = displayName;
+        this.periodMetrics = periodMetrics;
+    }
+
+    /**
+     * Gets the display name in Spanish.
+     * @return The display name
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Whether the report is written from the metrics of the period rather than from entity rows.
+     * @return {@code true} for the general, users and delivery personnel reports
+     */
+    public boolean usesPeriodMetrics() {
+        return periodMetrics;
+    }
+}
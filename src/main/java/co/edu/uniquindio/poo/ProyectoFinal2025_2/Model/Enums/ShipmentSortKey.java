@@ -0,0 +1,54 @@
+package co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums;
+
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Shipment;
+
+import java.util.Comparator;
+import java.util.function.Function;
+
+/**
+ * Fields a paged shipment query can be sorted by.
+ * <p>{@code CREATED_AT} is served directly from the repository's creation date index; the other keys
+ * sort the matching shipments. Shipments without a value for the key always come last.</p>
+ */
+public enum ShipmentSortKey {
+    CREATED_AT("Fecha de Creación", Shipment::getCreatedAt),
+    ESTIMATED_DATE("Fecha Estimada", Shipment::getEstimatedDate),
+    PRIORITY("Prioridad", Shipment::getPriority),
+    TOTAL_COST("Costo Total", Shipment::getTotalCost),
+    STATUS("Estado", Shipment::getStatus);
+
+    private final String displayName;
+    private final Function<Shipment, ? extends Comparable<?>> key;
+
+    /**
+     * Constructor for ShipmentSortKey enum.
+     * @param displayName The display name in Spanish for the UI
+     * @param key Extracts the sort value from a shipment
+     */
+    ShipmentSortKey(String displayName, Function<Shipment, ? extends Comparable<?>> key) {
+        this.displayName = displayName;
+        this.key = key;
+    }
+
+    /**
+     * Gets the display name in Spanish.
+     * @return The display name
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Builds the ordering for this key, breaking ties by shipment ID so pages never overlap.
+     * @param ascending The sort direction
+     * @return The comparator
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Comparator<Shipment> comparator(boolean ascending) {
+        Comparator<Comparable> direction = ascending ? Comparator.naturalOrder() : Comparator.reverseOrder();
+        Comparator<String> idDirection = ascending ? Comparator.naturalOrder() : Comparator.reverseOrder();
+        Function<Shipment, Comparable> value = (Function) key;
+        return Comparator.comparing(value, Comparator.nullsLast(direction))
+                .thenComparing(Shipment::getId, Comparator.nullsLast(idDirection));
+    }
+}
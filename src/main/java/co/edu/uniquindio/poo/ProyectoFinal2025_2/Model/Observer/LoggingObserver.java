@@ -1,6 +1,6 @@
 package co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Observer;
 
-import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Shipment;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.ShipmentEventDTO;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.ShipmentStatus;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.Logger;
 
@@ -15,12 +15,12 @@ public class LoggingObserver implements ShipmentObserver {
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
     @Override
-    public void onStatusChanged(Shipment shipment, ShipmentStatus oldStatus, ShipmentStatus newStatus) {
+    public void onStatusChanged(ShipmentEventDTO shipment, ShipmentStatus oldStatus, ShipmentStatus newStatus) {
         String timestamp = LocalDateTime.now().format(FORMATTER);
         Logger.info(String.format(
             "[%s] Shipment %s status changed: %s -> %s (User: %s, Order: %s)",
             timestamp,
-            shipment.getId(),
+            shipment.getShipmentId(),
             oldStatus,
             newStatus,
             shipment.getUserId(),
@@ -29,23 +29,23 @@ public class LoggingObserver implements ShipmentObserver {
     }
 
     @Override
-    public void onShipmentAssigned(Shipment shipment, String deliveryPersonId) {
+    public void onShipmentAssigned(ShipmentEventDTO shipment, String deliveryPersonId) {
         String timestamp = LocalDateTime.now().format(FORMATTER);
         Logger.info(String.format(
             "[%s] Shipment %s assigned to delivery person %s",
             timestamp,
-            shipment.getId(),
+            shipment.getShipmentId(),
             deliveryPersonId
         ));
     }
 
     @Override
-    public void onIncidentReported(Shipment shipment, String incidentDescription) {
+    public void onIncidentReported(ShipmentEventDTO shipment, String incidentDescription) {
         String timestamp = LocalDateTime.now().format(FORMATTER);
         Logger.warning(String.format(
             "[%s] INCIDENT reported for shipment %s: %s",
             timestamp,
-            shipment.getId(),
+            shipment.getShipmentId(),
             incidentDescription
         ));
     }
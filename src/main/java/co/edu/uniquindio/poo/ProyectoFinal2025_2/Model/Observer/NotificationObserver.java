@@ -1,6 +1,6 @@
 package co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Observer;
 
-import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Shipment;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.ShipmentEventDTO;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.ShipmentStatus;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Services.NotificationService;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.Logger;
@@ -20,10 +20,10 @@ public class NotificationObserver implements ShipmentObserver {
     }
 
     @Override
-    public void onStatusChanged(Shipment shipment, ShipmentStatus oldStatus, ShipmentStatus newStatus) {
+    public void onStatusChanged(ShipmentEventDTO shipment, ShipmentStatus oldStatus, ShipmentStatus newStatus) {
         String message = String.format(
             "Tu envío #%s cambió de estado: %s → %s",
-            shipment.getId(),
+            shipment.getShipmentId(),
             translateStatus(oldStatus),
             translateStatus(newStatus)
         );
@@ -31,25 +31,25 @@ public class NotificationObserver implements ShipmentObserver {
     }
 
     @Override
-    public void onShipmentAssigned(Shipment shipment, String deliveryPersonId) {
+    public void onShipmentAssigned(ShipmentEventDTO shipment, String deliveryPersonId) {
         // Notify the user (customer)
         String userMessage = String.format(
             "Tu envío #%s ha sido asignado a un repartidor. ¡Pronto estará en camino!",
-            shipment.getId()
+            shipment.getShipmentId()
         );
         sendNotification(userId, "Envío Asignado", userMessage, NotificationService.NotificationType.INFO);
 
         // Notify the delivery person
-        String origin = shipment.getOrigin() != null ? shipment.getOrigin().getCity() : "N/A";
-        String destination = shipment.getDestination() != null ? shipment.getDestination().getCity() : "N/A";
-        notificationService.notifyShipmentAssignment(deliveryPersonId, shipment.getId(), origin, destination);
+        String origin = shipment.getOriginCity() != null ? shipment.getOriginCity() : "N/A";
+        String destination = shipment.getDestinationCity() != null ? shipment.getDestinationCity() : "N/A";
+        notificationService.notifyShipmentAssignment(deliveryPersonId, shipment.getShipmentId(), origin, destination);
     }
 
     @Override
-    public void onIncidentReported(Shipment shipment, String incidentDescription) {
+    public void onIncidentReported(ShipmentEventDTO shipment, String incidentDescription) {
         String message = String.format(
             "Se reportó un incidente en tu envío #%s: %s",
-            shipment.getId(),
+            shipment.getShipmentId(),
             incidentDescription
         );
         sendNotification(userId, "Incidente Reportado", message, NotificationService.NotificationType.WARNING);
@@ -0,0 +1,164 @@
+package co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Observer;
+
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.EventBusMetricsDTO;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.Logger;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * In-process bus that delivers shipment events to observers off the caller's thread.
+ *
+ * <p>Delivery runs on a fixed set of single-threaded lanes, each with a bounded queue. Every observer
+ * is pinned to one lane by identity, so a given observer always receives events in publication order,
+ * while different observers are served in parallel.</p>
+ *
+ * <p>When a lane's queue is full the publisher blocks until there is room. This applies back-pressure
+ * without dropping events or reordering them; {@link #getMetrics()} reports how often it happened.</p>
+ *
+ * <p>Publishers pass an immutable {@code ShipmentEventDTO} captured at publish time, never the live
+ * {@code Shipment}, so an observer sees the shipment as it was when the event happened even if the
+ * service has changed it again by the time the event is delivered.</p>
+ */
+public final class ShipmentEventBus {
+
+    private static final int LANE_COUNT = 2;
+    private static final int LANE_CAPACITY = 512;
+
+    private static ShipmentEventBus instance;
+
+    private final ThreadPoolExecutor[] lanes = new ThreadPoolExecutor[LANE_COUNT];
+
+    // --- Metrics ---
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong blockedPublishes = new AtomicLong();
+    private final AtomicInteger maxQueued = new AtomicInteger();
+
+    private ShipmentEventBus() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        for (int i = 0; i < LANE_COUNT; i++) {
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(LANE_CAPACITY),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "shipment-events-" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    (task, executor) -> waitForRoom(task, executor));
+        }
+    }
+
+    /**
+     * Returns the shared event bus.
+     *
+     * @return the unique instance of {@code ShipmentEventBus}
+     */
+    public static synchronized ShipmentEventBus getInstance() {
+        if (instance == null) {
+            instance = new ShipmentEventBus();
+        }
+        return instance;
+    }
+
+    // ===========================
+    // Publishing
+    // ===========================
+
+    /**
+     * Enqueues one event for each observer and returns without waiting for delivery.
+     *
+     * @param observers The observers that must receive the event
+     * @param event The callback to invoke on each observer
+     */
+    public void publish(List<ShipmentObserver> observers, Consumer<ShipmentObserver> event) {
+        for (ShipmentObserver observer : observers) {
+            ThreadPoolExecutor lane = laneOf(observer);
+            if (lane.isShutdown()) {
+                deliver(observer, event);
+                continue;
+            }
+            published.incrementAndGet();
+            lane.execute(() -> deliver(observer, event));
+            maxQueued.accumulateAndGet(lane.getQueue().size(), Math::max);
+        }
+    }
+
+    private ThreadPoolExecutor laneOf(ShipmentObserver observer) {
+        return lanes[Math.floorMod(System.identityHashCode(observer), LANE_COUNT)];
+    }
+
+    private void deliver(ShipmentObserver observer, Consumer<ShipmentObserver> event) {
+        try {
+            event.accept(observer);
+            delivered.incrementAndGet();
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            Logger.error("Observer " + observer.getClass().getSimpleName() + " failed to handle shipment event", e);
+        }
+    }
+
+    /**
+     * Rejection handler of a full lane: blocks the publisher until the lane has room.
+     */
+    private void waitForRoom(Runnable task, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            task.run();
+            return;
+        }
+        blockedPublishes.incrementAndGet();
+        try {
+            executor.getQueue().put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            task.run();
+        }
+    }
+
+    // ===========================
+    // Lifecycle and metrics
+    // ===========================
+
+    /**
+     * Stops accepting events and waits for queued events to be delivered.
+     * Events published afterwards are delivered on the caller's thread.
+     *
+     * @param timeoutMillis Maximum time to wait for the queues to drain
+     */
+    public void shutdown(long timeoutMillis) {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+        try {
+            for (ThreadPoolExecutor lane : lanes) {
+                if (!lane.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                    Logger.warning("Shipment event bus closed with " + lane.getQueue().size() + " undelivered events");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns a snapshot of the bus counters and current queue depth.
+     *
+     * @return the current metrics
+     */
+    public EventBusMetricsDTO getMetrics() {
+        int queued = 0;
+        for (ThreadPoolExecutor lane : lanes) {
+            BlockingQueue<Runnable> queue = lane.getQueue();
+            queued += queue.size();
+        }
+        return new EventBusMetricsDTO(published.get(), delivered.get(), failed.get(),
+                blockedPublishes.get(), queued, maxQueued.get(), LANE_COUNT * LANE_CAPACITY);
+    }
+}
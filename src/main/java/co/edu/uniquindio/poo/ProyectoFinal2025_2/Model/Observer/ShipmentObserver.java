@@ -1,6 +1,6 @@
 package co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Observer;
 
-import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Shipment;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.ShipmentEventDTO;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.ShipmentStatus;
 
 /**
@@ -9,31 +9,34 @@ import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.ShipmentStatus;
  *
  * <p>This pattern allows multiple observers to react to shipment status changes without
  * tight coupling. Examples include notification services, logging systems, and analytics.</p>
+ *
+ * <p>Events are delivered asynchronously, so each callback receives a {@link ShipmentEventDTO} captured
+ * when the event was published rather than the shipment itself.</p>
  */
 public interface ShipmentObserver {
 
     /**
      * Called when the observed shipment's status changes.
      *
-     * @param shipment The shipment that changed
+     * @param shipment The shipment that changed, as of the change
      * @param oldStatus The previous status
      * @param newStatus The new status
      */
-    void onStatusChanged(Shipment shipment, ShipmentStatus oldStatus, ShipmentStatus newStatus);
+    void onStatusChanged(ShipmentEventDTO shipment, ShipmentStatus oldStatus, ShipmentStatus newStatus);
 
     /**
      * Called when the shipment is assigned to a delivery person.
      *
-     * @param shipment The shipment that was assigned
+     * @param shipment The shipment that was assigned, as of the assignment
      * @param deliveryPersonId The ID of the assigned delivery person
      */
-    void onShipmentAssigned(Shipment shipment, String deliveryPersonId);
+    void onShipmentAssigned(ShipmentEventDTO shipment, String deliveryPersonId);
 
     /**
      * Called when an incident is reported for the shipment.
      *
-     * @param shipment The shipment with the incident
+     * @param shipment The shipment with the incident, as of the report
      * @param incidentDescription Description of the incident
      */
-    void onIncidentReported(Shipment shipment, String incidentDescription);
+    void onIncidentReported(ShipmentEventDTO shipment, String incidentDescription);
 }
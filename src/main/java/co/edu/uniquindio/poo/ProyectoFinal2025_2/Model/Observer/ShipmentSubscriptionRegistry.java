@@ -0,0 +1,168 @@
+package co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Observer;
+
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Shipment;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.Logger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keyed registry of shipment observers.
+ *
+ * <p>Global observers (e.g. {@link LoggingObserver}) receive every event. All other observers are
+ * subscribed to a single shipment under a key such as {@code "notification:<userId>"}, so registering
+ * the same subscriber twice replaces the previous entry instead of adding a duplicate. Each event is
+ * routed to the global observers plus the subscribers of the affected shipment only, and a shipment's
+ * subscriptions are released once it reaches a terminal state.</p>
+ *
+ * <p>The registry is shared by every {@code ShipmentService} instance, so a subscription made while
+ * creating a shipment still applies when another screen changes its status.</p>
+ */
+public final class ShipmentSubscriptionRegistry {
+
+    /** Upper bound of subscribers per shipment; further subscriptions are rejected. */
+    public static final int MAX_SUBSCRIBERS_PER_SHIPMENT = 8;
+
+    private static ShipmentSubscriptionRegistry instance;
+
+    private final Map<String, ShipmentObserver> globalObservers = new LinkedHashMap<>();
+    private final Map<String, Map<String, ShipmentObserver>> subscriptionsByShipment = new HashMap<>();
+
+    private ShipmentSubscriptionRegistry() {
+    }
+
+    /**
+     * Returns the shared registry instance.
+     *
+     * @return the unique instance of {@code ShipmentSubscriptionRegistry}
+     */
+    public static synchronized ShipmentSubscriptionRegistry getInstance() {
+        if (instance == null) {
+            instance = new ShipmentSubscriptionRegistry();
+        }
+        return instance;
+    }
+
+    // ===========================
+    // Global observers
+    // ===========================
+
+    /**
+     * Registers an observer that receives the events of every shipment.
+     * Observers are keyed by class, so each kind of global observer is registered once.
+     *
+     * @param observer The observer to register
+     * @return true if it was added, false if an observer of the same class was already registered
+     */
+    public synchronized boolean registerGlobal(ShipmentObserver observer) {
+        return globalObservers.putIfAbsent(observer.getClass().getName(), observer) == null;
+    }
+
+    /**
+     * Removes a global observer.
+     *
+     * @param observer The observer to remove
+     * @return true if it was registered
+     */
+    public synchronized boolean removeGlobal(ShipmentObserver observer) {
+        return globalObservers.remove(observer.getClass().getName(), observer);
+    }
+
+    // ===========================
+    // Per-shipment subscriptions
+    // ===========================
+
+    /**
+     * Subscribes an observer to the events of one shipment, replacing any subscriber with the same key.
+     *
+     * @param shipmentId The shipment to observe
+     * @param key Identifies the subscriber within the shipment (e.g. {@code "notification:" + userId})
+     * @param observer The observer to notify
+     * @return true if subscribed, false if the shipment already has the maximum number of subscribers
+     */
+    public synchronized boolean subscribe(String shipmentId, String key, ShipmentObserver observer) {
+        Map<String, ShipmentObserver> subscribers =
+                subscriptionsByShipment.computeIfAbsent(shipmentId, id -> new LinkedHashMap<>());
+        if (!subscribers.containsKey(key) && subscribers.size() >= MAX_SUBSCRIBERS_PER_SHIPMENT) {
+            Logger.warning("Subscription " + key + " rejected: shipment " + shipmentId
+                    + " already has " + MAX_SUBSCRIBERS_PER_SHIPMENT + " subscribers");
+            return false;
+        }
+        subscribers.put(key, observer);
+        return true;
+    }
+
+    /**
+     * Subscribes an observer only if no subscriber with the same key exists for the shipment.
+     *
+     * @param shipmentId The shipment to observe
+     * @param key Identifies the subscriber within the shipment
+     * @param observer The observer to notify
+     * @return true if a new subscription was created
+     */
+    public synchronized boolean subscribeIfAbsent(String shipmentId, String key, ShipmentObserver observer) {
+        Map<String, ShipmentObserver> subscribers = subscriptionsByShipment.get(shipmentId);
+        if (subscribers != null && subscribers.containsKey(key)) {
+            return false;
+        }
+        return subscribe(shipmentId, key, observer);
+    }
+
+    /**
+     * Removes one subscriber from a shipment.
+     *
+     * @param shipmentId The observed shipment
+     * @param key The subscriber key
+     */
+    public synchronized void unsubscribe(String shipmentId, String key) {
+        Map<String, ShipmentObserver> subscribers = subscriptionsByShipment.get(shipmentId);
+        if (subscribers != null) {
+            subscribers.remove(key);
+            if (subscribers.isEmpty()) {
+                subscriptionsByShipment.remove(shipmentId);
+            }
+        }
+    }
+
+    /**
+     * Drops every subscription of a shipment, typically once it reaches a terminal state.
+     *
+     * @param shipmentId The shipment ID
+     */
+    public synchronized void release(String shipmentId) {
+        Map<String, ShipmentObserver> released = subscriptionsByShipment.remove(shipmentId);
+        if (released != null) {
+            Logger.debug("Released " + released.size() + " subscriptions of shipment " + shipmentId);
+        }
+    }
+
+    // ===========================
+    // Routing
+    // ===========================
+
+    /**
+     * Returns the observers that must receive an event about the given shipment:
+     * the global observers followed by the shipment's own subscribers.
+     *
+     * @param shipment The shipment the event is about
+     * @return a snapshot list, safe to iterate while observers (un)subscribe
+     */
+    public synchronized List<ShipmentObserver> observersFor(Shipment shipment) {
+        List<ShipmentObserver> targets = new ArrayList<>(globalObservers.values());
+        Map<String, ShipmentObserver> subscribers = subscriptionsByShipment.get(shipment.getId());
+        if (subscribers != null) {
+            targets.addAll(subscribers.values());
+        }
+        return targets;
+    }
+
+    /**
+     * @return the number of shipments that currently have subscribers
+     */
+    public synchronized int getSubscribedShipmentCount() {
+        return subscriptionsByShipment.size();
+    }
+}
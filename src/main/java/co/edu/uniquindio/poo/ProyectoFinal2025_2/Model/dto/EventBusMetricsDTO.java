@@ -0,0 +1,27 @@
+package co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Data Transfer Object with a point-in-time view of the shipment event bus.
+ * A growing {@code blockedPublishes} count means observers cannot keep up with shipment writes.
+ */
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class EventBusMetricsDTO {
+
+    private long published;
+    private long delivered;
+    private long failed;
+    private long blockedPublishes;
+    private int queued;
+    private int maxQueued;
+    private int capacity;
+}
@@ -0,0 +1,81 @@
+package co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Data Transfer Object for one slice of a sorted query result.
+ * Besides the items, it carries the total number of matches and per-facet counts (e.g. per status)
+ * over all matches, so screens can fill their counters without loading every row. Sources may count
+ * facets for the first page only, and may attach the execution report of the query.
+ *
+ * @param <T> The type of the items
+ */
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class PageDTO<T> {
+
+    private List<T> items;
+    private int offset;
+    private long totalItems;
+    private Map<String, Long> facetCounts;
+    private SearchExplainDTO explain;
+
+    /**
+     * Creates a page without an execution report.
+     * @param items The items of the page
+     * @param offset The offset of the first item
+     * @param totalItems The total number of matches
+     * @param facetCounts The matches per facet (may be null)
+     */
+    public PageDTO(List<T> items, int offset, long totalItems, Map<String, Long> facetCounts) {
+        this(items, offset, totalItems, facetCounts, null);
+    }
+
+    /**
+     * Checks whether more matches follow this page.
+     * @return true if there is a next page
+     */
+    public boolean hasMore() {
+        return offset + items.size() < totalItems;
+    }
+
+    /**
+     * Gets the offset at which the next page starts.
+     * @return The next offset
+     */
+    public int getNextOffset() {
+        return offset + items.size();
+    }
+
+    /**
+     * Gets the number of matches counted under a facet.
+     * @param facet The facet key
+     * @return The count, or 0 if the facet was not counted
+     */
+    public long getFacetCount(String facet) {
+        return facetCounts != null ? facetCounts.getOrDefault(facet, 0L) : 0L;
+    }
+
+    /**
+     * Converts the items of this page, keeping its position, counts and execution report.
+     * @param mapper The item conversion
+     * @param <R> The converted item type
+     * @return The converted page
+     */
+    public <R> PageDTO<R> map(Function<? super T, ? extends R> mapper) {
+        List<R> mapped = items.stream().map(mapper).collect(Collectors.toList());
+        return new PageDTO<>(mapped, offset, totalItems, facetCounts, explain);
+    }
+}
@@ -0,0 +1,23 @@
+package co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Data Transfer Object describing which slice of a sorted result to fetch.
+ * Tables request consecutive slices as the user scrolls, starting at offset 0.
+ */
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class PageRequestDTO {
+
+    private int offset;
+    private int size;
+    private boolean ascending;
+}
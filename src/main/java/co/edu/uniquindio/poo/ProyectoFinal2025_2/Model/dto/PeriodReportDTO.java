@@ -0,0 +1,55 @@
+package co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto;
+
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.ShipmentStatus;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.VehicleType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Data Transfer Object holding every metric of the reports for one date range.
+ * <p>
+ * Computed once by {@code ReportEngine} and shared by the PDF and CSV writers, the statistics
+ * labels and the charts, so no writer scans a repository for its own totals.
+ * </p>
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PeriodReportDTO {
+
+    // ===========================
+    // Period
+    // ===========================
+    private LocalDate from;
+    private LocalDate to;
+
+    // ===========================
+    // Summary Metrics
+    // ===========================
+    private long totalShipments;
+    private long deliveredShipments;
+    private double successRate;
+    private double averageDeliveryTimeHours;
+    private double totalRevenue;
+    private long activeUsers;
+
+    // ===========================
+    // Groupings
+    // ===========================
+    private Map<ShipmentStatus, Long> shipmentsByStatus;
+    private Map<VehicleType, Long> shipmentsByVehicleType;  // null key: no vehicle assigned
+    private Map<String, Long> deliveredByDeliveryPerson;    // delivery person ID -> deliveries, most first
+    private Map<String, Long> ordersByUser;                 // user ID -> orders created in the period
+
+    // ===========================
+    // Per-Day Buckets (every day of the period, in order)
+    // ===========================
+    private Map<LocalDate, Long> shipmentsPerDay;
+    private Map<LocalDate, Double> revenuePerDay;
+}
@@ -0,0 +1,54 @@
+package co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object describing how a shipment search was executed.
+ * Used to spot slow filters from the admin UI.
+ */
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class SearchExplainDTO {
+
+    /**
+     * Index (or full scan) used to produce the initial candidate set.
+     */
+    public enum AccessPath {
+        USER_INDEX,
+        DELIVERY_PERSON_INDEX,
+        STATUS_INDEX,
+        CREATED_AT_RANGE,
+        CREATED_AT_INDEX,
+        FULL_SCAN
+    }
+
+    private AccessPath accessPath;
+    private List<AccessPath> intersectedWith;
+    private long rowsExamined;
+    private long rowsMatched;
+    private long tableSize;
+    private double elapsedMillis;
+
+    /**
+     * Builds a one-line summary suitable for tooltips and log lines.
+     * @return The summary text
+     */
+    public String toSummary() {
+        StringBuilder summary = new StringBuilder("Plan: ").append(accessPath);
+        if (intersectedWith != null && !intersectedWith.isEmpty()) {
+            summary.append(" ∩ ").append(intersectedWith);
+        }
+        summary.append(String.format(" | examinadas %d/%d, coincidencias %d, %.2f ms",
+                rowsExamined, tableSize, rowsMatched, elapsedMillis));
+        return summary.toString();
+    }
+}
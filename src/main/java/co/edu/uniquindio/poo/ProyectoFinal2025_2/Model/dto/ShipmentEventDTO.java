@@ -0,0 +1,25 @@
+package co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto;
+
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.ShipmentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Immutable Data Transfer Object with the shipment fields observers read, captured when an event is published.
+ * Events are delivered on other threads while the service keeps changing the shipment, so observers
+ * get this copy instead of the live {@code Shipment}.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public final class ShipmentEventDTO {
+
+    private final String shipmentId;
+    private final String userId;
+    private final String orderId;
+    private final String deliveryPersonId;
+    private final ShipmentStatus status;
+    private final String originCity;
+    private final String destinationCity;
+}
@@ -0,0 +1,46 @@
+package co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto;
+
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.ShipmentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lightweight Data Transfer Object for shipment table rows.
+ * Holds only the flat values list screens display, without the services, incident
+ * and contact details of {@link ShipmentDTO}; load the full DTO when a row is opened.
+ */
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class ShipmentSummaryDTO {
+
+    private String id;
+    private String orderId;
+    private String userId;
+    private String deliveryPersonId;
+    private ShipmentStatus status;
+    private int priority;
+    private double weightKg;
+    private double totalCost;
+    private LocalDateTime creationDate;
+    private LocalDateTime estimatedDeliveryDate;
+
+    // Enriched fields
+    private String userEmail;
+    private String deliveryPersonName;
+    private String deliveryPersonEmail;
+    private String originAddressComplete;
+    private String destinationAddressComplete;
+    private boolean hasIncident;
+    private boolean canBeCancelled;
+    private boolean isDelayed;
+    private String statusDisplayName;
+    private String statusColor;
+}
@@ -5,15 +5,16 @@ import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.Logger;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.GsonProvider;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.JsonFileHandler;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.RepositoryPaths;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.RepositoryValidator;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.WriteBehindFlusher;
 import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 
-import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Manages the persistence and retrieval of Address entities using a HashMap for fast lookups by ID.
@@ -31,7 +32,7 @@ public class AddressRepository {
      * Private constructor that initializes the map and loads data from the file.
      */
     private AddressRepository() {
-        this.addressesById = new HashMap<>();
+        this.addressesById = new ConcurrentHashMap<>();
         loadFromFile();
     }
 
@@ -51,35 +52,38 @@ public class AddressRepository {
     // Private file handling
     // ======================
 
-    private void saveToFile() {
-        List<Address> addressList = new ArrayList<>(addressesById.values());
-        JsonFileHandler.saveToFile(RepositoryPaths.ADDRESSES_PATH, addressList, gson);
+    private synchronized boolean saveToFile() {
+        return JsonFileHandler.saveToFile(RepositoryPaths.ADDRESSES_PATH, addressesById.values(), gson);
     }
 
-    private void loadFromFile() {
-        Type listType = new TypeToken<ArrayList<Address>>() {}.getType();
-        Optional<List<Address>> loadedAddresses = JsonFileHandler.loadFromFile(
-                RepositoryPaths.ADDRESSES_PATH,
-                listType,
-                gson
-        );
+    /**
+     * Schedules a rewrite of the file, coalesced with other changes made shortly before or after.
+     */
+    private void markDirty() {
+        WriteBehindFlusher.getInstance().markDirty(RepositoryPaths.ADDRESSES_PATH, this::saveToFile);
+    }
 
-        loadedAddresses.ifPresent(addresses -> {
-            Logger.info("Loading " + addresses.size() + " addresses from file...");
-            for (Address address : addresses) {
+    private void loadFromFile() {
+        JsonFileHandler.loadEach(RepositoryPaths.ADDRESSES_PATH, Address.class, gson, address -> {
+            if (RepositoryValidator.validateId(address.getId(), "Address")) {
                 addressesById.put(address.getId(), address);
+            } else {
+                Logger.warning("Warning: Skipping corrupt address entry in JSON file");
             }
-            Logger.info("Successfully loaded " + addressesById.size() + " addresses");
         });
+        Logger.info("Successfully loaded " + addressesById.size() + " addresses");
     }
 
     // ======================
     // Handling methods
     // ======================
 
-    public void addAddress(Address address) {
+    public synchronized void addAddress(Address address) {
+        if (!RepositoryValidator.validateEntity(address, "Address") || !RepositoryValidator.validateId(address.getId(), "Address")) {
+            return;
+        }
         addressesById.put(address.getId(), address);
-        saveToFile();
+        markDirty();
     }
 
     // ======================
@@ -93,10 +97,13 @@ public class AddressRepository {
      * @return an Optional containing the address if found, or empty otherwise.
      */
     public Optional<Address> findById(String id) {
+        if (id == null) {
+            return Optional.empty();
+        }
         return Optional.ofNullable(addressesById.get(id));
     }
 
-    public List<Address> findAll() {
+    public synchronized List<Address> findAll() {
         return new ArrayList<>(addressesById.values());
     }
 }
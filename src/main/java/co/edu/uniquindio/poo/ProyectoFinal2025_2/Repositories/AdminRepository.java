@@ -6,15 +6,15 @@ import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.GsonProvide
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.JsonFileHandler;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.RepositoryPaths;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.RepositoryValidator;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.WriteBehindFlusher;
 import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 
-import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Manages the persistence and retrieval of Admin entities using HashMaps for fast lookups by ID and email.
@@ -37,8 +37,8 @@ public class AdminRepository {
     // =================================================================================================================
 
     private AdminRepository() {
-        this.adminsById = new HashMap<>();
-        this.adminsByEmail = new HashMap<>();
+        this.adminsById = new ConcurrentHashMap<>();
+        this.adminsByEmail = new ConcurrentHashMap<>();
         loadFromFile();
         Logger.info("AdminRepository initialized. Admins loaded: " + adminsById.size());
     }
@@ -54,38 +54,34 @@ public class AdminRepository {
     // FILE I/O OPERATIONS
     // =================================================================================================================
 
-    private void saveToFile() {
-        List<Admin> adminList = new ArrayList<>(adminsById.values());
-        JsonFileHandler.saveToFile(RepositoryPaths.ADMINS_PATH, adminList, gson);
+    private synchronized boolean saveToFile() {
+        return JsonFileHandler.saveToFile(RepositoryPaths.ADMINS_PATH, adminsById.values(), gson);
     }
 
-    private void loadFromFile() {
-        Type listType = new TypeToken<ArrayList<Admin>>() {}.getType();
-        Optional<List<Admin>> loadedAdmins = JsonFileHandler.loadFromFile(
-                RepositoryPaths.ADMINS_PATH,
-                listType,
-                gson
-        );
+    /**
+     * Schedules a rewrite of the file, coalesced with other changes made shortly before or after.
+     */
+    private void markDirty() {
+        WriteBehindFlusher.getInstance().markDirty(RepositoryPaths.ADMINS_PATH, this::saveToFile);
+    }
 
-        loadedAdmins.ifPresent(admins -> {
-            Logger.info("Loading " + admins.size() + " admins from file...");
-            for (Admin admin : admins) {
-                if (RepositoryValidator.validateEntityWithIdAndEmail(admin, admin.getId(), admin.getEmail(), "Admin")) {
-                    adminsById.put(admin.getId(), admin);
-                    adminsByEmail.put(admin.getEmail().toLowerCase(), admin);
-                } else {
-                    Logger.warning("Warning: Skipping corrupt admin entry in JSON file");
-                }
+    private void loadFromFile() {
+        JsonFileHandler.loadEach(RepositoryPaths.ADMINS_PATH, Admin.class, gson, admin -> {
+            if (RepositoryValidator.validateEntityWithIdAndEmail(admin, admin.getId(), admin.getEmail(), "Admin")) {
+                adminsById.put(admin.getId(), admin);
+                adminsByEmail.put(admin.getEmail().toLowerCase(), admin);
+            } else {
+                Logger.warning("Warning: Skipping corrupt admin entry in JSON file");
             }
-            Logger.info("Successfully loaded " + adminsById.size() + " admins");
         });
+        Logger.info("Successfully loaded " + adminsById.size() + " admins");
     }
 
     // =================================================================================================================
     // CRUD OPERATIONS
     // =================================================================================================================
 
-    public void addAdmin(Admin admin) {
+    public synchronized void addAdmin(Admin admin) {
         if (!RepositoryValidator.validateEntityWithIdAndEmail(admin, admin.getId(), admin.getEmail(), "Admin")) {
             return;
         }
@@ -97,10 +93,10 @@ public class AdminRepository {
 
         Logger.info("Total admins in memory: " + adminsById.size());
 
-        saveToFile();
+        markDirty();
     }
 
-    public void updateAdmin(Admin admin) {
+    public synchronized void updateAdmin(Admin admin) {
         if (!RepositoryValidator.validateEntityWithIdAndEmail(admin, admin.getId(), admin.getEmail(), "Admin")) {
             return;
         }
@@ -117,11 +113,11 @@ public class AdminRepository {
         adminsById.put(admin.getId(), admin);
         adminsByEmail.put(admin.getEmail().toLowerCase(), admin);
 
-        saveToFile();
-        Logger.info("Admin updated and saved to file");
+        markDirty();
+        Logger.info("Admin updated, save scheduled");
     }
 
-    public void removeAdmin(String adminId) {
+    public synchronized void removeAdmin(String adminId) {
         if (!RepositoryValidator.validateId(adminId, "Admin")) {
             return;
         }
@@ -131,11 +127,11 @@ public class AdminRepository {
             Logger.info("Removing admin: " + adminToRemove.getEmail());
             adminsById.remove(adminId);
             adminsByEmail.remove(adminToRemove.getEmail().toLowerCase());
-            saveToFile();
+            markDirty();
         }
     }
 
-    public List<Admin> getAdmins() {
+    public synchronized List<Admin> getAdmins() {
         return new ArrayList<>(adminsById.values());
     }
 
@@ -153,7 +149,7 @@ public class AdminRepository {
         return Optional.ofNullable(adminsById.get(id));
     }
 
-    public void printAllAdmins() {
+    public synchronized void printAllAdmins() {
         Logger.info("=== Current Admins in Memory ===");
         adminsById.values().forEach(admin ->
                 Logger.info("- " + admin.getEmail() + " (ID: " + admin.getId() + ", Level: " + admin.getPermissionLevel() + ")")
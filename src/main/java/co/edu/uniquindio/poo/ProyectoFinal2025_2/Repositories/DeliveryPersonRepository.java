@@ -7,15 +7,16 @@ import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.GsonProvide
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.JsonFileHandler;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.RepositoryPaths;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.RepositoryValidator;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.WriteBehindFlusher;
 import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 
-import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Manages the persistence and retrieval of DeliveryPerson entities using HashMaps for fast lookups by ID, email, and document ID.
@@ -43,9 +44,9 @@ public class DeliveryPersonRepository {
      * Initializes maps and loads data from file.
      */
     private DeliveryPersonRepository() {
-        this.personsById = new HashMap<>();
-        this.personsByEmail = new HashMap<>();
-        this.personsByDocumentId = new HashMap<>();
+        this.personsById = new ConcurrentHashMap<>();
+        this.personsByEmail = new ConcurrentHashMap<>();
+        this.personsByDocumentId = new ConcurrentHashMap<>();
         loadFromFile();
         Logger.info("DeliveryPersonRepository initialized. Delivery persons loaded: " + personsById.size());
     }
@@ -68,42 +69,49 @@ public class DeliveryPersonRepository {
 
     /**
      * Saves the current list of delivery persons to the JSON file.
+     * @return {@code true} if the file was written
      */
-    private void saveToFile() {
-        List<DeliveryPerson> personList = new ArrayList<>(personsById.values());
-        JsonFileHandler.saveToFile(RepositoryPaths.DELIVERY_PERSONS_PATH, personList, gson);
+    private synchronized boolean saveToFile() {
+        return JsonFileHandler.saveToFile(RepositoryPaths.DELIVERY_PERSONS_PATH, personsById.values(), gson);
+    }
+
+    /**
+     * Schedules a rewrite of the file, coalesced with other changes made shortly before or after.
+     */
+    private void markDirty() {
+        WriteBehindFlusher.getInstance().markDirty(RepositoryPaths.DELIVERY_PERSONS_PATH, this::saveToFile);
     }
 
     /**
      * Loads the list of delivery persons from the JSON file.
      */
     private void loadFromFile() {
-        Type listType = new TypeToken<ArrayList<DeliveryPerson>>() {}.getType();
-        Optional<List<DeliveryPerson>> loadedPersons = JsonFileHandler.loadFromFile(
-                RepositoryPaths.DELIVERY_PERSONS_PATH,
-                listType,
-                gson
-        );
+        int[] migrated = {0};
+        JsonFileHandler.loadEach(RepositoryPaths.DELIVERY_PERSONS_PATH, DeliveryPerson.class, gson, person -> {
+            if (RepositoryValidator.validateEntityWithIdAndEmail(person, person.getId(), person.getEmail(), "DeliveryPerson")) {
+                // Additional validation for document ID
+                if (StringUtil.isNullOrEmpty(person.getDocumentId())) {
+                    Logger.warning("Warning: Skipping delivery person with null/empty document ID: " + person.getEmail());
+                    return;
+                }
 
-        loadedPersons.ifPresent(persons -> {
-            Logger.info("Loading " + persons.size() + " delivery persons from file...");
-            for (DeliveryPerson person : persons) {
-                if (RepositoryValidator.validateEntityWithIdAndEmail(person, person.getId(), person.getEmail(), "DeliveryPerson")) {
-                    // Additional validation for document ID
-                    if (StringUtil.isNullOrEmpty(person.getDocumentId())) {
-                        Logger.warning("Warning: Skipping delivery person with null/empty document ID: " + person.getEmail());
-                        continue;
-                    }
-
-                    personsById.put(person.getId(), person);
-                    personsByEmail.put(person.getEmail().toLowerCase(), person);
-                    personsByDocumentId.put(person.getDocumentId(), person);
-                } else {
-                    Logger.warning("Warning: Skipping corrupt delivery person entry in JSON file");
+                if (person.migrateLegacyAssignments()) {
+                    migrated[0]++;
                 }
+                personsById.put(person.getId(), person);
+                personsByEmail.put(person.getEmail().toLowerCase(), person);
+                personsByDocumentId.put(person.getDocumentId(), person);
+            } else {
+                Logger.warning("Warning: Skipping corrupt delivery person entry in JSON file");
             }
-            Logger.info("Successfully loaded " + personsById.size() + " delivery persons");
         });
+        Logger.info("Successfully loaded " + personsById.size() + " delivery persons");
+
+        if (migrated[0] > 0) {
+            // Rewrite the file without the embedded shipment copies
+            Logger.info("Converted assigned shipments to IDs for " + migrated[0] + " delivery persons");
+            markDirty();
+        }
     }
 
     // =================================================================================================================
@@ -116,7 +124,7 @@ public class DeliveryPersonRepository {
      *
      * @param person The delivery person to add.
      */
-    public void addDeliveryPerson(DeliveryPerson person) {
+    public synchronized void addDeliveryPerson(DeliveryPerson person) {
         if (!RepositoryValidator.validateEntityWithIdAndEmail(person, person.getId(), person.getEmail(), "DeliveryPerson")) {
             return;
         }
@@ -135,7 +143,7 @@ public class DeliveryPersonRepository {
 
         Logger.info("Total delivery persons in memory: " + personsById.size());
 
-        saveToFile();
+        markDirty();
     }
 
     /**
@@ -154,7 +162,7 @@ public class DeliveryPersonRepository {
      *
      * @param personId The ID of the delivery person to remove.
      */
-    public void removeDeliveryPerson(String personId) {
+    public synchronized void removeDeliveryPerson(String personId) {
         if (!RepositoryValidator.validateId(personId, "DeliveryPerson")) {
             return;
         }
@@ -165,7 +173,7 @@ public class DeliveryPersonRepository {
             personsById.remove(personId);
             personsByEmail.remove(personToRemove.getEmail().toLowerCase());
             personsByDocumentId.remove(personToRemove.getDocumentId());
-            saveToFile();
+            markDirty();
         }
     }
 
@@ -174,7 +182,7 @@ public class DeliveryPersonRepository {
      *
      * @return A new list containing all delivery persons.
      */
-    public List<DeliveryPerson> getAllDeliveryPersons() {
+    public synchronized List<DeliveryPerson> getAllDeliveryPersons() {
         return new ArrayList<>(personsById.values());
     }
 
@@ -222,6 +230,25 @@ public class DeliveryPersonRepository {
         return Optional.ofNullable(personsByDocumentId.get(documentId));
     }
 
+    /**
+     * Finds several delivery persons by ID in one call. Unknown and null IDs are skipped.
+     *
+     * @param ids The IDs to look up (duplicates are fine).
+     * @return The delivery persons found, keyed by ID.
+     */
+    public synchronized Map<String, DeliveryPerson> findDeliveryPersonsByIds(Collection<String> ids) {
+        Map<String, DeliveryPerson> found = new HashMap<>();
+        for (String id : ids) {
+            if (id != null && !found.containsKey(id)) {
+                DeliveryPerson person = personsById.get(id);
+                if (person != null) {
+                    found.put(id, person);
+                }
+            }
+        }
+        return found;
+    }
+
     /**
      * Gets a delivery person by their unique ID.
      * This is a convenience method that returns the delivery person directly or null if not found.
@@ -240,7 +267,7 @@ public class DeliveryPersonRepository {
     /**
      * For debugging: prints all delivery persons currently in memory.
      */
-    public void printAllDeliveryPersons() {
+    public synchronized void printAllDeliveryPersons() {
         Logger.info("=== Current Delivery Persons in Memory ===");
         personsById.values().forEach(person ->
                 Logger.info("- " + person.getEmail() + " (ID: " + person.getId() +
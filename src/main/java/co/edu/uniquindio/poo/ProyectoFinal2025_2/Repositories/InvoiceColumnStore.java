@@ -0,0 +1,117 @@
+package co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories;
+
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Invoice;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.MappedColumn;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Columnar copy of the invoice fields that revenue reports sum over date ranges.
+ * <p>{@link InvoiceRepository} writes every invoice it stores through {@link #put(Invoice)}: one row
+ * per invoice with its issue time as epoch milliseconds (UTC) and its total amount, both in
+ * {@link MappedColumn}s. Invoices are never deleted; {@link #remove(String)} only serves rolled back
+ * transactions.</p>
+ */
+public final class InvoiceColumnStore {
+
+    private static final long NO_TIME = Long.MIN_VALUE;
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final Map<String, Integer> rowsById = new HashMap<>();
+    private int rowCount;
+
+    private final MappedColumn issuedAt;    // long: epoch millis, NO_TIME for removed rows or unknown times
+    private final MappedColumn totalAmount; // double
+
+    /**
+     * Creates the column files of an empty store.
+     *
+     * @param directory The directory for the column files
+     */
+    InvoiceColumnStore(Path directory) {
+        this.issuedAt = new MappedColumn(directory.resolve("invoices.issuedAt.col"), Long.BYTES, INITIAL_CAPACITY);
+        this.totalAmount = new MappedColumn(directory.resolve("invoices.totalAmount.col"), Double.BYTES, INITIAL_CAPACITY);
+    }
+
+    // ======================
+    // Maintenance (called by InvoiceRepository)
+    // ======================
+
+    /**
+     * Writes an invoice into its row, allocating one if it is new.
+     *
+     * @param invoice the invoice that was stored
+     */
+    synchronized void put(Invoice invoice) {
+        Integer row = rowsById.get(invoice.getId());
+        if (row == null) {
+            row = rowCount++;
+            issuedAt.ensureCapacity(rowCount);
+            totalAmount.ensureCapacity(rowCount);
+            rowsById.put(invoice.getId(), row);
+        }
+        issuedAt.putLong(row, epochMillis(invoice.getIssuedAt()));
+        totalAmount.putDouble(row, invoice.getTotalAmount());
+    }
+
+    /**
+     * Takes an invoice out of every sum; its row is kept for the same ID should it come back.
+     *
+     * @param id the invoice ID
+     */
+    synchronized void remove(String id) {
+        Integer row = rowsById.get(id);
+        if (row != null) {
+            issuedAt.putLong(row, NO_TIME);
+        }
+    }
+
+    // ======================
+    // Range queries
+    // ======================
+
+    /**
+     * @return the total amount of the invoices issued in the range
+     */
+    public synchronized double sumIssuedBetween(LocalDate from, LocalDate to) {
+        long start = epochMillis(from.atStartOfDay());
+        long end = epochMillis(to.plusDays(1).atStartOfDay());
+        double sum = 0.0;
+        for (int row = 0; row < rowCount; row++) {
+            long issued = issuedAt.getLong(row);
+            if (issued >= start && issued < end) {
+                sum += totalAmount.getDouble(row);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Sums the invoices issued in the range per day.
+     *
+     * @return the totals, index 0 being {@code from} and the last index {@code to}
+     */
+    public synchronized double[] dailyTotals(LocalDate from, LocalDate to) {
+        long start = epochMillis(from.atStartOfDay());
+        double[] totals = new double[(int) Math.max(0, ChronoUnit.DAYS.between(from, to) + 1)];
+        long end = start + totals.length * MILLIS_PER_DAY;
+        for (int row = 0; row < rowCount; row++) {
+            long issued = issuedAt.getLong(row);
+            if (issued >= start && issued < end) {
+                totals[(int) ((issued - start) / MILLIS_PER_DAY)] += totalAmount.getDouble(row);
+            }
+        }
+        return totals;
+    }
+
+    private static long epochMillis(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.toInstant(ZoneOffset.UTC).toEpochMilli() : NO_TIME;
+    }
+}
@@ -3,39 +3,48 @@ package co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Invoice;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.Adapter.LocalDateTimeAdapter;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.Logger;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.JsonFileHandler;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.RepositoryJournal;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.RepositoryPaths;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.RepositoryValidator;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
 
-import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.lang.reflect.Type;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
  * <p>Manages the persistence and retrieval of Invoice entities with JSON persistence.</p>
  * <p>This class is implemented as a Singleton to ensure that there is only one
- * instance managing all invoice data in the application.</p>
+ * instance managing all invoice data in the application. New invoices are appended to a
+ * {@link RepositoryJournal}, so they can be committed together with their order and payment.</p>
  */
 public class InvoiceRepository {
 
     private static InvoiceRepository instance;
-    private final List<Invoice> invoices;
-    private static final String FILE_PATH = "data/invoices.json";
+    // Insertion order, as invoices were kept in the file before
+    private final Map<String, Invoice> invoicesById;
+    private static final String FILE_PATH = RepositoryPaths.INVOICES_PATH;
     private final Gson gson;
+    private final RepositoryJournal<Invoice> journal;
+    // Report columns, kept in step with invoicesById
+    private final InvoiceColumnStore columns = new InvoiceColumnStore(Path.of(RepositoryPaths.ANALYTICS_DIR));
 
     private InvoiceRepository() {
-        this.invoices = new ArrayList<>();
+        this.invoicesById = new LinkedHashMap<>();
         this.gson = new GsonBuilder()
                 .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
                 .setPrettyPrinting()
                 .create();
         loadFromFile();
+        this.journal = new RepositoryJournal<>(FILE_PATH, Invoice.class, gson, this::snapshot, this::restore);
+        journal.replay(invoicesById);
+        invoicesById.values().forEach(columns::put);
     }
 
     public static synchronized InvoiceRepository getInstance() {
@@ -49,55 +58,67 @@ public class InvoiceRepository {
      * Loads invoices from JSON file.
      */
     private void loadFromFile() {
-        File file = new File(FILE_PATH);
-        if (!file.exists()) {
-            Logger.info("Invoice file not found, starting with empty list");
-            return;
-        }
-
-        try (FileReader reader = new FileReader(file)) {
-            Type listType = new TypeToken<ArrayList<Invoice>>(){}.getType();
-            List<Invoice> loadedInvoices = gson.fromJson(reader, listType);
-            if (loadedInvoices != null) {
-                invoices.addAll(loadedInvoices);
-                Logger.info("Loaded " + invoices.size() + " invoices from file");
+        int loaded = JsonFileHandler.loadEach(FILE_PATH, Invoice.class, gson, invoice -> {
+            if (RepositoryValidator.validateEntityWithId(invoice, invoice.getId(), "Invoice")) {
+                invoicesById.put(invoice.getId(), invoice);
+            } else {
+                Logger.warning("Warning: Skipping corrupt invoice entry in JSON file");
             }
-        } catch (IOException e) {
-            Logger.error("Error loading invoices from file: " + e.getMessage());
+        });
+        if (loaded > 0) {
+            Logger.info("Loaded " + invoicesById.size() + " invoices from file");
         }
     }
 
     /**
-     * Saves invoices to JSON file.
+     * Returns a consistent copy of all invoices for journal compaction.
      */
-    private void saveToFile() {
-        try {
-            File file = new File(FILE_PATH);
-            file.getParentFile().mkdirs();
+    private synchronized List<Invoice> snapshot() {
+        return new ArrayList<>(invoicesById.values());
+    }
 
-            try (FileWriter writer = new FileWriter(file)) {
-                gson.toJson(invoices, writer);
-                Logger.info("Saved " + invoices.size() + " invoices to file");
-            }
-        } catch (IOException e) {
-            Logger.error("Error saving invoices to file: " + e.getMessage());
+    /**
+     * Puts back an invoice as it was before a rolled back transaction (null removes it).
+     */
+    private synchronized void restore(String id, Invoice invoice) {
+        if (invoice != null) {
+            invoicesById.put(id, invoice);
+            columns.put(invoice);
+        } else {
+            invoicesById.remove(id);
+            columns.remove(id);
         }
     }
 
-    public void addInvoice(Invoice invoice) {
-        invoices.add(invoice);
-        saveToFile();
-        Logger.info("Invoice added and saved: " + invoice.getId());
+    public synchronized void addInvoice(Invoice invoice) {
+        if (!RepositoryValidator.validateEntityWithId(invoice, invoice.getId(), "Invoice")) {
+            return;
+        }
+        journal.trackBefore(invoice.getId(), invoicesById.get(invoice.getId()));
+        invoicesById.put(invoice.getId(), invoice);
+        columns.put(invoice);
+        journal.recordPut(invoice.getId(), invoice);
+        Logger.info("Invoice added: " + invoice.getId());
     }
 
-    public Optional<Invoice> findById(String id) {
-        return invoices.stream()
-                .filter(invoice -> invoice.getId().equals(id))
-                .findFirst();
+    public synchronized Optional<Invoice> findById(String id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        Invoice invoice = invoicesById.get(id);
+        journal.trackBefore(id, invoice);
+        return Optional.ofNullable(invoice);
     }
 
-    public List<Invoice> findAll() {
-        return new ArrayList<>(invoices);
+    public synchronized List<Invoice> findAll() {
+        return new ArrayList<>(invoicesById.values());
+    }
+
+    /**
+     * Returns the columnar copy of the invoices used by revenue reports.
+     */
+    public InvoiceColumnStore getColumnStore() {
+        return columns;
     }
 
     // In a real-world scenario, you might not update an invoice, but rather cancel and reissue.
@@ -1,24 +1,39 @@
 package co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories;
 
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Order;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.PageDTO;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.PageRequestDTO;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.Logger;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.OwnerTimelineIndex;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.GsonProvider;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.JsonFileHandler;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.RepositoryJournal;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.RepositoryPaths;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.RepositoryValidator;
 import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 
-import java.lang.reflect.Type;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 
 /**
  * Manages the persistence and retrieval of Order entities using a HashMap for fast lookups by ID.
- * <p>This class is implemented as a Singleton and saves data to a local JSON file.</p>
+ * <p>A creation date index and a per-user timeline are kept in sync on every write, so {@link #findPage}
+ * and {@link #findUserTimeline} return orders in date order without sorting them. The number of orders
+ * per status is kept up to date as well, for {@link #countByStatus()}.</p>
+ * <p>This class is implemented as a Singleton and saves data to a local JSON file. Mutations are
+ * appended to a {@link RepositoryJournal} and folded into the JSON snapshot in the background.</p>
  */
 public class OrderRepository {
 
@@ -30,14 +45,29 @@ public class OrderRepository {
     private static OrderRepository instance;
 
     private final Map<String, Order> ordersById;
+    private final RepositoryJournal<Order> journal;
+
+    // Order IDs by creation date; orders without a date are kept apart and sort last
+    private final NavigableMap<LocalDateTime, Set<String>> idsByCreatedAt = new TreeMap<>();
+    private final Set<String> idsWithoutCreatedAt = new HashSet<>();
+    private final Map<String, IndexedOrder> indexedOrders = new HashMap<>();
+
+    // Number of orders per status name, over all orders
+    private final Map<String, Long> statusCounts = new HashMap<>();
+
+    // Each user's orders, newest first, tagged with their status
+    private final OwnerTimelineIndex timelineByUser = new OwnerTimelineIndex();
 
     // =================================================================================================================
     // CONSTRUCTOR (Singleton)
     // =================================================================================================================
 
     private OrderRepository() {
-        this.ordersById = new HashMap<>();
+        this.ordersById = new ConcurrentHashMap<>();
         loadFromFile();
+        this.journal = new RepositoryJournal<>(RepositoryPaths.ORDERS_PATH, Order.class, gson, this::snapshot, this::restore);
+        journal.replay(ordersById);
+        ordersById.values().forEach(this::index);
         Logger.info("OrderRepository initialized. Orders loaded: " + ordersById.size());
     }
 
@@ -52,65 +82,74 @@ public class OrderRepository {
     // FILE I/O OPERATIONS
     // =================================================================================================================
 
-    private void saveToFile() {
-        List<Order> orderList = new ArrayList<>(ordersById.values());
-        JsonFileHandler.saveToFile(RepositoryPaths.ORDERS_PATH, orderList, gson);
+    private synchronized List<Order> snapshot() {
+        return new ArrayList<>(ordersById.values());
     }
 
-    private void loadFromFile() {
-        Type listType = new TypeToken<ArrayList<Order>>() {}.getType();
-        Optional<List<Order>> loadedOrders = JsonFileHandler.loadFromFile(
-                RepositoryPaths.ORDERS_PATH,
-                listType,
-                gson
-        );
+    /**
+     * Puts back an order as it was before a rolled back transaction.
+     *
+     * @param id    The order ID
+     * @param order The earlier order, or null if it did not exist
+     */
+    private synchronized void restore(String id, Order order) {
+        if (order != null) {
+            ordersById.put(id, order);
+            index(order);
+        } else {
+            ordersById.remove(id);
+            unindex(id);
+        }
+    }
 
-        loadedOrders.ifPresent(orders -> {
-            Logger.info("Loading " + orders.size() + " orders from file...");
-            for (Order order : orders) {
-                if (RepositoryValidator.validateEntityWithId(order, order.getId(), "Order")) {
-                    ordersById.put(order.getId(), order);
-                } else {
-                    Logger.warning("Warning: Skipping corrupt order entry in JSON file");
-                }
+    private void loadFromFile() {
+        JsonFileHandler.loadEach(RepositoryPaths.ORDERS_PATH, Order.class, gson, order -> {
+            if (RepositoryValidator.validateEntityWithId(order, order.getId(), "Order")) {
+                ordersById.put(order.getId(), order);
+            } else {
+                Logger.warning("Warning: Skipping corrupt order entry in JSON file");
             }
-            Logger.info("Successfully loaded " + ordersById.size() + " orders");
         });
+        Logger.info("Successfully loaded " + ordersById.size() + " orders");
     }
 
     // =================================================================================================================
     // CRUD OPERATIONS
     // =================================================================================================================
 
-    public void addOrder(Order order) {
+    public synchronized void addOrder(Order order) {
         if (!RepositoryValidator.validateEntityWithId(order, order.getId(), "Order")) {
             return;
         }
 
         Logger.info("Adding order: " + order.getId());
 
+        journal.trackBefore(order.getId(), ordersById.get(order.getId()));
         ordersById.put(order.getId(), order);
+        index(order);
 
         Logger.info("Total orders in memory: " + ordersById.size());
 
-        saveToFile();
+        journal.recordPut(order.getId(), order);
     }
 
-    public void update(Order newOrder) {
+    public synchronized void update(Order newOrder) {
         if (!RepositoryValidator.validateEntityWithId(newOrder, newOrder.getId(), "Order")) {
             return;
         }
 
         if (ordersById.containsKey(newOrder.getId())) {
             Logger.info("Updating order: " + newOrder.getId());
+            journal.trackBefore(newOrder.getId(), ordersById.get(newOrder.getId()));
             ordersById.put(newOrder.getId(), newOrder);
-            saveToFile();
+            index(newOrder);
+            journal.recordPut(newOrder.getId(), newOrder);
         } else {
             Logger.warning("Cannot update order: Order with ID " + newOrder.getId() + " not found");
         }
     }
 
-    public void removeOrder(String orderId) {
+    public synchronized void removeOrder(String orderId) {
         if (!RepositoryValidator.validateId(orderId, "Order")) {
             return;
         }
@@ -118,8 +157,10 @@ public class OrderRepository {
         Order orderToRemove = ordersById.get(orderId);
         if (orderToRemove != null) {
             Logger.info("Removing order: " + orderId);
+            journal.trackBefore(orderId, orderToRemove);
             ordersById.remove(orderId);
-            saveToFile();
+            unindex(orderId);
+            journal.recordDelete(orderId);
         } else {
             Logger.warning("Cannot remove order: Order with ID " + orderId + " not found");
         }
@@ -131,7 +172,7 @@ public class OrderRepository {
      * @param orderId The ID of the order to delete.
      * @return true if the order was deleted successfully, false otherwise.
      */
-    public boolean deleteOrder(String orderId) {
+    public synchronized boolean deleteOrder(String orderId) {
         if (!RepositoryValidator.validateId(orderId, "Order")) {
             return false;
         }
@@ -139,8 +180,10 @@ public class OrderRepository {
         Order orderToRemove = ordersById.get(orderId);
         if (orderToRemove != null) {
             Logger.info("Deleting order: " + orderId);
+            journal.trackBefore(orderId, orderToRemove);
             ordersById.remove(orderId);
-            saveToFile();
+            unindex(orderId);
+            journal.recordDelete(orderId);
             return true;
         } else {
             Logger.warning("Cannot delete order: Order with ID " + orderId + " not found");
@@ -148,6 +191,49 @@ public class OrderRepository {
         }
     }
 
+    // =================================================================================================================
+    // INDEX MAINTENANCE
+    // =================================================================================================================
+
+    private void index(Order order) {
+        unindex(order.getId());
+        LocalDateTime createdAt = order.getCreatedAt();
+        if (createdAt != null) {
+            idsByCreatedAt.computeIfAbsent(createdAt, k -> new HashSet<>()).add(order.getId());
+        } else {
+            idsWithoutCreatedAt.add(order.getId());
+        }
+        String status = order.getStatus() != null ? order.getStatus().name() : null;
+        if (status != null) {
+            statusCounts.merge(status, 1L, Long::sum);
+        }
+        indexedOrders.put(order.getId(), new IndexedOrder(createdAt, status));
+        timelineByUser.put(order.getId(), order.getUserId(), createdAt, status);
+    }
+
+    private void unindex(String orderId) {
+        timelineByUser.remove(orderId);
+        IndexedOrder indexed = indexedOrders.remove(orderId);
+        if (indexed == null) {
+            return;
+        }
+        if (indexed.status != null && statusCounts.merge(indexed.status, -1L, Long::sum) <= 0) {
+            statusCounts.remove(indexed.status);
+        }
+        LocalDateTime createdAt = indexed.createdAt;
+        if (createdAt == null) {
+            idsWithoutCreatedAt.remove(orderId);
+            return;
+        }
+        Set<String> ids = idsByCreatedAt.get(createdAt);
+        if (ids != null) {
+            ids.remove(orderId);
+            if (ids.isEmpty()) {
+                idsByCreatedAt.remove(createdAt);
+            }
+        }
+    }
+
     // =================================================================================================================
     // QUERY OPERATIONS
     // =================================================================================================================
@@ -156,18 +242,144 @@ public class OrderRepository {
         if (!RepositoryValidator.validateId(id, "Order")) {
             return Optional.empty();
         }
-        return Optional.ofNullable(ordersById.get(id));
+        Order order = ordersById.get(id);
+        journal.trackBefore(id, order);
+        return Optional.ofNullable(order);
     }
 
-    public List<Order> findAll() {
+    public synchronized List<Order> findAll() {
         return new ArrayList<>(ordersById.values());
     }
 
-    public void printAllOrders() {
+    /**
+     * Returns one page of the orders meeting a condition, in creation date order.
+     * <p>The creation date index is walked in the requested direction, so only the requested page is
+     * collected; every order is still tested so the total is exact. Orders without a creation date come
+     * last, and orders created at the same instant are ordered by ID.</p>
+     * <p>Matches are counted per status only for the first page (offset 0); later pages carry no facet
+     * counts, as in {@link ShipmentRepository#searchPage}.</p>
+     *
+     * @param condition the condition the orders must meet (null means all orders)
+     * @param request the page offset, size and sort direction
+     * @return the page and, for the first page, the number of matches per status name
+     */
+    public synchronized PageDTO<Order> findPage(Predicate<Order> condition, PageRequestDTO request) {
+        boolean ascending = request.isAscending();
+        int from = Math.max(0, request.getOffset());
+        int to = from + Math.max(0, Math.min(request.getSize(), Integer.MAX_VALUE - from));
+
+        List<Collection<String>> buckets = new ArrayList<>(ascending
+                ? idsByCreatedAt.values() : idsByCreatedAt.descendingMap().values());
+        buckets.add(idsWithoutCreatedAt);
+
+        Map<String, Long> matchCounts = from == 0 ? new HashMap<>() : null;
+        List<Order> page = new ArrayList<>();
+        long total = 0;
+        for (Collection<String> bucket : buckets) {
+            List<String> ids = new ArrayList<>(bucket);
+            ids.sort(ascending ? Comparator.naturalOrder() : Comparator.reverseOrder());
+            for (String id : ids) {
+                Order order = ordersById.get(id);
+                if (order == null || (condition != null && !condition.test(order))) {
+                    continue;
+                }
+                if (total >= from && total < to) {
+                    page.add(order);
+                }
+                total++;
+                if (matchCounts != null && order.getStatus() != null) {
+                    matchCounts.merge(order.getStatus().name(), 1L, Long::sum);
+                }
+            }
+        }
+        return new PageDTO<>(page, from, total, matchCounts);
+    }
+
+    /**
+     * Counts all orders per status, from the counts kept on every write.
+     *
+     * @return the number of orders per status name
+     */
+    public synchronized Map<String, Long> countByStatus() {
+        return new HashMap<>(statusCounts);
+    }
+
+    /**
+     * Counts all orders.
+     *
+     * @return the number of orders
+     */
+    public int count() {
+        return ordersById.size();
+    }
+
+    /**
+     * Finds all orders of a user, newest first, using the per-user index.
+     *
+     * @param userId the user ID
+     * @return the user's orders
+     */
+    public synchronized List<Order> findByUser(String userId) {
+        return resolve(timelineByUser.all(userId));
+    }
+
+    /**
+     * Reads a user's orders newest first, resuming after a position.
+     *
+     * @param userId the user ID
+     * @param after the position to resume after (exclusive), or null to start at the newest order
+     * @param limit the maximum number of orders to return
+     * @param condition the condition the orders must meet (null means all)
+     * @return up to {@code limit} orders
+     */
+    public synchronized List<Order> findUserTimeline(String userId, OwnerTimelineIndex.Position after, int limit,
+                                                     Predicate<Order> condition) {
+        Predicate<String> idCondition = condition == null ? null : id -> {
+            Order order = ordersById.get(id);
+            return order != null && condition.test(order);
+        };
+        return resolve(timelineByUser.after(userId, after, limit, idCondition));
+    }
+
+    /**
+     * Counts a user's orders per status without reading them.
+     *
+     * @param userId the user ID
+     * @return the number of orders per status name
+     */
+    public synchronized Map<String, Long> countUserOrdersByStatus(String userId) {
+        return timelineByUser.countByTag(userId);
+    }
+
+    private List<Order> resolve(List<String> ids) {
+        List<Order> orders = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Order order = ordersById.get(id);
+            if (order != null) {
+                orders.add(order);
+            }
+        }
+        return orders;
+    }
+
+    public synchronized void printAllOrders() {
         Logger.info("=== Current Orders in Memory ===");
         ordersById.values().forEach(order ->
                 Logger.info("- Order ID: " + order.getId() + " (Status: " + order.getStatus() + ")")
         );
         Logger.info("Total: " + ordersById.size() + " orders");
     }
+
+    /**
+     * The index keys an order was filed under, so it can be taken out after the order changed.
+     */
+    private static final class IndexedOrder {
+        private final LocalDateTime createdAt;
+        private final String status;
+
+        private IndexedOrder(LocalDateTime createdAt, String status) {
+            this.createdAt = createdAt;
+            this.status = status;
+        }
+    }
 }
@@ -6,15 +6,15 @@ import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.GsonProvide
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.JsonFileHandler;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.RepositoryPaths;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.RepositoryValidator;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.WriteBehindFlusher;
 import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 
-import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -37,7 +37,7 @@ public class PaymentMethodRepository {
     // =================================================================================================================
 
     private PaymentMethodRepository() {
-        this.paymentMethodsById = new HashMap<>();
+        this.paymentMethodsById = new ConcurrentHashMap<>();
         this.paymentMethodsByUserId = new HashMap<>();
         loadFromFile();
         Logger.info("PaymentMethodRepository initialized. Payment methods loaded: " + paymentMethodsById.size());
@@ -54,42 +54,38 @@ public class PaymentMethodRepository {
     // FILE I/O OPERATIONS
     // =================================================================================================================
 
-    private void saveToFile() {
-        List<PaymentMethod> paymentMethodList = new ArrayList<>(paymentMethodsById.values());
-        JsonFileHandler.saveToFile(RepositoryPaths.PAYMENT_METHODS_PATH, paymentMethodList, gson);
+    private synchronized boolean saveToFile() {
+        return JsonFileHandler.saveToFile(RepositoryPaths.PAYMENT_METHODS_PATH, paymentMethodsById.values(), gson);
+    }
+
+    /**
+     * Schedules a rewrite of the file, coalesced with other changes made shortly before or after.
+     */
+    private void markDirty() {
+        WriteBehindFlusher.getInstance().markDirty(RepositoryPaths.PAYMENT_METHODS_PATH, this::saveToFile);
     }
 
     private void loadFromFile() {
-        Type listType = new TypeToken<ArrayList<PaymentMethod>>() {}.getType();
-        Optional<List<PaymentMethod>> loadedPaymentMethods = JsonFileHandler.loadFromFile(
-                RepositoryPaths.PAYMENT_METHODS_PATH,
-                listType,
-                gson
-        );
-
-        loadedPaymentMethods.ifPresent(paymentMethods -> {
-            Logger.info("Loading " + paymentMethods.size() + " payment methods from file...");
-            for (PaymentMethod paymentMethod : paymentMethods) {
-                if (RepositoryValidator.validateEntityWithId(paymentMethod, paymentMethod.getId(), "PaymentMethod")) {
-                    paymentMethodsById.put(paymentMethod.getId(), paymentMethod);
-
-                    // Index by userId
-                    paymentMethodsByUserId
-                            .computeIfAbsent(paymentMethod.getUserId(), k -> new ArrayList<>())
-                            .add(paymentMethod);
-                } else {
-                    Logger.warning("Warning: Skipping corrupt payment method entry in JSON file");
-                }
+        JsonFileHandler.loadEach(RepositoryPaths.PAYMENT_METHODS_PATH, PaymentMethod.class, gson, paymentMethod -> {
+            if (RepositoryValidator.validateEntityWithId(paymentMethod, paymentMethod.getId(), "PaymentMethod")) {
+                paymentMethodsById.put(paymentMethod.getId(), paymentMethod);
+
+                // Index by userId
+                paymentMethodsByUserId
+                        .computeIfAbsent(paymentMethod.getUserId(), k -> new ArrayList<>())
+                        .add(paymentMethod);
+            } else {
+                Logger.warning("Warning: Skipping corrupt payment method entry in JSON file");
             }
-            Logger.info("Successfully loaded " + paymentMethodsById.size() + " payment methods");
         });
+        Logger.info("Successfully loaded " + paymentMethodsById.size() + " payment methods");
     }
 
     // =================================================================================================================
     // CRUD OPERATIONS
     // =================================================================================================================
 
-    public void addPaymentMethod(PaymentMethod paymentMethod) {
+    public synchronized void addPaymentMethod(PaymentMethod paymentMethod) {
         if (!RepositoryValidator.validateEntityWithId(paymentMethod, paymentMethod.getId(), "PaymentMethod")) {
             return;
         }
@@ -103,10 +99,10 @@ public class PaymentMethodRepository {
                 .add(paymentMethod);
 
         Logger.info("Total payment methods in memory: " + paymentMethodsById.size());
-        saveToFile();
+        markDirty();
     }
 
-    public void updatePaymentMethod(PaymentMethod paymentMethod) {
+    public synchronized void updatePaymentMethod(PaymentMethod paymentMethod) {
         if (!RepositoryValidator.validateEntityWithId(paymentMethod, paymentMethod.getId(), "PaymentMethod")) {
             return;
         }
@@ -128,10 +124,10 @@ public class PaymentMethodRepository {
                 .computeIfAbsent(paymentMethod.getUserId(), k -> new ArrayList<>())
                 .add(paymentMethod);
 
-        saveToFile();
+        markDirty();
     }
 
-    public void deletePaymentMethod(String id) {
+    public synchronized void deletePaymentMethod(String id) {
         if (!RepositoryValidator.validateId(id, "PaymentMethod")) {
             return;
         }
@@ -145,7 +141,7 @@ public class PaymentMethodRepository {
             if (userMethods != null) {
                 userMethods.removeIf(pm -> pm.getId().equals(id));
             }
-            saveToFile();
+            markDirty();
         }
     }
 
@@ -160,11 +156,11 @@ public class PaymentMethodRepository {
         return Optional.ofNullable(paymentMethodsById.get(id));
     }
 
-    public List<PaymentMethod> findAll() {
+    public synchronized List<PaymentMethod> findAll() {
         return new ArrayList<>(paymentMethodsById.values());
     }
 
-    public List<PaymentMethod> findByUserId(String userId) {
+    public synchronized List<PaymentMethod> findByUserId(String userId) {
         if (!RepositoryValidator.validateId(userId, "User")) {
             return new ArrayList<>();
         }
@@ -4,21 +4,21 @@ import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Payment;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.Logger;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.GsonProvider;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.JsonFileHandler;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.RepositoryJournal;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.RepositoryPaths;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.RepositoryValidator;
 import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 
-import java.lang.reflect.Type;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Manages the persistence and retrieval of Payment entities using a HashMap for fast lookups by ID.
- * <p>Implements the Singleton pattern and saves data to a local JSON file.</p>
+ * <p>Implements the Singleton pattern and saves data to a local JSON file. Mutations are
+ * appended to a {@link RepositoryJournal} and folded into the JSON snapshot in the background.</p>
  */
 public class PaymentRepository {
 
@@ -29,14 +29,17 @@ public class PaymentRepository {
     private final Gson gson = GsonProvider.createGson();
     private static PaymentRepository instance;
     private final Map<String, Payment> paymentsById;
+    private final RepositoryJournal<Payment> journal;
 
     // =================================================================================================================
     // CONSTRUCTOR (Singleton)
     // =================================================================================================================
 
     private PaymentRepository() {
-        this.paymentsById = new HashMap<>();
+        this.paymentsById = new ConcurrentHashMap<>();
         loadFromFile();
+        this.journal = new RepositoryJournal<>(RepositoryPaths.PAYMENTS_PATH, Payment.class, gson, this::snapshot, this::restore);
+        journal.replay(paymentsById);
         Logger.info("PaymentRepository initialized. Payments loaded: " + paymentsById.size());
     }
 
@@ -51,45 +54,43 @@ public class PaymentRepository {
     // FILE I/O OPERATIONS
     // =================================================================================================================
 
-    private void saveToFile() {
-        List<Payment> paymentList = new ArrayList<>(paymentsById.values());
-        JsonFileHandler.saveToFile(RepositoryPaths.PAYMENTS_PATH, paymentList, gson);
+    private synchronized List<Payment> snapshot() {
+        return new ArrayList<>(paymentsById.values());
+    }
+
+    private synchronized void restore(String id, Payment payment) {
+        if (payment != null) {
+            paymentsById.put(id, payment);
+        } else {
+            paymentsById.remove(id);
+        }
     }
 
     private void loadFromFile() {
-        Type listType = new TypeToken<ArrayList<Payment>>() {}.getType();
-        Optional<List<Payment>> loadedPayments = JsonFileHandler.loadFromFile(
-                RepositoryPaths.PAYMENTS_PATH,
-                listType,
-                gson
-        );
-
-        loadedPayments.ifPresent(payments -> {
-            Logger.info("Loading " + payments.size() + " payments from file...");
-            for (Payment payment : payments) {
-                if (RepositoryValidator.validateEntityWithId(payment, payment.getId(), "Payment")) {
-                    paymentsById.put(payment.getId(), payment);
-                } else {
-                    Logger.warning("Warning: Skipping corrupt payment entry in JSON file");
-                }
+        JsonFileHandler.loadEach(RepositoryPaths.PAYMENTS_PATH, Payment.class, gson, payment -> {
+            if (RepositoryValidator.validateEntityWithId(payment, payment.getId(), "Payment")) {
+                paymentsById.put(payment.getId(), payment);
+            } else {
+                Logger.warning("Warning: Skipping corrupt payment entry in JSON file");
             }
-            Logger.info("Successfully loaded " + paymentsById.size() + " payments");
         });
+        Logger.info("Successfully loaded " + paymentsById.size() + " payments");
     }
 
     // =================================================================================================================
     // CRUD OPERATIONS
     // =================================================================================================================
 
-    public void addPayment(Payment payment) {
+    public synchronized void addPayment(Payment payment) {
         if (!RepositoryValidator.validateEntityWithId(payment, payment.getId(), "Payment")) {
             return;
         }
 
         Logger.info("Adding payment with ID: " + payment.getId());
+        journal.trackBefore(payment.getId(), paymentsById.get(payment.getId()));
         paymentsById.put(payment.getId(), payment);
         Logger.info("Total payments in memory: " + paymentsById.size());
-        saveToFile();
+        journal.recordPut(payment.getId(), payment);
     }
 
     // =================================================================================================================
@@ -100,14 +101,16 @@ public class PaymentRepository {
         if (!RepositoryValidator.validateId(id, "Payment")) {
             return Optional.empty();
         }
-        return Optional.ofNullable(paymentsById.get(id));
+        Payment payment = paymentsById.get(id);
+        journal.trackBefore(id, payment);
+        return Optional.ofNullable(payment);
     }
 
-    public List<Payment> findAll() {
+    public synchronized List<Payment> findAll() {
         return new ArrayList<>(paymentsById.values());
     }
 
-    public Optional<Payment> findByInvoiceId(String invoiceId) {
+    public synchronized Optional<Payment> findByInvoiceId(String invoiceId) {
         if (!RepositoryValidator.validateId(invoiceId, "Invoice")) {
             return Optional.empty();
         }
@@ -0,0 +1,356 @@
+package co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories;
+
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Incident;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Shipment;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.IncidentType;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.ShipmentStatus;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Materialized shipment aggregates used by the admin dashboard.
+ * <p>{@link ShipmentRepository} feeds every write through {@link #add(Shipment)} and
+ * {@link #remove(String)}, so counters, per-day buckets and per-delivery-person totals are always
+ * current and dashboard reads never rescan the shipment table.</p>
+ * <p>Because shipments are mutated in place before being updated, the fields each shipment
+ * contributed are captured at write time and subtracted verbatim when it changes.</p>
+ */
+public final class ShipmentAggregates {
+
+    private static final String UNKNOWN_LABEL = "Desconocido";
+
+    // Contribution of each shipment, as of its last write
+    private final Map<String, Contribution> contributions = new HashMap<>();
+
+    // --- Shipment counters ---
+    private long totalShipments;
+    private long activeShipments;
+    private long cancelledShipments;
+    private final Map<ShipmentStatus, Long> activeByStatus = new HashMap<>();
+    private final NavigableMap<LocalDateTime, Long> openByEstimatedDate = new TreeMap<>();
+    private long deliveredWithDuration;
+    private long deliveredHoursSum;
+
+    // --- Revenue ---
+    private long billableShipments;
+    private double totalRevenue;
+    private final NavigableMap<LocalDate, Bucket> days = new TreeMap<>();
+
+    // --- Incidents ---
+    private long totalIncidents;
+    private long unresolvedIncidents;
+    private final Map<IncidentType, Long> incidentsByType = new HashMap<>();
+
+    // --- Delivery persons ---
+    private final Map<String, Bucket> byDeliveryPerson = new HashMap<>();
+
+    ShipmentAggregates() {
+    }
+
+    // ======================
+    // Maintenance (called by ShipmentRepository)
+    // ======================
+
+    /**
+     * Adds the current state of a shipment, replacing whatever it contributed before.
+     *
+     * @param shipment the shipment that was written
+     */
+    synchronized void add(Shipment shipment) {
+        remove(shipment.getId());
+        Contribution contribution = new Contribution(shipment);
+        apply(contribution, 1);
+        contributions.put(shipment.getId(), contribution);
+    }
+
+    /**
+     * Subtracts everything a shipment contributed at its last write.
+     *
+     * @param id the shipment ID
+     */
+    synchronized void remove(String id) {
+        Contribution contribution = contributions.remove(id);
+        if (contribution != null) {
+            apply(contribution, -1);
+        }
+    }
+
+    private void apply(Contribution c, int sign) {
+        totalShipments += sign;
+        if (c.active) {
+            activeShipments += sign;
+            adjust(activeByStatus, c.status, sign);
+            if (c.status != ShipmentStatus.DELIVERED && c.estimatedDate != null) {
+                adjust(openByEstimatedDate, c.estimatedDate, sign);
+            }
+        }
+        if (c.status == ShipmentStatus.CANCELLED) {
+            cancelledShipments += sign;
+        }
+        if (c.deliveredHours != null) {
+            deliveredWithDuration += sign;
+            deliveredHoursSum += sign * c.deliveredHours;
+        }
+
+        boolean billable = c.status != ShipmentStatus.CANCELLED;
+        if (billable) {
+            billableShipments += sign;
+            totalRevenue = billableShipments == 0 ? 0.0 : totalRevenue + sign * c.totalCost;
+        }
+        if (c.createdDay != null) {
+            bucket(days, c.createdDay, c.totalCost, billable, sign);
+        }
+        if (c.deliveryPersonId != null) {
+            bucket(byDeliveryPerson, c.deliveryPersonId, c.totalCost, billable, sign);
+        }
+
+        if (c.hasIncident) {
+            totalIncidents += sign;
+            if (!c.incidentResolved) {
+                unresolvedIncidents += sign;
+            }
+            adjust(incidentsByType, c.incidentType, sign);
+        }
+    }
+
+    private static <K> void adjust(Map<K, Long> counts, K key, long delta) {
+        long updated = counts.getOrDefault(key, 0L) + delta;
+        if (updated == 0) {
+            counts.remove(key);
+        } else {
+            counts.put(key, updated);
+        }
+    }
+
+    private static <K> void bucket(Map<K, Bucket> buckets, K key, double cost, boolean billable, int sign) {
+        Bucket bucket = buckets.computeIfAbsent(key, k -> new Bucket());
+        bucket.shipments += sign;
+        if (billable) {
+            bucket.billable += sign;
+            bucket.revenue = bucket.billable == 0 ? 0.0 : bucket.revenue + sign * cost;
+        }
+        if (bucket.shipments == 0) {
+            buckets.remove(key);
+        }
+    }
+
+    // ======================
+    // Shipment counters
+    // ======================
+
+    public synchronized long getTotalShipments() {
+        return totalShipments;
+    }
+
+    public synchronized long getActiveShipments() {
+        return activeShipments;
+    }
+
+    public synchronized long getCancelledShipments() {
+        return cancelledShipments;
+    }
+
+    /**
+     * Counts active shipments currently in any of the given statuses.
+     *
+     * @param statuses the statuses to count
+     * @return the number of active shipments
+     */
+    public synchronized long countActiveByStatus(ShipmentStatus... statuses) {
+        long count = 0;
+        for (ShipmentStatus status : statuses) {
+            count += activeByStatus.getOrDefault(status, 0L);
+        }
+        return count;
+    }
+
+    /**
+     * Counts active, undelivered shipments whose estimated date is already in the past.
+     *
+     * @param now the reference instant
+     * @return the number of delayed shipments
+     */
+    public synchronized long countDelayed(LocalDateTime now) {
+        long count = 0;
+        for (long bucket : openByEstimatedDate.headMap(now, false).values()) {
+            count += bucket;
+        }
+        return count;
+    }
+
+    /**
+     * @return the average creation-to-delivery time of active delivered shipments, in hours
+     */
+    public synchronized double getAverageDeliveryHours() {
+        return deliveredWithDuration > 0 ? (double) deliveredHoursSum / deliveredWithDuration : 0.0;
+    }
+
+    /**
+     * @return active shipments grouped by status display name
+     */
+    public synchronized Map<String, Long> getActiveShipmentsByStatus() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        activeByStatus.forEach((status, count) ->
+                result.merge(status != null ? status.getDisplayName() : UNKNOWN_LABEL, count, Long::sum));
+        return result;
+    }
+
+    // ======================
+    // Revenue
+    // ======================
+
+    public synchronized double getTotalRevenue() {
+        return totalRevenue;
+    }
+
+    public synchronized long getBillableShipments() {
+        return billableShipments;
+    }
+
+    /**
+     * Sums non-cancelled revenue of shipments created on or after the given day.
+     *
+     * @param from the first day to include
+     * @return the revenue
+     */
+    public synchronized double getRevenueSince(LocalDate from) {
+        double revenue = 0.0;
+        for (Bucket bucket : days.tailMap(from, true).values()) {
+            revenue += bucket.revenue;
+        }
+        return revenue;
+    }
+
+    /**
+     * Returns the number of shipments created on each day of the range, including empty days.
+     *
+     * @param from the first day (inclusive)
+     * @param to the last day (inclusive)
+     * @return an ordered map from day to shipment count
+     */
+    public synchronized Map<LocalDate, Long> getShipmentsPerDay(LocalDate from, LocalDate to) {
+        Map<LocalDate, Long> result = new LinkedHashMap<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            Bucket bucket = days.get(date);
+            result.put(date, bucket != null ? bucket.shipments : 0L);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the non-cancelled revenue of each day of the range, including empty days.
+     *
+     * @param from the first day (inclusive)
+     * @param to the last day (inclusive)
+     * @return an ordered map from day to revenue
+     */
+    public synchronized Map<LocalDate, Double> getRevenuePerDay(LocalDate from, LocalDate to) {
+        Map<LocalDate, Double> result = new LinkedHashMap<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            Bucket bucket = days.get(date);
+            result.put(date, bucket != null ? bucket.revenue : 0.0);
+        }
+        return result;
+    }
+
+    // ======================
+    // Incidents
+    // ======================
+
+    public synchronized long getTotalIncidents() {
+        return totalIncidents;
+    }
+
+    public synchronized long getUnresolvedIncidents() {
+        return unresolvedIncidents;
+    }
+
+    /**
+     * @return incidents grouped by type description
+     */
+    public synchronized Map<String, Long> getIncidentsByType() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        incidentsByType.forEach((type, count) ->
+                result.merge(type != null ? type.getDescription() : UNKNOWN_LABEL, count, Long::sum));
+        return result;
+    }
+
+    // ======================
+    // Delivery persons
+    // ======================
+
+    /**
+     * @return number of shipments (any status) assigned to each delivery person ID
+     */
+    public synchronized Map<String, Long> getShipmentsPerDeliveryPerson() {
+        Map<String, Long> result = new HashMap<>();
+        byDeliveryPerson.forEach((id, bucket) -> result.put(id, bucket.shipments));
+        return result;
+    }
+
+    /**
+     * @return non-cancelled revenue handled by each delivery person ID
+     */
+    public synchronized Map<String, Double> getRevenuePerDeliveryPerson() {
+        Map<String, Double> result = new HashMap<>();
+        byDeliveryPerson.forEach((id, bucket) -> {
+            if (bucket.billable > 0) {
+                result.put(id, bucket.revenue);
+            }
+        });
+        return result;
+    }
+
+    // ======================
+    // Internal structures
+    // ======================
+
+    /**
+     * Shipment count and non-cancelled revenue of one day or one delivery person.
+     */
+    private static final class Bucket {
+        private long shipments;
+        private long billable;
+        private double revenue;
+    }
+
+    /**
+     * Fields a shipment contributed to the aggregates at the time it was written.
+     */
+    private static final class Contribution {
+        private final boolean active;
+        private final ShipmentStatus status;
+        private final double totalCost;
+        private final LocalDate createdDay;
+        private final LocalDateTime estimatedDate;
+        private final Long deliveredHours;
+        private final String deliveryPersonId;
+        private final boolean hasIncident;
+        private final boolean incidentResolved;
+        private final IncidentType incidentType;
+
+        private Contribution(Shipment shipment) {
+            this.active = shipment.isActive();
+            this.status = shipment.getStatus();
+            this.totalCost = shipment.getTotalCost();
+            this.createdDay = shipment.getCreatedAt() != null ? shipment.getCreatedAt().toLocalDate() : null;
+            this.estimatedDate = shipment.getEstimatedDate();
+            this.deliveredHours = active && status == ShipmentStatus.DELIVERED
+                    && shipment.getCreatedAt() != null && shipment.getDeliveredDate() != null
+                    ? Duration.between(shipment.getCreatedAt(), shipment.getDeliveredDate()).toHours()
+                    : null;
+            this.deliveryPersonId = shipment.getDeliveryPersonId();
+            Incident incident = shipment.getIncident();
+            this.hasIncident = incident != null;
+            this.incidentResolved = incident != null && incident.isResolved();
+            this.incidentType = incident != null ? incident.getType() : null;
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories;
+
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.ShipmentStatus;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.VehicleType;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Shipment;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.MappedColumn;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar copy of the shipment fields that reports aggregate over date ranges.
+ * <p>{@link ShipmentRepository} feeds every write through {@link #put(Shipment)} and {@link #remove(String)},
+ * like {@link ShipmentAggregates}. Each shipment owns one row across a set of {@link MappedColumn}s:
+ * creation and delivery time as epoch milliseconds, status ordinal, total cost, courier ordinal and
+ * vehicle type ordinal. {@link #summarize} computes all range metrics in one loop over those primitives;
+ * no {@link Shipment} is touched.</p>
+ * <p>Timestamps are converted at UTC, the same convention as the binary snapshots; a date range
+ * {@code [from, to]} covers {@code from 00:00} up to, not including, {@code to + 1 day 00:00}.</p>
+ * <p>Rows of removed shipments are marked dead and reused by later shipments.</p>
+ */
+public final class ShipmentColumnStore {
+
+    private static final long NO_TIME = Long.MIN_VALUE;
+    private static final byte NONE = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final long MILLIS_PER_HOUR = 3_600_000L;
+    private static final long MILLIS_PER_DAY = 24 * MILLIS_PER_HOUR;
+
+    private static final ShipmentStatus[] STATUSES = ShipmentStatus.values();
+    private static final VehicleType[] VEHICLE_TYPES = VehicleType.values();
+
+    private final Map<String, Integer> rowsById = new HashMap<>();
+    private final Deque<Integer> freeRows = new ArrayDeque<>();
+    private int rowCount; // rows ever used, live or dead
+
+    // Courier IDs are stored as ordinals into this dictionary
+    private final Map<String, Integer> courierOrdinals = new HashMap<>();
+    private final List<String> courierIds = new ArrayList<>();
+
+    private final MappedColumn live;        // byte: 1 for a live row, 0 for a free one
+    private final MappedColumn createdAt;   // long: epoch millis, NO_TIME if unknown
+    private final MappedColumn deliveredAt; // long: epoch millis, NO_TIME if not delivered
+    private final MappedColumn status;      // byte: ShipmentStatus ordinal, NONE if unknown
+    private final MappedColumn totalCost;   // double
+    private final MappedColumn courier;     // int: courier ordinal, NONE if unassigned
+    private final MappedColumn vehicleType; // byte: VehicleType ordinal, NONE if unassigned
+
+    /**
+     * Creates the column files of an empty store.
+     *
+     * @param directory The directory for the column files
+     */
+    ShipmentColumnStore(Path directory) {
+        this.live = new MappedColumn(directory.resolve("shipments.live.col"), Byte.BYTES, INITIAL_CAPACITY);
+        this.createdAt = new MappedColumn(directory.resolve("shipments.createdAt.col"), Long.BYTES, INITIAL_CAPACITY);
+        this.deliveredAt = new MappedColumn(directory.resolve("shipments.deliveredAt.col"), Long.BYTES, INITIAL_CAPACITY);
+        this.status = new MappedColumn(directory.resolve("shipments.status.col"), Byte.BYTES, INITIAL_CAPACITY);
+        this.totalCost = new MappedColumn(directory.resolve("shipments.totalCost.col"), Double.BYTES, INITIAL_CAPACITY);
+        this.courier = new MappedColumn(directory.resolve("shipments.courier.col"), Integer.BYTES, INITIAL_CAPACITY);
+        this.vehicleType = new MappedColumn(directory.resolve("shipments.vehicleType.col"), Byte.BYTES, INITIAL_CAPACITY);
+    }
+
+    // ======================
+    // Maintenance (called by ShipmentRepository)
+    // ======================
+
+    /**
+     * Writes the current state of a shipment into its row, allocating one if it is new.
+     *
+     * @param shipment the shipment that was written
+     */
+    synchronized void put(Shipment shipment) {
+        Integer row = rowsById.get(shipment.getId());
+        if (row == null) {
+            row = freeRows.isEmpty() ? allocateRow() : freeRows.pop();
+            rowsById.put(shipment.getId(), row);
+        }
+        live.putByte(row, (byte) 1);
+        createdAt.putLong(row, epochMillis(shipment.getCreatedAt()));
+        deliveredAt.putLong(row, epochMillis(shipment.getDeliveredDate()));
+        status.putByte(row, shipment.getStatus() != null ? (byte) shipment.getStatus().ordinal() : NONE);
+        totalCost.putDouble(row, shipment.getTotalCost());
+        courier.putInt(row, courierOrdinal(shipment.getDeliveryPersonId()));
+        vehicleType.putByte(row, shipment.getVehicleType() != null ? (byte) shipment.getVehicleType().ordinal() : NONE);
+    }
+
+    /**
+     * Frees the row of a shipment.
+     *
+     * @param id the shipment ID
+     */
+    synchronized void remove(String id) {
+        Integer row = rowsById.remove(id);
+        if (row != null) {
+            live.putByte(row, (byte) 0);
+            freeRows.push(row);
+        }
+    }
+
+    private int allocateRow() {
+        int row = rowCount++;
+        live.ensureCapacity(rowCount);
+        createdAt.ensureCapacity(rowCount);
+        deliveredAt.ensureCapacity(rowCount);
+        status.ensureCapacity(rowCount);
+        totalCost.ensureCapacity(rowCount);
+        courier.ensureCapacity(rowCount);
+        vehicleType.ensureCapacity(rowCount);
+        return row;
+    }
+
+    private int courierOrdinal(String deliveryPersonId) {
+        if (deliveryPersonId == null) {
+            return NONE;
+        }
+        return courierOrdinals.computeIfAbsent(deliveryPersonId, id -> {
+            courierIds.add(id);
+            return courierIds.size() - 1;
+        });
+    }
+
+    // ======================
+    // Range queries
+    // ======================
+
+    /**
+     * Computes every range metric of this store in one pass over the columns.
+     *
+     * @param from first day of the range
+     * @param to   last day of the range
+     * @return the metrics of the shipments created in the range
+     */
+    public synchronized RangeSummary summarize(LocalDate from, LocalDate to) {
+        long start = rangeStart(from);
+        int dayCount = (int) Math.max(0, ChronoUnit.DAYS.between(from, to) + 1);
+        long end = start + dayCount * MILLIS_PER_DAY;
+        int delivered = ShipmentStatus.DELIVERED.ordinal();
+
+        RangeSummary summary = new RangeSummary(from, dayCount, courierIds.size());
+        for (int row = 0; row < rowCount; row++) {
+            long created = createdAt.getLong(row);
+            if (live.getByte(row) == 0 || created < start || created >= end) {
+                continue;
+            }
+            summary.total++;
+            summary.perDay[(int) ((created - start) / MILLIS_PER_DAY)]++;
+
+            byte vehicle = vehicleType.getByte(row);
+            summary.byVehicleType[vehicle == NONE ? VEHICLE_TYPES.length : vehicle]++;
+
+            byte ordinal = status.getByte(row);
+            if (ordinal == NONE) {
+                continue;
+            }
+            summary.byStatus[ordinal]++;
+            if (ordinal == delivered) {
+                long deliveredTime = deliveredAt.getLong(row);
+                if (deliveredTime != NO_TIME) {
+                    summary.deliveryHours += (deliveredTime - created) / MILLIS_PER_HOUR;
+                    summary.timedDeliveries++;
+                }
+                int courierOrdinal = courier.getInt(row);
+                if (courierOrdinal != NONE) {
+                    summary.deliveredByCourier[courierOrdinal]++;
+                }
+            }
+        }
+        summary.courierIds = new ArrayList<>(courierIds);
+        return summary;
+    }
+
+    /**
+     * @return the number of shipments created in the range
+     */
+    public long countCreatedBetween(LocalDate from, LocalDate to) {
+        return summarize(from, to).getTotal();
+    }
+
+    /**
+     * @return the shipments created in the range per status; statuses without shipments are left out
+     */
+    public Map<ShipmentStatus, Long> countByStatus(LocalDate from, LocalDate to) {
+        return summarize(from, to).getCountsByStatus();
+    }
+
+    /**
+     * Averages, over delivered shipments created in the range, the whole hours between creation and delivery.
+     *
+     * @return the average in hours, or 0 if no such shipment exists
+     */
+    public double averageDeliveryHours(LocalDate from, LocalDate to) {
+        return summarize(from, to).getAverageDeliveryHours();
+    }
+
+    /**
+     * @return the delivered shipments created in the range per courier ID, most deliveries first
+     */
+    public Map<String, Long> countDeliveredByCourier(LocalDate from, LocalDate to) {
+        return summarize(from, to).getDeliveredByCourier();
+    }
+
+    /**
+     * @return the shipments created in the range per vehicle type, with unassigned ones under a {@code null} key
+     */
+    public Map<VehicleType, Long> countByVehicleType(LocalDate from, LocalDate to) {
+        return summarize(from, to).getCountsByVehicleType();
+    }
+
+    /**
+     * The metrics of the shipments created in a date range, as computed by {@link #summarize}.
+     */
+    public static final class RangeSummary {
+        private final LocalDate from;
+        private final long[] perDay;
+        private final long[] byStatus = new long[STATUSES.length];
+        private final long[] byVehicleType = new long[VEHICLE_TYPES.length + 1]; // last slot: unassigned
+        private final long[] deliveredByCourier;
+        private List<String> courierIds;
+        private long total;
+        private long deliveryHours;
+        private long timedDeliveries;
+
+        private RangeSummary(LocalDate from, int dayCount, int courierCount) {
+            this.from = from;
+            this.perDay = new long[dayCount];
+            this.deliveredByCourier = new long[courierCount];
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public long getCount(ShipmentStatus shipmentStatus) {
+            return byStatus[shipmentStatus.ordinal()];
+        }
+
+        /**
+         * @return counts per status; statuses without shipments are left out
+         */
+        public Map<ShipmentStatus, Long> getCountsByStatus() {
+            Map<ShipmentStatus, Long> result = new EnumMap<>(ShipmentStatus.class);
+            for (int i = 0; i < byStatus.length; i++) {
+                if (byStatus[i] > 0) {
+                    result.put(STATUSES[i], byStatus[i]);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * @return whole hours from creation to delivery averaged over delivered shipments, or 0 if none
+         */
+        public double getAverageDeliveryHours() {
+            return timedDeliveries == 0 ? 0.0 : (double) deliveryHours / timedDeliveries;
+        }
+
+        /**
+         * @return delivered shipments per courier ID, most deliveries first
+         */
+        public Map<String, Long> getDeliveredByCourier() {
+            List<Integer> ordinals = new ArrayList<>();
+            for (int i = 0; i < deliveredByCourier.length; i++) {
+                if (deliveredByCourier[i] > 0) {
+                    ordinals.add(i);
+                }
+            }
+            ordinals.sort((a, b) -> Long.compare(deliveredByCourier[b], deliveredByCourier[a]));
+            Map<String, Long> result = new LinkedHashMap<>();
+            for (int ordinal : ordinals) {
+                result.put(courierIds.get(ordinal), deliveredByCourier[ordinal]);
+            }
+            return result;
+        }
+
+        /**
+         * @return counts per vehicle type, with unassigned shipments under a {@code null} key
+         */
+        public Map<VehicleType, Long> getCountsByVehicleType() {
+            Map<VehicleType, Long> result = new HashMap<>();
+            for (int i = 0; i < byVehicleType.length; i++) {
+                if (byVehicleType[i] > 0) {
+                    result.put(i < VEHICLE_TYPES.length ? VEHICLE_TYPES[i] : null, byVehicleType[i]);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * @return shipments created per day, every day of the range included
+         */
+        public Map<LocalDate, Long> getShipmentsPerDay() {
+            Map<LocalDate, Long> result = new LinkedHashMap<>();
+            for (int i = 0; i < perDay.length; i++) {
+                result.put(from.plusDays(i), perDay[i]);
+            }
+            return result;
+        }
+    }
+
+    // ======================
+    // Helpers
+    // ======================
+
+    private static long epochMillis(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.toInstant(ZoneOffset.UTC).toEpochMilli() : NO_TIME;
+    }
+
+    private static long rangeStart(LocalDate from) {
+        return epochMillis(from.atStartOfDay());
+    }
+}
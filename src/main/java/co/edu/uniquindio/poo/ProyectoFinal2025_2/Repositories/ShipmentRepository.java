@@ -1,28 +1,57 @@
 package co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories;
 
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Shipment;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.ShipmentSortKey;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.ShipmentStatus;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.PageDTO;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.PageRequestDTO;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.SearchExplainDTO;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.SearchExplainDTO.AccessPath;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.ShipmentFilterDTO;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.GeoGridIndex;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.Logger;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.OwnerTimelineIndex;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.GsonProvider;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.JsonFileHandler;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.RepositoryJournal;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.RepositoryPaths;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.RepositoryValidator;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.StripedLocks;
 import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 
-import java.lang.reflect.Type;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
  * Manages the persistence and retrieval of Shipment entities using a HashMap for fast lookups by ID.
- * <p>This class is implemented as a Singleton and saves data to a local JSON file.</p>
+ * <p>Secondary indexes by user, delivery person, status, creation date and pickup location, plus the dashboard
+ * {@link ShipmentAggregates}, are kept in sync on every write, so the common finders cost in
+ * proportion to their result instead of the whole table. {@link #searchPage} walks the creation date index
+ * in order, so a table page sorted by date is produced without sorting every match.</p>
+ * <p>This class is implemented as a Singleton and saves data to a local JSON file. Mutations are
+ * appended to a {@link RepositoryJournal} and folded into the JSON snapshot in the background.</p>
+ * <p><b>Thread Safety:</b> {@link #findById} reads the concurrent primary map without locking. Writes and
+ * index-based reads hold the repository monitor, so they see the indexes and the map in agreement and
+ * return copies that later writes do not change. Services that read a shipment, check it and write it
+ * back wrap the sequence in {@link #withLock} so concurrent sequences on that shipment cannot interleave.</p>
  */
 public class ShipmentRepository {
 
@@ -30,13 +59,49 @@ public class ShipmentRepository {
     private final Gson gson = GsonProvider.createGson();
     private static ShipmentRepository instance;
     private final Map<String, Shipment> shipmentsById;
+    private final RepositoryJournal<Shipment> journal;
+
+    // --- Secondary indexes (shipment IDs) ---
+    private final Map<String, Set<String>> idsByUser = new HashMap<>();
+    private final Map<String, Set<String>> idsByDeliveryPerson = new HashMap<>();
+    private final Map<ShipmentStatus, Set<String>> idsByStatus = new EnumMap<>(ShipmentStatus.class);
+    private final Set<String> idsWithoutStatus = new HashSet<>();
+    private final NavigableMap<LocalDateTime, Set<String>> idsByCreatedAt = new TreeMap<>();
+    private final Set<String> idsWithoutCreatedAt = new HashSet<>();
+    private final GeoGridIndex<String> idsByPickupLocation = new GeoGridIndex<>();
+    // Each user's active shipments, newest first, tagged with their status
+    private final OwnerTimelineIndex activeTimelineByUser = new OwnerTimelineIndex();
+
+    // Keys each shipment was last indexed under; shipments are mutated in place before update()
+    private final Map<String, IndexKeys> indexedKeys = new HashMap<>();
+
+    // Dashboard counters, maintained alongside the indexes
+    private final ShipmentAggregates aggregates = new ShipmentAggregates();
+
+    // Report columns, maintained alongside the indexes
+    private final ShipmentColumnStore columns = new ShipmentColumnStore(Path.of(RepositoryPaths.ANALYTICS_DIR));
+
+    // Per-shipment locks for the read-modify-write sequences of the services
+    private final StripedLocks shipmentLocks = new StripedLocks(64);
 
     /**
-     * Private constructor that loads data from the file upon initialization.
+     * Facet counted by {@link #searchPage} for matches that have an incident; the other facets are status names.
+     */
+    public static final String FACET_WITH_INCIDENT = "WITH_INCIDENT";
+
+    // Execution report of the most recent search(); searchPage() returns its report with the page
+    private volatile SearchExplainDTO lastSearchExplain;
+
+    /**
+     * Private constructor that loads the snapshot and replays the journal upon initialization.
      */
     private ShipmentRepository() {
-        this.shipmentsById = new HashMap<>();
+        this.shipmentsById = new ConcurrentHashMap<>();
         loadFromFile(); // Load existing shipments
+        this.journal = new RepositoryJournal<>(RepositoryPaths.SHIPMENTS_PATH, Shipment.class, gson,
+                this::snapshot, this::restore);
+        journal.replay(shipmentsById);
+        shipmentsById.values().forEach(this::index);
     }
 
     /**
@@ -56,31 +121,42 @@ public class ShipmentRepository {
     // ======================
 
     /**
-     * Saves the current list of shipments to the shipments.json file.
+     * Returns a consistent copy of all shipments for journal compaction.
+     *
+     * @return a new list containing all shipments
      */
-    private void saveToFile() {
-        List<Shipment> shipmentList = new ArrayList<>(shipmentsById.values());
-        JsonFileHandler.saveToFile(RepositoryPaths.SHIPMENTS_PATH, shipmentList, gson);
+    private synchronized List<Shipment> snapshot() {
+        return new ArrayList<>(shipmentsById.values());
+    }
+
+    /**
+     * Puts back a shipment as it was before a rolled back transaction, indexes and aggregates included.
+     *
+     * @param id       the shipment ID
+     * @param shipment the earlier shipment, or null if it did not exist
+     */
+    private synchronized void restore(String id, Shipment shipment) {
+        if (shipment != null) {
+            shipmentsById.put(id, shipment);
+            index(shipment);
+        } else {
+            shipmentsById.remove(id);
+            unindex(id);
+        }
     }
 
     /**
      * Loads the list of shipments from the shipments.json file when the application starts.
      */
     private void loadFromFile() {
-        Type listType = new TypeToken<ArrayList<Shipment>>() {}.getType();
-        Optional<List<Shipment>> loadedShipments = JsonFileHandler.loadFromFile(
-                RepositoryPaths.SHIPMENTS_PATH,
-                listType,
-                gson
-        );
-
-        loadedShipments.ifPresent(shipments -> {
-            Logger.info("Loading " + shipments.size() + " shipments from file...");
-            for (Shipment shipment : shipments) {
+        JsonFileHandler.loadEach(RepositoryPaths.SHIPMENTS_PATH, Shipment.class, gson, shipment -> {
+            if (RepositoryValidator.validateId(shipment.getId(), "Shipment")) {
                 shipmentsById.put(shipment.getId(), shipment);
+            } else {
+                Logger.warning("Warning: Skipping corrupt shipment entry in JSON file");
             }
-            Logger.info("Successfully loaded " + shipmentsById.size() + " shipments");
         });
+        Logger.info("Successfully loaded " + shipmentsById.size() + " shipments");
     }
 
     // ======================
@@ -92,9 +168,14 @@ public class ShipmentRepository {
      *
      * @param shipment the shipment to add
      */
-    public void addShipment(Shipment shipment) {
+    public synchronized void addShipment(Shipment shipment) {
+        if (!RepositoryValidator.validateEntity(shipment, "Shipment") || !RepositoryValidator.validateId(shipment.getId(), "Shipment")) {
+            return;
+        }
+        journal.trackBefore(shipment.getId(), shipmentsById.get(shipment.getId()));
         shipmentsById.put(shipment.getId(), shipment);
-        saveToFile();
+        index(shipment);
+        journal.recordPut(shipment.getId(), shipment);
     }
 
     /**
@@ -103,22 +184,42 @@ public class ShipmentRepository {
      * @param shipment the shipment to update
      * @return the updated shipment
      */
-    public Shipment update(Shipment shipment) {
+    public synchronized Shipment update(Shipment shipment) {
         if (shipment == null || shipment.getId() == null) {
             return null;
         }
+        journal.trackBefore(shipment.getId(), shipmentsById.get(shipment.getId()));
         shipmentsById.put(shipment.getId(), shipment);
-        saveToFile();
+        index(shipment);
+        journal.recordPut(shipment.getId(), shipment);
         return shipment;
     }
 
+    /**
+     * Updates several shipments at once, appending all changes to the journal in a single write.
+     *
+     * @param shipments the shipments to update
+     */
+    public synchronized void updateAll(Collection<Shipment> shipments) {
+        Map<String, Shipment> changed = new LinkedHashMap<>();
+        for (Shipment shipment : shipments) {
+            if (shipment != null && shipment.getId() != null) {
+                journal.trackBefore(shipment.getId(), shipmentsById.get(shipment.getId()));
+                shipmentsById.put(shipment.getId(), shipment);
+                index(shipment);
+                changed.put(shipment.getId(), shipment);
+            }
+        }
+        journal.recordPutAll(changed);
+    }
+
     /**
      * Soft deletes a shipment by setting its active flag to false.
      *
      * @param id the ID of the shipment to delete
      * @return true if deleted successfully, false otherwise
      */
-    public boolean softDelete(String id) {
+    public synchronized boolean softDelete(String id) {
         Optional<Shipment> shipmentOpt = findById(id);
         if (!shipmentOpt.isPresent()) {
             return false;
@@ -136,7 +237,7 @@ public class ShipmentRepository {
      * @param id the ID of the shipment to delete
      * @return true if deleted successfully, false otherwise
      */
-    public boolean deleteShipment(String id) {
+    public synchronized boolean deleteShipment(String id) {
         if (id == null || id.trim().isEmpty()) {
             Logger.warning("Cannot delete shipment: Invalid ID");
             return false;
@@ -145,8 +246,10 @@ public class ShipmentRepository {
         Shipment shipmentToDelete = shipmentsById.get(id);
         if (shipmentToDelete != null) {
             Logger.info("Permanently deleting shipment: " + id);
+            journal.trackBefore(id, shipmentToDelete);
             shipmentsById.remove(id);
-            saveToFile();
+            unindex(id);
+            journal.recordDelete(id);
             return true;
         } else {
             Logger.warning("Cannot delete shipment: Shipment with ID " + id + " not found");
@@ -154,10 +257,166 @@ public class ShipmentRepository {
         }
     }
 
+    // ======================
+    // Secondary index maintenance
+    // ======================
+
+    /**
+     * (Re)indexes a shipment under its current user, delivery person, status and creation date.
+     *
+     * @param shipment the shipment to index
+     */
+    private void index(Shipment shipment) {
+        unindex(shipment.getId());
+        IndexKeys keys = new IndexKeys(shipment);
+        addToIndex(idsByUser, keys.userId, shipment.getId());
+        addToIndex(idsByDeliveryPerson, keys.deliveryPersonId, shipment.getId());
+        addToIndex(idsByStatus, keys.status, shipment.getId());
+        if (keys.status == null) {
+            idsWithoutStatus.add(shipment.getId());
+        }
+        addToIndex(idsByCreatedAt, keys.createdAt, shipment.getId());
+        if (keys.createdAt == null) {
+            idsWithoutCreatedAt.add(shipment.getId());
+        }
+        indexedKeys.put(shipment.getId(), keys);
+        if (shipment.isActive()) {
+            activeTimelineByUser.put(shipment.getId(), keys.userId, keys.createdAt,
+                    keys.status != null ? keys.status.name() : null);
+        }
+        if (GeoGridIndex.hasCoordinates(shipment.getOrigin())) {
+            idsByPickupLocation.put(shipment.getId(), shipment.getOrigin().getLatitude(),
+                    shipment.getOrigin().getLongitude(), shipment.getId());
+        }
+        aggregates.add(shipment);
+        columns.put(shipment);
+    }
+
+    /**
+     * Removes a shipment from every secondary index using the keys it was last indexed under.
+     *
+     * @param id the shipment ID
+     */
+    private void unindex(String id) {
+        aggregates.remove(id);
+        columns.remove(id);
+        idsByPickupLocation.remove(id);
+        activeTimelineByUser.remove(id);
+        IndexKeys keys = indexedKeys.remove(id);
+        if (keys == null) {
+            return;
+        }
+        removeFromIndex(idsByUser, keys.userId, id);
+        removeFromIndex(idsByDeliveryPerson, keys.deliveryPersonId, id);
+        removeFromIndex(idsByStatus, keys.status, id);
+        idsWithoutStatus.remove(id);
+        removeFromIndex(idsByCreatedAt, keys.createdAt, id);
+        idsWithoutCreatedAt.remove(id);
+    }
+
+    private static <K> void addToIndex(Map<K, Set<String>> index, K key, String id) {
+        if (key != null) {
+            index.computeIfAbsent(key, k -> new HashSet<>()).add(id);
+        }
+    }
+
+    private static <K> void removeFromIndex(Map<K, Set<String>> index, K key, String id) {
+        if (key == null) {
+            return;
+        }
+        Set<String> ids = index.get(key);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Resolves indexed IDs to active shipments.
+     *
+     * @param ids the shipment IDs taken from an index (may be null)
+     * @return list of active shipments
+     */
+    private List<Shipment> resolveActive(Collection<String> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Shipment> result = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Shipment shipment = shipmentsById.get(id);
+            if (shipment != null && shipment.isActive()) {
+                result.add(shipment);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Snapshot of the indexed fields of a shipment at the time it was indexed.
+     */
+    private static final class IndexKeys {
+        private final String userId;
+        private final String deliveryPersonId;
+        private final ShipmentStatus status;
+        private final LocalDateTime createdAt;
+
+        private IndexKeys(Shipment shipment) {
+            this.userId = shipment.getUserId();
+            this.deliveryPersonId = shipment.getDeliveryPersonId();
+            this.status = shipment.getStatus();
+            this.createdAt = shipment.getCreatedAt();
+        }
+    }
+
     // ======================
     // Query methods
     // ======================
 
+    /**
+     * Runs a read-modify-write sequence on one shipment, excluding other sequences on the same shipment.
+     * Other shipments are not blocked, and plain reads and writes of the repository do not wait for it.
+     *
+     * @param id     the ID of the shipment the sequence reads and updates
+     * @param action the sequence
+     * @param <R>    the result type
+     * @return the result of {@code action}
+     */
+    public <R> R withLock(String id, Supplier<R> action) {
+        return shipmentLocks.withLock(id, action);
+    }
+
+    /**
+     * Runs a sequence that reads and updates several shipments, excluding other sequences on any of them.
+     *
+     * @param ids    the IDs of the shipments involved
+     * @param action the sequence
+     * @param <R>    the result type
+     * @return the result of {@code action}
+     */
+    public <R> R withLocks(Collection<String> ids, Supplier<R> action) {
+        return shipmentLocks.withLocks(ids, action);
+    }
+
+    /**
+     * Returns the incrementally maintained shipment aggregates used by the dashboard.
+     *
+     * @return the live aggregates of this repository
+     */
+    public ShipmentAggregates getAggregates() {
+        return aggregates;
+    }
+
+    /**
+     * Returns the columnar copy of the shipments used by range reports.
+     *
+     * @return the live column store of this repository
+     */
+    public ShipmentColumnStore getColumnStore() {
+        return columns;
+    }
+
     /**
      * Finds a shipment by its ID with O(1) complexity.
      *
@@ -165,7 +424,12 @@ public class ShipmentRepository {
      * @return an {@link Optional} containing the shipment if found, or empty otherwise
      */
     public Optional<Shipment> findById(String id) {
-        return Optional.ofNullable(shipmentsById.get(id));
+        if (id == null) {
+            return Optional.empty();
+        }
+        Shipment shipment = shipmentsById.get(id);
+        journal.trackBefore(id, shipment);
+        return Optional.ofNullable(shipment);
     }
 
     /**
@@ -173,7 +437,7 @@ public class ShipmentRepository {
      *
      * @return a new list containing all shipments
      */
-    public List<Shipment> findAll() {
+    public synchronized List<Shipment> findAll() {
         return new ArrayList<>(shipmentsById.values());
     }
 
@@ -183,15 +447,40 @@ public class ShipmentRepository {
      * @param userId the user ID
      * @return list of shipments for the user
      */
-    public List<Shipment> findByUser(String userId) {
+    public synchronized List<Shipment> findByUser(String userId) {
         if (userId == null) {
             return new ArrayList<>();
         }
 
-        return shipmentsById.values().stream()
-                .filter(s -> userId.equals(s.getUserId()))
-                .filter(Shipment::isActive)
-                .collect(Collectors.toList());
+        return resolveActive(idsByUser.get(userId));
+    }
+
+    /**
+     * Reads a user's active shipments newest first, resuming after a position.
+     *
+     * @param userId the user ID
+     * @param after the position to resume after (exclusive), or null to start at the newest shipment
+     * @param limit the maximum number of shipments to return
+     * @param condition the condition the shipments must meet (null means all)
+     * @return up to {@code limit} shipments
+     */
+    public synchronized List<Shipment> findUserTimeline(String userId, OwnerTimelineIndex.Position after, int limit,
+                                                        Predicate<Shipment> condition) {
+        Predicate<String> idCondition = condition == null ? null : id -> {
+            Shipment shipment = shipmentsById.get(id);
+            return shipment != null && condition.test(shipment);
+        };
+        return resolveActive(activeTimelineByUser.after(userId, after, limit, idCondition));
+    }
+
+    /**
+     * Counts a user's active shipments per status without reading them.
+     *
+     * @param userId the user ID
+     * @return the number of active shipments per status name
+     */
+    public synchronized Map<String, Long> countUserActiveByStatus(String userId) {
+        return activeTimelineByUser.countByTag(userId);
     }
 
     /**
@@ -200,15 +489,12 @@ public class ShipmentRepository {
      * @param deliveryPersonId the delivery person ID
      * @return list of shipments for the delivery person
      */
-    public List<Shipment> findByDeliveryPerson(String deliveryPersonId) {
+    public synchronized List<Shipment> findByDeliveryPerson(String deliveryPersonId) {
         if (deliveryPersonId == null) {
             return new ArrayList<>();
         }
 
-        return shipmentsById.values().stream()
-                .filter(s -> deliveryPersonId.equals(s.getDeliveryPersonId()))
-                .filter(Shipment::isActive)
-                .collect(Collectors.toList());
+        return resolveActive(idsByDeliveryPerson.get(deliveryPersonId));
     }
 
     /**
@@ -217,15 +503,32 @@ public class ShipmentRepository {
      * @param status the shipment status
      * @return list of shipments with the given status
      */
-    public List<Shipment> findByStatus(ShipmentStatus status) {
+    public synchronized List<Shipment> findByStatus(ShipmentStatus status) {
         if (status == null) {
             return new ArrayList<>();
         }
 
-        return shipmentsById.values().stream()
-                .filter(s -> status.equals(s.getStatus()))
-                .filter(Shipment::isActive)
-                .collect(Collectors.toList());
+        return resolveActive(idsByStatus.get(status));
+    }
+
+    /**
+     * Finds active shipments whose pickup (origin) address lies within a radius, nearest first.
+     * Only shipments whose origin has latitude/longitude are indexed.
+     *
+     * @param latitude latitude of the center in degrees
+     * @param longitude longitude of the center in degrees
+     * @param radiusKm radius in kilometers
+     * @return matching shipments paired with their distance, sorted by ascending distance
+     */
+    public synchronized List<GeoGridIndex.Match<Shipment>> findByPickupRadius(double latitude, double longitude, double radiusKm) {
+        List<GeoGridIndex.Match<Shipment>> result = new ArrayList<>();
+        for (GeoGridIndex.Match<String> match : idsByPickupLocation.withinRadius(latitude, longitude, radiusKm)) {
+            Shipment shipment = shipmentsById.get(match.getValue());
+            if (shipment != null && shipment.isActive()) {
+                result.add(GeoGridIndex.Match.of(shipment, match.getDistanceKm()));
+            }
+        }
+        return result;
     }
 
     /**
@@ -235,7 +538,7 @@ public class ShipmentRepository {
      * @param end end date (inclusive)
      * @return list of shipments in the date range
      */
-    public List<Shipment> findByDateRange(LocalDate start, LocalDate end) {
+    public synchronized List<Shipment> findByDateRange(LocalDate start, LocalDate end) {
         if (start == null || end == null) {
             return new ArrayList<>();
         }
@@ -243,12 +546,13 @@ public class ShipmentRepository {
         LocalDateTime startDateTime = start.atStartOfDay();
         LocalDateTime endDateTime = end.atTime(23, 59, 59);
 
-        return shipmentsById.values().stream()
-                .filter(s -> s.getCreatedAt() != null)
-                .filter(s -> !s.getCreatedAt().isBefore(startDateTime))
-                .filter(s -> !s.getCreatedAt().isAfter(endDateTime))
-                .filter(Shipment::isActive)
-                .collect(Collectors.toList());
+        if (startDateTime.isAfter(endDateTime)) {
+            return new ArrayList<>();
+        }
+
+        List<String> ids = new ArrayList<>();
+        idsByCreatedAt.subMap(startDateTime, true, endDateTime, true).values().forEach(ids::addAll);
+        return resolveActive(ids);
     }
 
     /**
@@ -257,7 +561,7 @@ public class ShipmentRepository {
      * @param zone the city/zone name
      * @return list of shipments in the zone
      */
-    public List<Shipment> findByZone(String zone) {
+    public synchronized List<Shipment> findByZone(String zone) {
         if (zone == null || zone.trim().isEmpty()) {
             return new ArrayList<>();
         }
@@ -275,11 +579,9 @@ public class ShipmentRepository {
      *
      * @return list of unassigned shipments
      */
-    public List<Shipment> findUnassigned() {
-        return shipmentsById.values().stream()
+    public synchronized List<Shipment> findUnassigned() {
+        return findByStatus(ShipmentStatus.READY_FOR_PICKUP).stream()
                 .filter(s -> s.getDeliveryPersonId() == null)
-                .filter(s -> s.getStatus() == ShipmentStatus.READY_FOR_PICKUP)
-                .filter(Shipment::isActive)
                 .collect(Collectors.toList());
     }
 
@@ -288,15 +590,21 @@ public class ShipmentRepository {
      *
      * @return list of delayed shipments
      */
-    public List<Shipment> findDelayed() {
+    public synchronized List<Shipment> findDelayed() {
         LocalDateTime now = LocalDateTime.now();
 
-        return shipmentsById.values().stream()
+        // Only open statuses can be delayed, so walk those buckets instead of the whole table;
+        // shipments without a status are in no bucket but were always reported, so add them too
+        List<String> openIds = new ArrayList<>(idsWithoutStatus);
+        idsByStatus.forEach((status, ids) -> {
+            if (status != ShipmentStatus.DELIVERED && status != ShipmentStatus.CANCELLED) {
+                openIds.addAll(ids);
+            }
+        });
+
+        return resolveActive(openIds).stream()
                 .filter(s -> s.getEstimatedDate() != null)
                 .filter(s -> s.getEstimatedDate().isBefore(now))
-                .filter(s -> s.getStatus() != ShipmentStatus.DELIVERED)
-                .filter(s -> s.getStatus() != ShipmentStatus.CANCELLED)
-                .filter(Shipment::isActive)
                 .collect(Collectors.toList());
     }
 
@@ -305,7 +613,7 @@ public class ShipmentRepository {
      *
      * @return list of shipments with incidents
      */
-    public List<Shipment> findWithIncidents() {
+    public synchronized List<Shipment> findWithIncidents() {
         return shipmentsById.values().stream()
                 .filter(s -> s.getIncident() != null)
                 .filter(Shipment::isActive)
@@ -314,18 +622,259 @@ public class ShipmentRepository {
 
     /**
      * Searches shipments using advanced filtering.
+     * <p>The most selective pinned field (user, delivery person or status) drives the search and
+     * the other pinned fields are intersected by index lookup. A creation date range is used as the
+     * access path only when none of those is set. Remaining predicates are then applied to the
+     * candidates. The execution report is available through {@link #getLastSearchExplain()}.</p>
      *
      * @param filter the filter criteria
      * @return list of shipments matching the filter
      */
-    public List<Shipment> search(ShipmentFilterDTO filter) {
+    public synchronized List<Shipment> search(ShipmentFilterDTO filter) {
+        List<Shipment> result = new ArrayList<>();
+        lastSearchExplain = executeSearch(filter, result);
+        return result;
+    }
+
+    /**
+     * Searches shipments and returns one sorted page of the matches.
+     * <p>When sorting by creation date and no user, delivery person or status is pinned, the creation date
+     * index (or the slice covered by the date range) is walked in the requested direction and only the
+     * requested page is collected; every match is still tested so the total is exact.
+     * Otherwise the matches are found as in {@link #search} and sorted by the key.</p>
+     * <p>Facets are counted only for the first page (offset 0); later pages of the same query carry no
+     * facet counts, and callers keep the ones of the first page.</p>
+     *
+     * @param filter the filter criteria (null means all shipments)
+     * @param extraCondition an additional condition the shipments must meet (may be null)
+     * @param sortKey the sort key (null means creation date)
+     * @param request the page offset, size and sort direction
+     * @return the page with its execution report and, for the first page, the number of matches per status
+     *         and {@link #FACET_WITH_INCIDENT}
+     */
+    public synchronized PageDTO<Shipment> searchPage(ShipmentFilterDTO filter, Predicate<Shipment> extraCondition,
+                                                     ShipmentSortKey sortKey, PageRequestDTO request) {
+        long start = System.nanoTime();
+        ShipmentFilterDTO criteria = filter != null ? filter : new ShipmentFilterDTO();
+        Predicate<Shipment> matches = extraCondition == null
+                ? shipment -> matchesFilter(shipment, criteria)
+                : shipment -> matchesFilter(shipment, criteria) && extraCondition.test(shipment);
+        ShipmentSortKey key = sortKey != null ? sortKey : ShipmentSortKey.CREATED_AT;
+        boolean ascending = request.isAscending();
+        int from = Math.max(0, request.getOffset());
+        int to = from + Math.max(0, Math.min(request.getSize(), Integer.MAX_VALUE - from));
+
+        Map<String, Long> facets = from == 0 ? new HashMap<>() : null;
+        List<Shipment> page = new ArrayList<>();
+        long total = 0;
+        long examined = 0;
+        AccessPath accessPath;
+        List<AccessPath> intersected = new ArrayList<>();
+
+        if (key == ShipmentSortKey.CREATED_AT && pinnedIndexes(criteria).isEmpty()) {
+            boolean dateRange = criteria.getDateFrom() != null || criteria.getDateTo() != null;
+            accessPath = dateRange ? AccessPath.CREATED_AT_RANGE : AccessPath.CREATED_AT_INDEX;
+            NavigableMap<LocalDateTime, Set<String>> range = dateRange ? createdAtRange(criteria) : idsByCreatedAt;
+            List<Collection<String>> buckets = new ArrayList<>(ascending ? range.values() : range.descendingMap().values());
+            if (!dateRange) {
+                // Shipments without a creation date sort last, as in ShipmentSortKey
+                buckets.add(idsWithoutCreatedAt);
+            }
+            for (Collection<String> bucket : buckets) {
+                for (String id : sortedIds(bucket, ascending)) {
+                    examined++;
+                    Shipment shipment = shipmentsById.get(id);
+                    if (shipment == null || !matches.test(shipment)) {
+                        continue;
+                    }
+                    if (total >= from && total < to) {
+                        page.add(shipment);
+                    }
+                    total++;
+                    if (facets != null) {
+                        countFacets(facets, shipment);
+                    }
+                }
+            }
+        } else {
+            List<Shipment> candidates = new ArrayList<>();
+            SearchExplainDTO plan = executeSearch(criteria, candidates);
+            accessPath = plan.getAccessPath();
+            intersected.addAll(plan.getIntersectedWith());
+            examined = plan.getRowsExamined();
+
+            List<Shipment> matching = extraCondition == null ? candidates
+                    : candidates.stream().filter(extraCondition).collect(Collectors.toList());
+            if (facets != null) {
+                matching.forEach(shipment -> countFacets(facets, shipment));
+            }
+            matching.sort(key.comparator(ascending));
+            total = matching.size();
+            if (from < total) {
+                page.addAll(matching.subList(from, (int) Math.min(to, total)));
+            }
+        }
+
+        double elapsedMillis = (System.nanoTime() - start) / 1_000_000.0;
+        SearchExplainDTO explain = new SearchExplainDTO(accessPath, intersected, examined, total,
+                shipmentsById.size(), elapsedMillis);
+        return new PageDTO<>(page, from, total, facets, explain);
+    }
+
+    /**
+     * Orders the IDs of one index bucket, so shipments created at the same instant page deterministically.
+     */
+    private static List<String> sortedIds(Collection<String> ids, boolean ascending) {
+        List<String> sorted = new ArrayList<>(ids);
+        sorted.sort(ascending ? Comparator.naturalOrder() : Comparator.reverseOrder());
+        return sorted;
+    }
+
+    private static void countFacets(Map<String, Long> facets, Shipment shipment) {
+        if (shipment.getStatus() != null) {
+            facets.merge(shipment.getStatus().name(), 1L, Long::sum);
+        }
+        if (shipment.getIncident() != null) {
+            facets.merge(FACET_WITH_INCIDENT, 1L, Long::sum);
+        }
+    }
+
+    /**
+     * Runs a search only to report how it would be executed.
+     *
+     * @param filter the filter criteria
+     * @return the execution report (access path, rows examined and matched)
+     */
+    public synchronized SearchExplainDTO explain(ShipmentFilterDTO filter) {
+        return executeSearch(filter, new ArrayList<>());
+    }
+
+    /**
+     * Returns the execution report of the most recent {@link #search(ShipmentFilterDTO)} call.
+     *
+     * @return the last report, or null if no search has run yet
+     */
+    public SearchExplainDTO getLastSearchExplain() {
+        return lastSearchExplain;
+    }
+
+    /**
+     * Plans and executes a search, collecting matches into {@code result}.
+     *
+     * @param filter the filter criteria (null means all shipments)
+     * @param result list that receives the matching shipments
+     * @return the execution report
+     */
+    private SearchExplainDTO executeSearch(ShipmentFilterDTO filter, List<Shipment> result) {
+        long start = System.nanoTime();
+        AccessPath accessPath;
+        List<AccessPath> intersected = new ArrayList<>();
+        long examined = 0;
+
+        List<IndexCandidate> pinned = filter != null ? pinnedIndexes(filter) : new ArrayList<>();
+
         if (filter == null) {
-            return findAll();
+            accessPath = AccessPath.FULL_SCAN;
+            result.addAll(shipmentsById.values());
+            examined = result.size();
+        } else if (!pinned.isEmpty()) {
+            // Drive from the smallest set, probe the others
+            pinned.sort(Comparator.comparingInt(c -> c.ids.size()));
+            IndexCandidate driver = pinned.get(0);
+            List<IndexCandidate> probes = pinned.subList(1, pinned.size());
+            accessPath = driver.path;
+            probes.forEach(c -> intersected.add(c.path));
+
+            for (String id : driver.ids) {
+                if (!containedInAll(probes, id)) {
+                    continue;
+                }
+                examined++;
+                Shipment shipment = shipmentsById.get(id);
+                if (shipment != null && matchesFilter(shipment, filter)) {
+                    result.add(shipment);
+                }
+            }
+        } else if (filter.getDateFrom() != null || filter.getDateTo() != null) {
+            accessPath = AccessPath.CREATED_AT_RANGE;
+            for (Set<String> ids : createdAtRange(filter).values()) {
+                for (String id : ids) {
+                    examined++;
+                    Shipment shipment = shipmentsById.get(id);
+                    if (shipment != null && matchesFilter(shipment, filter)) {
+                        result.add(shipment);
+                    }
+                }
+            }
+        } else {
+            accessPath = AccessPath.FULL_SCAN;
+            for (Shipment shipment : shipmentsById.values()) {
+                examined++;
+                if (matchesFilter(shipment, filter)) {
+                    result.add(shipment);
+                }
+            }
         }
 
-        return shipmentsById.values().stream()
-                .filter(s -> matchesFilter(s, filter))
-                .collect(Collectors.toList());
+        double elapsedMillis = (System.nanoTime() - start) / 1_000_000.0;
+        return new SearchExplainDTO(accessPath, intersected, examined, result.size(), shipmentsById.size(), elapsedMillis);
+    }
+
+    /**
+     * Collects the hash indexes pinned by the filter, with their current candidate sets.
+     */
+    private List<IndexCandidate> pinnedIndexes(ShipmentFilterDTO filter) {
+        List<IndexCandidate> pinned = new ArrayList<>();
+        if (filter.getUserId() != null) {
+            pinned.add(new IndexCandidate(AccessPath.USER_INDEX,
+                    idsByUser.getOrDefault(filter.getUserId(), Set.of())));
+        }
+        if (filter.getDeliveryPersonId() != null) {
+            pinned.add(new IndexCandidate(AccessPath.DELIVERY_PERSON_INDEX,
+                    idsByDeliveryPerson.getOrDefault(filter.getDeliveryPersonId(), Set.of())));
+        }
+        if (filter.getStatus() != null) {
+            pinned.add(new IndexCandidate(AccessPath.STATUS_INDEX,
+                    idsByStatus.getOrDefault(filter.getStatus(), Set.of())));
+        }
+        return pinned;
+    }
+
+    private static boolean containedInAll(List<IndexCandidate> probes, String id) {
+        for (IndexCandidate probe : probes) {
+            if (!probe.ids.contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the slice of the creation date index covered by the filter's date range.
+     */
+    private NavigableMap<LocalDateTime, Set<String>> createdAtRange(ShipmentFilterDTO filter) {
+        if (filter.getDateFrom() != null && filter.getDateTo() != null) {
+            LocalDateTime from = filter.getDateFrom().atStartOfDay();
+            LocalDateTime to = filter.getDateTo().atTime(23, 59, 59);
+            return from.isAfter(to) ? new TreeMap<>() : idsByCreatedAt.subMap(from, true, to, true);
+        }
+        if (filter.getDateFrom() != null) {
+            return idsByCreatedAt.tailMap(filter.getDateFrom().atStartOfDay(), true);
+        }
+        return idsByCreatedAt.headMap(filter.getDateTo().atTime(23, 59, 59), true);
+    }
+
+    /**
+     * A pinned index and the shipment IDs it yields.
+     */
+    private static final class IndexCandidate {
+        private final AccessPath path;
+        private final Set<String> ids;
+
+        private IndexCandidate(AccessPath path, Set<String> ids) {
+            this.path = path;
+            this.ids = ids;
+        }
     }
 
     /**
@@ -379,12 +928,14 @@ public class ShipmentRepository {
             // TODO: Consider adding a zone field to Shipment or using delivery person's coverage area
         }
 
-        // Filter by search text (ID or address)
+        // Filter by search text (ID, street or city)
         if (filter.getSearchText() != null && !filter.getSearchText().trim().isEmpty()) {
             String searchLower = filter.getSearchText().toLowerCase();
             boolean matchesSearch = shipment.getId().toLowerCase().contains(searchLower) ||
                                    (shipment.getOrigin() != null && shipment.getOrigin().getStreet().toLowerCase().contains(searchLower)) ||
-                                   (shipment.getDestination() != null && shipment.getDestination().getStreet().toLowerCase().contains(searchLower));
+                                   (shipment.getDestination() != null && shipment.getDestination().getStreet().toLowerCase().contains(searchLower)) ||
+                                   (shipment.getOrigin() != null && shipment.getOrigin().getCity() != null && shipment.getOrigin().getCity().toLowerCase().contains(searchLower)) ||
+                                   (shipment.getDestination() != null && shipment.getDestination().getCity() != null && shipment.getDestination().getCity().toLowerCase().contains(searchLower));
             if (!matchesSearch) return false;
         }
 
@@ -5,15 +5,16 @@ import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.Logger;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.GsonProvider;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.JsonFileHandler;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.RepositoryPaths;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.RepositoryValidator;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.WriteBehindFlusher;
 import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 
-import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Manages the persistence and retrieval of Tariff entities using a HashMap for fast lookups.
@@ -25,12 +26,13 @@ public class TariffRepository {
     private final Gson gson = GsonProvider.createGson();
     private static TariffRepository instance;
     private final Map<String, Tariff> tariffsById;
+    private volatile long version;
 
     /**
      * Private constructor that loads data from the file upon initialization.
      */
     private TariffRepository() {
-        this.tariffsById = new HashMap<>();
+        this.tariffsById = new ConcurrentHashMap<>();
         loadFromFile();
     }
 
@@ -50,35 +52,53 @@ public class TariffRepository {
     // Private file handling methods
     // ======================
 
-    private void saveToFile() {
-        List<Tariff> tariffList = new ArrayList<>(tariffsById.values());
-        JsonFileHandler.saveToFile(RepositoryPaths.TARIFFS_PATH, tariffList, gson);
+    private synchronized boolean saveToFile() {
+        return JsonFileHandler.saveToFile(RepositoryPaths.TARIFFS_PATH, tariffsById.values(), gson);
+    }
+
+    /**
+     * Schedules a rewrite of the file, coalesced with other changes made shortly before or after.
+     */
+    private void markDirty() {
+        WriteBehindFlusher.getInstance().markDirty(RepositoryPaths.TARIFFS_PATH, this::saveToFile);
     }
 
     private void loadFromFile() {
-        Type listType = new TypeToken<ArrayList<Tariff>>() {}.getType();
-        Optional<List<Tariff>> loadedTariffs = JsonFileHandler.loadFromFile(
-                RepositoryPaths.TARIFFS_PATH,
-                listType,
-                gson
-        );
-
-        loadedTariffs.ifPresent(tariffs -> {
-            Logger.info("Loading " + tariffs.size() + " tariffs from file...");
-            for (Tariff tariff : tariffs) {
+        JsonFileHandler.loadEach(RepositoryPaths.TARIFFS_PATH, Tariff.class, gson, tariff -> {
+            if (RepositoryValidator.validateId(tariff.getId(), "Tariff")) {
                 tariffsById.put(tariff.getId(), tariff);
+            } else {
+                Logger.warning("Warning: Skipping corrupt tariff entry in JSON file");
             }
-            Logger.info("Successfully loaded " + tariffsById.size() + " tariffs");
         });
+        Logger.info("Successfully loaded " + tariffsById.size() + " tariffs");
     }
 
     // ======================
     // Handling methods
     // ======================
 
-    public void addTariff(Tariff tariff) {
+    public synchronized void addTariff(Tariff tariff) {
+        if (!RepositoryValidator.validateEntity(tariff, "Tariff") || !RepositoryValidator.validateId(tariff.getId(), "Tariff")) {
+            return;
+        }
+        tariffsById.put(tariff.getId(), tariff);
+        version++;
+        markDirty();
+    }
+
+    /**
+     * Replaces an existing tariff.
+     * @param tariff The tariff with its new values
+     * @throws IllegalArgumentException if no tariff with that ID exists
+     */
+    public synchronized void updateTariff(Tariff tariff) {
+        if (tariff.getId() == null || !tariffsById.containsKey(tariff.getId())) {
+            throw new IllegalArgumentException("Tariff not found: " + tariff.getId());
+        }
         tariffsById.put(tariff.getId(), tariff);
-        saveToFile();
+        version++;
+        markDirty();
     }
 
     // ======================
@@ -86,10 +106,22 @@ public class TariffRepository {
     // ======================
 
     public Optional<Tariff> findById(String id) {
+        if (id == null) {
+            return Optional.empty();
+        }
         return Optional.ofNullable(tariffsById.get(id));
     }
 
-    public List<Tariff> findAll() {
+    public synchronized List<Tariff> findAll() {
         return new ArrayList<>(tariffsById.values());
     }
+
+    /**
+     * Returns a counter that changes every time a tariff is added or updated,
+     * so callers can tell whether anything derived from the tariffs is stale.
+     * @return The current version
+     */
+    public long getVersion() {
+        return version;
+    }
 }
@@ -6,19 +6,21 @@ import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.GsonProvide
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.JsonFileHandler;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.RepositoryPaths;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.RepositoryValidator;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.WriteBehindFlusher;
 import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 
-import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Manages the persistence and retrieval of User entities using HashMaps for fast lookups by ID and email.
- * <p>This class is implemented as a Singleton and saves data to a local JSON file.</p>
+ * <p>This class is implemented as a Singleton and saves data to a local JSON file. Changes are
+ * written shortly after they are made, coalesced by {@link WriteBehindFlusher}.</p>
  */
 public class UserRepository {
 
@@ -41,8 +43,8 @@ public class UserRepository {
      * Private constructor that loads data from the file upon initialization.
      */
     private UserRepository() {
-        this.usersById = new HashMap<>();
-        this.usersByEmail = new HashMap<>();
+        this.usersById = new ConcurrentHashMap<>();
+        this.usersByEmail = new ConcurrentHashMap<>();
         loadFromFile();
         Logger.info("UserRepository initialized. Users loaded: " + usersById.size());
     }
@@ -66,10 +68,17 @@ public class UserRepository {
     /**
      * Saves the current list of users to the users.json file.
      * This method ensures that the parent directory exists before writing the file.
+     * @return {@code true} if the file was written
      */
-    private void saveToFile() {
-        List<User> userList = new ArrayList<>(usersById.values());
-        JsonFileHandler.saveToFile(RepositoryPaths.USERS_PATH, userList, gson);
+    private synchronized boolean saveToFile() {
+        return JsonFileHandler.saveToFile(RepositoryPaths.USERS_PATH, usersById.values(), gson);
+    }
+
+    /**
+     * Schedules a rewrite of the file, coalesced with other changes made shortly before or after.
+     */
+    private void markDirty() {
+        WriteBehindFlusher.getInstance().markDirty(RepositoryPaths.USERS_PATH, this::saveToFile);
     }
 
     /**
@@ -77,25 +86,15 @@ public class UserRepository {
      * This method is now more robust against parsing errors.
      */
     private void loadFromFile() {
-        Type listType = new TypeToken<ArrayList<User>>() {}.getType();
-        Optional<List<User>> loadedUsers = JsonFileHandler.loadFromFile(
-                RepositoryPaths.USERS_PATH,
-                listType,
-                gson
-        );
-
-        loadedUsers.ifPresent(users -> {
-            Logger.info("Loading " + users.size() + " users from file...");
-            for (User user : users) {
-                if (RepositoryValidator.validateEntityWithIdAndEmail(user, user.getId(), user.getEmail(), "User")) {
-                    usersById.put(user.getId(), user);
-                    usersByEmail.put(user.getEmail().toLowerCase(), user);
-                } else {
-                    Logger.warning("Warning: Skipping corrupt user entry in JSON file");
-                }
+        JsonFileHandler.loadEach(RepositoryPaths.USERS_PATH, User.class, gson, user -> {
+            if (RepositoryValidator.validateEntityWithIdAndEmail(user, user.getId(), user.getEmail(), "User")) {
+                usersById.put(user.getId(), user);
+                usersByEmail.put(user.getEmail().toLowerCase(), user);
+            } else {
+                Logger.warning("Warning: Skipping corrupt user entry in JSON file");
             }
-            Logger.info("Successfully loaded " + usersById.size() + " users");
         });
+        Logger.info("Successfully loaded " + usersById.size() + " users");
     }
 
     // =================================================================================================================
@@ -108,7 +107,7 @@ public class UserRepository {
      *
      * @param user the user to add to the repository
      */
-    public void addUser(User user) {
+    public synchronized void addUser(User user) {
         if (!RepositoryValidator.validateEntityWithIdAndEmail(user, user.getId(), user.getEmail(), "User")) {
             return;
         }
@@ -120,7 +119,7 @@ public class UserRepository {
 
         Logger.info("Total users in memory: " + usersById.size());
 
-        saveToFile();
+        markDirty();
     }
 
     /**
@@ -129,7 +128,7 @@ public class UserRepository {
      *
      * @param userId the ID of the user to remove.
      */
-    public void removeUser(String userId) {
+    public synchronized void removeUser(String userId) {
         if (!RepositoryValidator.validateId(userId, "User")) {
             return;
         }
@@ -139,7 +138,7 @@ public class UserRepository {
             Logger.info("Removing user: " + userToRemove.getEmail());
             usersById.remove(userId);
             usersByEmail.remove(userToRemove.getEmail().toLowerCase());
-            saveToFile();
+            markDirty();
         }
     }
 
@@ -150,7 +149,7 @@ public class UserRepository {
      *
      * @param user the user to update
      */
-    public void updateUser(User user) {
+    public synchronized void updateUser(User user) {
         if (!RepositoryValidator.validateEntityWithIdAndEmail(user, user.getId(), user.getEmail(), "User")) {
             return;
         }
@@ -167,8 +166,8 @@ public class UserRepository {
         usersById.put(user.getId(), user);
         usersByEmail.put(user.getEmail().toLowerCase(), user);
 
-        saveToFile();
-        Logger.info("User updated and saved to file");
+        markDirty();
+        Logger.info("User updated, save scheduled");
     }
 
     // =================================================================================================================
@@ -180,7 +179,7 @@ public class UserRepository {
      *
      * @return a new list containing all users in the repository
      */
-    public List<User> getUsers() {
+    public synchronized List<User> getUsers() {
         return new ArrayList<>(usersById.values());
     }
 
@@ -210,10 +209,29 @@ public class UserRepository {
         return Optional.ofNullable(usersById.get(id));
     }
 
+    /**
+     * Finds several users by ID in one call. Unknown and null IDs are skipped.
+     *
+     * @param ids the IDs to look up (duplicates are fine)
+     * @return the users found, keyed by ID
+     */
+    public synchronized Map<String, User> findAllByIds(Collection<String> ids) {
+        Map<String, User> found = new HashMap<>();
+        for (String id : ids) {
+            if (id != null && !found.containsKey(id)) {
+                User user = usersById.get(id);
+                if (user != null) {
+                    found.put(id, user);
+                }
+            }
+        }
+        return found;
+    }
+
     /**
      * For debugging: prints all users currently in memory
      */
-    public void printAllUsers() {
+    public synchronized void printAllUsers() {
         Logger.info("=== Current Users in Memory ===");
         usersById.values().forEach(user ->
                 Logger.info("- " + user.getEmail() + " (ID: " + user.getId() + ")")
@@ -5,15 +5,16 @@ import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.Logger;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.GsonProvider;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.JsonFileHandler;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.RepositoryPaths;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.RepositoryValidator;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.WriteBehindFlusher;
 import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 
-import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Manages the persistence and retrieval of Vehicle entities using a HashMap for fast lookups by plate.
@@ -30,7 +31,7 @@ public class VehicleRepository {
      * Private constructor that loads data from the file upon initialization.
      */
     private VehicleRepository() {
-        this.vehiclesByPlate = new HashMap<>();
+        this.vehiclesByPlate = new ConcurrentHashMap<>();
         loadFromFile();
     }
 
@@ -45,35 +46,35 @@ public class VehicleRepository {
     // Private file handling methods
     // ======================
 
-    private void saveToFile() {
-        List<Vehicle> vehicleList = new ArrayList<>(vehiclesByPlate.values());
-        JsonFileHandler.saveToFile(RepositoryPaths.VEHICLES_PATH, vehicleList, gson);
+    private synchronized boolean saveToFile() {
+        return JsonFileHandler.saveToFile(RepositoryPaths.VEHICLES_PATH, vehiclesByPlate.values(), gson);
+    }
+
+    /**
+     * Schedules a rewrite of the file, coalesced with other changes made shortly before or after.
+     */
+    private void markDirty() {
+        WriteBehindFlusher.getInstance().markDirty(RepositoryPaths.VEHICLES_PATH, this::saveToFile);
     }
 
     private void loadFromFile() {
-        Type listType = new TypeToken<ArrayList<Vehicle>>() {}.getType();
-        Optional<List<Vehicle>> loadedVehicles = JsonFileHandler.loadFromFile(
-                RepositoryPaths.VEHICLES_PATH,
-                listType,
-                gson
-        );
-
-        loadedVehicles.ifPresent(vehicles -> {
-            Logger.info("Loading " + vehicles.size() + " vehicles from file...");
-            for (Vehicle vehicle : vehicles) {
+        JsonFileHandler.loadEach(RepositoryPaths.VEHICLES_PATH, Vehicle.class, gson, vehicle -> {
+            if (RepositoryValidator.validateId(vehicle.getPlate(), "Vehicle")) {
                 vehiclesByPlate.put(vehicle.getPlate().toLowerCase(), vehicle);
+            } else {
+                Logger.warning("Warning: Skipping vehicle without plate in JSON file");
             }
-            Logger.info("Successfully loaded " + vehiclesByPlate.size() + " vehicles");
         });
+        Logger.info("Successfully loaded " + vehiclesByPlate.size() + " vehicles");
     }
 
     // ======================
     // Handling methods
     // ======================
 
-    public void addVehicle(Vehicle vehicle) {
+    public synchronized void addVehicle(Vehicle vehicle) {
         vehiclesByPlate.put(vehicle.getPlate().toLowerCase(), vehicle);
-        saveToFile();
+        markDirty();
     }
 
     // ======================
@@ -95,7 +96,7 @@ public class VehicleRepository {
      *
      * @return a new list containing all vehicles in the repository
      */
-    public List<Vehicle> findAll() {
+    public synchronized List<Vehicle> findAll() {
         return new ArrayList<>(vehiclesByPlate.values());
     }
 
@@ -105,7 +106,7 @@ public class VehicleRepository {
      * @param deliveryPersonId the ID of the delivery person
      * @return a list of vehicles owned by the delivery person
      */
-    public List<Vehicle> findByDeliveryPersonId(String deliveryPersonId) {
+    public synchronized List<Vehicle> findByDeliveryPersonId(String deliveryPersonId) {
         List<Vehicle> result = new ArrayList<>();
         for (Vehicle vehicle : vehiclesByPlate.values()) {
             if (deliveryPersonId.equals(vehicle.getDeliveryPersonId())) {
@@ -120,10 +121,10 @@ public class VehicleRepository {
      *
      * @param vehicle the vehicle to update
      */
-    public void update(Vehicle vehicle) {
+    public synchronized void update(Vehicle vehicle) {
         if (vehicle != null && vehicle.getPlate() != null) {
             vehiclesByPlate.put(vehicle.getPlate().toLowerCase(), vehicle);
-            saveToFile();
+            markDirty();
         }
     }
 
@@ -133,10 +134,10 @@ public class VehicleRepository {
      * @param plate the license plate of the vehicle to delete
      * @return true if the vehicle was deleted, false otherwise
      */
-    public boolean delete(String plate) {
+    public synchronized boolean delete(String plate) {
         Vehicle removed = vehiclesByPlate.remove(plate.toLowerCase());
         if (removed != null) {
-            saveToFile();
+            markDirty();
             return true;
         }
         return false;
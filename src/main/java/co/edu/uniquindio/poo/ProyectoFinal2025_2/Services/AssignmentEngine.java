@@ -0,0 +1,373 @@
+package co.edu.uniquindio.poo.ProyectoFinal2025_2.Services;
+
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Address;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.DeliveryPerson;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Shipment;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Vehicle;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.AvailabilityStatus;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.CoverageArea;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.ShipmentStatus;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.VehicleType;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.DeliveryPersonRepository;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.ShipmentRepository;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.GeoGridIndex;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.VehicleSelector;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+
+/**
+ * Plans courier assignments for a batch of shipments in a single pass.
+ *
+ * <p>Eligible couriers (available, with an existing and available active vehicle) are grouped by
+ * coverage area and vehicle type. Each group is a priority queue ordered by current load, so the
+ * least-loaded courier able to carry a shipment is found with a handful of queue peeks instead of a
+ * scan over every courier and every shipment.</p>
+ *
+ * <p>A courier is a candidate when:</p>
+ * <ul>
+ *     <li>its coverage area matches the destination, or it is {@code CITY_WIDE}. Other areas are only
+ *     used when no courier covers the destination, as {@code OrderService} does;</li>
+ *     <li>its vehicle type is the one required by the shipment, or, if none is required, one that
+ *     {@link VehicleSelector#canHandleLoad} accepts for the shipment's weight and volume;</li>
+ *     <li>its vehicle still has weight capacity left after the shipments it already carries.</li>
+ * </ul>
+ *
+ * <p>When the pickup address has coordinates, couriers whose last known position (the pickup of their
+ * most recently assigned open shipment) lies within {@link #NEARBY_RADIUS_KM} are preferred; they are
+ * found through a {@link GeoGridIndex}, and the least loaded of them wins. Shipments without
+ * coordinates, or with no eligible courier nearby, fall back to the load queues.</p>
+ *
+ * <p>The engine only plans; applying and persisting the assignments is up to the caller.</p>
+ */
+public class AssignmentEngine {
+
+    /** Radius around a pickup within which couriers count as nearby. */
+    public static final double NEARBY_RADIUS_KM = 10.0;
+
+    private final ShipmentRepository shipmentRepository;
+    private final DeliveryPersonRepository deliveryPersonRepository;
+    private final VehicleService vehicleService;
+
+    /**
+     * Constructor with dependency injection.
+     * @param shipmentRepository The shipment repository, used to compute current courier load
+     * @param deliveryPersonRepository The delivery person repository
+     * @param vehicleService The vehicle service, used to resolve active vehicles
+     */
+    public AssignmentEngine(ShipmentRepository shipmentRepository,
+                            DeliveryPersonRepository deliveryPersonRepository,
+                            VehicleService vehicleService) {
+        this.shipmentRepository = shipmentRepository;
+        this.deliveryPersonRepository = deliveryPersonRepository;
+        this.vehicleService = vehicleService;
+    }
+
+    /**
+     * Default constructor using singleton instances.
+     */
+    public AssignmentEngine() {
+        this(ShipmentRepository.getInstance(), DeliveryPersonRepository.getInstance(), VehicleService.getInstance());
+    }
+
+    // ===========================
+    // Planning
+    // ===========================
+
+    /**
+     * Plans one assignment per shipment when a suitable courier exists.
+     * Higher-priority shipments are served first, then older ones.
+     *
+     * @param shipments The unassigned shipments
+     * @return The planned assignments, in the order they were decided
+     */
+    public List<Assignment> plan(List<Shipment> shipments) {
+        List<Assignment> assignments = new ArrayList<>();
+        if (shipments.isEmpty()) {
+            return assignments;
+        }
+
+        GeoGridIndex<Courier> positions = new GeoGridIndex<>();
+        Map<CoverageArea, Map<VehicleType, PriorityQueue<Courier>>> queues = buildQueues(positions);
+        if (queues.isEmpty()) {
+            return assignments;
+        }
+
+        List<Shipment> ordered = new ArrayList<>(shipments);
+        ordered.sort(Comparator.comparingInt(Shipment::getPriority).reversed()
+                .thenComparing(Shipment::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder())));
+
+        for (Shipment shipment : ordered) {
+            CoverageArea area = coverageAreaOf(shipment.getDestination());
+            Courier courier = pollNearest(queues, positions, shipment, area);
+            if (courier == null) {
+                courier = pollBest(queues, shipment, area, false);
+            }
+            if (courier == null) {
+                courier = pollBest(queues, shipment, area, true);
+            }
+            if (courier == null) {
+                continue;
+            }
+            courier.load++;
+            courier.carriedWeightKg += shipment.getWeightKg();
+            queueOf(queues, courier).add(courier);
+            if (GeoGridIndex.hasCoordinates(shipment.getOrigin())) {
+                positions.put(courier.deliveryPerson.getId(), shipment.getOrigin().getLatitude(),
+                        shipment.getOrigin().getLongitude(), courier);
+            }
+            assignments.add(new Assignment(shipment, courier.deliveryPerson, courier.vehicle));
+        }
+        return assignments;
+    }
+
+    /**
+     * Removes and returns the least-loaded eligible courier positioned near the shipment's pickup.
+     * Distance breaks ties between equally loaded couriers.
+     *
+     * @return the courier, or null if the pickup has no coordinates or no eligible courier is nearby
+     */
+    private Courier pollNearest(Map<CoverageArea, Map<VehicleType, PriorityQueue<Courier>>> queues,
+                                GeoGridIndex<Courier> positions, Shipment shipment, CoverageArea area) {
+        Address pickup = shipment.getOrigin();
+        if (!GeoGridIndex.hasCoordinates(pickup)) {
+            return null;
+        }
+
+        Courier best = null;
+        for (GeoGridIndex.Match<Courier> match :
+                positions.withinRadius(pickup.getLatitude(), pickup.getLongitude(), NEARBY_RADIUS_KM)) {
+            Courier courier = match.getValue();
+            if (courier.coversArea(area)
+                    && vehicleFits(courier.vehicle.getType(), shipment)
+                    && courier.remainingWeightKg() >= shipment.getWeightKg()
+                    && (best == null || courier.load < best.load)) {
+                // Matches come nearest first, so strictly lower load is needed to replace the current best
+                best = courier;
+            }
+        }
+        if (best != null) {
+            queueOf(queues, best).remove(best);
+        }
+        return best;
+    }
+
+    /**
+     * Removes and returns the least-loaded courier that can take the shipment.
+     * Couriers skipped because they lack capacity are put back in their queues.
+     *
+     * @param anyArea false to look only at the destination area and CITY_WIDE, true to look at every area
+     */
+    private Courier pollBest(Map<CoverageArea, Map<VehicleType, PriorityQueue<Courier>>> queues,
+                             Shipment shipment, CoverageArea area, boolean anyArea) {
+        List<PriorityQueue<Courier>> candidates = new ArrayList<>();
+        for (Map.Entry<CoverageArea, Map<VehicleType, PriorityQueue<Courier>>> byArea : queues.entrySet()) {
+            boolean inArea = byArea.getKey() == area || byArea.getKey() == CoverageArea.CITY_WIDE;
+            if (inArea == anyArea) {
+                continue;
+            }
+            for (Map.Entry<VehicleType, PriorityQueue<Courier>> byType : byArea.getValue().entrySet()) {
+                if (vehicleFits(byType.getKey(), shipment)) {
+                    candidates.add(byType.getValue());
+                }
+            }
+        }
+
+        Courier best = null;
+        PriorityQueue<Courier> bestQueue = null;
+        for (PriorityQueue<Courier> queue : candidates) {
+            Courier head = peekWithCapacity(queue, shipment.getWeightKg());
+            if (head != null && (best == null || Courier.BY_LOAD.compare(head, best) < 0)) {
+                best = head;
+                bestQueue = queue;
+            }
+        }
+        if (bestQueue != null) {
+            bestQueue.remove(best);
+        }
+        return best;
+    }
+
+    /**
+     * Returns the least-loaded courier of the queue with room for the given weight, without removing it.
+     * Couriers already at capacity are dropped, since their load only grows during a batch.
+     */
+    private static Courier peekWithCapacity(PriorityQueue<Courier> queue, double weightKg) {
+        List<Courier> skipped = new ArrayList<>();
+        Courier found = null;
+        while (!queue.isEmpty()) {
+            Courier head = queue.peek();
+            if (head.remainingWeightKg() >= weightKg) {
+                found = head;
+                break;
+            }
+            queue.poll();
+            if (head.remainingWeightKg() > 0) {
+                skipped.add(head);
+            }
+        }
+        queue.addAll(skipped);
+        return found;
+    }
+
+    private static boolean vehicleFits(VehicleType type, Shipment shipment) {
+        if (shipment.getVehicleType() != null) {
+            return shipment.getVehicleType() == type;
+        }
+        return VehicleSelector.canHandleLoad(type, shipment.getWeightKg(), shipment.getVolumeM3());
+    }
+
+    // ===========================
+    // Courier queues
+    // ===========================
+
+    private Map<CoverageArea, Map<VehicleType, PriorityQueue<Courier>>> buildQueues(GeoGridIndex<Courier> positions) {
+        Map<CoverageArea, Map<VehicleType, PriorityQueue<Courier>>> queues = new EnumMap<>(CoverageArea.class);
+        for (DeliveryPerson deliveryPerson : deliveryPersonRepository.getAllDeliveryPersons()) {
+            if (deliveryPerson.getAvailability() != AvailabilityStatus.AVAILABLE) {
+                continue;
+            }
+            Optional<Vehicle> vehicle = activeVehicleOf(deliveryPerson);
+            if (!vehicle.isPresent() || vehicle.get().getType() == null) {
+                continue;
+            }
+            Courier courier = new Courier(deliveryPerson, vehicle.get());
+            List<Shipment> open = new ArrayList<>();
+            for (Shipment carried : shipmentRepository.findByDeliveryPerson(deliveryPerson.getId())) {
+                if (isOpen(carried.getStatus())) {
+                    courier.load++;
+                    courier.carriedWeightKg += carried.getWeightKg();
+                    open.add(carried);
+                }
+            }
+            queueOf(queues, courier).add(courier);
+            lastKnownPosition(open).ifPresent(position -> positions.put(deliveryPerson.getId(),
+                    position.getLatitude(), position.getLongitude(), courier));
+        }
+        return queues;
+    }
+
+    private static PriorityQueue<Courier> queueOf(Map<CoverageArea, Map<VehicleType, PriorityQueue<Courier>>> queues,
+                                                  Courier courier) {
+        CoverageArea area = courier.deliveryPerson.getCoverageArea() != null
+                ? courier.deliveryPerson.getCoverageArea() : CoverageArea.CITY_WIDE;
+        return queues.computeIfAbsent(area, a -> new EnumMap<>(VehicleType.class))
+                .computeIfAbsent(courier.vehicle.getType(), t -> new PriorityQueue<>(Courier.BY_LOAD));
+    }
+
+    private Optional<Vehicle> activeVehicleOf(DeliveryPerson deliveryPerson) {
+        String plate = deliveryPerson.getActiveVehiclePlate();
+        if (plate == null || plate.isEmpty()) {
+            return Optional.empty();
+        }
+        return vehicleService.findVehicleByPlate(plate).filter(Vehicle::isAvailable);
+    }
+
+    private static boolean isOpen(ShipmentStatus status) {
+        return status == ShipmentStatus.PENDING_ASSIGNMENT
+                || status == ShipmentStatus.READY_FOR_PICKUP
+                || status == ShipmentStatus.IN_TRANSIT
+                || status == ShipmentStatus.OUT_FOR_DELIVERY;
+    }
+
+    /**
+     * Estimates where a courier is: the pickup address of its most recently assigned shipment
+     * that has coordinates.
+     * @param openShipments The courier's open shipments
+     * @return The last known position, if any shipment has a geolocated pickup
+     */
+    public static Optional<Address> lastKnownPosition(List<Shipment> openShipments) {
+        return openShipments.stream()
+                .filter(s -> GeoGridIndex.hasCoordinates(s.getOrigin()))
+                .max(Comparator.comparing(Shipment::getAssignmentDate, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .map(Shipment::getOrigin);
+    }
+
+    /**
+     * Determines the coverage area of an address with a keyword heuristic on city and state.
+     * @param address The address (typically the destination)
+     * @return NORTH or SOUTH when the address mentions it, CENTRAL otherwise
+     */
+    public static CoverageArea coverageAreaOf(Address address) {
+        if (address == null || address.getCity() == null) {
+            return CoverageArea.CENTRAL;
+        }
+
+        String city = address.getCity().toLowerCase();
+        String state = address.getState() != null ? address.getState().toLowerCase() : "";
+
+        if (city.contains("norte") || state.contains("norte")) {
+            return CoverageArea.NORTH;
+        } else if (city.contains("sur") || state.contains("sur")) {
+            return CoverageArea.SOUTH;
+        }
+        return CoverageArea.CENTRAL;
+    }
+
+    // ===========================
+    // Result and internal types
+    // ===========================
+
+    /**
+     * A planned assignment of a shipment to a courier and the vehicle that will carry it.
+     */
+    public static final class Assignment {
+        private final Shipment shipment;
+        private final DeliveryPerson deliveryPerson;
+        private final Vehicle vehicle;
+
+        private Assignment(Shipment shipment, DeliveryPerson deliveryPerson, Vehicle vehicle) {
+            this.shipment = shipment;
+            this.deliveryPerson = deliveryPerson;
+            this.vehicle = vehicle;
+        }
+
+        public Shipment getShipment() {
+            return shipment;
+        }
+
+        public DeliveryPerson getDeliveryPerson() {
+            return deliveryPerson;
+        }
+
+        public Vehicle getVehicle() {
+            return vehicle;
+        }
+    }
+
+    /**
+     * Mutable load of one courier during planning. Only mutated while out of its queue.
+     */
+    private static final class Courier {
+        private static final Comparator<Courier> BY_LOAD = Comparator
+                .comparingInt((Courier c) -> c.load)
+                .thenComparingDouble(c -> c.carriedWeightKg)
+                .thenComparing(c -> c.deliveryPerson.getId());
+
+        private final DeliveryPerson deliveryPerson;
+        private final Vehicle vehicle;
+        private final double maxWeightKg;
+        private int load;
+        private double carriedWeightKg;
+
+        private Courier(DeliveryPerson deliveryPerson, Vehicle vehicle) {
+            this.deliveryPerson = deliveryPerson;
+            this.vehicle = vehicle;
+            this.maxWeightKg = VehicleSelector.getMaxWeight(vehicle.getType());
+        }
+
+        private double remainingWeightKg() {
+            return maxWeightKg - carriedWeightKg;
+        }
+
+        private boolean coversArea(CoverageArea area) {
+            CoverageArea covered = deliveryPerson.getCoverageArea();
+            return covered == null || covered == CoverageArea.CITY_WIDE || covered == area;
+        }
+    }
+}
@@ -166,6 +166,8 @@ public class CheckoutService extends OrderProcessor {
     /**
      * Processes payment using the Command pattern.
      * This method demonstrates the Command pattern for payment operations.
+     * The command runs {@link PaymentService#processPayment}, which commits the payment and the
+     * order confirmation together.
      *
      * @param invoiceId The invoice ID to pay
      * @param paymentMethod The payment method to use
@@ -8,7 +8,6 @@ import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.DashboardStatsDTO;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.*;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.Logger;
 
-import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
@@ -19,7 +18,8 @@ import java.util.stream.Collectors;
  * <p>
  * This service provides comprehensive metrics for the admin dashboard,
  * including user activity, shipment statistics, financial data, and delivery person performance.
- * All calculations are performed in real-time based on current repository data.
+ * Shipment, revenue and incident figures are read from the {@link ShipmentAggregates} kept up to
+ * date by {@link ShipmentRepository}, so building the dashboard does not rescan the shipment table.
  * </p>
  */
 public class DashboardService {
@@ -139,37 +139,17 @@ public class DashboardService {
      * @param stats DashboardStatsDTO to populate
      */
     private void calculateShipmentMetrics(DashboardStatsDTO stats) {
-        List<Shipment> allShipments = shipmentRepository.findAll();
-        List<Shipment> activeShipments = allShipments.stream()
-            .filter(Shipment::isActive)
-            .collect(Collectors.toList());
-
-        stats.setTotalShipments(activeShipments.size());
-
-        stats.setPendingShipments(activeShipments.stream()
-            .filter(s -> s.getStatus() == ShipmentStatus.READY_FOR_PICKUP)
-            .count());
-
-        stats.setInTransitShipments(activeShipments.stream()
-            .filter(s -> s.getStatus() == ShipmentStatus.IN_TRANSIT ||
-                        s.getStatus() == ShipmentStatus.OUT_FOR_DELIVERY)
-            .count());
-
-        stats.setDeliveredShipments(activeShipments.stream()
-            .filter(s -> s.getStatus() == ShipmentStatus.DELIVERED)
-            .count());
+        ShipmentAggregates aggregates = shipmentRepository.getAggregates();
 
-        stats.setCancelledShipments(allShipments.stream()
-            .filter(s -> s.getStatus() == ShipmentStatus.CANCELLED)
-            .count());
+        stats.setTotalShipments(aggregates.getActiveShipments());
+        stats.setPendingShipments(aggregates.countActiveByStatus(ShipmentStatus.READY_FOR_PICKUP));
+        stats.setInTransitShipments(aggregates.countActiveByStatus(
+            ShipmentStatus.IN_TRANSIT, ShipmentStatus.OUT_FOR_DELIVERY));
+        stats.setDeliveredShipments(aggregates.countActiveByStatus(ShipmentStatus.DELIVERED));
+        stats.setCancelledShipments(aggregates.getCancelledShipments());
 
-        // Calculate delayed shipments (estimated date passed but not delivered)
-        LocalDateTime now = LocalDateTime.now();
-        stats.setDelayedShipments(activeShipments.stream()
-            .filter(s -> s.getEstimatedDate() != null &&
-                        s.getEstimatedDate().isBefore(now) &&
-                        s.getStatus() != ShipmentStatus.DELIVERED)
-            .count());
+        // Delayed shipments (estimated date passed but not delivered)
+        stats.setDelayedShipments(aggregates.countDelayed(LocalDateTime.now()));
 
         // Calculate delivery success rate
         long deliveredCount = stats.getDeliveredShipments();
@@ -178,14 +158,7 @@ public class DashboardService {
             completedShipments > 0 ? (double) deliveredCount / completedShipments * 100 : 0.0
         );
 
-        // Calculate average delivery time
-        double avgDeliveryTime = activeShipments.stream()
-            .filter(s -> s.getStatus() == ShipmentStatus.DELIVERED)
-            .filter(s -> s.getCreatedAt() != null && s.getDeliveredDate() != null)
-            .mapToDouble(s -> Duration.between(s.getCreatedAt(), s.getDeliveredDate()).toHours())
-            .average()
-            .orElse(0.0);
-        stats.setAverageDeliveryTimeHours(avgDeliveryTime);
+        stats.setAverageDeliveryTimeHours(aggregates.getAverageDeliveryHours());
     }
 
     // ===========================
@@ -223,50 +196,23 @@ public class DashboardService {
      * @param stats DashboardStatsDTO to populate
      */
     private void calculateFinancialMetrics(DashboardStatsDTO stats) {
-        List<Shipment> allShipments = shipmentRepository.findAll();
-        List<Shipment> completedShipments = allShipments.stream()
-            .filter(s -> s.getStatus() != ShipmentStatus.CANCELLED)
-            .collect(Collectors.toList());
+        ShipmentAggregates aggregates = shipmentRepository.getAggregates();
 
         // Total revenue from all non-cancelled shipments
-        double totalRevenue = completedShipments.stream()
-            .mapToDouble(Shipment::getTotalCost)
-            .sum();
+        double totalRevenue = aggregates.getTotalRevenue();
+        long billableShipments = aggregates.getBillableShipments();
         stats.setTotalRevenue(totalRevenue);
 
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime startOfToday = now.toLocalDate().atStartOfDay();
-        LocalDateTime startOfWeek = now.minusWeeks(1);
-        LocalDateTime startOfMonth = now.minusMonths(1);
-        LocalDateTime startOfYear = now.minusYears(1);
-
-        // Revenue today
-        stats.setRevenueToday(completedShipments.stream()
-            .filter(s -> s.getCreatedAt() != null && s.getCreatedAt().isAfter(startOfToday))
-            .mapToDouble(Shipment::getTotalCost)
-            .sum());
-
-        // Revenue this week
-        stats.setRevenueThisWeek(completedShipments.stream()
-            .filter(s -> s.getCreatedAt() != null && s.getCreatedAt().isAfter(startOfWeek))
-            .mapToDouble(Shipment::getTotalCost)
-            .sum());
-
-        // Revenue this month
-        stats.setRevenueThisMonth(completedShipments.stream()
-            .filter(s -> s.getCreatedAt() != null && s.getCreatedAt().isAfter(startOfMonth))
-            .mapToDouble(Shipment::getTotalCost)
-            .sum());
-
-        // Revenue this year
-        stats.setRevenueThisYear(completedShipments.stream()
-            .filter(s -> s.getCreatedAt() != null && s.getCreatedAt().isAfter(startOfYear))
-            .mapToDouble(Shipment::getTotalCost)
-            .sum());
+        // Revenue windows are summed from per-day buckets
+        LocalDate today = LocalDate.now();
+        stats.setRevenueToday(aggregates.getRevenueSince(today));
+        stats.setRevenueThisWeek(aggregates.getRevenueSince(today.minusWeeks(1)));
+        stats.setRevenueThisMonth(aggregates.getRevenueSince(today.minusMonths(1)));
+        stats.setRevenueThisYear(aggregates.getRevenueSince(today.minusYears(1)));
 
         // Average order value
         stats.setAverageOrderValue(
-            completedShipments.isEmpty() ? 0.0 : totalRevenue / completedShipments.size()
+            billableShipments == 0 ? 0.0 : totalRevenue / billableShipments
         );
     }
 
@@ -279,29 +225,16 @@ public class DashboardService {
      * @param stats DashboardStatsDTO to populate
      */
     private void calculateIncidentMetrics(DashboardStatsDTO stats) {
-        List<Shipment> allShipments = shipmentRepository.findAll();
-        List<Incident> allIncidents = allShipments.stream()
-            .map(Shipment::getIncident)
-            .filter(Objects::nonNull)
-            .collect(Collectors.toList());
-
-        stats.setTotalIncidents(allIncidents.size());
+        ShipmentAggregates aggregates = shipmentRepository.getAggregates();
 
-        stats.setUnresolvedIncidents(allIncidents.stream()
-            .filter(i -> !i.isResolved())
-            .count());
-
-        stats.setResolvedIncidents(allIncidents.stream()
-            .filter(Incident::isResolved)
-            .count());
+        long totalIncidents = aggregates.getTotalIncidents();
+        long unresolvedIncidents = aggregates.getUnresolvedIncidents();
+        stats.setTotalIncidents(totalIncidents);
+        stats.setUnresolvedIncidents(unresolvedIncidents);
+        stats.setResolvedIncidents(totalIncidents - unresolvedIncidents);
 
-        // Group incidents by type - use display descriptions in Spanish
-        Map<String, Long> incidentsByType = allIncidents.stream()
-            .collect(Collectors.groupingBy(
-                i -> i.getType() != null ? i.getType().getDescription() : "Desconocido",
-                Collectors.counting()
-            ));
-        stats.setIncidentsByType(incidentsByType);
+        // Incidents by type - display descriptions in Spanish
+        stats.setIncidentsByType(aggregates.getIncidentsByType());
     }
 
     // ===========================
@@ -313,44 +246,16 @@ public class DashboardService {
      * @param stats DashboardStatsDTO to populate
      */
     private void calculateTimeBasedData(DashboardStatsDTO stats) {
-        List<Shipment> allShipments = shipmentRepository.findAll();
+        ShipmentAggregates aggregates = shipmentRepository.getAggregates();
         LocalDate endDate = LocalDate.now();
         LocalDate startDate = endDate.minusDays(30);
 
-        // Shipments per day (last 30 days)
-        Map<LocalDate, Long> shipmentsPerDay = new LinkedHashMap<>();
-        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
-            LocalDate currentDate = date;
-            long count = allShipments.stream()
-                .filter(s -> s.getCreatedAt() != null &&
-                            s.getCreatedAt().toLocalDate().equals(currentDate))
-                .count();
-            shipmentsPerDay.put(date, count);
-        }
-        stats.setShipmentsPerDay(shipmentsPerDay);
-
-        // Revenue per day (last 30 days)
-        Map<LocalDate, Double> revenuePerDay = new LinkedHashMap<>();
-        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
-            LocalDate currentDate = date;
-            double revenue = allShipments.stream()
-                .filter(s -> s.getCreatedAt() != null &&
-                            s.getCreatedAt().toLocalDate().equals(currentDate) &&
-                            s.getStatus() != ShipmentStatus.CANCELLED)
-                .mapToDouble(Shipment::getTotalCost)
-                .sum();
-            revenuePerDay.put(date, revenue);
-        }
-        stats.setRevenuePerDay(revenuePerDay);
-
-        // Shipments by status - use display names in Spanish
-        Map<String, Long> shipmentsByStatus = allShipments.stream()
-            .filter(Shipment::isActive)
-            .collect(Collectors.groupingBy(
-                s -> s.getStatus() != null ? s.getStatus().getDisplayName() : "Desconocido",
-                Collectors.counting()
-            ));
-        stats.setShipmentsByStatus(shipmentsByStatus);
+        // Shipments and revenue per day (last 30 days)
+        stats.setShipmentsPerDay(aggregates.getShipmentsPerDay(startDate, endDate));
+        stats.setRevenuePerDay(aggregates.getRevenuePerDay(startDate, endDate));
+
+        // Shipments by status - display names in Spanish
+        stats.setShipmentsByStatus(aggregates.getActiveShipmentsByStatus());
 
         // User activity by day (registrations per day in last 30 days)
         // Note: User entity doesn't have registrationDate field yet
@@ -368,51 +273,34 @@ public class DashboardService {
      * @param stats DashboardStatsDTO to populate
      */
     private void calculateRelationshipMetrics(DashboardStatsDTO stats) {
-        List<Shipment> allShipments = shipmentRepository.findAll();
+        ShipmentAggregates aggregates = shipmentRepository.getAggregates();
         List<DeliveryPerson> allDeliveryPersons = deliveryPersonRepository.getAllDeliveryPersons();
 
-        // Shipments per delivery person
-        Map<String, Long> shipmentsPerDP = allShipments.stream()
-            .filter(s -> s.getDeliveryPersonId() != null)
-            .collect(Collectors.groupingBy(
-                Shipment::getDeliveryPersonId,
-                Collectors.counting()
-            ));
-
-        // Replace IDs with names
+        // Shipments per delivery person, IDs replaced with names
         Map<String, Long> shipmentsPerDPWithNames = new LinkedHashMap<>();
-        shipmentsPerDP.forEach((dpId, count) -> {
-            deliveryPersonRepository.findDeliveryPersonById(dpId).ifPresent(dp -> {
-                String name = dp.getName() + " " + (dp.getLastName() != null ? dp.getLastName() : "");
-                shipmentsPerDPWithNames.put(name.trim(), count);
-            });
-        });
+        aggregates.getShipmentsPerDeliveryPerson().forEach((dpId, count) ->
+            deliveryPersonRepository.findDeliveryPersonById(dpId).ifPresent(dp ->
+                shipmentsPerDPWithNames.put(displayName(dp), count)));
         stats.setShipmentsPerDeliveryPerson(shipmentsPerDPWithNames);
 
-        // Revenue per delivery person
-        Map<String, Double> revenuePerDP = allShipments.stream()
-            .filter(s -> s.getDeliveryPersonId() != null && s.getStatus() != ShipmentStatus.CANCELLED)
-            .collect(Collectors.groupingBy(
-                Shipment::getDeliveryPersonId,
-                Collectors.summingDouble(Shipment::getTotalCost)
-            ));
-
-        // Replace IDs with names
+        // Revenue per delivery person, IDs replaced with names
         Map<String, Double> revenuePerDPWithNames = new LinkedHashMap<>();
-        revenuePerDP.forEach((dpId, revenue) -> {
-            deliveryPersonRepository.findDeliveryPersonById(dpId).ifPresent(dp -> {
-                String name = dp.getName() + " " + (dp.getLastName() != null ? dp.getLastName() : "");
-                revenuePerDPWithNames.put(name.trim(), revenue);
-            });
-        });
+        aggregates.getRevenuePerDeliveryPerson().forEach((dpId, revenue) ->
+            deliveryPersonRepository.findDeliveryPersonById(dpId).ifPresent(dp ->
+                revenuePerDPWithNames.put(displayName(dp), revenue)));
         stats.setRevenuePerDeliveryPerson(revenuePerDPWithNames);
 
         // Average shipments per delivery person
         stats.setAverageShipmentsPerDeliveryPerson(
-            allDeliveryPersons.isEmpty() ? 0.0 : (double) allShipments.size() / allDeliveryPersons.size()
+            allDeliveryPersons.isEmpty() ? 0.0 : (double) aggregates.getTotalShipments() / allDeliveryPersons.size()
         );
     }
 
+    private static String displayName(DeliveryPerson dp) {
+        String name = dp.getName() + " " + (dp.getLastName() != null ? dp.getLastName() : "");
+        return name.trim();
+    }
+
     // ===========================
     // Chart Data Helpers
     // ===========================
@@ -433,8 +321,7 @@ public class DashboardService {
      * @return List of ChartDataDTO
      */
     public List<ChartDataDTO> getShipmentsByStatusChartData() {
-        DashboardStatsDTO stats = calculateDashboardStats();
-        return convertMapToChartData(stats.getShipmentsByStatus());
+        return convertMapToChartData(shipmentRepository.getAggregates().getActiveShipmentsByStatus());
     }
 
     /**
@@ -442,8 +329,7 @@ public class DashboardService {
      * @return List of ChartDataDTO
      */
     public List<ChartDataDTO> getIncidentsByTypeChartData() {
-        DashboardStatsDTO stats = calculateDashboardStats();
-        return convertMapToChartData(stats.getIncidentsByType());
+        return convertMapToChartData(shipmentRepository.getAggregates().getIncidentsByType());
     }
 
     /**
@@ -451,15 +337,13 @@ public class DashboardService {
      * @return List of ChartDataDTO
      */
     public List<ChartDataDTO> getRevenueTrendChartData() {
-        DashboardStatsDTO stats = calculateDashboardStats();
-        Map<LocalDate, Double> revenuePerDay = stats.getRevenuePerDay();
-
         // Get last 7 days
         LocalDate endDate = LocalDate.now();
         LocalDate startDate = endDate.minusDays(6);
+        Map<LocalDate, Double> revenuePerDay =
+            shipmentRepository.getAggregates().getRevenuePerDay(startDate, endDate);
 
         return revenuePerDay.entrySet().stream()
-            .filter(entry -> !entry.getKey().isBefore(startDate) && !entry.getKey().isAfter(endDate))
             .map(entry -> new ChartDataDTO(entry.getKey().toString(), entry.getValue()))
             .collect(Collectors.toList());
     }
@@ -469,15 +353,13 @@ public class DashboardService {
      * @return List of ChartDataDTO
      */
     public List<ChartDataDTO> getShipmentsTrendChartData() {
-        DashboardStatsDTO stats = calculateDashboardStats();
-        Map<LocalDate, Long> shipmentsPerDay = stats.getShipmentsPerDay();
-
         // Get last 7 days
         LocalDate endDate = LocalDate.now();
         LocalDate startDate = endDate.minusDays(6);
+        Map<LocalDate, Long> shipmentsPerDay =
+            shipmentRepository.getAggregates().getShipmentsPerDay(startDate, endDate);
 
         return shipmentsPerDay.entrySet().stream()
-            .filter(entry -> !entry.getKey().isBefore(startDate) && !entry.getKey().isAfter(endDate))
             .map(entry -> new ChartDataDTO(entry.getKey().toString(), entry.getValue().doubleValue()))
             .collect(Collectors.toList());
     }
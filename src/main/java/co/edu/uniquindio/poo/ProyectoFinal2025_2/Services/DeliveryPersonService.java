@@ -7,10 +7,12 @@ import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Factory.PersonFactory;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Shipment;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.PersonCreationData;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.DeliveryPersonRepository;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.ShipmentRepository;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.PasswordUtility;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.ValidationUtil;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilService.IdGenerationUtil;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -24,14 +26,17 @@ public class DeliveryPersonService {
 
     private static DeliveryPersonService instance;
     private final DeliveryPersonRepository deliveryPersonRepository;
+    private final ShipmentRepository shipmentRepository;
 
     /**
      * Package-private constructor for testing and dependency injection.
      *
      * @param deliveryPersonRepository The DeliveryPersonRepository instance to use.
+     * @param shipmentRepository       The ShipmentRepository used to resolve assigned shipment IDs.
      */
-    DeliveryPersonService(DeliveryPersonRepository deliveryPersonRepository) {
+    DeliveryPersonService(DeliveryPersonRepository deliveryPersonRepository, ShipmentRepository shipmentRepository) {
         this.deliveryPersonRepository = deliveryPersonRepository;
+        this.shipmentRepository = shipmentRepository;
     }
 
     /**
@@ -39,7 +44,7 @@ public class DeliveryPersonService {
      * Delegates to the dependency injection constructor.
      */
     private DeliveryPersonService() {
-        this(DeliveryPersonRepository.getInstance());
+        this(DeliveryPersonRepository.getInstance(), ShipmentRepository.getInstance());
     }
 
     /**
@@ -154,6 +159,25 @@ public class DeliveryPersonService {
         return deliveryPersonRepository.findDeliveryPersonById(personId);
     }
 
+    /**
+     * Gets the shipments assigned to a delivery person.
+     * Each assigned ID is resolved through the ShipmentRepository, so the returned objects are the same
+     * instances the rest of the application works with. IDs of shipments that no longer exist are skipped.
+     *
+     * @param person The delivery person.
+     * @return The assigned shipments, or an empty list if the person is null or has none.
+     */
+    public List<Shipment> getAssignedShipments(DeliveryPerson person) {
+        List<Shipment> shipments = new ArrayList<>();
+        if (person == null || person.getAssignedShipmentIds() == null) {
+            return shipments;
+        }
+        for (String shipmentId : person.getAssignedShipmentIds()) {
+            shipmentRepository.findById(shipmentId).ifPresent(shipments::add);
+        }
+        return shipments;
+    }
+
     /**
      * Assigns a shipment to a delivery person and updates their status to IN_TRANSIT.
      * Validates that both person and shipment are not null and that the person is available.
@@ -191,10 +215,12 @@ public class DeliveryPersonService {
             return false;
         }
 
-        boolean removed = person.getAssignedShipments().remove(shipment);
+        boolean removed = person.removeShipment(shipment.getId());
 
-        if (removed && person.getAssignedShipments().isEmpty()) {
-            person.setAvailability(AvailabilityStatus.AVAILABLE);
+        if (removed) {
+            if (person.getAssignedShipmentCount() == 0) {
+                person.setAvailability(AvailabilityStatus.AVAILABLE);
+            }
             deliveryPersonRepository.updateDeliveryPerson(person);
         }
 
@@ -5,36 +5,52 @@ import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.DeliveryPerson;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Invoice;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Order;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Shipment;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.User;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Vehicle;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.AvailabilityStatus;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.CoverageArea;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.OrderStatus;
-import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Observer.NotificationObserver;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.PageDTO;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.PageRequestDTO;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.DeliveryPersonRepository;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.OrderRepository;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.ShipmentRepository;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.UserRepository;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilService.IdGenerationUtil;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.Logger;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.RepositoryTransaction;
 
 import java.time.LocalDateTime;
 import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
  * <p>Orchestrates the entire order management process, acting as the central service for the Order aggregate.</p>
  * <p>This service manages the lifecycle (Saga) of an order, from initiation to confirmation and handoff
  * to the shipment process. It ensures that all state transitions are valid.</p>
+ * <p>Steps that write several repositories (order with invoice, order with shipment) run in a
+ * {@link RepositoryTransaction}, so a failure halfway leaves no order pointing at a missing record.</p>
  */
 public class OrderService {
 
+    // Statuses of the orders still handled as orders in the admin table; approved ones continue as shipments
+    private static final Set<OrderStatus> MANAGED_STATUSES = EnumSet.of(OrderStatus.AWAITING_PAYMENT,
+            OrderStatus.PAID, OrderStatus.PENDING_APPROVAL, OrderStatus.CANCELLED);
+
     private final OrderRepository orderRepository;
     private final InvoiceService invoiceService;
     private final ShipmentService shipmentService;
     private final DeliveryPersonRepository deliveryPersonRepository;
     private final VehicleService vehicleService;
     private final ShipmentRepository shipmentRepository;
+    private final UserRepository userRepository;
 
     /**
      * Constructor with dependency injection for repositories and services.
@@ -52,6 +68,7 @@ public class OrderService {
         this.deliveryPersonRepository = deliveryPersonRepository;
         this.vehicleService = VehicleService.getInstance();
         this.shipmentRepository = ShipmentRepository.getInstance();
+        this.userRepository = UserRepository.getInstance();
     }
 
     /**
@@ -78,27 +95,28 @@ public class OrderService {
      * @return The newly created Order, ready for payment.
      */
     public Order initiateOrderCreation(String userId, Address origin, Address destination) {
-
-        // 1. Create the Order in its initial state using the manual builder
-        Order newOrder = new Order.Builder()
-                .withId(IdGenerationUtil.generateId())
-                .withUserId(userId)
-                .withOrigin(origin)
-                .withDestination(destination)
-                .withCreatedAt(LocalDateTime.now())
-                .withStatus(OrderStatus.AWAITING_PAYMENT)
-                .build();
-
-        orderRepository.addOrder(newOrder);
-
-        // 2. Call the InvoiceService to create the associated invoice
-        Invoice invoice = invoiceService.createInvoiceForOrder(newOrder);
-
-        // 3. Update the order with the new invoiceId
-        newOrder.setInvoiceId(invoice.getId());
-        orderRepository.update(newOrder);
-
-        return newOrder;
+        return RepositoryTransaction.execute(() -> {
+            // 1. Create the Order in its initial state using the manual builder
+            Order newOrder = new Order.Builder()
+                    .withId(IdGenerationUtil.generateId())
+                    .withUserId(userId)
+                    .withOrigin(origin)
+                    .withDestination(destination)
+                    .withCreatedAt(LocalDateTime.now())
+                    .withStatus(OrderStatus.AWAITING_PAYMENT)
+                    .build();
+
+            orderRepository.addOrder(newOrder);
+
+            // 2. Call the InvoiceService to create the associated invoice
+            Invoice invoice = invoiceService.createInvoiceForOrder(newOrder);
+
+            // 3. Update the order with the new invoiceId
+            newOrder.setInvoiceId(invoice.getId());
+            orderRepository.update(newOrder);
+
+            return newOrder;
+        });
     }
 
     /**
@@ -109,28 +127,29 @@ public class OrderService {
      * @return The newly created Order, ready for payment.
      */
     public Order initiateOrderCreationWithDetails(co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.OrderDetailDTO orderDetail) {
-
-        // 1. Create the Order in its initial state using the manual builder
-        Order newOrder = new Order.Builder()
-                .withId(IdGenerationUtil.generateId())
-                .withUserId(orderDetail.getUserId())
-                .withOrigin(orderDetail.getOrigin())
-                .withDestination(orderDetail.getDestination())
-                .withCreatedAt(LocalDateTime.now())
-                .withStatus(OrderStatus.AWAITING_PAYMENT)
-                .withTotalCost(orderDetail.getTotalCost())
-                .build();
-
-        orderRepository.addOrder(newOrder);
-
-        // 2. Call the InvoiceService to create the associated invoice with detailed costs
-        Invoice invoice = invoiceService.createInvoiceForOrderWithDetails(newOrder, orderDetail);
-
-        // 3. Update the order with the new invoiceId
-        newOrder.setInvoiceId(invoice.getId());
-        orderRepository.update(newOrder);
-
-        return newOrder;
+        return RepositoryTransaction.execute(() -> {
+            // 1. Create the Order in its initial state using the manual builder
+            Order newOrder = new Order.Builder()
+                    .withId(IdGenerationUtil.generateId())
+                    .withUserId(orderDetail.getUserId())
+                    .withOrigin(orderDetail.getOrigin())
+                    .withDestination(orderDetail.getDestination())
+                    .withCreatedAt(LocalDateTime.now())
+                    .withStatus(OrderStatus.AWAITING_PAYMENT)
+                    .withTotalCost(orderDetail.getTotalCost())
+                    .build();
+
+            orderRepository.addOrder(newOrder);
+
+            // 2. Call the InvoiceService to create the associated invoice with detailed costs
+            Invoice invoice = invoiceService.createInvoiceForOrderWithDetails(newOrder, orderDetail);
+
+            // 3. Update the order with the new invoiceId
+            newOrder.setInvoiceId(invoice.getId());
+            orderRepository.update(newOrder);
+
+            return newOrder;
+        });
     }
 
     // ===========================
@@ -179,8 +198,7 @@ public class OrderService {
      * @return A list of orders belonging to the user (excluding approved ones).
      */
     public java.util.List<Order> getOrdersByUser(String userId) {
-        return orderRepository.findAll().stream()
-                .filter(order -> order.getUserId().equals(userId))
+        return orderRepository.findByUser(userId).stream()
                 .filter(order -> order.getStatus() != OrderStatus.APPROVED) // Exclude approved orders
                 .collect(java.util.stream.Collectors.toList());
     }
@@ -194,6 +212,85 @@ public class OrderService {
         return orderRepository.findAll();
     }
 
+    /**
+     * Retrieves one page of the orders managed by admins (awaiting payment, paid, pending approval
+     * or cancelled) in creation date order.
+     *
+     * @param status Only orders in this status (null means every managed status).
+     * @param searchText Text to find in the order ID, the user email or the shipment ID (may be null).
+     * @param request The page offset, size and sort direction.
+     * @return The page; the first page also carries the number of matching orders per status.
+     */
+    public PageDTO<Order> getOrdersPage(OrderStatus status, String searchText, PageRequestDTO request) {
+        return orderRepository.findPage(managedOrderCondition(status, searchText), request);
+    }
+
+    /**
+     * Finds every managed order matching a status and a search, newest first. Used for exports of the paged table.
+     *
+     * @param status Only orders in this status (null means every managed status).
+     * @param searchText Text to find in the order ID, the user email or the shipment ID (may be null).
+     * @return The matching orders.
+     */
+    public List<Order> findMatchingOrders(OrderStatus status, String searchText) {
+        return orderRepository.findPage(managedOrderCondition(status, searchText),
+                new PageRequestDTO(0, Integer.MAX_VALUE, false)).getItems();
+    }
+
+    /**
+     * Counts all orders per status, managed or not.
+     *
+     * @return The number of orders per status name.
+     */
+    public Map<String, Long> countOrdersByStatus() {
+        return orderRepository.countByStatus();
+    }
+
+    /**
+     * Counts all orders in the system.
+     *
+     * @return The number of orders.
+     */
+    public int countOrders() {
+        return orderRepository.count();
+    }
+
+    /**
+     * Builds the condition of the admin order table. Emails and shipment IDs are resolved once per query.
+     */
+    private Predicate<Order> managedOrderCondition(OrderStatus status, String searchText) {
+        Predicate<Order> listed = order -> order.getStatus() != null && MANAGED_STATUSES.contains(order.getStatus())
+                && (status == null || order.getStatus() == status);
+        if (searchText == null || searchText.trim().isEmpty()) {
+            return listed;
+        }
+        String searchLower = searchText.trim().toLowerCase();
+        Map<String, String> userEmails = new HashMap<>();
+        Map<String, String> shipmentIdByOrderId = new HashMap<>();
+        for (Shipment shipment : shipmentRepository.findAll()) {
+            if (shipment.getOrderId() != null) {
+                shipmentIdByOrderId.putIfAbsent(shipment.getOrderId(), shipment.getId());
+            }
+        }
+        return listed.and(order -> {
+            if (containsIgnoreCase(order.getId(), searchLower)) {
+                return true;
+            }
+            if (order.getUserId() != null) {
+                String email = userEmails.computeIfAbsent(order.getUserId(), id ->
+                        userRepository.findById(id).map(User::getEmail).orElse(""));
+                if (containsIgnoreCase(email, searchLower)) {
+                    return true;
+                }
+            }
+            return containsIgnoreCase(shipmentIdByOrderId.get(order.getId()), searchLower);
+        });
+    }
+
+    private static boolean containsIgnoreCase(String value, String searchLower) {
+        return value != null && value.toLowerCase().contains(searchLower);
+    }
+
     // ===========================
     // Delivery Person Assignment
     // ===========================
@@ -207,27 +304,29 @@ public class OrderService {
      * @return true if assignment was successful, false otherwise.
      */
     public boolean assignDeliveryPerson(String orderId, String deliveryPersonId) {
-        Order order = orderRepository.findById(orderId).orElse(null);
-        if (order == null) {
-            return false;
-        }
+        return RepositoryTransaction.execute(() -> {
+            Order order = orderRepository.findById(orderId).orElse(null);
+            if (order == null) {
+                return false;
+            }
 
-        // Only allow assignment for PAID orders
-        if (order.getStatus() != OrderStatus.PAID) {
-            return false;
-        }
+            // Only allow assignment for PAID orders
+            if (order.getStatus() != OrderStatus.PAID) {
+                return false;
+            }
 
-        // Assign delivery person
-        order.setDeliveryPersonId(deliveryPersonId);
+            // Assign delivery person
+            order.setDeliveryPersonId(deliveryPersonId);
 
-        // Create shipment with PENDING_APPROVAL status (not visible yet)
-        String shipmentId = shipmentService.createShipmentForOrder(order);
-        order.setShipmentId(shipmentId);
+            // Create shipment with PENDING_APPROVAL status (not visible yet)
+            String shipmentId = shipmentService.createShipmentForOrder(order);
+            order.setShipmentId(shipmentId);
 
-        // Change order status to PENDING_APPROVAL
-        order.setStatus(OrderStatus.PENDING_APPROVAL);
-        orderRepository.update(order);
-        return true;
+            // Change order status to PENDING_APPROVAL
+            order.setStatus(OrderStatus.PENDING_APPROVAL);
+            orderRepository.update(order);
+            return true;
+        });
     }
 
     /**
@@ -239,31 +338,30 @@ public class OrderService {
      * @return true if approval was successful, false otherwise.
      */
     public boolean approveOrderAndCreateShipment(String orderId) {
-        Order order = orderRepository.findById(orderId).orElse(null);
-        if (order == null) {
-            return false;
-        }
-
-        // Only allow approval for PENDING_APPROVAL or PAID orders
-        if (order.getStatus() != OrderStatus.PENDING_APPROVAL && order.getStatus() != OrderStatus.PAID) {
-            return false;
-        }
+        return RepositoryTransaction.execute(() -> {
+            Order order = orderRepository.findById(orderId).orElse(null);
+            if (order == null) {
+                return false;
+            }
 
-        // Create shipment with PENDING_ASSIGNMENT status (no delivery person yet)
-        String shipmentId = shipmentService.createShipmentForOrder(order);
-        if (shipmentId == null) {
-            return false;
-        }
+            // Only allow approval for PENDING_APPROVAL or PAID orders
+            if (order.getStatus() != OrderStatus.PENDING_APPROVAL && order.getStatus() != OrderStatus.PAID) {
+                return false;
+            }
 
-        // Observer Pattern: Register NotificationObserver for this user's shipment
-        shipmentService.registerObserver(new NotificationObserver(order.getUserId()));
+            // Create shipment with PENDING_ASSIGNMENT status (no delivery person yet)
+            String shipmentId = shipmentService.createShipmentForOrder(order);
+            if (shipmentId == null) {
+                return false;
+            }
 
-        // Update order with shipment ID and change status to APPROVED
-        order.setShipmentId(shipmentId);
-        order.setStatus(OrderStatus.APPROVED);
-        orderRepository.update(order);
+            // Update order with shipment ID and change status to APPROVED
+            order.setShipmentId(shipmentId);
+            order.setStatus(OrderStatus.APPROVED);
+            orderRepository.update(order);
 
-        return true;
+            return true;
+        });
     }
 
     /**
@@ -328,22 +426,7 @@ public class OrderService {
      * @return The determined coverage area.
      */
     private CoverageArea determineCoverageArea(Address destination) {
-        if (destination == null || destination.getCity() == null) {
-            return CoverageArea.CENTRAL;
-        }
-
-        String city = destination.getCity().toLowerCase();
-        String state = destination.getState() != null ? destination.getState().toLowerCase() : "";
-
-        // Simple heuristic based on common zone keywords
-        if (city.contains("norte") || state.contains("norte")) {
-            return CoverageArea.NORTH;
-        } else if (city.contains("sur") || state.contains("sur")) {
-            return CoverageArea.SOUTH;
-        }
-
-        // Default to Central zone or City-wide for flexibility
-        return CoverageArea.CENTRAL;
+        return AssignmentEngine.coverageAreaOf(destination);
     }
 
     /**
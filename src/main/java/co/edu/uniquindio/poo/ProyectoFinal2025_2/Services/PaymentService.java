@@ -9,6 +9,7 @@ import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.PaymentReceiptDTO;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.InvoiceRepository;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.PaymentRepository;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.OrderRepository;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.RepositoryTransaction;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilService.IdGenerationUtil;
 
 import java.time.LocalDateTime;
@@ -59,6 +60,8 @@ public class PaymentService {
 
     /**
      * Processes a payment for a given invoice.
+     * <p>The payment and the order confirmation are committed as one transaction: if the order
+     * cannot be confirmed, the payment is not recorded either.</p>
      *
      * @param invoiceId     The ID of the invoice to be paid.
      * @param paymentMethod The method of payment being used.
@@ -66,31 +69,33 @@ public class PaymentService {
      * @throws IllegalArgumentException if the invoice is not found.
      */
     public Payment processPayment(String invoiceId, PaymentMethod paymentMethod) {
-        Invoice invoice = invoiceRepository.findById(invoiceId)
-                .orElseThrow(() -> new IllegalArgumentException("Invoice not found with ID: " + invoiceId));
-
-        // --- Payment Gateway Simulation --- //
-        // In a real application, this would interact with an external payment gateway (e.g., Stripe, PayPal).
-        // For now, we will assume the payment is always successful.
-        boolean paymentSuccessful = true;
-
-        Payment newPayment = new Payment.Builder()
-                .withId(IdGenerationUtil.generateId())
-                .withInvoiceId(invoiceId)
-                .withAmount(invoice.getTotalAmount())
-                .withDate(LocalDateTime.now())
-                .withStatus(paymentSuccessful ? PaymentStatus.APPROVED : PaymentStatus.FAILED)
-                .withPaymentMethod(paymentMethod)
-                .build();
-
-        paymentRepository.addPayment(newPayment);
-
-        // If payment was successful, trigger the next step in the Order Saga.
-        if (paymentSuccessful) {
-            orderService.confirmOrderPayment(invoice.getOrderId(), newPayment.getId());
-        }
+        return RepositoryTransaction.execute(() -> {
+            Invoice invoice = invoiceRepository.findById(invoiceId)
+                    .orElseThrow(() -> new IllegalArgumentException("Invoice not found with ID: " + invoiceId));
+
+            // --- Payment Gateway Simulation --- //
+            // In a real application, this would interact with an external payment gateway (e.g., Stripe, PayPal).
+            // For now, we will assume the payment is always successful.
+            boolean paymentSuccessful = true;
+
+            Payment newPayment = new Payment.Builder()
+                    .withId(IdGenerationUtil.generateId())
+                    .withInvoiceId(invoiceId)
+                    .withAmount(invoice.getTotalAmount())
+                    .withDate(LocalDateTime.now())
+                    .withStatus(paymentSuccessful ? PaymentStatus.APPROVED : PaymentStatus.FAILED)
+                    .withPaymentMethod(paymentMethod)
+                    .build();
+
+            paymentRepository.addPayment(newPayment);
+
+            // If payment was successful, trigger the next step in the Order Saga.
+            if (paymentSuccessful) {
+                orderService.confirmOrderPayment(invoice.getOrderId(), newPayment.getId());
+            }
 
-        return newPayment;
+            return newPayment;
+        });
     }
 
     // ===========================
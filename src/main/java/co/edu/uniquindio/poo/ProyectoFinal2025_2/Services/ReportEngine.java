@@ -0,0 +1,125 @@
+package co.edu.uniquindio.poo.ProyectoFinal2025_2.Services;
+
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.ShipmentStatus;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Order;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.PeriodReportDTO;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.InvoiceRepository;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.OrderRepository;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.ShipmentColumnStore;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.ShipmentRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Computes all report metrics of a date range in one pass per data source.
+ *
+ * <p>Three scans build a {@link PeriodReportDTO}:</p>
+ * <ul>
+ *     <li>{@link ShipmentColumnStore#summarize}: totals, status, vehicle type and courier groupings,
+ *     delivery times and shipments per day, fused into one loop over the shipment columns;</li>
+ *     <li>the invoice columns, bucketed by day; the total revenue is the sum of the buckets;</li>
+ *     <li>the orders, counted per user; the active users are the users with at least one order.</li>
+ * </ul>
+ *
+ * <p>Days are the same as everywhere in the reports: a range {@code [from, to]} includes both ends.</p>
+ */
+public class ReportEngine {
+
+    private final ShipmentRepository shipmentRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final OrderRepository orderRepository;
+
+    /**
+     * Constructor with dependency injection.
+     * @param shipmentRepository The shipment repository, read through its column store
+     * @param invoiceRepository The invoice repository, read through its column store
+     * @param orderRepository The order repository
+     */
+    public ReportEngine(ShipmentRepository shipmentRepository,
+                        InvoiceRepository invoiceRepository,
+                        OrderRepository orderRepository) {
+        this.shipmentRepository = shipmentRepository;
+        this.invoiceRepository = invoiceRepository;
+        this.orderRepository = orderRepository;
+    }
+
+    /**
+     * Default constructor using singleton instances.
+     */
+    public ReportEngine() {
+        this(ShipmentRepository.getInstance(), InvoiceRepository.getInstance(), OrderRepository.getInstance());
+    }
+
+    // ===========================
+    // Computation
+    // ===========================
+
+    /**
+     * Computes the metrics of a date range.
+     *
+     * @param from first day of the range
+     * @param to   last day of the range
+     * @return the report; every per-day map has one entry per day of the range
+     */
+    public PeriodReportDTO compute(LocalDate from, LocalDate to) {
+        PeriodReportDTO report = new PeriodReportDTO();
+        report.setFrom(from);
+        report.setTo(to);
+        summarizeShipments(report);
+        summarizeRevenue(report);
+        summarizeOrders(report);
+        return report;
+    }
+
+    private void summarizeShipments(PeriodReportDTO report) {
+        ShipmentColumnStore.RangeSummary summary =
+                shipmentRepository.getColumnStore().summarize(report.getFrom(), report.getTo());
+
+        long total = summary.getTotal();
+        long delivered = summary.getCount(ShipmentStatus.DELIVERED);
+        report.setTotalShipments(total);
+        report.setDeliveredShipments(delivered);
+        report.setSuccessRate(total == 0 ? 0.0 : (delivered * 100.0) / total);
+        report.setAverageDeliveryTimeHours(summary.getAverageDeliveryHours());
+        report.setShipmentsByStatus(summary.getCountsByStatus());
+        report.setShipmentsByVehicleType(summary.getCountsByVehicleType());
+        report.setDeliveredByDeliveryPerson(summary.getDeliveredByCourier());
+        report.setShipmentsPerDay(summary.getShipmentsPerDay());
+    }
+
+    private void summarizeRevenue(PeriodReportDTO report) {
+        double[] totals = invoiceRepository.getColumnStore().dailyTotals(report.getFrom(), report.getTo());
+
+        Map<LocalDate, Double> revenuePerDay = new LinkedHashMap<>();
+        double totalRevenue = 0.0;
+        for (int i = 0; i < totals.length; i++) {
+            revenuePerDay.put(report.getFrom().plusDays(i), totals[i]);
+            totalRevenue += totals[i];
+        }
+        report.setRevenuePerDay(revenuePerDay);
+        report.setTotalRevenue(totalRevenue);
+    }
+
+    private void summarizeOrders(PeriodReportDTO report) {
+        Map<String, Long> ordersByUser = new HashMap<>();
+        for (Order order : orderRepository.findAll()) {
+            if (isInRange(order.getCreatedAt(), report.getFrom(), report.getTo())) {
+                ordersByUser.merge(order.getUserId(), 1L, Long::sum);
+            }
+        }
+        report.setOrdersByUser(ordersByUser);
+        report.setActiveUsers(ordersByUser.size());
+    }
+
+    private static boolean isInRange(LocalDateTime dateTime, LocalDate from, LocalDate to) {
+        if (dateTime == null) {
+            return false;
+        }
+        LocalDate date = dateTime.toLocalDate();
+        return !date.isBefore(from) && !date.isAfter(to);
+    }
+}
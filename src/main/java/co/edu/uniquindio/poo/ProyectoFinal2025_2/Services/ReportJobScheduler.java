@@ -0,0 +1,464 @@
+package co.edu.uniquindio.poo.ProyectoFinal2025_2.Services;
+
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.ReportFormat;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.ReportType;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.PeriodReportDTO;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.Logger;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.DataVersion;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs report generation in the background, with progress, cancellation and a result cache.
+ *
+ * <p>A job is submitted with its type, format and period and runs on a bounded pool of
+ * {@link #THREADS} threads; at most {@link #QUEUE_CAPACITY} jobs wait behind them, further submissions
+ * fail right away. Listeners registered on a {@link ReportJob} are called from the worker thread on every
+ * state or progress change, so UI code has to hand the update over to its own thread.</p>
+ *
+ * <p><b>Caching:</b> a finished file is remembered under its parameters together with the
+ * {@link DataVersion} read before the job started. A later request with the same parameters gets that file
+ * back at once, as an already completed job, until some repository changes or the file is deleted. A request
+ * for a job already queued or running gets that same job. The period metrics ({@link ReportEngine}) are
+ * cached the same way, so the general, users and delivery personnel reports of one period share a single
+ * computation.</p>
+ *
+ * <p><b>Cancellation:</b> a queued job is dropped immediately. A running job stops at its next step
+ * boundary (after the metrics, after the file is written); a file it already wrote is deleted.</p>
+ *
+ * Singleton pattern.
+ */
+public class ReportJobScheduler {
+
+    // =================================================================================================================
+    // CONSTANTS
+    // =================================================================================================================
+
+    /**
+     * Worker threads used when the {@code app.reports.threads} property is not set.
+     */
+    public static final int DEFAULT_THREADS = 2;
+
+    /**
+     * Number of reports generated at the same time.
+     */
+    public static final int THREADS = Math.max(1, Integer.getInteger("app.reports.threads", DEFAULT_THREADS));
+
+    /**
+     * Number of jobs that can wait for a free worker.
+     */
+    public static final int QUEUE_CAPACITY = 32;
+
+    private static final int MAX_CACHED_FILES = 64;
+    private static final int MAX_CACHED_PERIODS = 8;
+
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    private static ReportJobScheduler instance;
+
+    // =================================================================================================================
+    // FIELDS
+    // =================================================================================================================
+
+    private final ReportService reportService;
+    private final ThreadPoolExecutor executor;
+
+    // All guarded by this
+    private final Map<String, ReportJob> activeJobs = new HashMap<>();
+    private final Map<String, CachedFile> cachedFiles = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedFile> eldest) {
+            return size() > MAX_CACHED_FILES;
+        }
+    };
+    private final Map<String, CachedPeriod> cachedPeriods = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedPeriod> eldest) {
+            return size() > MAX_CACHED_PERIODS;
+        }
+    };
+
+    // =================================================================================================================
+    // CONSTRUCTOR
+    // =================================================================================================================
+
+    private ReportJobScheduler(ReportService reportService) {
+        this.reportService = reportService;
+        this.executor = new ThreadPoolExecutor(THREADS, THREADS, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+                    Thread thread = new Thread(runnable, "report-job-" + THREAD_NUMBER.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Returns the singleton instance of ReportJobScheduler.
+     */
+    public static synchronized ReportJobScheduler getInstance() {
+        if (instance == null) {
+            instance = new ReportJobScheduler(ReportService.getInstance());
+        }
+        return instance;
+    }
+
+    // =================================================================================================================
+    // SUBMISSION
+    // =================================================================================================================
+
+    /**
+     * Submits a report for generation, or returns the job that already produces or produced it.
+     *
+     * @param type   The report type
+     * @param format The file format
+     * @param from   First day of the period
+     * @param to     Last day of the period
+     * @return The job; already {@link ReportJob.State#DONE} when the file was cached
+     */
+    public synchronized ReportJob submit(ReportType type, ReportFormat format, LocalDate from, LocalDate to) {
+        String key = type + "|" + format + "|" + from + "|" + to;
+
+        CachedFile cached = cachedFiles.get(key);
+        if (cached != null) {
+            if (cached.version == DataVersion.current() && cached.file.isFile()) {
+                ReportJob job = new ReportJob(key, type, format, from, to);
+                job.finish(cached.file, true);
+                return job;
+            }
+            cachedFiles.remove(key);
+        }
+
+        // A job cancelled while queued never runs, so it is only cleared here
+        ReportJob active = activeJobs.get(key);
+        if (active != null && !active.isDone()) {
+            return active;
+        }
+
+        ReportJob job = new ReportJob(key, type, format, from, to);
+        activeJobs.put(key, job);
+        try {
+            job.future = executor.submit(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            activeJobs.remove(key);
+            job.fail(new IllegalStateException("Hay demasiados reportes en cola; intente de nuevo en unos momentos."));
+        }
+        return job;
+    }
+
+    /**
+     * Returns the jobs currently queued or running.
+     *
+     * @return A snapshot of the active jobs
+     */
+    public synchronized List<ReportJob> getActiveJobs() {
+        return activeJobs.values().stream().filter(job -> !job.isDone()).toList();
+    }
+
+    // =================================================================================================================
+    // EXECUTION
+    // =================================================================================================================
+
+    private void run(ReportJob job) {
+        if (!job.start()) {
+            return;
+        }
+        long version = DataVersion.current();
+        long startNanos = System.nanoTime();
+        File file = null;
+        try {
+            if (job.type.usesPeriodMetrics()) {
+                job.progress(0.1, "Calculando métricas del periodo");
+                PeriodReportDTO report = periodReport(job.from, job.to, version);
+                job.checkCancelled();
+                job.progress(0.6, "Escribiendo " + job.format.getDisplayName());
+                file = reportService.generateReport(job.type, job.format, report);
+            } else {
+                job.progress(0.1, "Generando " + job.format.getDisplayName());
+                file = reportService.generateReport(job.type, job.format, job.from, job.to);
+            }
+            if (file == null || !file.isFile()) {
+                throw new IllegalStateException("No se pudo crear el archivo del reporte.");
+            }
+            job.checkCancelled();
+
+            synchronized (this) {
+                cachedFiles.put(job.key, new CachedFile(version, file));
+            }
+            Logger.info("ReportJobScheduler: " + job.key + " written to " + file.getPath() + " in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos) + " ms");
+            job.finish(file, false);
+        } catch (CancellationException e) {
+            if (file != null && !file.delete()) {
+                Logger.warning("ReportJobScheduler: Could not delete the output of cancelled job " + job.key);
+            }
+            job.markCancelled();
+        } catch (RuntimeException e) {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            Logger.error("ReportJobScheduler: Job " + job.key + " failed: " + cause.getMessage());
+            job.fail(cause);
+        } finally {
+            synchronized (this) {
+                activeJobs.remove(job.key, job);
+            }
+        }
+    }
+
+    /**
+     * Returns the metrics of a period, computing them only if no job computed them at this data version or later.
+     */
+    private PeriodReportDTO periodReport(LocalDate from, LocalDate to, long version) {
+        String key = from + "|" + to;
+        CachedPeriod period;
+        boolean compute = false;
+        synchronized (this) {
+            period = cachedPeriods.get(key);
+            if (period == null || period.version < version) {
+                period = new CachedPeriod(version);
+                cachedPeriods.put(key, period);
+                compute = true;
+            }
+        }
+        if (compute) {
+            try {
+                period.report.complete(reportService.computePeriodReport(from, to));
+            } catch (RuntimeException e) {
+                period.report.completeExceptionally(e);
+                synchronized (this) {
+                    cachedPeriods.remove(key, period);
+                }
+            }
+        }
+        return period.report.join();
+    }
+
+    private record CachedFile(long version, File file) {
+    }
+
+    private static final class CachedPeriod {
+        private final long version;
+        private final CompletableFuture<PeriodReportDTO> report = new CompletableFuture<>();
+
+        private CachedPeriod(long version) {
+            this.version = version;
+        }
+    }
+
+    // =================================================================================================================
+    // JOB
+    // =================================================================================================================
+
+    /**
+     * One report generation: its parameters, state, progress and resulting file.
+     */
+    public static final class ReportJob {
+
+        /**
+         * Lifecycle of a job. {@code DONE}, {@code FAILED} and {@code CANCELLED} are final.
+         */
+        public enum State { QUEUED, RUNNING, DONE, FAILED, CANCELLED }
+
+        private final String key;
+        private final ReportType type;
+        private final ReportFormat format;
+        private final LocalDate from;
+        private final LocalDate to;
+        private final CompletableFuture<File> result = new CompletableFuture<>();
+        private final List<Consumer<ReportJob>> listeners = new CopyOnWriteArrayList<>();
+
+        // Guarded by this; volatile for listeners reading without the lock
+        private volatile State state = State.QUEUED;
+        private volatile double progress;
+        private volatile String message = "En cola";
+        private volatile boolean cancelRequested;
+        private volatile boolean fromCache;
+        private volatile Future<?> future;
+
+        private ReportJob(String key, ReportType type, ReportFormat format, LocalDate from, LocalDate to) {
+            this.key = key;
+            this.type = type;
+            this.format = format;
+            this.from = from;
+            this.to = to;
+        }
+
+        // ---------------------------------------------------------------------------------------------------------
+        // Public API
+        // ---------------------------------------------------------------------------------------------------------
+
+        /**
+         * Registers a listener called on every state or progress change, and once right away with the current state.
+         *
+         * @param listener Called with this job, from the worker thread (or the caller's, for the first call)
+         */
+        public void addListener(Consumer<ReportJob> listener) {
+            listeners.add(listener);
+            listener.accept(this);
+        }
+
+        /**
+         * Requests cancellation: a queued job is dropped, a running one stops at its next step boundary.
+         *
+         * @return {@code false} if the job had already finished
+         */
+        public boolean cancel() {
+            boolean dropped;
+            synchronized (this) {
+                if (isDone()) {
+                    return false;
+                }
+                cancelRequested = true;
+                dropped = state == State.QUEUED;
+                if (dropped) {
+                    state = State.CANCELLED;
+                    message = "Cancelado";
+                }
+            }
+            if (dropped) {
+                Future<?> queued = future;
+                if (queued != null) {
+                    queued.cancel(false);
+                }
+                result.cancel(false);
+                notifyListeners();
+            } else {
+                message = "Cancelando...";
+                notifyListeners();
+            }
+            return true;
+        }
+
+        /**
+         * @return The file, once written; completes exceptionally on failure and is cancelled on cancellation
+         */
+        public CompletableFuture<File> getResult() {
+            return result;
+        }
+
+        public ReportType getType() {
+            return type;
+        }
+
+        public ReportFormat getFormat() {
+            return format;
+        }
+
+        public LocalDate getFrom() {
+            return from;
+        }
+
+        public LocalDate getTo() {
+            return to;
+        }
+
+        public State getState() {
+            return state;
+        }
+
+        /**
+         * @return Progress from 0 to 1
+         */
+        public double getProgress() {
+            return progress;
+        }
+
+        /**
+         * @return A short description of the current step, in Spanish for the UI
+         */
+        public String getMessage() {
+            return message;
+        }
+
+        /**
+         * @return Whether the file came from the cache without being generated again
+         */
+        public boolean isFromCache() {
+            return fromCache;
+        }
+
+        public boolean isDone() {
+            return state == State.DONE || state == State.FAILED || state == State.CANCELLED;
+        }
+
+        // ---------------------------------------------------------------------------------------------------------
+        // Transitions (called by the scheduler)
+        // ---------------------------------------------------------------------------------------------------------
+
+        private boolean start() {
+            synchronized (this) {
+                if (state != State.QUEUED) {
+                    return false;
+                }
+                state = State.RUNNING;
+            }
+            notifyListeners();
+            return true;
+        }
+
+        private void progress(double value, String text) {
+            progress = value;
+            message = text;
+            notifyListeners();
+        }
+
+        private void checkCancelled() {
+            if (cancelRequested) {
+                throw new CancellationException();
+            }
+        }
+
+        private void finish(File file, boolean cached) {
+            synchronized (this) {
+                state = State.DONE;
+                progress = 1.0;
+                message = cached ? "Listo (sin cambios desde la última generación)" : "Listo";
+                fromCache = cached;
+            }
+            result.complete(file);
+            notifyListeners();
+        }
+
+        private void fail(Throwable error) {
+            synchronized (this) {
+                state = State.FAILED;
+                message = error.getMessage() != null ? error.getMessage() : error.toString();
+            }
+            result.completeExceptionally(error);
+            notifyListeners();
+        }
+
+        private void markCancelled() {
+            synchronized (this) {
+                state = State.CANCELLED;
+                message = "Cancelado";
+            }
+            result.cancel(false);
+            notifyListeners();
+        }
+
+        private void notifyListeners() {
+            for (Consumer<ReportJob> listener : listeners) {
+                try {
+                    listener.accept(this);
+                } catch (RuntimeException e) {
+                    Logger.error("ReportJobScheduler: Listener of job " + key + " failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+}
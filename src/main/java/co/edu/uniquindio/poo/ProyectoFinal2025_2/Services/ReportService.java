@@ -1,7 +1,11 @@
 package co.edu.uniquindio.poo.ProyectoFinal2025_2.Services;
 
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.*;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.ReportFormat;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.ReportType;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.ShipmentStatus;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.VehicleType;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.PeriodReportDTO;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.*;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.CsvUtility;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.Logger;
@@ -12,13 +16,17 @@ import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
 
 /**
  * Service dedicated to generating different types of reports and statistics.
  * Singleton pattern.
+ * <p>Shipment and revenue metrics over a date range are read from the repositories' column stores
+ * ({@link ShipmentColumnStore}, {@link InvoiceColumnStore}) rather than from the entities.</p>
+ * <p>The general, users and delivery personnel reports are written from a {@link PeriodReportDTO}
+ * computed once by {@link ReportEngine}; the {@code (from, to)} overloads compute it themselves,
+ * the {@code PeriodReportDTO} overloads let the PDF and CSV versions share one computation.</p>
  */
 public class ReportService {
 
@@ -33,6 +41,9 @@ public class ReportService {
     private final PaymentRepository paymentRepository = PaymentRepository.getInstance();
     private final ShipmentRepository shipmentRepository = ShipmentRepository.getInstance();
 
+    // Computes all metrics of a period for the report writers
+    private final ReportEngine reportEngine = new ReportEngine(shipmentRepository, invoiceRepository, orderRepository);
+
     // Formatters
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
     private static final DateTimeFormatter DATETIME_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
@@ -61,36 +72,28 @@ public class ReportService {
      * Calculates total revenue for a given date range.
      */
     public double calculateTotalRevenue(LocalDate from, LocalDate to) {
-        return invoiceRepository.findAll().stream()
-                .filter(invoice -> isInDateRange(invoice.getIssuedAt(), from, to))
-                .mapToDouble(Invoice::getTotalAmount)
-                .sum();
+        return invoiceRepository.getColumnStore().sumIssuedBetween(from, to);
     }
 
     /**
      * Counts total shipments in date range.
      */
     public long countTotalShipments(LocalDate from, LocalDate to) {
-        return shipmentRepository.findAll().stream()
-                .filter(shipment -> isInDateRange(shipment.getCreatedAt(), from, to))
-                .count();
+        return shipmentRepository.getColumnStore().countCreatedBetween(from, to);
     }
 
     /**
      * Calculates success rate (delivered shipments / total shipments).
      */
     public double calculateSuccessRate(LocalDate from, LocalDate to) {
-        List<Shipment> shipments = shipmentRepository.findAll().stream()
-                .filter(shipment -> isInDateRange(shipment.getCreatedAt(), from, to))
-                .toList();
+        ShipmentColumnStore columns = shipmentRepository.getColumnStore();
+        long total = columns.countCreatedBetween(from, to);
 
-        if (shipments.isEmpty()) return 0.0;
+        if (total == 0) return 0.0;
 
-        long delivered = shipments.stream()
-                .filter(s -> s.getStatus() == ShipmentStatus.DELIVERED)
-                .count();
+        long delivered = columns.countByStatus(from, to).getOrDefault(ShipmentStatus.DELIVERED, 0L);
 
-        return (delivered * 100.0) / shipments.size();
+        return (delivered * 100.0) / total;
     }
 
     /**
@@ -108,23 +111,16 @@ public class ReportService {
      * Calculates average delivery time in hours.
      */
     public double calculateAverageDeliveryTime(LocalDate from, LocalDate to) {
-        List<Shipment> deliveredShipments = shipmentRepository.findAll().stream()
-                .filter(shipment -> shipment.getStatus() == ShipmentStatus.DELIVERED)
-                .filter(shipment -> shipment.getDeliveredDate() != null)
-                .filter(shipment -> isInDateRange(shipment.getCreatedAt(), from, to))
-                .toList();
-
-        if (deliveredShipments.isEmpty()) return 0.0;
-
-        double totalHours = deliveredShipments.stream()
-                .mapToLong(shipment -> ChronoUnit.HOURS.between(
-                        shipment.getCreatedAt(),
-                        shipment.getDeliveredDate()
-                ))
-                .average()
-                .orElse(0.0);
+        return shipmentRepository.getColumnStore().averageDeliveryHours(from, to);
+    }
 
-        return totalHours;
+    /**
+     * Computes every metric of a date range at once; see {@link ReportEngine}.
+     * Callers that show or write several metrics of the same range should use this
+     * instead of the individual methods above.
+     */
+    public PeriodReportDTO computePeriodReport(LocalDate from, LocalDate to) {
+        return reportEngine.compute(from, to);
     }
 
     // ==================================================================================
@@ -137,17 +133,11 @@ public class ReportService {
     public Map<String, Double> getDailyRevenue(int days) {
         Map<String, Double> dailyRevenue = new LinkedHashMap<>();
         LocalDate today = LocalDate.now();
+        LocalDate firstDay = today.minusDays(days - 1);
 
-        for (int i = days - 1; i >= 0; i--) {
-            LocalDate date = today.minusDays(i);
-            String dateStr = date.format(DATE_FORMATTER);
-
-            double revenue = invoiceRepository.findAll().stream()
-                    .filter(invoice -> invoice.getIssuedAt().toLocalDate().equals(date))
-                    .mapToDouble(Invoice::getTotalAmount)
-                    .sum();
-
-            dailyRevenue.put(dateStr, revenue);
+        double[] totals = invoiceRepository.getColumnStore().dailyTotals(firstDay, today);
+        for (int i = 0; i < totals.length; i++) {
+            dailyRevenue.put(firstDay.plusDays(i).format(DATE_FORMATTER), totals[i]);
         }
 
         return dailyRevenue;
@@ -157,73 +147,99 @@ public class ReportService {
      * Gets shipments grouped by status.
      */
     public Map<String, Long> getShipmentsByStatus(LocalDate from, LocalDate to) {
-        return shipmentRepository.findAll().stream()
-                .filter(shipment -> isInDateRange(shipment.getCreatedAt(), from, to))
-                .collect(Collectors.groupingBy(
-                        shipment -> shipment.getStatus().getDisplayName(),
-                        Collectors.counting()
-                ));
+        return byStatusName(shipmentRepository.getColumnStore().countByStatus(from, to));
+    }
+
+    /**
+     * Gets shipments grouped by status from a computed report.
+     */
+    public Map<String, Long> getShipmentsByStatus(PeriodReportDTO report) {
+        return byStatusName(report.getShipmentsByStatus());
     }
 
     /**
      * Gets top delivery personnel by number of deliveries.
      */
     public Map<String, Long> getTopDeliveryPersonnel(LocalDate from, LocalDate to, int limit) {
-        return shipmentRepository.findAll().stream()
-                .filter(shipment -> shipment.getStatus() == ShipmentStatus.DELIVERED)
-                .filter(shipment -> isInDateRange(shipment.getCreatedAt(), from, to))
-                .filter(s -> s.getDeliveryPersonId() != null)
-                .collect(Collectors.groupingBy(
-                        s -> {
-                            DeliveryPerson dp = deliveryPersonRepository.findDeliveryPersonById(s.getDeliveryPersonId()).orElse(null);
-                            return dp != null ? dp.getName() + " " + dp.getLastName() : "Desconocido";
-                        },
-                        Collectors.counting()
-                ))
-                .entrySet().stream()
-                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
-                .limit(limit)
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        Map.Entry::getValue,
-                        (e1, e2) -> e1,
-                        LinkedHashMap::new
-                ));
+        return topByName(shipmentRepository.getColumnStore().countDeliveredByCourier(from, to), limit);
+    }
+
+    /**
+     * Gets top delivery personnel by number of deliveries from a computed report.
+     */
+    public Map<String, Long> getTopDeliveryPersonnel(PeriodReportDTO report, int limit) {
+        return topByName(report.getDeliveredByDeliveryPerson(), limit);
     }
 
     /**
      * Gets shipments grouped by vehicle type (used instead of coverage area).
      */
     public Map<String, Long> getShipmentsByCoverageArea(LocalDate from, LocalDate to) {
-        return shipmentRepository.findAll().stream()
-                .filter(shipment -> isInDateRange(shipment.getCreatedAt(), from, to))
-                .collect(Collectors.groupingBy(
-                        s -> s.getVehicleType() != null ? s.getVehicleType().name() : "SIN_ASIGNAR",
-                        Collectors.counting()
-                ));
+        return byVehicleTypeName(shipmentRepository.getColumnStore().countByVehicleType(from, to));
+    }
+
+    /**
+     * Gets shipments grouped by vehicle type from a computed report.
+     */
+    public Map<String, Long> getShipmentsByCoverageArea(PeriodReportDTO report) {
+        return byVehicleTypeName(report.getShipmentsByVehicleType());
     }
 
     // ==================================================================================
-    // REPORT GENERATION METHODS (PLACEHOLDER)
+    // REPORT GENERATION METHODS
     // ==================================================================================
 
+    /**
+     * Generates a report of the given type and format; see {@link ReportJobScheduler} to run it in the background.
+     */
+    public File generateReport(ReportType type, ReportFormat format, LocalDate from, LocalDate to) {
+        if (type.usesPeriodMetrics()) {
+            return generateReport(type, format, computePeriodReport(from, to));
+        }
+        boolean pdf = format == ReportFormat.PDF;
+        return switch (type) {
+            case FINANCIAL -> pdf ? generateFinancialReportPDF(from, to) : generateFinancialReportCSV(from, to);
+            case SHIPMENTS -> pdf ? generateShipmentsReportPDF(from, to) : generateShipmentsReportCSV(from, to);
+            default -> throw new IllegalStateException("Unhandled report type: " + type);
+        };
+    }
+
+    /**
+     * Generates a report written from period metrics ({@link ReportType#usesPeriodMetrics()}) from a computed report.
+     */
+    public File generateReport(ReportType type, ReportFormat format, PeriodReportDTO report) {
+        boolean pdf = format == ReportFormat.PDF;
+        return switch (type) {
+            case GENERAL -> pdf ? generateGeneralReportPDF(report) : generateGeneralReportCSV(report);
+            case USERS -> pdf ? generateUsersReportPDF(report) : generateUsersReportCSV(report);
+            case DELIVERY_PERSONNEL -> pdf ? generateDeliveryPersonnelReportPDF(report) : generateDeliveryPersonnelReportCSV(report);
+            default -> throw new IllegalArgumentException(type + " is not written from period metrics");
+        };
+    }
+
     /**
      * Generates general report in PDF format.
      */
     public File generateGeneralReportPDF(LocalDate from, LocalDate to) {
+        return generateGeneralReportPDF(computePeriodReport(from, to));
+    }
+
+    /**
+     * Generates general report in PDF format from a computed report.
+     */
+    public File generateGeneralReportPDF(PeriodReportDTO report) {
         try {
-            String fileName = "general_report_" + from + "_to_" + to;
+            String fileName = "general_report_" + report.getFrom() + "_to_" + report.getTo();
             String title = "Reporte General";
-            String subtitle = "Periodo: " + from.format(DATE_FORMATTER) + " - " + to.format(DATE_FORMATTER);
 
             List<PdfUtility.StatisticItem> statistics = new ArrayList<>();
-            statistics.add(new PdfUtility.StatisticItem("Total de Envios", String.valueOf(countTotalShipments(from, to))));
-            statistics.add(new PdfUtility.StatisticItem("Ingresos Totales", String.format("$%.2f", calculateTotalRevenue(from, to))));
-            statistics.add(new PdfUtility.StatisticItem("Tasa de Exito", String.format("%.2f%%", calculateSuccessRate(from, to))));
-            statistics.add(new PdfUtility.StatisticItem("Usuarios Activos", String.valueOf(countActiveUsers(from, to))));
-            statistics.add(new PdfUtility.StatisticItem("Tiempo Promedio de Entrega", String.format("%.2f horas", calculateAverageDeliveryTime(from, to))));
+            statistics.add(new PdfUtility.StatisticItem("Total de Envios", String.valueOf(report.getTotalShipments())));
+            statistics.add(new PdfUtility.StatisticItem("Ingresos Totales", String.format("$%.2f", report.getTotalRevenue())));
+            statistics.add(new PdfUtility.StatisticItem("Tasa de Exito", String.format("%.2f%%", report.getSuccessRate())));
+            statistics.add(new PdfUtility.StatisticItem("Usuarios Activos", String.valueOf(report.getActiveUsers())));
+            statistics.add(new PdfUtility.StatisticItem("Tiempo Promedio de Entrega", String.format("%.2f horas", report.getAverageDeliveryTimeHours())));
 
-            return PdfUtility.generateStatisticsPdfReport(fileName, title, subtitle, statistics);
+            return PdfUtility.generateStatisticsPdfReport(fileName, title, periodSubtitle(report.getFrom(), report.getTo()), statistics);
         } catch (IOException e) {
             Logger.error("Error generating general PDF report: " + e.getMessage());
             return null;
@@ -234,19 +250,34 @@ public class ReportService {
      * Generates general report in CSV format.
      */
     public File generateGeneralReportCSV(LocalDate from, LocalDate to) {
+        return generateGeneralReportCSV(computePeriodReport(from, to));
+    }
+
+    /**
+     * Generates general report in CSV format from a computed report.
+     * The summary rows are followed by one row per day of the period.
+     */
+    public File generateGeneralReportCSV(PeriodReportDTO report) {
         try {
-            String fileName = "reportes/general_report_" + from + "_to_" + to + ".csv";
+            String fileName = "reportes/general_report_" + report.getFrom() + "_to_" + report.getTo() + ".csv";
 
             List<String> headers = Arrays.asList(
                 "Métrica", "Valor"
             );
 
             List<List<String>> rows = new ArrayList<>();
-            rows.add(Arrays.asList("Total de Envíos", String.valueOf(countTotalShipments(from, to))));
-            rows.add(Arrays.asList("Ingresos Totales", String.format("$%.2f", calculateTotalRevenue(from, to))));
-            rows.add(Arrays.asList("Tasa de Éxito", String.format("%.2f%%", calculateSuccessRate(from, to))));
-            rows.add(Arrays.asList("Usuarios Activos", String.valueOf(countActiveUsers(from, to))));
-            rows.add(Arrays.asList("Tiempo Promedio de Entrega (horas)", String.format("%.2f", calculateAverageDeliveryTime(from, to))));
+            rows.add(Arrays.asList("Total de Envíos", String.valueOf(report.getTotalShipments())));
+            rows.add(Arrays.asList("Ingresos Totales", String.format("$%.2f", report.getTotalRevenue())));
+            rows.add(Arrays.asList("Tasa de Éxito", String.format("%.2f%%", report.getSuccessRate())));
+            rows.add(Arrays.asList("Usuarios Activos", String.valueOf(report.getActiveUsers())));
+            rows.add(Arrays.asList("Tiempo Promedio de Entrega (horas)", String.format("%.2f", report.getAverageDeliveryTimeHours())));
+
+            report.getShipmentsPerDay().forEach((day, shipments) -> {
+                String label = day.format(DATE_FORMATTER);
+                rows.add(Arrays.asList("Envíos " + label, String.valueOf(shipments)));
+                rows.add(Arrays.asList("Ingresos " + label,
+                        String.format("$%.2f", report.getRevenuePerDay().getOrDefault(day, 0.0))));
+            });
 
             return CsvUtility.writeCSV(fileName, headers, rows);
         } catch (Exception e) {
@@ -262,29 +293,10 @@ public class ReportService {
         try {
             String fileName = "financial_report_" + from + "_to_" + to;
             String title = "Reporte Financiero";
-            String subtitle = "Periodo: " + from.format(DATE_FORMATTER) + " - " + to.format(DATE_FORMATTER);
 
             List<String> headers = Arrays.asList("ID Factura", "ID Orden", "Usuario", "Monto Total", "Fecha Emision");
-            List<List<String>> rows = new ArrayList<>();
 
-            invoiceRepository.findAll().stream()
-                    .filter(invoice -> isInDateRange(invoice.getIssuedAt(), from, to))
-                    .forEach(invoice -> {
-                        Order order = orderRepository.findById(invoice.getOrderId()).orElse(null);
-                        User user = null;
-                        if (order != null) {
-                            user = userRepository.findById(order.getUserId()).orElse(null);
-                        }
-                        rows.add(Arrays.asList(
-                                invoice.getId(),
-                                invoice.getOrderId() != null ? invoice.getOrderId() : "N/A",
-                                user != null ? user.getEmail() : "Desconocido",
-                                String.format("$%.2f", invoice.getTotalAmount()),
-                                invoice.getIssuedAt().format(DATETIME_FORMATTER)
-                        ));
-                    });
-
-            return PdfUtility.generatePdfReport(fileName, title, subtitle, headers, rows);
+            return PdfUtility.generatePdfReport(fileName, title, periodSubtitle(from, to), headers, financialRows(from, to));
         } catch (IOException e) {
             Logger.error("Error generating financial PDF report: " + e.getMessage());
             return null;
@@ -302,25 +314,7 @@ public class ReportService {
                 "ID Factura", "ID Orden", "Usuario", "Monto Total", "Fecha Emisión"
             );
 
-            List<List<String>> rows = new ArrayList<>();
-            invoiceRepository.findAll().stream()
-                    .filter(invoice -> isInDateRange(invoice.getIssuedAt(), from, to))
-                    .forEach(invoice -> {
-                        Order order = orderRepository.findById(invoice.getOrderId()).orElse(null);
-                        User user = null;
-                        if (order != null) {
-                            user = userRepository.findById(order.getUserId()).orElse(null);
-                        }
-                        rows.add(Arrays.asList(
-                                invoice.getId(),
-                                invoice.getOrderId() != null ? invoice.getOrderId() : "N/A",
-                                user != null ? user.getEmail() : "Desconocido",
-                                String.format("$%.2f", invoice.getTotalAmount()),
-                                invoice.getIssuedAt().format(DATETIME_FORMATTER)
-                        ));
-                    });
-
-            return CsvUtility.writeCSV(fileName, headers, rows);
+            return CsvUtility.writeCSV(fileName, headers, financialRows(from, to));
         } catch (Exception e) {
             Logger.error("Error generating financial CSV report: " + e.getMessage());
             return null;
@@ -334,27 +328,10 @@ public class ReportService {
         try {
             String fileName = "shipments_report_" + from + "_to_" + to;
             String title = "Reporte de Envios";
-            String subtitle = "Periodo: " + from.format(DATE_FORMATTER) + " - " + to.format(DATE_FORMATTER);
 
             List<String> headers = Arrays.asList("ID Envio", "Usuario", "Estado", "Peso (kg)", "Costo Total", "Fecha Creacion", "Fecha Entrega");
-            List<List<String>> rows = new ArrayList<>();
 
-            shipmentRepository.findAll().stream()
-                    .filter(shipment -> isInDateRange(shipment.getCreatedAt(), from, to))
-                    .forEach(shipment -> {
-                        User user = userRepository.findById(shipment.getUserId()).orElse(null);
-                        rows.add(Arrays.asList(
-                                shipment.getId(),
-                                user != null ? user.getEmail() : "Desconocido",
-                                shipment.getStatus().getDisplayName(),
-                                String.format("%.2f", shipment.getWeightKg()),
-                                String.format("$%.2f", shipment.getTotalCost()),
-                                shipment.getCreatedAt().format(DATETIME_FORMATTER),
-                                shipment.getDeliveredDate() != null ? shipment.getDeliveredDate().format(DATETIME_FORMATTER) : "Pendiente"
-                        ));
-                    });
-
-            return PdfUtility.generatePdfReport(fileName, title, subtitle, headers, rows);
+            return PdfUtility.generatePdfReport(fileName, title, periodSubtitle(from, to), headers, shipmentRows(from, to));
         } catch (IOException e) {
             Logger.error("Error generating shipments PDF report: " + e.getMessage());
             return null;
@@ -372,23 +349,7 @@ public class ReportService {
                 "ID Envío", "Usuario", "Estado", "Peso (kg)", "Costo Total", "Fecha Creación", "Fecha Entrega"
             );
 
-            List<List<String>> rows = new ArrayList<>();
-            shipmentRepository.findAll().stream()
-                    .filter(shipment -> isInDateRange(shipment.getCreatedAt(), from, to))
-                    .forEach(shipment -> {
-                        User user = userRepository.findById(shipment.getUserId()).orElse(null);
-                        rows.add(Arrays.asList(
-                                shipment.getId(),
-                                user != null ? user.getEmail() : "Desconocido",
-                                shipment.getStatus().getDisplayName(),
-                                String.format("%.2f", shipment.getWeightKg()),
-                                String.format("$%.2f", shipment.getTotalCost()),
-                                shipment.getCreatedAt().format(DATETIME_FORMATTER),
-                                shipment.getDeliveredDate() != null ? shipment.getDeliveredDate().format(DATETIME_FORMATTER) : "Pendiente"
-                        ));
-                    });
-
-            return CsvUtility.writeCSV(fileName, headers, rows);
+            return CsvUtility.writeCSV(fileName, headers, shipmentRows(from, to));
         } catch (Exception e) {
             Logger.error("Error generating shipments CSV report: " + e.getMessage());
             return null;
@@ -399,30 +360,20 @@ public class ReportService {
      * Generates users report in PDF format.
      */
     public File generateUsersReportPDF(LocalDate from, LocalDate to) {
+        return generateUsersReportPDF(computePeriodReport(from, to));
+    }
+
+    /**
+     * Generates users report in PDF format from a computed report.
+     */
+    public File generateUsersReportPDF(PeriodReportDTO report) {
         try {
-            String fileName = "users_report_" + from + "_to_" + to;
+            String fileName = "users_report_" + report.getFrom() + "_to_" + report.getTo();
             String title = "Reporte de Usuarios";
-            String subtitle = "Periodo: " + from.format(DATE_FORMATTER) + " - " + to.format(DATE_FORMATTER);
 
             List<String> headers = Arrays.asList("ID Usuario", "Email", "Nombre", "Telefono", "Envios Totales");
-            List<List<String>> rows = new ArrayList<>();
-
-            userRepository.getUsers().forEach(user -> {
-                long shipmentCount = orderRepository.findAll().stream()
-                        .filter(order -> order.getUserId().equals(user.getId()))
-                        .filter(order -> isInDateRange(order.getCreatedAt(), from, to))
-                        .count();
 
-                rows.add(Arrays.asList(
-                        user.getId(),
-                        user.getEmail(),
-                        user.getName() + " " + user.getLastName(),
-                        user.getPhone() != null ? user.getPhone() : "N/A",
-                        String.valueOf(shipmentCount)
-                ));
-            });
-
-            return PdfUtility.generatePdfReport(fileName, title, subtitle, headers, rows);
+            return PdfUtility.generatePdfReport(fileName, title, periodSubtitle(report.getFrom(), report.getTo()), headers, userRows(report));
         } catch (IOException e) {
             Logger.error("Error generating users PDF report: " + e.getMessage());
             return null;
@@ -433,30 +384,21 @@ public class ReportService {
      * Generates users report in CSV format.
      */
     public File generateUsersReportCSV(LocalDate from, LocalDate to) {
+        return generateUsersReportCSV(computePeriodReport(from, to));
+    }
+
+    /**
+     * Generates users report in CSV format from a computed report.
+     */
+    public File generateUsersReportCSV(PeriodReportDTO report) {
         try {
-            String fileName = "reportes/users_report_" + from + "_to_" + to + ".csv";
+            String fileName = "reportes/users_report_" + report.getFrom() + "_to_" + report.getTo() + ".csv";
 
             List<String> headers = Arrays.asList(
                 "ID Usuario", "Email", "Nombre", "Teléfono", "Envíos Totales"
             );
 
-            List<List<String>> rows = new ArrayList<>();
-            userRepository.getUsers().forEach(user -> {
-                long shipmentCount = orderRepository.findAll().stream()
-                        .filter(order -> order.getUserId().equals(user.getId()))
-                        .filter(order -> isInDateRange(order.getCreatedAt(), from, to))
-                        .count();
-
-                rows.add(Arrays.asList(
-                        user.getId(),
-                        user.getEmail(),
-                        user.getName() + " " + user.getLastName(),
-                        user.getPhone() != null ? user.getPhone() : "N/A",
-                        String.valueOf(shipmentCount)
-                ));
-            });
-
-            return CsvUtility.writeCSV(fileName, headers, rows);
+            return CsvUtility.writeCSV(fileName, headers, userRows(report));
         } catch (Exception e) {
             Logger.error("Error generating users CSV report: " + e.getMessage());
             return null;
@@ -467,31 +409,20 @@ public class ReportService {
      * Generates delivery personnel report in PDF format.
      */
     public File generateDeliveryPersonnelReportPDF(LocalDate from, LocalDate to) {
+        return generateDeliveryPersonnelReportPDF(computePeriodReport(from, to));
+    }
+
+    /**
+     * Generates delivery personnel report in PDF format from a computed report.
+     */
+    public File generateDeliveryPersonnelReportPDF(PeriodReportDTO report) {
         try {
-            String fileName = "delivery_personnel_report_" + from + "_to_" + to;
+            String fileName = "delivery_personnel_report_" + report.getFrom() + "_to_" + report.getTo();
             String title = "Reporte de Personal de Entrega";
-            String subtitle = "Periodo: " + from.format(DATE_FORMATTER) + " - " + to.format(DATE_FORMATTER);
 
             List<String> headers = Arrays.asList("ID Repartidor", "Nombre", "Email", "Estado", "Envios Completados");
-            List<List<String>> rows = new ArrayList<>();
 
-            deliveryPersonRepository.getAllDeliveryPersons().forEach(person -> {
-                long completedShipments = shipmentRepository.findAll().stream()
-                        .filter(s -> s.getDeliveryPersonId() != null && s.getDeliveryPersonId().equals(person.getId()))
-                        .filter(s -> s.getStatus() == ShipmentStatus.DELIVERED)
-                        .filter(s -> isInDateRange(s.getCreatedAt(), from, to))
-                        .count();
-
-                rows.add(Arrays.asList(
-                        person.getId(),
-                        person.getName() + " " + person.getLastName(),
-                        person.getEmail(),
-                        person.getAvailability().name(),
-                        String.valueOf(completedShipments)
-                ));
-            });
-
-            return PdfUtility.generatePdfReport(fileName, title, subtitle, headers, rows);
+            return PdfUtility.generatePdfReport(fileName, title, periodSubtitle(report.getFrom(), report.getTo()), headers, deliveryPersonnelRows(report));
         } catch (IOException e) {
             Logger.error("Error generating delivery personnel PDF report: " + e.getMessage());
             return null;
@@ -502,31 +433,21 @@ public class ReportService {
      * Generates delivery personnel report in CSV format.
      */
     public File generateDeliveryPersonnelReportCSV(LocalDate from, LocalDate to) {
+        return generateDeliveryPersonnelReportCSV(computePeriodReport(from, to));
+    }
+
+    /**
+     * Generates delivery personnel report in CSV format from a computed report.
+     */
+    public File generateDeliveryPersonnelReportCSV(PeriodReportDTO report) {
         try {
-            String fileName = "reportes/delivery_personnel_report_" + from + "_to_" + to + ".csv";
+            String fileName = "reportes/delivery_personnel_report_" + report.getFrom() + "_to_" + report.getTo() + ".csv";
 
             List<String> headers = Arrays.asList(
                 "ID Repartidor", "Nombre", "Email", "Estado", "Envíos Completados"
             );
 
-            List<List<String>> rows = new ArrayList<>();
-            deliveryPersonRepository.getAllDeliveryPersons().forEach(person -> {
-                long completedShipments = shipmentRepository.findAll().stream()
-                        .filter(s -> s.getDeliveryPersonId() != null && s.getDeliveryPersonId().equals(person.getId()))
-                        .filter(s -> s.getStatus() == ShipmentStatus.DELIVERED)
-                        .filter(s -> isInDateRange(s.getCreatedAt(), from, to))
-                        .count();
-
-                rows.add(Arrays.asList(
-                        person.getId(),
-                        person.getName() + " " + person.getLastName(),
-                        person.getEmail(),
-                        person.getAvailability().name(),
-                        String.valueOf(completedShipments)
-                ));
-            });
-
-            return CsvUtility.writeCSV(fileName, headers, rows);
+            return CsvUtility.writeCSV(fileName, headers, deliveryPersonnelRows(report));
         } catch (Exception e) {
             Logger.error("Error generating delivery personnel CSV report: " + e.getMessage());
             return null;
@@ -690,6 +611,120 @@ public class ReportService {
     // HELPER METHODS
     // ==================================================================================
 
+    /**
+     * Builds the rows of the financial report, shared by its PDF and CSV versions.
+     */
+    private List<List<String>> financialRows(LocalDate from, LocalDate to) {
+        List<List<String>> rows = new ArrayList<>();
+        invoiceRepository.findAll().stream()
+                .filter(invoice -> isInDateRange(invoice.getIssuedAt(), from, to))
+                .forEach(invoice -> {
+                    Order order = orderRepository.findById(invoice.getOrderId()).orElse(null);
+                    User user = null;
+                    if (order != null) {
+                        user = userRepository.findById(order.getUserId()).orElse(null);
+                    }
+                    rows.add(Arrays.asList(
+                            invoice.getId(),
+                            invoice.getOrderId() != null ? invoice.getOrderId() : "N/A",
+                            user != null ? user.getEmail() : "Desconocido",
+                            String.format("$%.2f", invoice.getTotalAmount()),
+                            invoice.getIssuedAt().format(DATETIME_FORMATTER)
+                    ));
+                });
+        return rows;
+    }
+
+    /**
+     * Builds the rows of the shipments report, shared by its PDF and CSV versions.
+     */
+    private List<List<String>> shipmentRows(LocalDate from, LocalDate to) {
+        List<List<String>> rows = new ArrayList<>();
+        shipmentRepository.findAll().stream()
+                .filter(shipment -> isInDateRange(shipment.getCreatedAt(), from, to))
+                .forEach(shipment -> {
+                    User user = userRepository.findById(shipment.getUserId()).orElse(null);
+                    rows.add(Arrays.asList(
+                            shipment.getId(),
+                            user != null ? user.getEmail() : "Desconocido",
+                            shipment.getStatus().getDisplayName(),
+                            String.format("%.2f", shipment.getWeightKg()),
+                            String.format("$%.2f", shipment.getTotalCost()),
+                            shipment.getCreatedAt().format(DATETIME_FORMATTER),
+                            shipment.getDeliveredDate() != null ? shipment.getDeliveredDate().format(DATETIME_FORMATTER) : "Pendiente"
+                    ));
+                });
+        return rows;
+    }
+
+    /**
+     * Builds one row per user with the orders counted by the report.
+     */
+    private List<List<String>> userRows(PeriodReportDTO report) {
+        List<List<String>> rows = new ArrayList<>();
+        userRepository.getUsers().forEach(user -> rows.add(Arrays.asList(
+                user.getId(),
+                user.getEmail(),
+                user.getName() + " " + user.getLastName(),
+                user.getPhone() != null ? user.getPhone() : "N/A",
+                String.valueOf(report.getOrdersByUser().getOrDefault(user.getId(), 0L))
+        )));
+        return rows;
+    }
+
+    /**
+     * Builds one row per delivery person with the deliveries counted by the report.
+     */
+    private List<List<String>> deliveryPersonnelRows(PeriodReportDTO report) {
+        List<List<String>> rows = new ArrayList<>();
+        deliveryPersonRepository.getAllDeliveryPersons().forEach(person -> rows.add(Arrays.asList(
+                person.getId(),
+                person.getName() + " " + person.getLastName(),
+                person.getEmail(),
+                person.getAvailability().name(),
+                String.valueOf(report.getDeliveredByDeliveryPerson().getOrDefault(person.getId(), 0L))
+        )));
+        return rows;
+    }
+
+    private Map<String, Long> byStatusName(Map<ShipmentStatus, Long> counts) {
+        Map<String, Long> byStatus = new HashMap<>();
+        counts.forEach((status, count) -> byStatus.merge(status.getDisplayName(), count, Long::sum));
+        return byStatus;
+    }
+
+    /**
+     * Resolves delivery person IDs to names and keeps the {@code limit} with most deliveries.
+     */
+    private Map<String, Long> topByName(Map<String, Long> deliveredById, int limit) {
+        Map<String, Long> byName = new HashMap<>();
+        deliveredById.forEach((deliveryPersonId, count) -> {
+            DeliveryPerson dp = deliveryPersonRepository.findDeliveryPersonById(deliveryPersonId).orElse(null);
+            String name = dp != null ? dp.getName() + " " + dp.getLastName() : "Desconocido";
+            byName.merge(name, count, Long::sum);
+        });
+
+        return byName.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(limit)
+                .collect(Collectors.toMap(
+                        Map.Entry::getKey,
+                        Map.Entry::getValue,
+                        (e1, e2) -> e1,
+                        LinkedHashMap::new
+                ));
+    }
+
+    private Map<String, Long> byVehicleTypeName(Map<VehicleType, Long> counts) {
+        Map<String, Long> byVehicleType = new HashMap<>();
+        counts.forEach((type, count) -> byVehicleType.put(type != null ? type.name() : "SIN_ASIGNAR", count));
+        return byVehicleType;
+    }
+
+    private String periodSubtitle(LocalDate from, LocalDate to) {
+        return "Periodo: " + from.format(DATE_FORMATTER) + " - " + to.format(DATE_FORMATTER);
+    }
+
     /**
      * Checks if a date-time is within the given date range.
      */
@@ -4,23 +4,30 @@ import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.*;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.AvailabilityStatus;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.IncidentType;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.ServiceType;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.ShipmentSortKey;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.ShipmentStatus;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Observer.ShipmentObserver;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Observer.NotificationObserver;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Observer.LoggingObserver;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Observer.ShipmentEventBus;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Observer.ShipmentSubscriptionRegistry;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.*;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.*;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.DistanceCalculator;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.GeoGridIndex;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.Logger;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.ShipmentValidator;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilService.IdGenerationUtil;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.Adapter.ShipmentDTOConverter;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.Adapter.ShipmentLookupContext;
 
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * <p>Manages the business logic related to shipments.</p>
@@ -37,9 +44,12 @@ public class ShipmentService {
     private final TariffService tariffService;
     private final VehicleService vehicleService;
     private final InvoiceService invoiceService;
+    private final AssignmentEngine assignmentEngine;
 
-    // Observer Pattern: List of observers for shipment events
-    private final List<ShipmentObserver> observers = new ArrayList<>();
+    // Observer Pattern: shared registry routing each event to global and per-shipment observers
+    private final ShipmentSubscriptionRegistry subscriptions = ShipmentSubscriptionRegistry.getInstance();
+    // Events are delivered asynchronously so slow observers never block the caller (JavaFX thread)
+    private final ShipmentEventBus eventBus = ShipmentEventBus.getInstance();
 
     // Constants
     private static final int DEFAULT_DELIVERY_TIME_HOURS = 24; // 24 hours default
@@ -64,6 +74,7 @@ public class ShipmentService {
         this.tariffService = tariffService;
         this.vehicleService = VehicleService.getInstance();
         this.invoiceService = new InvoiceService();
+        this.assignmentEngine = new AssignmentEngine(shipmentRepository, deliveryPersonRepository, vehicleService);
     }
 
     /**
@@ -86,12 +97,11 @@ public class ShipmentService {
     // ===========================
 
     /**
-     * Registers an observer to receive shipment event notifications.
+     * Registers an observer to receive the events of every shipment.
      * @param observer The observer to register
      */
     public void registerObserver(ShipmentObserver observer) {
-        if (!observers.contains(observer)) {
-            observers.add(observer);
+        if (subscriptions.registerGlobal(observer)) {
             Logger.info("Observer registered: " + observer.getClass().getSimpleName());
         }
     }
@@ -101,42 +111,91 @@ public class ShipmentService {
      * @param observer The observer to remove
      */
     public void removeObserver(ShipmentObserver observer) {
-        observers.remove(observer);
-        Logger.info("Observer removed: " + observer.getClass().getSimpleName());
+        if (subscriptions.removeGlobal(observer)) {
+            Logger.info("Observer removed: " + observer.getClass().getSimpleName());
+        }
     }
 
     /**
-     * Notifies all observers about a status change.
+     * Subscribes the shipment's owner to notifications about that shipment only.
+     * Idempotent: the subscription is keyed by user, so repeated calls do not add observers.
+     * @param shipment The shipment to follow
+     */
+    private void subscribeOwner(Shipment shipment) {
+        if (shipment.getUserId() == null || isTerminal(shipment.getStatus())) {
+            return;
+        }
+        subscriptions.subscribeIfAbsent(shipment.getId(), "notification:" + shipment.getUserId(),
+                new NotificationObserver(shipment.getUserId()));
+    }
+
+    /**
+     * Notifies the relevant observers about a status change and releases the shipment's
+     * subscriptions once it reaches a terminal state.
      * @param shipment The shipment that changed
      * @param oldStatus The previous status
      * @param newStatus The new status
      */
     private void notifyStatusChange(Shipment shipment, ShipmentStatus oldStatus, ShipmentStatus newStatus) {
-        for (ShipmentObserver observer : observers) {
-            observer.onStatusChanged(shipment, oldStatus, newStatus);
+        // Re-subscribe owners of shipments created before the last restart
+        subscribeOwner(shipment);
+        ShipmentEventDTO event = toEvent(shipment);
+        eventBus.publish(subscriptions.observersFor(shipment),
+                observer -> observer.onStatusChanged(event, oldStatus, newStatus));
+        if (isTerminal(newStatus)) {
+            subscriptions.release(shipment.getId());
         }
     }
 
     /**
-     * Notifies all observers about shipment assignment.
+     * Notifies the relevant observers about shipment assignment.
      * @param shipment The shipment that was assigned
      * @param deliveryPersonId The ID of the assigned delivery person
      */
     private void notifyShipmentAssigned(Shipment shipment, String deliveryPersonId) {
-        for (ShipmentObserver observer : observers) {
-            observer.onShipmentAssigned(shipment, deliveryPersonId);
-        }
+        subscribeOwner(shipment);
+        ShipmentEventDTO event = toEvent(shipment);
+        eventBus.publish(subscriptions.observersFor(shipment),
+                observer -> observer.onShipmentAssigned(event, deliveryPersonId));
     }
 
     /**
-     * Notifies all observers about an incident.
+     * Notifies the relevant observers about an incident.
      * @param shipment The shipment with the incident
      * @param incidentDescription Description of the incident
      */
     private void notifyIncidentReported(Shipment shipment, String incidentDescription) {
-        for (ShipmentObserver observer : observers) {
-            observer.onIncidentReported(shipment, incidentDescription);
-        }
+        subscribeOwner(shipment);
+        ShipmentEventDTO event = toEvent(shipment);
+        eventBus.publish(subscriptions.observersFor(shipment),
+                observer -> observer.onIncidentReported(event, incidentDescription));
+    }
+
+    /**
+     * Captures the fields observers read, on the publishing thread, so events delivered later
+     * do not see changes made to the shipment after they were published.
+     * @param shipment The shipment the event is about
+     * @return An immutable copy of the shipment's event fields
+     */
+    private static ShipmentEventDTO toEvent(Shipment shipment) {
+        return new ShipmentEventDTO(
+                shipment.getId(),
+                shipment.getUserId(),
+                shipment.getOrderId(),
+                shipment.getDeliveryPersonId(),
+                shipment.getStatus(),
+                shipment.getOrigin() != null ? shipment.getOrigin().getCity() : null,
+                shipment.getDestination() != null ? shipment.getDestination().getCity() : null);
+    }
+
+    /**
+     * Terminal states end the shipment lifecycle; no further events are expected after them.
+     */
+    private static boolean isTerminal(ShipmentStatus status) {
+        return status == ShipmentStatus.PICKED_UP
+                || status == ShipmentStatus.DELIVERED
+                || status == ShipmentStatus.RETURNED
+                || status == ShipmentStatus.CANCELLED;
     }
 
     // ===========================
@@ -165,8 +224,8 @@ public class ShipmentService {
 
         shipmentRepository.addShipment(newShipment);
 
-        // Register NotificationObserver for this user (Observer Pattern)
-        registerObserver(new NotificationObserver(order.getUserId()));
+        // Subscribe the customer to this shipment's events (Observer Pattern)
+        subscribeOwner(newShipment);
 
         Logger.info("Shipment created for order " + order.getId() + " with total cost: $" + order.getTotalCost());
 
@@ -259,8 +318,8 @@ public class ShipmentService {
 
         shipmentRepository.addShipment(shipment);
 
-        // Register NotificationObserver for this shipment (Observer Pattern)
-        registerObserver(new NotificationObserver(dto.getUserId()));
+        // Subscribe the customer to this shipment's events (Observer Pattern)
+        subscribeOwner(shipment);
 
         Logger.info("Shipment created: " + shipment.getId() + " for user: " + dto.getUserId());
 
@@ -279,30 +338,32 @@ public class ShipmentService {
             throw new IllegalArgumentException("ID del envío requerido para actualización");
         }
 
-        Optional<Shipment> shipmentOpt = shipmentRepository.findById(dto.getId());
-        if (!shipmentOpt.isPresent()) {
-            throw new IllegalArgumentException("Envío no encontrado");
-        }
+        return shipmentRepository.withLock(dto.getId(), () -> {
+            Optional<Shipment> shipmentOpt = shipmentRepository.findById(dto.getId());
+            if (!shipmentOpt.isPresent()) {
+                throw new IllegalArgumentException("Envío no encontrado");
+            }
 
-        Shipment shipment = shipmentOpt.get();
+            Shipment shipment = shipmentOpt.get();
 
-        // Only allow updates if status is PENDING_APPROVAL
-        if (shipment.getStatus() != ShipmentStatus.PENDING_ASSIGNMENT) {
-            throw new IllegalArgumentException("Solo se pueden modificar envíos pendientes de aprobación");
-        }
+            // Only allow updates if status is PENDING_APPROVAL
+            if (shipment.getStatus() != ShipmentStatus.PENDING_ASSIGNMENT) {
+                throw new IllegalArgumentException("Solo se pueden modificar envíos pendientes de aprobación");
+            }
 
-        // Update editable fields
-        if (dto.getUserNotes() != null) {
-            shipment.setUserNotes(dto.getUserNotes());
-        }
+            // Update editable fields
+            if (dto.getUserNotes() != null) {
+                shipment.setUserNotes(dto.getUserNotes());
+            }
 
-        if (dto.getRequestedPickupDate() != null) {
-            shipment.setRequestedPickupDate(dto.getRequestedPickupDate());
-        }
+            if (dto.getRequestedPickupDate() != null) {
+                shipment.setRequestedPickupDate(dto.getRequestedPickupDate());
+            }
 
-        shipmentRepository.update(shipment);
+            shipmentRepository.update(shipment);
 
-        return getShipment(shipment.getId()).orElse(null);
+            return getShipment(shipment.getId()).orElse(null);
+        });
     }
 
     /**
@@ -312,27 +373,30 @@ public class ShipmentService {
      * @throws IllegalArgumentException if shipment not found or cannot be cancelled
      */
     public boolean cancelShipment(String id) {
-        Optional<Shipment> shipmentOpt = shipmentRepository.findById(id);
-        if (!shipmentOpt.isPresent()) {
-            throw new IllegalArgumentException("Envío no encontrado");
-        }
+        return shipmentRepository.withLock(id, () -> {
+            Optional<Shipment> shipmentOpt = shipmentRepository.findById(id);
+            if (!shipmentOpt.isPresent()) {
+                throw new IllegalArgumentException("Envío no encontrado");
+            }
 
-        Shipment shipment = shipmentOpt.get();
+            Shipment shipment = shipmentOpt.get();
 
-        // Can only cancel if PENDING_APPROVAL
-        if (shipment.getStatus() != ShipmentStatus.PENDING_ASSIGNMENT) {
-            throw new IllegalArgumentException("Solo se pueden cancelar envíos pendientes de aprobación");
-        }
+            // Can only cancel if PENDING_APPROVAL
+            if (shipment.getStatus() != ShipmentStatus.PENDING_ASSIGNMENT) {
+                throw new IllegalArgumentException("Solo se pueden cancelar envíos pendientes de aprobación");
+            }
 
-        ShipmentStatus previousStatus = shipment.getStatus();
-        shipment.setStatus(ShipmentStatus.CANCELLED);
-        shipment.addStatusChange(new StatusChange(previousStatus, ShipmentStatus.CANCELLED, LocalDateTime.now()));
+            ShipmentStatus previousStatus = shipment.getStatus();
+            shipment.setStatus(ShipmentStatus.CANCELLED);
+            shipment.addStatusChange(new StatusChange(previousStatus, ShipmentStatus.CANCELLED, LocalDateTime.now()));
 
-        shipmentRepository.update(shipment);
+            shipmentRepository.update(shipment);
+            subscriptions.release(id);
 
-        Logger.info("Shipment cancelled: " + id);
+            Logger.info("Shipment cancelled: " + id);
 
-        return true;
+            return true;
+        });
     }
 
     /**
@@ -401,16 +465,10 @@ public class ShipmentService {
      * @return List of shipment DTOs
      */
     public List<ShipmentDTO> listAll() {
-        return shipmentRepository.findAll().stream()
+        List<Shipment> active = shipmentRepository.findAll().stream()
                 .filter(Shipment::isActive)
-                .map(shipment -> {
-                    User user = shipment.getUserId() != null ?
-                            userRepository.findById(shipment.getUserId()).orElse(null) : null;
-                    DeliveryPerson deliveryPerson = shipment.getDeliveryPersonId() != null ?
-                            deliveryPersonRepository.findDeliveryPersonById(shipment.getDeliveryPersonId()).orElse(null) : null;
-                    return ShipmentDTOConverter.toDTO(shipment, user, deliveryPerson);
-                })
                 .collect(Collectors.toList());
+        return toDTOs(active);
     }
 
     // ===========================
@@ -423,6 +481,28 @@ public class ShipmentService {
      * @return The quote result with cost breakdown
      */
     public QuoteResultDTO quoteShipment(QuoteDTO quote) {
+        return quoteShipment(quote, new HashMap<>());
+    }
+
+    /**
+     * Calculates quotes for several shipments at once, e.g. to compare options side by side.
+     * <p>Addresses referenced by ID are loaded once per batch, and every quote with the same
+     * priority and services reuses one compiled pricing function from {@link TariffService}.</p>
+     * @param quotes The quote requests
+     * @return One result per request, in the same order
+     * @throws IllegalArgumentException if any request is invalid
+     */
+    public List<QuoteResultDTO> quoteBatch(List<QuoteDTO> quotes) {
+        Map<String, Address> addresses = new HashMap<>();
+        List<QuoteResultDTO> results = new ArrayList<>(quotes.size());
+        for (QuoteDTO quote : quotes) {
+            results.add(quoteShipment(quote, addresses));
+        }
+        Logger.info("Batch of " + quotes.size() + " quotes calculated");
+        return results;
+    }
+
+    private QuoteResultDTO quoteShipment(QuoteDTO quote, Map<String, Address> addressCache) {
         // Get addresses - accept both Address objects and IDs for backwards compatibility
         Address origin;
         Address destination;
@@ -433,15 +513,12 @@ public class ShipmentService {
             destination = quote.getDestination();
         } else if (quote.getOriginId() != null && quote.getDestinationId() != null) {
             // Load from repository using IDs
-            Optional<Address> originOpt = addressRepository.findById(quote.getOriginId());
-            Optional<Address> destinationOpt = addressRepository.findById(quote.getDestinationId());
+            origin = findQuoteAddress(quote.getOriginId(), addressCache);
+            destination = findQuoteAddress(quote.getDestinationId(), addressCache);
 
-            if (!originOpt.isPresent() || !destinationOpt.isPresent()) {
+            if (origin == null || destination == null) {
                 throw new IllegalArgumentException("Direcciones inválidas");
             }
-
-            origin = originOpt.get();
-            destination = destinationOpt.get();
         } else {
             throw new IllegalArgumentException("Debe proporcionar direcciones (objetos o IDs)");
         }
@@ -513,6 +590,10 @@ public class ShipmentService {
         return result;
     }
 
+    private Address findQuoteAddress(String addressId, Map<String, Address> addressCache) {
+        return addressCache.computeIfAbsent(addressId, id -> addressRepository.findById(id).orElse(null));
+    }
+
     /**
      * Calculates estimated delivery time.
      * @param distanceKm Distance in kilometers
@@ -553,34 +634,36 @@ public class ShipmentService {
      * @return true if changed successfully
      */
     public boolean changeStatus(String id, ShipmentStatus newStatus, String reason, String userId) {
-        Optional<Shipment> shipmentOpt = shipmentRepository.findById(id);
-        if (!shipmentOpt.isPresent()) {
-            throw new IllegalArgumentException("Envío no encontrado");
-        }
+        return shipmentRepository.withLock(id, () -> {
+            Optional<Shipment> shipmentOpt = shipmentRepository.findById(id);
+            if (!shipmentOpt.isPresent()) {
+                throw new IllegalArgumentException("Envío no encontrado");
+            }
 
-        Shipment shipment = shipmentOpt.get();
-        ShipmentStatus oldStatus = shipment.getStatus();
+            Shipment shipment = shipmentOpt.get();
+            ShipmentStatus oldStatus = shipment.getStatus();
 
-        if (!ShipmentValidator.isValidStatusTransition(oldStatus, newStatus)) {
-            throw new IllegalArgumentException(
-                ShipmentValidator.getStatusTransitionError(oldStatus, newStatus));
-        }
+            if (!ShipmentValidator.isValidStatusTransition(oldStatus, newStatus)) {
+                throw new IllegalArgumentException(
+                    ShipmentValidator.getStatusTransitionError(oldStatus, newStatus));
+            }
 
-        shipment.setStatus(newStatus);
-        StatusChange statusChange = new StatusChange(oldStatus, newStatus, LocalDateTime.now(), userId, reason);
-        shipment.addStatusChange(statusChange);
+            shipment.setStatus(newStatus);
+            StatusChange statusChange = new StatusChange(oldStatus, newStatus, LocalDateTime.now(), userId, reason);
+            shipment.addStatusChange(statusChange);
 
-        if (newStatus == ShipmentStatus.DELIVERED) {
-            shipment.setDeliveredDate(LocalDateTime.now());
-        }
+            if (newStatus == ShipmentStatus.DELIVERED) {
+                shipment.setDeliveredDate(LocalDateTime.now());
+            }
 
-        shipmentRepository.update(shipment);
-        Logger.info("Shipment " + id + " status changed from " + oldStatus + " to " + newStatus);
+            shipmentRepository.update(shipment);
+            Logger.info("Shipment " + id + " status changed from " + oldStatus + " to " + newStatus);
 
-        // Observer Pattern: Notify all observers about the status change
-        notifyStatusChange(shipment, oldStatus, newStatus);
+            // Observer Pattern: Notify all observers about the status change
+            notifyStatusChange(shipment, oldStatus, newStatus);
 
-        return true;
+            return true;
+        });
     }
 
     /**
@@ -591,110 +674,144 @@ public class ShipmentService {
      * @return true if assigned successfully
      */
     public boolean assignDeliveryPerson(String shipmentId, String deliveryPersonId) {
-        Optional<Shipment> shipmentOpt = shipmentRepository.findById(shipmentId);
-        if (!shipmentOpt.isPresent()) {
-            throw new IllegalArgumentException("Envío no encontrado");
-        }
+        return shipmentRepository.withLock(shipmentId, () -> {
+            Optional<Shipment> shipmentOpt = shipmentRepository.findById(shipmentId);
+            if (!shipmentOpt.isPresent()) {
+                throw new IllegalArgumentException("Envío no encontrado");
+            }
 
-        Optional<DeliveryPerson> deliveryPersonOpt = deliveryPersonRepository.findDeliveryPersonById(deliveryPersonId);
-        if (!deliveryPersonOpt.isPresent()) {
-            throw new IllegalArgumentException("Repartidor no encontrado");
-        }
+            Optional<DeliveryPerson> deliveryPersonOpt = deliveryPersonRepository.findDeliveryPersonById(deliveryPersonId);
+            if (!deliveryPersonOpt.isPresent()) {
+                throw new IllegalArgumentException("Repartidor no encontrado");
+            }
 
-        Shipment shipment = shipmentOpt.get();
-        DeliveryPerson deliveryPerson = deliveryPersonOpt.get();
+            Shipment shipment = shipmentOpt.get();
+            DeliveryPerson deliveryPerson = deliveryPersonOpt.get();
 
-        // Allow assignment for PENDING_ASSIGNMENT or READY_FOR_PICKUP (reassignment)
-        if (shipment.getStatus() != ShipmentStatus.PENDING_ASSIGNMENT &&
-            shipment.getStatus() != ShipmentStatus.READY_FOR_PICKUP) {
-            throw new IllegalArgumentException("Solo se pueden asignar envíos con estado PENDING_ASSIGNMENT o READY_FOR_PICKUP");
-        }
+            // Allow assignment for PENDING_ASSIGNMENT or READY_FOR_PICKUP (reassignment)
+            if (shipment.getStatus() != ShipmentStatus.PENDING_ASSIGNMENT &&
+                shipment.getStatus() != ShipmentStatus.READY_FOR_PICKUP) {
+                throw new IllegalArgumentException("Solo se pueden asignar envíos con estado PENDING_ASSIGNMENT o READY_FOR_PICKUP");
+            }
 
-        if (deliveryPerson.getAvailability() != AvailabilityStatus.AVAILABLE) {
-            throw new IllegalArgumentException("Repartidor no disponible");
-        }
+            if (deliveryPerson.getAvailability() != AvailabilityStatus.AVAILABLE) {
+                throw new IllegalArgumentException("Repartidor no disponible");
+            }
 
-        // Validate that delivery person has an active vehicle
-        if (deliveryPerson.getActiveVehiclePlate() == null || deliveryPerson.getActiveVehiclePlate().isEmpty()) {
-            throw new IllegalArgumentException("El repartidor no tiene un vehículo activo asignado");
-        }
+            // Validate that delivery person has an active vehicle
+            if (deliveryPerson.getActiveVehiclePlate() == null || deliveryPerson.getActiveVehiclePlate().isEmpty()) {
+                throw new IllegalArgumentException("El repartidor no tiene un vehículo activo asignado");
+            }
 
-        // Validate that the active vehicle exists and is available
-        Optional<Vehicle> vehicleOpt = vehicleService.findVehicleByPlate(deliveryPerson.getActiveVehiclePlate());
-        if (!vehicleOpt.isPresent()) {
-            throw new IllegalArgumentException("El vehículo activo del repartidor no existe");
-        }
+            // Validate that the active vehicle exists and is available
+            Optional<Vehicle> vehicleOpt = vehicleService.findVehicleByPlate(deliveryPerson.getActiveVehiclePlate());
+            if (!vehicleOpt.isPresent()) {
+                throw new IllegalArgumentException("El vehículo activo del repartidor no existe");
+            }
 
-        Vehicle activeVehicle = vehicleOpt.get();
-        if (!activeVehicle.isAvailable()) {
-            throw new IllegalArgumentException("El vehículo activo del repartidor no está disponible");
-        }
+            Vehicle activeVehicle = vehicleOpt.get();
+            if (!activeVehicle.isAvailable()) {
+                throw new IllegalArgumentException("El vehículo activo del repartidor no está disponible");
+            }
 
-        // Validate that the vehicle type matches the shipment requirement
-        if (shipment.getVehicleType() != null && shipment.getVehicleType() != activeVehicle.getType()) {
-            throw new IllegalArgumentException(
-                "El vehículo del repartidor (tipo: " + activeVehicle.getType().getDisplayName() +
-                ") no coincide con el requerido para este envío (tipo: " + shipment.getVehicleType().getDisplayName() + ")"
-            );
-        }
+            // Validate that the vehicle type matches the shipment requirement
+            if (shipment.getVehicleType() != null && shipment.getVehicleType() != activeVehicle.getType()) {
+                throw new IllegalArgumentException(
+                    "El vehículo del repartidor (tipo: " + activeVehicle.getType().getDisplayName() +
+                    ") no coincide con el requerido para este envío (tipo: " + shipment.getVehicleType().getDisplayName() + ")"
+                );
+            }
 
-        shipment.setDeliveryPersonId(deliveryPersonId);
-        shipment.setAssignmentDate(LocalDateTime.now());
-        shipment.setAssignedVehiclePlate(activeVehicle.getPlate()); // Assign vehicle plate to shipment
+            shipment.setDeliveryPersonId(deliveryPersonId);
+            shipment.setAssignmentDate(LocalDateTime.now());
+            shipment.setAssignedVehiclePlate(activeVehicle.getPlate()); // Assign vehicle plate to shipment
 
-        // Change status from PENDING_ASSIGNMENT to READY_FOR_PICKUP
-        if (shipment.getStatus() == ShipmentStatus.PENDING_ASSIGNMENT) {
-            changeStatus(shipmentId, ShipmentStatus.READY_FOR_PICKUP, "Repartidor asignado", "SYSTEM");
-        }
+            // Change status from PENDING_ASSIGNMENT to READY_FOR_PICKUP
+            if (shipment.getStatus() == ShipmentStatus.PENDING_ASSIGNMENT) {
+                changeStatus(shipmentId, ShipmentStatus.READY_FOR_PICKUP, "Repartidor asignado", "SYSTEM");
+            }
 
-        shipmentRepository.update(shipment);
-        Logger.info("Shipment " + shipmentId + " assigned to " + deliveryPersonId + " with vehicle " + activeVehicle.getPlate());
+            shipmentRepository.update(shipment);
+            Logger.info("Shipment " + shipmentId + " assigned to " + deliveryPersonId + " with vehicle " + activeVehicle.getPlate());
 
-        // Observer Pattern: Notify all observers about the assignment
-        notifyShipmentAssigned(shipment, deliveryPersonId);
+            // Observer Pattern: Notify all observers about the assignment
+            notifyShipmentAssigned(shipment, deliveryPersonId);
 
-        return true;
+            return true;
+        });
     }
 
     /**
-     * Auto-assigns shipments to available delivery persons.
+     * Auto-assigns unassigned shipments to available delivery persons.
+     * <p>The whole batch is planned in one pass by {@link AssignmentEngine}, which balances courier load
+     * and respects coverage area, vehicle type and capacity. All assignments are then persisted with a
+     * single repository write before observers are notified. Applying the plan holds the locks of every
+     * planned shipment, and a shipment assigned by someone else since planning is left as it is.</p>
      * @param zone Optional zone filter
      * @return Number of shipments assigned
      */
     public int autoAssignShipments(String zone) {
-        List<Shipment> unassigned = zone != null ?
-            shipmentRepository.findByZone(zone).stream()
-                .filter(s -> s.getDeliveryPersonId() == null)
-                .filter(s -> s.getStatus() == ShipmentStatus.READY_FOR_PICKUP)
-                .collect(Collectors.toList()) :
-            shipmentRepository.findUnassigned();
+        List<Shipment> unassigned = (zone != null ?
+            shipmentRepository.findByZone(zone).stream() :
+            Stream.concat(shipmentRepository.findByStatus(ShipmentStatus.PENDING_ASSIGNMENT).stream(),
+                          shipmentRepository.findByStatus(ShipmentStatus.READY_FOR_PICKUP).stream()))
+            .filter(s -> s.getDeliveryPersonId() == null)
+            .filter(s -> s.getStatus() == ShipmentStatus.PENDING_ASSIGNMENT ||
+                         s.getStatus() == ShipmentStatus.READY_FOR_PICKUP)
+            .collect(Collectors.toList());
 
         if (unassigned.isEmpty()) return 0;
 
-        List<DeliveryPerson> available = deliveryPersonRepository.getAllDeliveryPersons().stream()
-            .filter(dp -> dp.getAvailability() == AvailabilityStatus.AVAILABLE)
-            .collect(Collectors.toList());
+        List<AssignmentEngine.Assignment> assignments = assignmentEngine.plan(unassigned);
+        if (assignments.isEmpty()) return 0;
 
-        if (available.isEmpty()) return 0;
-
-        int assigned = 0;
-        for (Shipment shipment : unassigned) {
-            DeliveryPerson best = available.stream()
-                .min(Comparator.comparingInt(dp ->
-                    shipmentRepository.findByDeliveryPerson(dp.getId()).size()))
-                .orElse(null);
-
-            if (best != null) {
-                try {
-                    assignDeliveryPerson(shipment.getId(), best.getId());
-                    assigned++;
-                } catch (Exception e) {
-                    Logger.error("Failed to auto-assign shipment " + shipment.getId() + ": " + e.getMessage());
+        LocalDateTime now = LocalDateTime.now();
+        List<String> plannedIds = assignments.stream()
+            .map(assignment -> assignment.getShipment().getId())
+            .collect(Collectors.toList());
+        List<AssignmentEngine.Assignment> applied = new ArrayList<>(assignments.size());
+        List<Shipment> changed = new ArrayList<>(assignments.size());
+        Map<Shipment, ShipmentStatus> previousStatus = new HashMap<>();
+        shipmentRepository.withLocks(plannedIds, () -> {
+            for (AssignmentEngine.Assignment assignment : assignments) {
+                Shipment shipment = assignment.getShipment();
+                // The plan was made without locks; skip shipments assigned or moved on meanwhile
+                if (shipment.getDeliveryPersonId() != null
+                        || (shipment.getStatus() != ShipmentStatus.PENDING_ASSIGNMENT
+                            && shipment.getStatus() != ShipmentStatus.READY_FOR_PICKUP)) {
+                    continue;
                 }
+                shipment.setDeliveryPersonId(assignment.getDeliveryPerson().getId());
+                shipment.setAssignmentDate(now);
+                shipment.setAssignedVehiclePlate(assignment.getVehicle().getPlate());
+                if (shipment.getStatus() == ShipmentStatus.PENDING_ASSIGNMENT) {
+                    previousStatus.put(shipment, shipment.getStatus());
+                    shipment.setStatus(ShipmentStatus.READY_FOR_PICKUP);
+                    shipment.addStatusChange(new StatusChange(ShipmentStatus.PENDING_ASSIGNMENT,
+                        ShipmentStatus.READY_FOR_PICKUP, now, "SYSTEM", "Repartidor asignado automáticamente"));
+                }
+                applied.add(assignment);
+                changed.add(shipment);
+            }
+
+            // Batch persist: one journal write for the whole batch
+            if (!changed.isEmpty()) {
+                shipmentRepository.updateAll(changed);
             }
+            return null;
+        });
+        Logger.info("Auto-assigned " + changed.size() + " of " + unassigned.size() + " unassigned shipments");
+
+        for (AssignmentEngine.Assignment assignment : applied) {
+            Shipment shipment = assignment.getShipment();
+            ShipmentStatus oldStatus = previousStatus.get(shipment);
+            if (oldStatus != null) {
+                notifyStatusChange(shipment, oldStatus, shipment.getStatus());
+            }
+            notifyShipmentAssigned(shipment, assignment.getDeliveryPerson().getId());
         }
 
-        return assigned;
+        return changed.size();
     }
 
     /**
@@ -706,26 +823,28 @@ public class ShipmentService {
      * @return true if registered successfully
      */
     public boolean registerIncident(String shipmentId, IncidentType type, String description, String userId) {
-        Optional<Shipment> shipmentOpt = shipmentRepository.findById(shipmentId);
-        if (!shipmentOpt.isPresent()) {
-            throw new IllegalArgumentException("Envío no encontrado");
-        }
+        return shipmentRepository.withLock(shipmentId, () -> {
+            Optional<Shipment> shipmentOpt = shipmentRepository.findById(shipmentId);
+            if (!shipmentOpt.isPresent()) {
+                throw new IllegalArgumentException("Envío no encontrado");
+            }
 
-        Shipment shipment = shipmentOpt.get();
+            Shipment shipment = shipmentOpt.get();
 
-        Incident incident = new Incident(
-            IdGenerationUtil.generateId(),
-            type,
-            description,
-            userId
-        );
+            Incident incident = new Incident(
+                IdGenerationUtil.generateId(),
+                type,
+                description,
+                userId
+            );
 
-        shipment.setIncident(incident);
-        shipmentRepository.update(shipment);
+            shipment.setIncident(incident);
+            shipmentRepository.update(shipment);
 
-        Logger.info("Incident registered for shipment " + shipmentId);
+            Logger.info("Incident registered for shipment " + shipmentId);
 
-        return true;
+            return true;
+        });
     }
 
     // ===========================
@@ -738,15 +857,116 @@ public class ShipmentService {
      * @return List of filtered shipment DTOs
      */
     public List<ShipmentDTO> filterShipments(ShipmentFilterDTO filter) {
-        return shipmentRepository.search(filter).stream()
-            .map(shipment -> {
-                User user = shipment.getUserId() != null ?
-                    userRepository.findById(shipment.getUserId()).orElse(null) : null;
-                DeliveryPerson deliveryPerson = shipment.getDeliveryPersonId() != null ?
-                    deliveryPersonRepository.findDeliveryPersonById(shipment.getDeliveryPersonId()).orElse(null) : null;
-                return ShipmentDTOConverter.toDTO(shipment, user, deliveryPerson);
-            })
-            .collect(Collectors.toList());
+        return toDTOs(shipmentRepository.search(filter));
+    }
+
+    /**
+     * Gets one sorted page of the shipments matching a filter, converting only that page to DTOs.
+     * @param filter Filter criteria (null means all shipments)
+     * @param sortKey Sort key (null means creation date)
+     * @param request Page offset, size and sort direction
+     * @return The page with its execution report; the first page also carries match counts per status and with incidents
+     */
+    public PageDTO<ShipmentDTO> getShipmentsPage(ShipmentFilterDTO filter, ShipmentSortKey sortKey, PageRequestDTO request) {
+        return getShipmentsPage(filter, null, sortKey, request);
+    }
+
+    /**
+     * Gets one sorted page of the shipments matching a filter and a reference search, converting only
+     * that page to DTOs.
+     * @param filter Filter criteria (null means all shipments)
+     * @param referenceText Text to find in the shipment ID, order ID, user email or delivery person email (may be null)
+     * @param sortKey Sort key (null means creation date)
+     * @param request Page offset, size and sort direction
+     * @return The page with its execution report; the first page also carries match counts per status and with incidents
+     */
+    public PageDTO<ShipmentDTO> getShipmentsPage(ShipmentFilterDTO filter, String referenceText,
+                                                 ShipmentSortKey sortKey, PageRequestDTO request) {
+        PageDTO<Shipment> page = shipmentRepository.searchPage(filter, referenceCondition(referenceText), sortKey, request);
+        return page.map(lookupContext(page.getItems())::toDTO);
+    }
+
+    /**
+     * Gets one sorted page of the shipments matching a filter and a reference search, as table rows.
+     * Cheaper than {@link #getShipmentsPage(ShipmentFilterDTO, String, ShipmentSortKey, PageRequestDTO)}
+     * for list screens; use {@link #getShipment(String)} when a row is opened.
+     * @param filter Filter criteria (null means all shipments)
+     * @param referenceText Text to find in the shipment ID, order ID, user email or delivery person email (may be null)
+     * @param sortKey Sort key (null means creation date)
+     * @param request Page offset, size and sort direction
+     * @return The page with its execution report; the first page also carries match counts per status and with incidents
+     */
+    public PageDTO<ShipmentSummaryDTO> getShipmentSummaryPage(ShipmentFilterDTO filter, String referenceText,
+                                                              ShipmentSortKey sortKey, PageRequestDTO request) {
+        PageDTO<Shipment> page = shipmentRepository.searchPage(filter, referenceCondition(referenceText), sortKey, request);
+        return page.map(lookupContext(page.getItems())::toSummary);
+    }
+
+    /**
+     * Finds every shipment matching a filter and a reference search, newest first, without converting them.
+     * Used for exports of a paged table.
+     * @param filter Filter criteria (null means all shipments)
+     * @param referenceText Text to find in the shipment ID, order ID, user email or delivery person email (may be null)
+     * @return The matching shipments
+     */
+    public List<Shipment> findMatchingShipments(ShipmentFilterDTO filter, String referenceText) {
+        return shipmentRepository.searchPage(filter, referenceCondition(referenceText), ShipmentSortKey.CREATED_AT,
+                new PageRequestDTO(0, Integer.MAX_VALUE, false)).getItems();
+    }
+
+    /**
+     * Builds the condition for a reference search. Emails are resolved once per user and delivery person.
+     */
+    private Predicate<Shipment> referenceCondition(String referenceText) {
+        if (referenceText == null || referenceText.trim().isEmpty()) {
+            return null;
+        }
+        String searchLower = referenceText.trim().toLowerCase();
+        Map<String, String> userEmails = new HashMap<>();
+        Map<String, String> deliveryPersonEmails = new HashMap<>();
+        return shipment -> {
+            if (containsIgnoreCase(shipment.getId(), searchLower)
+                    || containsIgnoreCase(shipment.getOrderId(), searchLower)) {
+                return true;
+            }
+            if (shipment.getUserId() != null) {
+                String email = userEmails.computeIfAbsent(shipment.getUserId(), id ->
+                        userRepository.findById(id).map(User::getEmail).orElse(""));
+                if (containsIgnoreCase(email, searchLower)) {
+                    return true;
+                }
+            }
+            if (shipment.getDeliveryPersonId() != null) {
+                String email = deliveryPersonEmails.computeIfAbsent(shipment.getDeliveryPersonId(), id ->
+                        deliveryPersonRepository.findDeliveryPersonById(id).map(DeliveryPerson::getEmail).orElse(""));
+                return containsIgnoreCase(email, searchLower);
+            }
+            return false;
+        };
+    }
+
+    private static boolean containsIgnoreCase(String value, String searchLower) {
+        return value != null && value.toLowerCase().contains(searchLower);
+    }
+
+    /**
+     * Resolves the users and delivery persons of a batch once, for converting it.
+     */
+    private ShipmentLookupContext lookupContext(Collection<Shipment> shipments) {
+        return ShipmentLookupContext.forShipments(shipments, userRepository, deliveryPersonRepository);
+    }
+
+    private List<ShipmentDTO> toDTOs(Collection<Shipment> shipments) {
+        return lookupContext(shipments).toDTOs(shipments);
+    }
+
+    /**
+     * Reports how the most recent {@link #filterShipments(ShipmentFilterDTO)} was executed.
+     * Paged queries carry their own report in {@link PageDTO#getExplain()}.
+     * @return The search execution report, or null if no filter has run yet
+     */
+    public SearchExplainDTO getLastFilterExplain() {
+        return shipmentRepository.getLastSearchExplain();
     }
 
     /**
@@ -755,14 +975,16 @@ public class ShipmentService {
      * @return List of user's shipments
      */
     public List<ShipmentDTO> getShipmentsByUser(String userId) {
-        return shipmentRepository.findByUser(userId).stream()
-            .map(shipment -> {
-                User user = userRepository.findById(userId).orElse(null);
-                DeliveryPerson deliveryPerson = shipment.getDeliveryPersonId() != null ?
-                    deliveryPersonRepository.findDeliveryPersonById(shipment.getDeliveryPersonId()).orElse(null) : null;
-                return ShipmentDTOConverter.toDTO(shipment, user, deliveryPerson);
-            })
-            .collect(Collectors.toList());
+        return toDTOs(shipmentRepository.findByUser(userId));
+    }
+
+    /**
+     * Gets the active shipments assigned to a delivery person.
+     * @param deliveryPersonId Delivery person ID
+     * @return List of the delivery person's shipments
+     */
+    public List<ShipmentDTO> getShipmentsByDeliveryPerson(String deliveryPersonId) {
+        return toDTOs(shipmentRepository.findByDeliveryPerson(deliveryPersonId));
     }
 
     /**
@@ -770,15 +992,35 @@ public class ShipmentService {
      * @return List of delayed shipments
      */
     public List<ShipmentDTO> getDelayedShipments() {
-        return shipmentRepository.findDelayed().stream()
-            .map(shipment -> {
-                User user = shipment.getUserId() != null ?
-                    userRepository.findById(shipment.getUserId()).orElse(null) : null;
-                DeliveryPerson deliveryPerson = shipment.getDeliveryPersonId() != null ?
-                    deliveryPersonRepository.findDeliveryPersonById(shipment.getDeliveryPersonId()).orElse(null) : null;
-                return ShipmentDTOConverter.toDTO(shipment, user, deliveryPerson);
-            })
+        return toDTOs(shipmentRepository.findDelayed());
+    }
+
+    /**
+     * Gets unassigned shipments whose pickup is near a delivery person's last known position.
+     * The position is the geolocated pickup of the courier's most recently assigned open shipment.
+     * @param deliveryPersonId The delivery person ID
+     * @param radiusKm Search radius in kilometers
+     * @return Nearby unassigned shipments, nearest first; empty if the position is unknown
+     */
+    public List<ShipmentDTO> getNearbyUnassignedShipments(String deliveryPersonId, double radiusKm) {
+        List<Shipment> open = shipmentRepository.findByDeliveryPerson(deliveryPersonId).stream()
+            .filter(s -> s.getStatus() == ShipmentStatus.READY_FOR_PICKUP ||
+                         s.getStatus() == ShipmentStatus.IN_TRANSIT ||
+                         s.getStatus() == ShipmentStatus.OUT_FOR_DELIVERY)
+            .collect(Collectors.toList());
+        Optional<Address> position = AssignmentEngine.lastKnownPosition(open);
+        if (!position.isPresent()) {
+            return new ArrayList<>();
+        }
+
+        List<Shipment> nearby = shipmentRepository.findByPickupRadius(position.get().getLatitude(), position.get().getLongitude(), radiusKm)
+            .stream()
+            .map(GeoGridIndex.Match::getValue)
+            .filter(s -> s.getDeliveryPersonId() == null)
+            .filter(s -> s.getStatus() == ShipmentStatus.PENDING_ASSIGNMENT ||
+                         s.getStatus() == ShipmentStatus.READY_FOR_PICKUP)
             .collect(Collectors.toList());
+        return toDTOs(nearby);
     }
 
     /**
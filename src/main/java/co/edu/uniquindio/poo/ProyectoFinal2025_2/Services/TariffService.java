@@ -7,14 +7,21 @@ import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.TariffRepository;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.Logger;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Provides business logic services related to tariffs and pricing.
  * <p>This service uses the Decorator pattern to calculate shipping costs
  * by applying various services to a base cost calculation.</p>
+ * <p>Each combination of priority and services is compiled once into a {@link CompiledCostFunction}
+ * and reused for every quote against the active tariff. The cache is shared by all instances and is
+ * discarded whenever the repository reports a tariff change.</p>
  */
 public class TariffService {
 
+    private static volatile PricingCache pricingCache;
+
     private final TariffRepository tariffRepository;
 
     /**
@@ -41,8 +48,14 @@ public class TariffService {
      * @return The active Tariff
      */
     public Tariff getActiveTariff() {
-        return tariffRepository.findAll().stream().findFirst()
-                .orElseThrow(() -> new IllegalStateException("No active tariff found in the system."));
+        PricingCache cache = currentPricingCache();
+        Tariff tariff = cache.activeTariff;
+        if (tariff == null) {
+            tariff = tariffRepository.findAll().stream().findFirst()
+                    .orElseThrow(() -> new IllegalStateException("No active tariff found in the system."));
+            cache.activeTariff = tariff;
+        }
+        return tariff;
     }
 
     /**
@@ -87,8 +100,21 @@ public class TariffService {
         Tariff tariff = getActiveTariff();
 
         // Start with base cost
-        CostCalculator calculator = new BaseShippingCost(tariff, distanceKm, weightKg, volumeM3);
+        CostCalculator calculator = decorate(new BaseShippingCost(tariff, distanceKm, weightKg, volumeM3),
+                priorityLevel, services);
 
+        Logger.info("Cost calculator built with " + (services != null ? services.size() : 0) + " services");
+        return calculator;
+    }
+
+    /**
+     * Wraps a base cost with the priority and service decorators.
+     * @param calculator The base cost calculator
+     * @param priorityLevel Priority level (1-5)
+     * @param services List of additional services to apply
+     * @return The decorated calculator
+     */
+    private CostCalculator decorate(CostCalculator calculator, int priorityLevel, List<ServiceType> services) {
         // Apply priority decorator if not standard (3)
         if (priorityLevel > 3) {
             calculator = new PriorityDecorator(calculator, priorityLevel);
@@ -100,8 +126,6 @@ public class TariffService {
                 calculator = applyServiceDecorator(calculator, service);
             }
         }
-
-        Logger.info("Cost calculator built with " + (services != null ? services.size() : 0) + " services");
         return calculator;
     }
 
@@ -136,8 +160,11 @@ public class TariffService {
             int priorityLevel,
             List<ServiceType> services) {
 
-        CostCalculator calculator = buildCostCalculator(distanceKm, weightKg, volumeM3, priorityLevel, services);
-        return calculator.calculateCost();
+        CompiledCostFunction pricing = getCompiledPricing(priorityLevel, services);
+        if (pricing == null) {
+            return buildCostCalculator(distanceKm, weightKg, volumeM3, priorityLevel, services).calculateCost();
+        }
+        return pricing.calculateCost(distanceKm, weightKg, volumeM3);
     }
 
     /**
@@ -156,8 +183,70 @@ public class TariffService {
             int priorityLevel,
             List<ServiceType> services) {
 
-        CostCalculator calculator = buildCostCalculator(distanceKm, weightKg, volumeM3, priorityLevel, services);
-        return calculator.getBreakdown();
+        CompiledCostFunction pricing = getCompiledPricing(priorityLevel, services);
+        if (pricing == null) {
+            return buildCostCalculator(distanceKm, weightKg, volumeM3, priorityLevel, services).getBreakdown();
+        }
+        return pricing.getBreakdown(distanceKm, weightKg, volumeM3);
+    }
+
+    // ===========================
+    // Compiled Pricing
+    // ===========================
+
+    /**
+     * Returns the compiled pricing function of the active tariff for a priority and service set,
+     * compiling it on first use.
+     * @param priorityLevel Priority level (1-5)
+     * @param services List of additional services, in the order they are applied
+     * @return The compiled function, or null if the decorator chain cannot be compiled
+     */
+    public CompiledCostFunction getCompiledPricing(int priorityLevel, List<ServiceType> services) {
+        PricingCache cache = currentPricingCache();
+        Tariff tariff = getActiveTariff();
+        String key = pricingKey(priorityLevel, services);
+        CompiledCostFunction pricing = cache.functions.get(key);
+        if (pricing == null) {
+            pricing = CompiledCostFunction.compile(tariff, base -> decorate(base, priorityLevel, services))
+                    .orElse(null);
+            if (pricing == null) {
+                Logger.warning("Pricing for " + key + " is not affine; falling back to the decorator chain");
+                return null;
+            }
+            cache.functions.putIfAbsent(key, pricing);
+            Logger.info("Pricing compiled for tariff " + tariff.getId() + " [" + key + "]");
+        }
+        return pricing;
+    }
+
+    /**
+     * Builds the cache key of a pricing function. Vehicle type is not part of it because
+     * it does not change the price. Priority levels up to 3 share one entry since none of them
+     * adds a surcharge, and PRIORITY services are skipped because they apply no decorator.
+     */
+    private static String pricingKey(int priorityLevel, List<ServiceType> services) {
+        StringBuilder key = new StringBuilder("p").append(priorityLevel > 3 ? priorityLevel : 0);
+        if (services != null) {
+            for (ServiceType service : services) {
+                if (service != ServiceType.PRIORITY) {
+                    key.append(',').append(service.name());
+                }
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * Returns the cache for the current repository state, replacing it if the tariffs changed.
+     */
+    private PricingCache currentPricingCache() {
+        long version = tariffRepository.getVersion();
+        PricingCache cache = pricingCache;
+        if (cache == null || cache.repository != tariffRepository || cache.version != version) {
+            cache = new PricingCache(tariffRepository, version);
+            pricingCache = cache;
+        }
+        return cache;
     }
 
     // ===========================
@@ -172,4 +261,29 @@ public class TariffService {
         tariffRepository.addTariff(tariff);
         Logger.info("Tariff created: " + tariff.getId());
     }
+
+    /**
+     * Updates an existing tariff. Compiled pricing is rebuilt on the next quote.
+     * @param tariff The tariff with its new values
+     * @throws IllegalArgumentException if the tariff does not exist
+     */
+    public void updateTariff(Tariff tariff) {
+        tariffRepository.updateTariff(tariff);
+        Logger.info("Tariff updated: " + tariff.getId());
+    }
+
+    /**
+     * Active tariff and compiled pricing functions for one version of a tariff repository.
+     */
+    private static final class PricingCache {
+        private final TariffRepository repository;
+        private final long version;
+        private final Map<String, CompiledCostFunction> functions = new ConcurrentHashMap<>();
+        private volatile Tariff activeTariff;
+
+        private PricingCache(TariffRepository repository, long version) {
+            this.repository = repository;
+            this.version = version;
+        }
+    }
 }
@@ -0,0 +1,260 @@
+package co.edu.uniquindio.poo.ProyectoFinal2025_2.Services;
+
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Address;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Order;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Shipment;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.OrderStatus;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.ShipmentStatus;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.OrderShipmentViewDTO;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.PageDTO;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.DeliveryPersonRepository;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.OrderRepository;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.ShipmentRepository;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.UserRepository;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.Adapter.OrderShipmentConverterUtil;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.Adapter.ShipmentLookupContext;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.OwnerTimelineIndex.Position;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.SortedMerge;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * <p>Builds a user's combined timeline of orders and shipments, newest first, as shown in "My Shipments".</p>
+ * <p>Both repositories keep each user's rows in date order, so the timeline is a k-way merge of
+ * already sorted lists. A {@link Timeline} remembers where each source stopped; every page reads and
+ * converts only about the rows it shows, however long the user's history is. The counters are computed
+ * once, with the first page, from the per-user status counts of the repositories, unless a search text
+ * requires checking each row.</p>
+ */
+public class UserTimelineService {
+
+    /** Facet with the number of matching orders. */
+    public static final String FACET_ORDERS = "ORDERS";
+    /** Facet with the number of matching shipments. */
+    public static final String FACET_SHIPMENTS = "SHIPMENTS";
+    /** Facet with the number of orders and shipments waiting on payment, approval or assignment. */
+    public static final String FACET_PENDING = "PENDING";
+
+    private final OrderRepository orderRepository;
+    private final ShipmentRepository shipmentRepository;
+    private final UserRepository userRepository;
+    private final DeliveryPersonRepository deliveryPersonRepository;
+
+    /**
+     * Constructor with dependency injection.
+     * @param orderRepository Order repository instance
+     * @param shipmentRepository Shipment repository instance
+     * @param userRepository User repository instance
+     * @param deliveryPersonRepository Delivery person repository instance
+     */
+    public UserTimelineService(OrderRepository orderRepository, ShipmentRepository shipmentRepository,
+                               UserRepository userRepository, DeliveryPersonRepository deliveryPersonRepository) {
+        this.orderRepository = orderRepository;
+        this.shipmentRepository = shipmentRepository;
+        this.userRepository = userRepository;
+        this.deliveryPersonRepository = deliveryPersonRepository;
+    }
+
+    /**
+     * Default constructor using singleton instances.
+     */
+    public UserTimelineService() {
+        this(OrderRepository.getInstance(), ShipmentRepository.getInstance(),
+             UserRepository.getInstance(), DeliveryPersonRepository.getInstance());
+    }
+
+    /**
+     * Opens a user's timeline. APPROVED orders are left out, as they continue as shipments,
+     * and so are deleted shipments.
+     * @param userId The user ID
+     * @param type Only show this kind of item (null shows both)
+     * @param searchText Text to find in the ID or route (may be null)
+     * @return The timeline, read page by page with {@link Timeline#fetch(int, int)}
+     */
+    public Timeline openTimeline(String userId, OrderShipmentViewDTO.ItemType type, String searchText) {
+        String searchLower = searchText != null && !searchText.isBlank() ? searchText.trim().toLowerCase() : null;
+        return new Timeline(userId, type, searchLower);
+    }
+
+    /**
+     * A user's timeline with a read position per source. Pages must be fetched one at a time.
+     */
+    public final class Timeline {
+        private final String userId;
+        private final boolean showOrders;
+        private final boolean showShipments;
+        private final String searchLower;
+        private final Predicate<Order> orderCondition;
+        private final Predicate<Shipment> shipmentCondition;
+
+        private Position orderPosition;
+        private Position shipmentPosition;
+        // Counted when the first page is fetched and reused for the following ones
+        private Map<String, Long> facets;
+        private long total;
+
+        private Timeline(String userId, OrderShipmentViewDTO.ItemType type, String searchLower) {
+            this.userId = userId;
+            this.showOrders = type != OrderShipmentViewDTO.ItemType.SHIPMENT;
+            this.showShipments = type != OrderShipmentViewDTO.ItemType.ORDER;
+            this.searchLower = searchLower;
+            this.orderCondition = order -> order.getStatus() != OrderStatus.APPROVED
+                    && (searchLower == null || matchesOrderSearch(order, searchLower));
+            this.shipmentCondition = searchLower == null ? null : shipment -> matchesShipmentSearch(shipment, searchLower);
+        }
+
+        /**
+         * Returns the next rows of the timeline. Offset 0 starts again from the newest row and recounts
+         * the matches; any other offset continues where the previous page ended and reuses those counts.
+         * @param offset The number of rows already shown
+         * @param size The maximum number of rows to return
+         * @return The page, with {@link #FACET_ORDERS}, {@link #FACET_SHIPMENTS} and {@link #FACET_PENDING}
+         */
+        public PageDTO<OrderShipmentViewDTO> fetch(int offset, int size) {
+            if (offset == 0 || facets == null) {
+                orderPosition = null;
+                shipmentPosition = null;
+                countMatches();
+            }
+
+            List<Entry> orders = new ArrayList<>();
+            if (showOrders) {
+                for (Order order : orderRepository.findUserTimeline(userId, orderPosition, size, orderCondition)) {
+                    orders.add(new Entry(new Position(order.getCreatedAt(), order.getId()), order, null));
+                }
+            }
+            List<Entry> shipments = new ArrayList<>();
+            if (showShipments) {
+                for (Shipment shipment : shipmentRepository.findUserTimeline(userId, shipmentPosition, size, shipmentCondition)) {
+                    shipments.add(new Entry(new Position(shipment.getCreatedAt(), shipment.getId()), null, shipment));
+                }
+            }
+
+            List<Entry> page = SortedMerge.merge(List.of(orders, shipments), Comparator.comparing(Entry::position), size);
+            List<Shipment> pageShipments = new ArrayList<>();
+            for (Entry entry : page) {
+                if (entry.order != null) {
+                    orderPosition = entry.position;
+                } else {
+                    shipmentPosition = entry.position;
+                    pageShipments.add(entry.shipment);
+                }
+            }
+
+            ShipmentLookupContext lookups = ShipmentLookupContext.forShipments(pageShipments, userRepository, deliveryPersonRepository);
+            List<OrderShipmentViewDTO> rows = new ArrayList<>(page.size());
+            for (Entry entry : page) {
+                rows.add(entry.order != null
+                        ? OrderShipmentConverterUtil.fromOrder(entry.order)
+                        : OrderShipmentConverterUtil.fromShipment(lookups.toSummary(entry.shipment)));
+            }
+
+            return new PageDTO<>(rows, offset, total, facets);
+        }
+
+        /**
+         * Computes the facets and the total number of rows of the timeline.
+         */
+        private void countMatches() {
+            Map<String, Long> orderCounts = countOrders();
+            Map<String, Long> shipmentCounts = countShipments();
+            long orderTotal = orderCounts.values().stream().mapToLong(Long::longValue).sum();
+            long shipmentTotal = shipmentCounts.values().stream().mapToLong(Long::longValue).sum();
+
+            Map<String, Long> counted = new HashMap<>();
+            counted.put(FACET_ORDERS, orderTotal);
+            counted.put(FACET_SHIPMENTS, shipmentTotal);
+            counted.put(FACET_PENDING, orderCounts.getOrDefault(OrderStatus.AWAITING_PAYMENT.name(), 0L)
+                    + orderCounts.getOrDefault(OrderStatus.PENDING_APPROVAL.name(), 0L)
+                    + shipmentCounts.getOrDefault(ShipmentStatus.PENDING_ASSIGNMENT.name(), 0L));
+            facets = counted;
+            total = (showOrders ? orderTotal : 0) + (showShipments ? shipmentTotal : 0);
+        }
+
+        /**
+         * Counts the user's visible orders per status, from the index unless a search is active.
+         */
+        private Map<String, Long> countOrders() {
+            Map<String, Long> counts;
+            if (searchLower == null) {
+                counts = orderRepository.countUserOrdersByStatus(userId);
+            } else {
+                counts = new HashMap<>();
+                for (Order order : orderRepository.findUserTimeline(userId, null, Integer.MAX_VALUE, orderCondition)) {
+                    counts.merge(order.getStatus() != null ? order.getStatus().name() : "", 1L, Long::sum);
+                }
+            }
+            counts.remove(OrderStatus.APPROVED.name());
+            return counts;
+        }
+
+        /**
+         * Counts the user's active shipments per status, from the index unless a search is active.
+         */
+        private Map<String, Long> countShipments() {
+            if (searchLower == null) {
+                return shipmentRepository.countUserActiveByStatus(userId);
+            }
+            Map<String, Long> counts = new HashMap<>();
+            for (Shipment shipment : shipmentRepository.findUserTimeline(userId, null, Integer.MAX_VALUE, shipmentCondition)) {
+                counts.merge(shipment.getStatus() != null ? shipment.getStatus().name() : "", 1L, Long::sum);
+            }
+            return counts;
+        }
+    }
+
+    // ===========================
+    // Search
+    // ===========================
+
+    /**
+     * Matches the order ID or the cities of its route, as displayed in the timeline.
+     */
+    private static boolean matchesOrderSearch(Order order, String searchLower) {
+        return contains(order.getId(), searchLower)
+                || (order.getOrigin() != null && contains(order.getOrigin().getCity(), searchLower))
+                || (order.getDestination() != null && contains(order.getDestination().getCity(), searchLower));
+    }
+
+    /**
+     * Matches the shipment ID or the street and city of its route, like the shipment search filter.
+     */
+    private static boolean matchesShipmentSearch(Shipment shipment, String searchLower) {
+        return contains(shipment.getId(), searchLower)
+                || matchesAddress(shipment.getOrigin(), searchLower)
+                || matchesAddress(shipment.getDestination(), searchLower);
+    }
+
+    private static boolean matchesAddress(Address address, String searchLower) {
+        return address != null && (contains(address.getStreet(), searchLower)
+                || contains(address.getCity(), searchLower));
+    }
+
+    private static boolean contains(String value, String searchLower) {
+        return value != null && value.toLowerCase().contains(searchLower);
+    }
+
+    /**
+     * One row of the timeline before conversion: an order or a shipment at its position.
+     */
+    private static final class Entry {
+        private final Position position;
+        private final Order order;
+        private final Shipment shipment;
+
+        private Entry(Position position, Order order, Shipment shipment) {
+            this.position = position;
+            this.order = order;
+            this.shipment = shipment;
+        }
+
+        private Position position() {
+            return position;
+        }
+    }
+}
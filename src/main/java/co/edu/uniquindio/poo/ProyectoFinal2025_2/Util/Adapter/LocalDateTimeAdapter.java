@@ -3,7 +3,10 @@ package co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.Adapter;
 import com.google.gson.*;
 
 import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 
 /**
@@ -13,6 +16,10 @@ import java.time.format.DateTimeFormatter;
  * and deserializes them back from a string. This is necessary because Gson's
  * default reflection-based approach cannot handle the new Java 8 date/time types.
  * </p>
+ * <p>
+ * Numbers are also accepted, as epoch milliseconds in UTC with an optional fraction for the
+ * nanoseconds below the millisecond. This is how binary snapshots hand over timestamps.
+ * </p>
  */
 public class LocalDateTimeAdapter implements JsonSerializer<LocalDateTime>, JsonDeserializer<LocalDateTime> {
 
@@ -42,6 +49,24 @@ public class LocalDateTimeAdapter implements JsonSerializer<LocalDateTime>, Json
      */
     @Override
     public LocalDateTime deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) throws JsonParseException {
+        if (json.isJsonPrimitive() && json.getAsJsonPrimitive().isNumber()) {
+            return fromEpochMillis(json.getAsNumber());
+        }
         return FORMATTER.parse(json.getAsString(), LocalDateTime::from);
     }
+
+    private static LocalDateTime fromEpochMillis(Number number) {
+        long epochMillis;
+        int subMillisNanos = 0;
+        if (number instanceof Long || number instanceof Integer) {
+            epochMillis = number.longValue();
+        } else {
+            BigDecimal millis = new BigDecimal(number.toString());
+            BigDecimal whole = millis.setScale(0, RoundingMode.FLOOR);
+            epochMillis = whole.longValueExact();
+            subMillisNanos = millis.subtract(whole).movePointRight(6).intValue();
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMillis, 1000L),
+                (int) Math.floorMod(epochMillis, 1000L) * 1_000_000 + subMillisNanos, ZoneOffset.UTC);
+    }
 }
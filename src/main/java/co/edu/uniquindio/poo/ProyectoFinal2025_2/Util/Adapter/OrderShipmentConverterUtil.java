@@ -5,6 +5,7 @@ import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.OrderStatus;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.ShipmentStatus;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.OrderShipmentViewDTO;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.ShipmentDTO;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.ShipmentSummaryDTO;
 
 /**
  * Utility class for converting Orders and Shipments to unified OrderShipmentViewDTO.
@@ -91,6 +92,39 @@ public final class OrderShipmentConverterUtil {
         return dto;
     }
 
+    /**
+     * Converts a shipment table row projection to OrderShipmentViewDTO.
+     *
+     * @param shipment The shipment summary to convert.
+     * @return The unified DTO.
+     */
+    public static OrderShipmentViewDTO fromShipment(ShipmentSummaryDTO shipment) {
+        OrderShipmentViewDTO dto = new OrderShipmentViewDTO();
+
+        dto.setId(shipment.getId());
+        dto.setItemType(OrderShipmentViewDTO.ItemType.SHIPMENT);
+        dto.setRoute(shipment.getOriginAddressComplete() + " → " + shipment.getDestinationAddressComplete());
+
+        dto.setShipmentStatus(shipment.getStatus());
+        dto.setStatusDisplay(shipment.getStatusDisplayName());
+        dto.setStatusColor(shipment.getStatusColor());
+
+        dto.setCreatedDate(shipment.getCreationDate());
+        dto.setCost(shipment.getTotalCost());
+
+        dto.setOrderId(shipment.getOrderId());
+        dto.setDeliveryPersonName(shipment.getDeliveryPersonName());
+        dto.setWeightKg(shipment.getWeightKg());
+        dto.setPriority(shipment.getPriority());
+        dto.setEstimatedDeliveryDate(shipment.getEstimatedDeliveryDate());
+
+        dto.setCanCancel(shipment.isCanBeCancelled());
+        dto.setCanTrack(true);
+        dto.setCanViewDetails(true);
+
+        return dto;
+    }
+
     /**
      * Translates OrderStatus to Spanish display name.
      */
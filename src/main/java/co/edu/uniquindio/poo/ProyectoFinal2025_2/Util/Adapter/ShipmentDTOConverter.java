@@ -3,6 +3,7 @@ package co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.Adapter;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.*;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.ShipmentStatus;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.ShipmentDTO;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.ShipmentSummaryDTO;
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.DistanceCalculator;
 
 import java.time.Duration;
@@ -10,7 +11,8 @@ import java.time.LocalDateTime;
 
 /**
  * Utility class for converting between Shipment entities and ShipmentDTOs.
- * Handles data enrichment and transformation.
+ * Handles data enrichment and transformation. To convert a list, use a {@link ShipmentLookupContext},
+ * which resolves the users and delivery persons of the whole list once.
  */
 public class ShipmentDTOConverter {
 
@@ -22,6 +24,18 @@ public class ShipmentDTOConverter {
      * @return The enriched ShipmentDTO
      */
     public static ShipmentDTO toDTO(Shipment shipment, User user, DeliveryPerson deliveryPerson) {
+        return toDTO(shipment, user, deliveryPerson, LocalDateTime.now());
+    }
+
+    /**
+     * Converts a Shipment entity to a DTO with enriched data, evaluating delays against a given time.
+     * @param shipment The shipment entity
+     * @param user The user who owns the shipment (can be null)
+     * @param deliveryPerson The assigned delivery person (can be null)
+     * @param now The reference time for the delay fields, shared by a batch
+     * @return The enriched ShipmentDTO
+     */
+    public static ShipmentDTO toDTO(Shipment shipment, User user, DeliveryPerson deliveryPerson, LocalDateTime now) {
         if (shipment == null) {
             return null;
         }
@@ -89,14 +103,61 @@ public class ShipmentDTOConverter {
         // Calculate derived fields
         dto.setCanBeCancelled(canBeCancelled(shipment));
         dto.setCanBeModified(canBeModified(shipment));
-        dto.setMinutesUntilDelivery(calculateMinutesUntilDelivery(shipment));
-        dto.setDelayed(isDelayed(shipment));
+        dto.setMinutesUntilDelivery(calculateMinutesUntilDelivery(shipment, now));
+        dto.setDelayed(isDelayed(shipment, now));
         dto.setStatusDisplayName(shipment.getStatus() != null ? shipment.getStatus().getDisplayName() : "");
         dto.setStatusColor(shipment.getStatus() != null ? shipment.getStatus().getColor() : "");
 
         return dto;
     }
 
+    /**
+     * Converts a Shipment entity to the table row projection.
+     * @param shipment The shipment entity
+     * @param user The user who owns the shipment (can be null)
+     * @param deliveryPerson The assigned delivery person (can be null)
+     * @param now The reference time for the delay flag, shared by a batch
+     * @return The summary, or null if the shipment is null
+     */
+    public static ShipmentSummaryDTO toSummary(Shipment shipment, User user, DeliveryPerson deliveryPerson, LocalDateTime now) {
+        if (shipment == null) {
+            return null;
+        }
+
+        ShipmentSummaryDTO summary = new ShipmentSummaryDTO();
+        summary.setId(shipment.getId());
+        summary.setOrderId(shipment.getOrderId());
+        summary.setUserId(shipment.getUserId());
+        summary.setDeliveryPersonId(shipment.getDeliveryPersonId());
+        summary.setStatus(shipment.getStatus());
+        summary.setPriority(shipment.getPriority());
+        summary.setWeightKg(shipment.getWeightKg());
+        summary.setTotalCost(shipment.getTotalCost());
+        summary.setCreationDate(shipment.getCreatedAt());
+        summary.setEstimatedDeliveryDate(shipment.getEstimatedDate());
+
+        if (user != null) {
+            summary.setUserEmail(user.getEmail());
+        }
+        if (deliveryPerson != null) {
+            summary.setDeliveryPersonName(deliveryPerson.getName() + " " + deliveryPerson.getLastName());
+            summary.setDeliveryPersonEmail(deliveryPerson.getEmail());
+        }
+        if (shipment.getOrigin() != null) {
+            summary.setOriginAddressComplete(formatAddress(shipment.getOrigin()));
+        }
+        if (shipment.getDestination() != null) {
+            summary.setDestinationAddressComplete(formatAddress(shipment.getDestination()));
+        }
+
+        summary.setHasIncident(shipment.getIncident() != null);
+        summary.setCanBeCancelled(canBeCancelled(shipment));
+        summary.setDelayed(isDelayed(shipment, now));
+        summary.setStatusDisplayName(shipment.getStatus() != null ? shipment.getStatus().getDisplayName() : "");
+        summary.setStatusColor(shipment.getStatus() != null ? shipment.getStatus().getColor() : "");
+        return summary;
+    }
+
     /**
      * Converts a ShipmentDTO to a Shipment entity.
      * @param dto The shipment DTO
@@ -149,11 +210,8 @@ public class ShipmentDTOConverter {
             return "";
         }
 
-        return String.format("%s, %s, %s %s",
-                address.getStreet(),
-                address.getCity(),
-                address.getState(),
-                address.getZipCode());
+        // Same output as "%s, %s, %s %s", without parsing a format string per row
+        return address.getStreet() + ", " + address.getCity() + ", " + address.getState() + " " + address.getZipCode();
     }
 
     /**
@@ -185,9 +243,10 @@ public class ShipmentDTOConverter {
     /**
      * Calculates minutes until estimated delivery.
      * @param shipment The shipment
+     * @param now The reference time
      * @return Minutes until delivery, or -1 if not applicable
      */
-    private static long calculateMinutesUntilDelivery(Shipment shipment) {
+    private static long calculateMinutesUntilDelivery(Shipment shipment, LocalDateTime now) {
         if (shipment == null || shipment.getEstimatedDate() == null) {
             return -1;
         }
@@ -197,7 +256,6 @@ public class ShipmentDTOConverter {
             return -1;
         }
 
-        LocalDateTime now = LocalDateTime.now();
         LocalDateTime estimated = shipment.getEstimatedDate();
 
         if (estimated.isBefore(now)) {
@@ -210,9 +268,10 @@ public class ShipmentDTOConverter {
     /**
      * Determines if a shipment is delayed.
      * @param shipment The shipment to check
+     * @param now The reference time
      * @return True if delayed
      */
-    private static boolean isDelayed(Shipment shipment) {
+    private static boolean isDelayed(Shipment shipment, LocalDateTime now) {
         if (shipment == null || shipment.getEstimatedDate() == null) {
             return false;
         }
@@ -222,6 +281,6 @@ public class ShipmentDTOConverter {
             return false;
         }
 
-        return LocalDateTime.now().isAfter(shipment.getEstimatedDate());
+        return now.isAfter(shipment.getEstimatedDate());
     }
 }
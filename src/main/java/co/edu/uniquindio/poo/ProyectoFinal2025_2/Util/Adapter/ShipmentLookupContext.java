@@ -0,0 +1,114 @@
+package co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.Adapter;
+
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.DeliveryPerson;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Shipment;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.User;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.ShipmentDTO;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.ShipmentSummaryDTO;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.DeliveryPersonRepository;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lookups needed to enrich a batch of shipments, resolved once for the whole batch.
+ * <p>{@link #forShipments} gathers the distinct user and delivery person IDs of the batch and
+ * fetches each of them once, instead of once per shipment. All conversions of the batch also
+ * share one reference time for their delay fields.</p>
+ */
+public final class ShipmentLookupContext {
+
+    private final Map<String, User> usersById;
+    private final Map<String, DeliveryPerson> deliveryPersonsById;
+    private final LocalDateTime now;
+
+    private ShipmentLookupContext(Map<String, User> usersById, Map<String, DeliveryPerson> deliveryPersonsById,
+                                  LocalDateTime now) {
+        this.usersById = usersById;
+        this.deliveryPersonsById = deliveryPersonsById;
+        this.now = now;
+    }
+
+    /**
+     * Resolves the users and delivery persons referenced by the given shipments.
+     * @param shipments The batch to convert
+     * @param userRepository Source of the users
+     * @param deliveryPersonRepository Source of the delivery persons
+     * @return The context for converting the batch
+     */
+    public static ShipmentLookupContext forShipments(Collection<Shipment> shipments, UserRepository userRepository,
+                                                     DeliveryPersonRepository deliveryPersonRepository) {
+        Set<String> userIds = new HashSet<>();
+        Set<String> deliveryPersonIds = new HashSet<>();
+        for (Shipment shipment : shipments) {
+            if (shipment.getUserId() != null) {
+                userIds.add(shipment.getUserId());
+            }
+            if (shipment.getDeliveryPersonId() != null) {
+                deliveryPersonIds.add(shipment.getDeliveryPersonId());
+            }
+        }
+        return new ShipmentLookupContext(
+                userRepository.findAllByIds(userIds),
+                deliveryPersonRepository.findDeliveryPersonsByIds(deliveryPersonIds),
+                LocalDateTime.now());
+    }
+
+    /**
+     * Converts one shipment of the batch to a full DTO.
+     * @param shipment The shipment
+     * @return The enriched DTO
+     */
+    public ShipmentDTO toDTO(Shipment shipment) {
+        return ShipmentDTOConverter.toDTO(shipment, userOf(shipment), deliveryPersonOf(shipment), now);
+    }
+
+    /**
+     * Converts shipments of the batch to full DTOs, keeping their order.
+     * @param shipments The shipments
+     * @return The enriched DTOs
+     */
+    public List<ShipmentDTO> toDTOs(Collection<Shipment> shipments) {
+        List<ShipmentDTO> dtos = new ArrayList<>(shipments.size());
+        for (Shipment shipment : shipments) {
+            dtos.add(toDTO(shipment));
+        }
+        return dtos;
+    }
+
+    /**
+     * Converts one shipment of the batch to the table row projection.
+     * @param shipment The shipment
+     * @return The summary
+     */
+    public ShipmentSummaryDTO toSummary(Shipment shipment) {
+        return ShipmentDTOConverter.toSummary(shipment, userOf(shipment), deliveryPersonOf(shipment), now);
+    }
+
+    /**
+     * Converts shipments of the batch to table row projections, keeping their order.
+     * @param shipments The shipments
+     * @return The summaries
+     */
+    public List<ShipmentSummaryDTO> toSummaries(Collection<Shipment> shipments) {
+        List<ShipmentSummaryDTO> summaries = new ArrayList<>(shipments.size());
+        for (Shipment shipment : shipments) {
+            summaries.add(toSummary(shipment));
+        }
+        return summaries;
+    }
+
+    private User userOf(Shipment shipment) {
+        return shipment.getUserId() != null ? usersById.get(shipment.getUserId()) : null;
+    }
+
+    private DeliveryPerson deliveryPersonOf(Shipment shipment) {
+        return shipment.getDeliveryPersonId() != null ? deliveryPersonsById.get(shipment.getDeliveryPersonId()) : null;
+    }
+}
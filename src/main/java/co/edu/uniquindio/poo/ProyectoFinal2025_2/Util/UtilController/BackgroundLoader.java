@@ -0,0 +1,177 @@
+package co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilController;
+
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.Logger;
+import javafx.application.Platform;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs a screen's data loading (repository scans, DTO conversion, sorting) off the JavaFX Application Thread.
+ *
+ * <p>A controller keeps one loader per table or view and calls {@link #load} whenever its data must be
+ * refreshed. Only the latest request matters:</p>
+ * <ul>
+ *     <li>Requests arriving within {@code coalesceMillis} of the previous one are merged: a load that has
+ *     not started yet is replaced by the newer one, so typing in a search box runs one query, not one per key.</li>
+ *     <li>A load that is already running when a newer request arrives becomes stale; its result is dropped.</li>
+ *     <li>The result is handed to the UI in a single {@link Platform#runLater} call, where the controller
+ *     updates the table and its counters together.</li>
+ * </ul>
+ *
+ * <p>Work runs on a small pool of daemon threads shared by every loader. The work itself must not touch
+ * JavaFX nodes; read control values on the FX thread before calling {@link #load}.</p>
+ *
+ * @param <T> The type of data produced by the loads
+ */
+public class BackgroundLoader<T> {
+
+    private static final int WORKER_COUNT = 2;
+    private static final long DEFAULT_COALESCE_MILLIS = 150;
+
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+    private static final ScheduledExecutorService WORKERS = Executors.newScheduledThreadPool(WORKER_COUNT,
+            runnable -> {
+                Thread thread = new Thread(runnable, "ui-loader-" + THREAD_NUMBER.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private final String name;
+    private final long coalesceMillis;
+
+    // Guarded by this
+    private long generation;
+    private long lastRequestNanos;
+    private ScheduledFuture<?> pending;
+    private boolean running;
+
+    /**
+     * Creates a loader with the default coalescing window.
+     *
+     * @param name Name used in log messages, e.g. the screen it serves
+     */
+    public BackgroundLoader(String name) {
+        this(name, DEFAULT_COALESCE_MILLIS);
+    }
+
+    /**
+     * Creates a loader.
+     *
+     * @param name Name used in log messages, e.g. the screen it serves
+     * @param coalesceMillis Requests closer together than this are merged into one load
+     */
+    public BackgroundLoader(String name, long coalesceMillis) {
+        this.name = name;
+        this.coalesceMillis = coalesceMillis;
+    }
+
+    // ========================================
+    // Loading
+    // ========================================
+
+    /**
+     * Loads data in the background and logs failures.
+     *
+     * @param work Produces the data; runs on a worker thread
+     * @param onSuccess Receives the data on the FX thread, unless a newer load was requested meanwhile
+     */
+    public void load(Supplier<T> work, Consumer<T> onSuccess) {
+        load(work, onSuccess, error -> { });
+    }
+
+    /**
+     * Loads data in the background, superseding any earlier request of this loader.
+     *
+     * @param work Produces the data; runs on a worker thread
+     * @param onSuccess Receives the data on the FX thread, unless a newer load was requested meanwhile
+     * @param onError Receives the failure on the FX thread, unless a newer load was requested meanwhile
+     */
+    public synchronized void load(Supplier<T> work, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        long ticket = ++generation;
+        long now = System.nanoTime();
+        boolean burst = running || pending != null
+                || now - lastRequestNanos < TimeUnit.MILLISECONDS.toNanos(coalesceMillis);
+        lastRequestNanos = now;
+        if (pending != null) {
+            pending.cancel(false);
+        }
+        // The first request of a burst starts right away; later ones wait for the burst to settle
+        long delayMillis = burst ? coalesceMillis : 0;
+        pending = WORKERS.schedule(() -> run(ticket, work, onSuccess, onError), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Discards any pending or running load; its result will not be published.
+     */
+    public synchronized void cancel() {
+        generation++;
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+    }
+
+    /**
+     * Returns true while a load is scheduled or running.
+     *
+     * @return true if data is being loaded
+     */
+    public synchronized boolean isLoading() {
+        return running || pending != null;
+    }
+
+    private void run(long ticket, Supplier<T> work, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        synchronized (this) {
+            if (ticket != generation) {
+                return;
+            }
+            pending = null;
+            running = true;
+        }
+
+        T result = null;
+        Throwable failure = null;
+        long start = System.nanoTime();
+        try {
+            result = work.get();
+        } catch (RuntimeException e) {
+            failure = e;
+            Logger.error("Background load '" + name + "' failed: " + e.getMessage(), e);
+        } finally {
+            synchronized (this) {
+                running = false;
+            }
+        }
+
+        if (!isCurrent(ticket)) {
+            Logger.debug("Background load '" + name + "' superseded; result discarded");
+            return;
+        }
+        Logger.debug("Background load '" + name + "' finished in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+
+        T data = result;
+        Throwable error = failure;
+        Platform.runLater(() -> {
+            // A newer load may have been requested while this one waited for the FX thread
+            if (!isCurrent(ticket)) {
+                return;
+            }
+            if (error == null) {
+                onSuccess.accept(data);
+            } else {
+                onError.accept(error);
+            }
+        });
+    }
+
+    private synchronized boolean isCurrent(long ticket) {
+        return ticket == generation;
+    }
+}
@@ -0,0 +1,166 @@
+package co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilController;
+
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.PageDTO;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.control.TableView;
+
+import java.util.function.Consumer;
+
+/**
+ * Fills a {@link TableView} one page at a time as the user scrolls.
+ *
+ * <p>{@link #reset} replaces the table contents with the first page of a new query (a new filter or sort);
+ * when the vertical scroll bar gets close to the bottom the next page is appended. Pages are fetched on a
+ * {@link BackgroundLoader}, so a reset supersedes any page still in flight.</p>
+ *
+ * <p>Pages are addressed by offset. Rows inserted or removed while the user scrolls can shift later pages
+ * by a few rows until the next reset.</p>
+ *
+ * @param <T> The type of the table rows
+ */
+public class PagedTableLoader<T> {
+
+    /**
+     * Produces one page of the current query. Runs on a worker thread.
+     *
+     * @param <T> The type of the items
+     */
+    @FunctionalInterface
+    public interface PageSource<T> {
+        PageDTO<T> fetch(int offset, int size);
+    }
+
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    // Fraction of the scroll range after which the next page is requested
+    private static final double PREFETCH_THRESHOLD = 0.85;
+
+    private final TableView<T> table;
+    private final int pageSize;
+    private final BackgroundLoader<PageDTO<T>> loader;
+    private final ObservableList<T> items = FXCollections.observableArrayList();
+
+    // Accessed on the FX thread only
+    private PageSource<T> source;
+    private PageDTO<T> lastPage;
+    private boolean fetchingNext;
+    private ScrollBar verticalBar;
+
+    /**
+     * Creates a loader with the default page size and binds it to the table.
+     *
+     * @param name Name used in log messages, e.g. the screen it serves
+     * @param table The table to fill
+     */
+    public PagedTableLoader(String name, TableView<T> table) {
+        this(name, table, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Creates a loader and binds it to the table.
+     *
+     * @param name Name used in log messages, e.g. the screen it serves
+     * @param table The table to fill
+     * @param pageSize Rows per page; should exceed the rows visible at once
+     */
+    public PagedTableLoader(String name, TableView<T> table, int pageSize) {
+        this.table = table;
+        this.pageSize = pageSize;
+        this.loader = new BackgroundLoader<>(name);
+        table.setItems(items);
+        table.skinProperty().addListener((obs, oldSkin, newSkin) -> attachScrollListener());
+        attachScrollListener();
+    }
+
+    // ========================================
+    // Loading
+    // ========================================
+
+    /**
+     * Starts a new query, replacing the table contents once its first page arrives.
+     *
+     * @param source Produces the pages of the query
+     * @param onFirstPage Receives the first page on the FX thread, e.g. to update counters
+     * @param onError Receives the failure on the FX thread
+     */
+    public void reset(PageSource<T> source, Consumer<PageDTO<T>> onFirstPage, Consumer<Throwable> onError) {
+        this.source = source;
+        this.lastPage = null;
+        this.fetchingNext = false;
+        loader.load(() -> source.fetch(0, pageSize), page -> {
+            items.setAll(page.getItems());
+            lastPage = page;
+            if (!items.isEmpty()) {
+                table.scrollTo(0);
+            }
+            onFirstPage.accept(page);
+        }, onError);
+    }
+
+    /**
+     * Appends the next page of the current query, unless it is complete or a page is already loading.
+     */
+    public void loadNextPage() {
+        if (source == null || lastPage == null || fetchingNext || !lastPage.hasMore()) {
+            return;
+        }
+        PageSource<T> current = source;
+        int offset = lastPage.getNextOffset();
+        fetchingNext = true;
+        loader.load(() -> current.fetch(offset, pageSize), page -> {
+            fetchingNext = false;
+            items.addAll(page.getItems());
+            if (page.getFacetCounts() == null) {
+                // Facets are counted with the first page only
+                page.setFacetCounts(lastPage.getFacetCounts());
+            }
+            lastPage = page;
+        }, error -> fetchingNext = false);
+    }
+
+    /**
+     * Gets the rows loaded so far.
+     *
+     * @return The table items
+     */
+    public ObservableList<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Gets the total number of matches of the current query, loaded or not.
+     *
+     * @return The total, or 0 before the first page arrives
+     */
+    public long getTotalItems() {
+        return lastPage != null ? lastPage.getTotalItems() : 0;
+    }
+
+    // ========================================
+    // Scrolling
+    // ========================================
+
+    /**
+     * Listens to the table's vertical scroll bar, which only exists once the skin is created.
+     */
+    private void attachScrollListener() {
+        if (table.getSkin() == null) {
+            return;
+        }
+        for (Node node : table.lookupAll(".scroll-bar")) {
+            if (node instanceof ScrollBar bar && bar.getOrientation() == Orientation.VERTICAL && bar != verticalBar) {
+                verticalBar = bar;
+                bar.valueProperty().addListener((obs, oldValue, newValue) -> {
+                    if (newValue.doubleValue() >= bar.getMax() * PREFETCH_THRESHOLD) {
+                        loadNextPage();
+                    }
+                });
+                return;
+            }
+        }
+    }
+}
@@ -37,9 +37,8 @@ public class DistanceCalculator {
 
     /**
      * Calculates the distance between two addresses.
-     * Note: This is a placeholder implementation. In a real system, you would use
-     * a geocoding service to get coordinates from addresses.
-     * For now, we'll use a simplified distance based on city/zone.
+     * When both addresses carry latitude/longitude the Haversine distance is returned.
+     * Otherwise a simplified distance based on city/zone is used.
      *
      * @param origin Origin address
      * @param destination Destination address
@@ -50,6 +49,11 @@ public class DistanceCalculator {
             return 0.0;
         }
 
+        if (GeoGridIndex.hasCoordinates(origin) && GeoGridIndex.hasCoordinates(destination)) {
+            return calculateDistance(origin.getLatitude(), origin.getLongitude(),
+                    destination.getLatitude(), destination.getLongitude());
+        }
+
         // If same city and same zipCode, assume short distance
         if (origin.getCity().equalsIgnoreCase(destination.getCity()) &&
             origin.getZipCode().equals(destination.getZipCode())) {
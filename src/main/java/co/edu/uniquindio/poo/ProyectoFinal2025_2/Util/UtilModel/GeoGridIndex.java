@@ -0,0 +1,190 @@
+package co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel;
+
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Address;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Uniform grid spatial index over latitude/longitude points.
+ * <p>Points are bucketed into square cells of {@code cellDegrees}. A radius query only visits the cells
+ * overlapping the query's bounding box and checks exact distances with
+ * {@link DistanceCalculator#calculateDistance(double, double, double, double)}, so its cost depends on
+ * the points near the query rather than on the size of the index.</p>
+ * <p>Not thread-safe: callers must guard access, as repositories do with their own lock.</p>
+ *
+ * @param <T> The type of value stored with each point
+ */
+public class GeoGridIndex<T> {
+
+    /** About 5.5 km of latitude; a good fit for city-scale delivery radiuses. */
+    public static final double DEFAULT_CELL_DEGREES = 0.05;
+
+    private static final double KM_PER_DEGREE = 111.32;
+
+    private final double cellDegrees;
+    private final Map<Long, Map<String, Point<T>>> cells = new HashMap<>();
+    private final Map<String, Point<T>> pointsById = new HashMap<>();
+
+    public GeoGridIndex() {
+        this(DEFAULT_CELL_DEGREES);
+    }
+
+    public GeoGridIndex(double cellDegrees) {
+        this.cellDegrees = cellDegrees;
+    }
+
+    /**
+     * Returns true if the address carries both coordinates.
+     * @param address The address to check (may be null)
+     * @return true if it can be placed in the index
+     */
+    public static boolean hasCoordinates(Address address) {
+        return address != null && address.getLatitude() != null && address.getLongitude() != null;
+    }
+
+    // ===========================
+    // Maintenance
+    // ===========================
+
+    /**
+     * Inserts or moves a point.
+     * @param id Unique ID of the point
+     * @param latitude Latitude in degrees
+     * @param longitude Longitude in degrees
+     * @param value Value returned by queries
+     */
+    public void put(String id, double latitude, double longitude, T value) {
+        remove(id);
+        Point<T> point = new Point<>(latitude, longitude, value);
+        cells.computeIfAbsent(cellKey(latitude, longitude), k -> new HashMap<>()).put(id, point);
+        pointsById.put(id, point);
+    }
+
+    /**
+     * Removes a point if present.
+     * @param id ID of the point
+     */
+    public void remove(String id) {
+        Point<T> point = pointsById.remove(id);
+        if (point == null) {
+            return;
+        }
+        long key = cellKey(point.latitude, point.longitude);
+        Map<String, Point<T>> cell = cells.get(key);
+        if (cell != null) {
+            cell.remove(id);
+            if (cell.isEmpty()) {
+                cells.remove(key);
+            }
+        }
+    }
+
+    public int size() {
+        return pointsById.size();
+    }
+
+    // ===========================
+    // Queries
+    // ===========================
+
+    /**
+     * Finds every point within a radius, nearest first.
+     * @param latitude Latitude of the center in degrees
+     * @param longitude Longitude of the center in degrees
+     * @param radiusKm Radius in kilometers
+     * @return Matches sorted by ascending distance
+     */
+    public List<Match<T>> withinRadius(double latitude, double longitude, double radiusKm) {
+        List<Match<T>> matches = new ArrayList<>();
+        double latSpan = radiusKm / KM_PER_DEGREE;
+        double lonSpan = radiusKm / (KM_PER_DEGREE * Math.max(Math.cos(Math.toRadians(latitude)), 0.01));
+
+        long minRow = cellIndex(latitude - latSpan);
+        long maxRow = cellIndex(latitude + latSpan);
+        long minCol = cellIndex(longitude - lonSpan);
+        long maxCol = cellIndex(longitude + lonSpan);
+
+        for (long row = minRow; row <= maxRow; row++) {
+            for (long col = minCol; col <= maxCol; col++) {
+                Map<String, Point<T>> cell = cells.get(cellKey(row, col));
+                if (cell == null) {
+                    continue;
+                }
+                for (Point<T> point : cell.values()) {
+                    double distance = DistanceCalculator.calculateDistance(
+                            latitude, longitude, point.latitude, point.longitude);
+                    if (distance <= radiusKm) {
+                        matches.add(new Match<>(point.value, distance));
+                    }
+                }
+            }
+        }
+        matches.sort(Comparator.comparingDouble(Match::getDistanceKm));
+        return matches;
+    }
+
+    private long cellIndex(double degrees) {
+        return (long) Math.floor(degrees / cellDegrees);
+    }
+
+    private long cellKey(double latitude, double longitude) {
+        return cellKey(cellIndex(latitude), cellIndex(longitude));
+    }
+
+    private static long cellKey(long row, long col) {
+        return (row << 32) ^ (col & 0xFFFFFFFFL);
+    }
+
+    // ===========================
+    // Types
+    // ===========================
+
+    /**
+     * A query result: the stored value and its distance to the query center.
+     * @param <T> The value type
+     */
+    public static final class Match<T> {
+        private final T value;
+        private final double distanceKm;
+
+        private Match(T value, double distanceKm) {
+            this.value = value;
+            this.distanceKm = distanceKm;
+        }
+
+        /**
+         * Creates a match, e.g. to carry a distance over after resolving an ID to an entity.
+         * @param value The matched value
+         * @param distanceKm Distance to the query center in kilometers
+         * @param <T> The value type
+         * @return The match
+         */
+        public static <T> Match<T> of(T value, double distanceKm) {
+            return new Match<>(value, distanceKm);
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        public double getDistanceKm() {
+            return distanceKm;
+        }
+    }
+
+    private static final class Point<T> {
+        private final double latitude;
+        private final double longitude;
+        private final T value;
+
+        private Point(double latitude, double longitude, T value) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.value = value;
+        }
+    }
+}
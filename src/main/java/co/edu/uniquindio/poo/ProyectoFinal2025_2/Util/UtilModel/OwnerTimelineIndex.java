@@ -0,0 +1,208 @@
+package co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * Per-owner index of entity IDs kept in creation date order, newest first.
+ * <p>Each owner (e.g. a user) has its own sorted timeline, updated on every write, so reading the
+ * latest entries of one owner costs in proportion to the entries read, not to the owner's history or
+ * the whole table. Reads resume from a {@link Position}, which makes consecutive pages cheap.
+ * Every entry also carries a tag (e.g. its status) and the index keeps per-owner tag counts.</p>
+ * <p>Not thread-safe: callers must guard access, as repositories do with their own lock.</p>
+ */
+public class OwnerTimelineIndex {
+
+    private final Map<String, NavigableMap<Position, String>> timelinesByOwner = new HashMap<>();
+    private final Map<String, Map<String, Long>> tagCountsByOwner = new HashMap<>();
+    private final Map<String, Entry> entriesById = new HashMap<>();
+
+    // ===========================
+    // Maintenance
+    // ===========================
+
+    /**
+     * Inserts or moves an entry.
+     * @param id Unique ID of the entity
+     * @param owner Owner whose timeline holds the entry (null removes the entry)
+     * @param createdAt Creation date; entries without one sort after all dated entries
+     * @param tag Tag counted per owner (may be null)
+     */
+    public void put(String id, String owner, LocalDateTime createdAt, String tag) {
+        remove(id);
+        if (owner == null) {
+            return;
+        }
+        Entry entry = new Entry(owner, new Position(createdAt, id), tag);
+        entriesById.put(id, entry);
+        timelinesByOwner.computeIfAbsent(owner, k -> new TreeMap<>()).put(entry.position, id);
+        if (tag != null) {
+            tagCountsByOwner.computeIfAbsent(owner, k -> new HashMap<>()).merge(tag, 1L, Long::sum);
+        }
+    }
+
+    /**
+     * Removes an entry, if present.
+     * @param id Unique ID of the entity
+     */
+    public void remove(String id) {
+        Entry entry = entriesById.remove(id);
+        if (entry == null) {
+            return;
+        }
+        NavigableMap<Position, String> timeline = timelinesByOwner.get(entry.owner);
+        if (timeline != null) {
+            timeline.remove(entry.position);
+            if (timeline.isEmpty()) {
+                timelinesByOwner.remove(entry.owner);
+            }
+        }
+        if (entry.tag != null) {
+            Map<String, Long> counts = tagCountsByOwner.get(entry.owner);
+            if (counts != null && counts.merge(entry.tag, -1L, Long::sum) <= 0) {
+                counts.remove(entry.tag);
+                if (counts.isEmpty()) {
+                    tagCountsByOwner.remove(entry.owner);
+                }
+            }
+        }
+    }
+
+    // ===========================
+    // Queries
+    // ===========================
+
+    /**
+     * Returns the number of entries of an owner.
+     * @param owner The owner
+     * @return The entry count
+     */
+    public int size(String owner) {
+        NavigableMap<Position, String> timeline = timelinesByOwner.get(owner);
+        return timeline != null ? timeline.size() : 0;
+    }
+
+    /**
+     * Returns the number of entries of an owner per tag.
+     * @param owner The owner
+     * @return A copy of the counts
+     */
+    public Map<String, Long> countByTag(String owner) {
+        return new HashMap<>(tagCountsByOwner.getOrDefault(owner, Collections.emptyMap()));
+    }
+
+    /**
+     * Returns the IDs of an owner that follow a position, newest first.
+     * @param owner The owner
+     * @param after Position to resume after (exclusive), or null to start at the newest entry
+     * @param limit Maximum number of IDs to return
+     * @param condition Condition the IDs must meet (null accepts all)
+     * @return Up to {@code limit} IDs
+     */
+    public List<String> after(String owner, Position after, int limit, Predicate<String> condition) {
+        List<String> ids = new ArrayList<>();
+        NavigableMap<Position, String> timeline = timelinesByOwner.get(owner);
+        if (timeline == null || limit <= 0) {
+            return ids;
+        }
+        NavigableMap<Position, String> rest = after != null ? timeline.tailMap(after, false) : timeline;
+        for (String id : rest.values()) {
+            if (condition == null || condition.test(id)) {
+                ids.add(id);
+                if (ids.size() >= limit) {
+                    break;
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Returns every ID of an owner, newest first.
+     * @param owner The owner
+     * @return A copy of the owner's timeline
+     */
+    public List<String> all(String owner) {
+        NavigableMap<Position, String> timeline = timelinesByOwner.get(owner);
+        return timeline != null ? new ArrayList<>(timeline.values()) : new ArrayList<>();
+    }
+
+    /**
+     * Returns the position of an indexed entity, to resume a read after it.
+     * @param id Unique ID of the entity
+     * @return The position, or null if the entity is not indexed
+     */
+    public Position positionOf(String id) {
+        Entry entry = entriesById.get(id);
+        return entry != null ? entry.position : null;
+    }
+
+    /**
+     * Place of an entry in a timeline: newest creation date first, then descending ID; undated entries last.
+     */
+    public static final class Position implements Comparable<Position> {
+        private final LocalDateTime createdAt;
+        private final String id;
+
+        public Position(LocalDateTime createdAt, String id) {
+            this.createdAt = createdAt;
+            this.id = id;
+        }
+
+        public LocalDateTime getCreatedAt() {
+            return createdAt;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public int compareTo(Position other) {
+            if (createdAt == null || other.createdAt == null) {
+                if (createdAt != other.createdAt) {
+                    return createdAt == null ? 1 : -1;
+                }
+            } else {
+                int byDate = other.createdAt.compareTo(createdAt);
+                if (byDate != 0) {
+                    return byDate;
+                }
+            }
+            return other.id.compareTo(id);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Position)) return false;
+            Position other = (Position) o;
+            return Objects.equals(createdAt, other.createdAt) && Objects.equals(id, other.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(createdAt, id);
+        }
+    }
+
+    private static final class Entry {
+        private final String owner;
+        private final Position position;
+        private final String tag;
+
+        private Entry(String owner, Position position, String tag) {
+            this.owner = owner;
+            this.position = position;
+            this.tag = tag;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * K-way merge of lists that are already sorted by the same order.
+ * <p>A heap holds the head of each list, so taking {@code limit} items costs
+ * {@code O(limit log k)} for {@code k} lists, instead of concatenating and re-sorting everything.</p>
+ */
+public final class SortedMerge {
+
+    private SortedMerge() {
+        // Prevent instantiation
+    }
+
+    /**
+     * Merges sorted lists and keeps the first items of the result.
+     * @param sortedLists Lists each sorted by {@code order}
+     * @param order The order shared by the lists
+     * @param limit Maximum number of items to return
+     * @param <T> The item type
+     * @return Up to {@code limit} items in {@code order}; ties keep the order of the lists
+     */
+    public static <T> List<T> merge(List<? extends List<? extends T>> sortedLists, Comparator<? super T> order, int limit) {
+        PriorityQueue<Head<T>> heads = new PriorityQueue<>((a, b) -> {
+            int byItem = order.compare(a.item(), b.item());
+            return byItem != 0 ? byItem : Integer.compare(a.list, b.list);
+        });
+        for (int i = 0; i < sortedLists.size(); i++) {
+            if (!sortedLists.get(i).isEmpty()) {
+                heads.add(new Head<>(sortedLists.get(i), i));
+            }
+        }
+
+        List<T> merged = new ArrayList<>(Math.max(0, limit));
+        while (merged.size() < limit && !heads.isEmpty()) {
+            Head<T> head = heads.poll();
+            merged.add(head.item());
+            if (++head.index < head.items.size()) {
+                heads.add(head);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Read position within one of the merged lists.
+     */
+    private static final class Head<T> {
+        private final List<? extends T> items;
+        private final int list;
+        private int index;
+
+        private Head(List<? extends T> items, int list) {
+            this.items = items;
+            this.list = list;
+        }
+
+        private T item() {
+            return items.get(index);
+        }
+    }
+}
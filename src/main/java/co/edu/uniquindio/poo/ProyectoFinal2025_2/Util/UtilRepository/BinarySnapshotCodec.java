@@ -0,0 +1,661 @@
+package co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository;
+
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.Logger;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSerializer;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Compact binary form of the repository data files, read without parsing JSON text or date strings.
+ *
+ * <p>A snapshot holds the same JSON trees Gson produces for the entities, encoded as tagged values.
+ * It can be converted to and from the JSON file at any time, so the JSON stays available for
+ * inspection and hand edits while the application loads the binary copy.</p>
+ *
+ * <p><b>File Layout:</b></p>
+ * <ul>
+ *     <li>Header: magic {@code PFBS} and the {@link #FORMAT_VERSION}; newer versions are rejected</li>
+ *     <li>Dictionary: every distinct string (field names, IDs, enum constants, text) stored once</li>
+ *     <li>Entities: values referring to strings by their dictionary index</li>
+ *     <li>Trailer: CRC-32 of everything before it and an end marker, to detect cut-off or damaged files</li>
+ * </ul>
+ *
+ * <p><b>Timestamps:</b> {@code LocalDateTime} values are stored as epoch milliseconds (UTC) plus the
+ * nanoseconds below the millisecond, and handed to Gson as numbers that {@code LocalDateTimeAdapter} reads
+ * directly. Only values Gson serialized as a {@code LocalDateTime} are stored that way; text that merely looks
+ * like a date stays a string. A file converted from JSON with {@link #toBinary(String)} has no type information,
+ * so its timestamps stay strings until the repository saves it. Version 1 files stored every date-like string
+ * as a timestamp, so their timestamps are decoded as text.</p>
+ *
+ * <p><b>Usage:</b> run with {@code -Dapp.data.binary=true} to have {@link JsonFileHandler} write snapshots;
+ * convert a file by hand with</p>
+ * <pre>
+ * java ... BinarySnapshotCodec to-json data/shipments.json     // shipments.bin -&gt; shipments.json
+ * java ... BinarySnapshotCodec to-binary data/shipments.json   // shipments.json -&gt; shipments.bin
+ * </pre>
+ *
+ * @author Sistema de Gestión de Envíos
+ * @version 1.0
+ * @since 2025
+ * @see JsonFileHandler
+ */
+public final class BinarySnapshotCodec {
+
+    // =================================================================================================================
+    // CONSTANTS
+    // =================================================================================================================
+
+    /**
+     * Whether saves write binary snapshots ({@code app.data.binary} system property).
+     */
+    public static final boolean ENABLED = Boolean.getBoolean("app.data.binary");
+
+    /**
+     * Version of the encoding; bump it whenever the layout or the value tags change.
+     */
+    public static final int FORMAT_VERSION = 2;
+
+    /**
+     * Last version that stored date-like strings as timestamps without knowing their type.
+     */
+    private static final int UNTYPED_TIMESTAMPS_VERSION = 1;
+
+    /**
+     * Extension of the snapshots, replacing {@code .json} ({@code shipments.json} -&gt; {@code shipments.bin}).
+     */
+    public static final String FILE_EXTENSION = ".bin";
+
+    private static final int MAGIC = 0x50464253;      // "PFBS"
+    private static final int END_MARKER = 0x454E4421; // "END!"
+    private static final int TRAILER_BYTES = Long.BYTES + Integer.BYTES;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    // Value tags
+    private static final int TAG_NULL = 0;
+    private static final int TAG_FALSE = 1;
+    private static final int TAG_TRUE = 2;
+    private static final int TAG_LONG = 3;
+    private static final int TAG_DOUBLE = 4;
+    private static final int TAG_DECIMAL = 5;
+    private static final int TAG_STRING = 6;
+    private static final int TAG_TIMESTAMP = 7;
+    private static final int TAG_ARRAY = 8;
+    private static final int TAG_OBJECT = 9;
+
+    /**
+     * Sole member name of the object a {@code LocalDateTime} is serialized to while encoding. The
+     * leading NUL keeps it apart from any field name.
+     */
+    private static final String TIMESTAMP_MARK = "\u0000LocalDateTime";
+
+    private BinarySnapshotCodec() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    // =================================================================================================================
+    // PATHS
+    // =================================================================================================================
+
+    /**
+     * Returns the snapshot path of a data file.
+     *
+     * @param jsonPath The JSON file path (e.g. {@link RepositoryPaths#SHIPMENTS_PATH})
+     * @return The snapshot path, e.g. {@code data/shipments.bin}
+     */
+    public static String snapshotPathFor(String jsonPath) {
+        String base = jsonPath.endsWith(".json")
+                ? jsonPath.substring(0, jsonPath.length() - ".json".length())
+                : jsonPath;
+        return base + FILE_EXTENSION;
+    }
+
+    /**
+     * Checks whether a snapshot should be loaded instead of its JSON file: it exists and was
+     * written no earlier than the JSON file.
+     */
+    static boolean isPreferredOver(Path snapshot, Path json) {
+        try {
+            if (!Files.exists(snapshot)) {
+                return false;
+            }
+            return !Files.exists(json)
+                    || Files.getLastModifiedTime(snapshot).compareTo(Files.getLastModifiedTime(json)) >= 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Checks that a file exists and ends with the snapshot end marker, without decoding it.
+     */
+    static boolean isComplete(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < Integer.BYTES + Short.BYTES + TRAILER_BYTES) {
+                return false;
+            }
+            ByteBuffer tail = ByteBuffer.allocate(Integer.BYTES);
+            channel.position(size - Integer.BYTES);
+            while (tail.hasRemaining() && channel.read(tail) >= 0) {
+                // Read until the marker is complete
+            }
+            return tail.getInt(0) == END_MARKER;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // =================================================================================================================
+    // ENCODING
+    // =================================================================================================================
+
+    /**
+     * Encodes entities as a snapshot.
+     *
+     * @param entities The entities, serialized with the repository's Gson
+     * @param gson     The Gson instance whose adapters produce the JSON trees
+     * @param out      Receives the snapshot; flushed but not closed
+     * @throws IOException if writing fails
+     */
+    public static <T> void write(Iterable<? extends T> entities, Gson gson, OutputStream out) throws IOException {
+        Gson markingGson = withMarkedTimestamps(gson);
+        Encoder encoder = new Encoder();
+        for (T entity : entities) {
+            encoder.add(entity == null ? JsonNull.INSTANCE : markingGson.toJsonTree(entity, entity.getClass()));
+        }
+        encoder.writeTo(out);
+    }
+
+    /**
+     * Derives a Gson that serializes every {@code LocalDateTime} as a {@link #TIMESTAMP_MARK} object holding
+     * its epoch milliseconds and sub-millisecond nanoseconds, keeping all other adapters of {@code gson}.
+     */
+    private static Gson withMarkedTimestamps(Gson gson) {
+        JsonSerializer<LocalDateTime> marker = (timestamp, type, context) -> {
+            JsonArray value = new JsonArray(2);
+            value.add(timestamp.toInstant(ZoneOffset.UTC).toEpochMilli());
+            value.add(timestamp.getNano() % 1_000_000);
+            JsonObject mark = new JsonObject();
+            mark.add(TIMESTAMP_MARK, value);
+            return mark;
+        };
+        // Adapters registered last take precedence over the repository's LocalDateTimeAdapter
+        return gson.newBuilder().registerTypeAdapter(LocalDateTime.class, marker).create();
+    }
+
+    /**
+     * Collects the values and the dictionary; the dictionary is only complete once all values are
+     * added, so the values are buffered and written after it.
+     */
+    private static final class Encoder {
+        private final Map<String, Integer> dictionary = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+        private final ByteArrayOutputStream valueBytes = new ByteArrayOutputStream(BUFFER_SIZE);
+        private final DataOutputStream values = new DataOutputStream(valueBytes);
+        private int count;
+
+        void add(JsonElement element) throws IOException {
+            writeValue(element);
+            count++;
+        }
+
+        void writeTo(OutputStream out) throws IOException {
+            CheckedOutputStream checked = new CheckedOutputStream(out, new CRC32());
+            DataOutputStream data = new DataOutputStream(checked);
+            data.writeInt(MAGIC);
+            data.writeShort(FORMAT_VERSION);
+            writeVarint(data, strings.size());
+            for (String string : strings) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                writeVarint(data, bytes.length);
+                data.write(bytes);
+            }
+            writeVarint(data, count);
+            values.flush();
+            valueBytes.writeTo(data);
+            data.flush();
+
+            DataOutputStream trailer = new DataOutputStream(out);
+            trailer.writeLong(checked.getChecksum().getValue());
+            trailer.writeInt(END_MARKER);
+            trailer.flush();
+        }
+
+        private void writeValue(JsonElement element) throws IOException {
+            if (element == null || element.isJsonNull()) {
+                values.writeByte(TAG_NULL);
+            } else if (element.isJsonObject()) {
+                JsonObject object = element.getAsJsonObject();
+                if (object.size() == 1 && object.has(TIMESTAMP_MARK)) {
+                    writeTimestamp(object.getAsJsonArray(TIMESTAMP_MARK));
+                    return;
+                }
+                values.writeByte(TAG_OBJECT);
+                writeVarint(values, object.size());
+                for (Map.Entry<String, JsonElement> member : object.entrySet()) {
+                    writeVarint(values, indexOf(member.getKey()));
+                    writeValue(member.getValue());
+                }
+            } else if (element.isJsonArray()) {
+                JsonArray array = element.getAsJsonArray();
+                values.writeByte(TAG_ARRAY);
+                writeVarint(values, array.size());
+                for (JsonElement item : array) {
+                    writeValue(item);
+                }
+            } else {
+                writePrimitive(element.getAsJsonPrimitive());
+            }
+        }
+
+        private void writePrimitive(JsonPrimitive primitive) throws IOException {
+            if (primitive.isBoolean()) {
+                values.writeByte(primitive.getAsBoolean() ? TAG_TRUE : TAG_FALSE);
+            } else if (primitive.isNumber()) {
+                writeNumber(primitive.getAsNumber());
+            } else {
+                values.writeByte(TAG_STRING);
+                writeVarint(values, indexOf(primitive.getAsString()));
+            }
+        }
+
+        private void writeNumber(Number number) throws IOException {
+            if (number instanceof Long || number instanceof Integer || number instanceof Short || number instanceof Byte) {
+                values.writeByte(TAG_LONG);
+                writeVarLong(values, number.longValue());
+                return;
+            }
+            if (number instanceof Double || number instanceof Float) {
+                values.writeByte(TAG_DOUBLE);
+                values.writeDouble(number.doubleValue());
+                return;
+            }
+            // Numbers parsed from JSON text: keep their exact value
+            String text = number.toString();
+            try {
+                BigDecimal decimal = new BigDecimal(text);
+                if (decimal.scale() <= 0 && text.indexOf('.') < 0 && text.indexOf('e') < 0 && text.indexOf('E') < 0) {
+                    values.writeByte(TAG_LONG);
+                    writeVarLong(values, decimal.longValueExact());
+                    return;
+                }
+                if (Double.toString(decimal.doubleValue()).equals(text)) {
+                    values.writeByte(TAG_DOUBLE);
+                    values.writeDouble(decimal.doubleValue());
+                    return;
+                }
+            } catch (ArithmeticException | NumberFormatException e) {
+                // Out of range for a long, or not a plain decimal: kept as text below
+            }
+            values.writeByte(TAG_DECIMAL);
+            writeVarint(values, indexOf(text));
+        }
+
+        private void writeTimestamp(JsonArray mark) throws IOException {
+            values.writeByte(TAG_TIMESTAMP);
+            writeVarLong(values, mark.get(0).getAsLong());
+            writeVarint(values, mark.get(1).getAsInt());
+        }
+
+        private int indexOf(String string) {
+            Integer index = dictionary.get(string);
+            if (index == null) {
+                index = strings.size();
+                dictionary.put(string, index);
+                strings.add(string);
+            }
+            return index;
+        }
+    }
+
+    private static void writeVarint(DataOutputStream out, int value) throws IOException {
+        writeUnsigned(out, value & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Writes a signed value zigzag-encoded, so small negative numbers stay short.
+     */
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        writeUnsigned(out, (value << 1) ^ (value >> 63));
+    }
+
+    private static void writeUnsigned(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    // =================================================================================================================
+    // DECODING
+    // =================================================================================================================
+
+    /**
+     * Decodes a snapshot held in memory and passes each entity's JSON tree to a consumer.
+     *
+     * @param data             The whole snapshot
+     * @param timestampsAsText true to restore timestamps as ISO strings (for JSON output), false to hand
+     *                         them over as epoch-millisecond numbers (for loading through Gson)
+     * @param consumer         Receives each entity in file order
+     * @return The number of entities decoded
+     * @throws IOException if the file is not a snapshot, has an unknown format version or is damaged
+     */
+    public static int read(byte[] data, boolean timestampsAsText, Consumer<JsonElement> consumer) throws IOException {
+        if (data.length < Integer.BYTES + Short.BYTES + TRAILER_BYTES) {
+            throw new IOException("Snapshot too short: " + data.length + " bytes");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length - TRAILER_BYTES);
+        checkTrailer(buffer.getLong(data.length - TRAILER_BYTES), buffer.getInt(data.length - Integer.BYTES), crc.getValue());
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, 0, data.length - TRAILER_BYTES));
+        return decode(in, data.length, timestampsAsText, consumer);
+    }
+
+    /**
+     * Decodes a snapshot file and passes each entity's JSON tree to a consumer, reading it as a stream.
+     *
+     * <p>The file is read twice: a first pass checks its checksum without decoding anything, so a damaged
+     * file is rejected before the consumer sees any entity; the second pass decodes it. Neither pass holds
+     * more than a buffer of the file in memory.</p>
+     *
+     * @param snapshot         The snapshot file
+     * @param timestampsAsText see {@link #read(byte[], boolean, Consumer)}
+     * @param consumer         Receives each entity in file order
+     * @return The number of entities decoded
+     * @throws IOException if the file cannot be read, is not a snapshot, has an unknown format version or is damaged
+     */
+    public static int read(Path snapshot, boolean timestampsAsText, Consumer<JsonElement> consumer) throws IOException {
+        long size = Files.size(snapshot);
+        if (size < Integer.BYTES + Short.BYTES + TRAILER_BYTES) {
+            throw new IOException("Snapshot too short: " + size + " bytes");
+        }
+        long contentSize = size - TRAILER_BYTES;
+
+        try (InputStream file = Files.newInputStream(snapshot)) {
+            CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(file, BUFFER_SIZE), new CRC32());
+            DataInputStream in = new DataInputStream(checked);
+            byte[] chunk = new byte[BUFFER_SIZE];
+            for (long remaining = contentSize; remaining > 0; ) {
+                int read = in.read(chunk, 0, (int) Math.min(chunk.length, remaining));
+                if (read < 0) {
+                    throw new IOException("Snapshot ended early, the file is incomplete");
+                }
+                remaining -= read;
+            }
+            long computed = checked.getChecksum().getValue();
+            long checksum = in.readLong();
+            checkTrailer(checksum, in.readInt(), computed);
+        }
+
+        try (InputStream file = Files.newInputStream(snapshot)) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(file, BUFFER_SIZE));
+            return decode(in, contentSize, timestampsAsText, consumer);
+        }
+    }
+
+    /**
+     * Checks the trailer of a snapshot against the checksum of everything before it.
+     */
+    private static void checkTrailer(long checksum, int endMarker, long computed) throws IOException {
+        if (endMarker != END_MARKER) {
+            throw new IOException("Snapshot end marker missing, the file is incomplete");
+        }
+        if (checksum != computed) {
+            throw new IOException("Snapshot checksum mismatch, the file is damaged");
+        }
+    }
+
+    /**
+     * Decodes the header, dictionary and entities of a snapshot whose checksum was already verified.
+     *
+     * @param contentSize Bytes before the trailer, bounding the lengths read from the file
+     */
+    private static int decode(DataInputStream in, long contentSize, boolean timestampsAsText,
+                              Consumer<JsonElement> consumer) throws IOException {
+        try {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a binary snapshot");
+            }
+            int version = in.readShort();
+            if (version < UNTYPED_TIMESTAMPS_VERSION || version > FORMAT_VERSION) {
+                throw new IOException("Unsupported snapshot format version " + version + " (expected " + FORMAT_VERSION + ")");
+            }
+            // A version 1 timestamp may have been a plain string field, which only reads back correctly as text
+            boolean asText = timestampsAsText || version == UNTYPED_TIMESTAMPS_VERSION;
+            String[] strings = new String[readLength(in, contentSize)];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] bytes = new byte[readLength(in, contentSize)];
+                in.readFully(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            Decoder decoder = new Decoder(in, strings, asText);
+            int count = readLength(in, contentSize);
+            for (int i = 0; i < count; i++) {
+                consumer.accept(decoder.readValue());
+            }
+            return count;
+        } catch (EOFException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("Malformed snapshot", e);
+        }
+    }
+
+    private static final class Decoder {
+        private final DataInputStream in;
+        private final String[] strings;
+        private final boolean timestampsAsText;
+
+        Decoder(DataInputStream in, String[] strings, boolean timestampsAsText) {
+            this.in = in;
+            this.strings = strings;
+            this.timestampsAsText = timestampsAsText;
+        }
+
+        JsonElement readValue() throws IOException {
+            int tag = in.readByte();
+            switch (tag) {
+                case TAG_NULL:
+                    return JsonNull.INSTANCE;
+                case TAG_FALSE:
+                    return new JsonPrimitive(false);
+                case TAG_TRUE:
+                    return new JsonPrimitive(true);
+                case TAG_LONG:
+                    return new JsonPrimitive(readVarLong(in));
+                case TAG_DOUBLE:
+                    return new JsonPrimitive(in.readDouble());
+                case TAG_DECIMAL:
+                    return new JsonPrimitive(new BigDecimal(strings[readVarint(in)]));
+                case TAG_STRING:
+                    return new JsonPrimitive(strings[readVarint(in)]);
+                case TAG_TIMESTAMP:
+                    return readTimestamp();
+                case TAG_ARRAY: {
+                    int size = readVarint(in);
+                    JsonArray array = new JsonArray(size);
+                    for (int i = 0; i < size; i++) {
+                        array.add(readValue());
+                    }
+                    return array;
+                }
+                case TAG_OBJECT: {
+                    int size = readVarint(in);
+                    JsonObject object = new JsonObject();
+                    for (int i = 0; i < size; i++) {
+                        String name = strings[readVarint(in)];
+                        object.add(name, readValue());
+                    }
+                    return object;
+                }
+                default:
+                    throw new IOException("Unknown value tag " + tag);
+            }
+        }
+
+        private JsonElement readTimestamp() throws IOException {
+            long epochMillis = readVarLong(in);
+            int subMillisNanos = readVarint(in);
+            if (timestampsAsText) {
+                LocalDateTime timestamp = LocalDateTime.ofEpochSecond(Math.floorDiv(epochMillis, 1000L),
+                        (int) Math.floorMod(epochMillis, 1000L) * 1_000_000 + subMillisNanos, ZoneOffset.UTC);
+                return new JsonPrimitive(TIMESTAMP_FORMAT.format(timestamp));
+            }
+            if (subMillisNanos == 0) {
+                return new JsonPrimitive(epochMillis);
+            }
+            return new JsonPrimitive(BigDecimal.valueOf(epochMillis).add(BigDecimal.valueOf(subMillisNanos, 6)));
+        }
+    }
+
+    /**
+     * Reads a count or byte length, rejecting values larger than the file could hold.
+     */
+    private static int readLength(DataInputStream in, long contentSize) throws IOException {
+        int length = readVarint(in);
+        if (length > contentSize) {
+            throw new IllegalArgumentException("Length out of range: " + length);
+        }
+        return length;
+    }
+
+    private static int readVarint(DataInputStream in) throws IOException {
+        long value = readUnsigned(in);
+        if (value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Length out of range: " + value);
+        }
+        return (int) value;
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long zigzag = readUnsigned(in);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    private static long readUnsigned(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    // =================================================================================================================
+    // CONVERSION
+    // =================================================================================================================
+
+    /**
+     * Writes the binary snapshot of a JSON data file.
+     *
+     * @param jsonPath The JSON file; the snapshot goes to {@link #snapshotPathFor(String)}
+     * @return The number of entities converted
+     * @throws IOException if the JSON cannot be read or the snapshot cannot be written
+     */
+    public static int toBinary(String jsonPath) throws IOException {
+        Encoder encoder = new Encoder();
+        try (Reader reader = Files.newBufferedReader(Path.of(jsonPath), StandardCharsets.UTF_8);
+             JsonReader jsonReader = new JsonReader(reader)) {
+            if (jsonReader.peek() != JsonToken.NULL) {
+                jsonReader.beginArray();
+                while (jsonReader.hasNext()) {
+                    encoder.add(JsonParser.parseReader(jsonReader));
+                }
+                jsonReader.endArray();
+            }
+        }
+
+        Path snapshot = Path.of(snapshotPathFor(jsonPath));
+        JsonFileHandler.ensureDirectoryExists(snapshot.toString());
+        JsonFileHandler.writeAtomically(snapshot, channel -> {
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+            encoder.writeTo(out);
+        });
+        Logger.info("BinarySnapshotCodec: Wrote " + encoder.count + " entities from " + jsonPath + " to " + snapshot);
+        return encoder.count;
+    }
+
+    /**
+     * Writes a binary snapshot back to its JSON data file, e.g. to inspect or edit it.
+     *
+     * @param jsonPath The JSON file to (re)write from {@link #snapshotPathFor(String)}
+     * @param gson     Controls the output formatting (e.g. {@link GsonProvider#createGsonWithPrettyPrinting()})
+     * @return The number of entities converted
+     * @throws IOException if the snapshot cannot be read or the JSON cannot be written
+     */
+    public static int toJson(String jsonPath, Gson gson) throws IOException {
+        Path snapshot = Path.of(snapshotPathFor(jsonPath));
+        List<JsonElement> elements = new ArrayList<>();
+        read(snapshot, true, elements::add);
+
+        JsonFileHandler.ensureDirectoryExists(jsonPath);
+        JsonFileHandler.writeAtomically(Path.of(jsonPath),
+                channel -> JsonFileHandler.writeJsonArray(channel, elements, gson));
+        Logger.info("BinarySnapshotCodec: Wrote " + elements.size() + " entities from " + snapshot + " to " + jsonPath);
+        return elements.size();
+    }
+
+    /**
+     * Converts data files from the command line:
+     * {@code to-json <file.json>...} or {@code to-binary <file.json>...}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || !(args[0].equals("to-json") || args[0].equals("to-binary"))) {
+            System.err.println("Usage: BinarySnapshotCodec to-json|to-binary <file.json>...");
+            System.exit(1);
+        }
+        Gson gson = GsonProvider.createGsonWithPrettyPrinting();
+        for (int i = 1; i < args.length; i++) {
+            if (args[0].equals("to-json")) {
+                toJson(args[i], gson);
+            } else {
+                toBinary(args[i]);
+            }
+        }
+    }
+}
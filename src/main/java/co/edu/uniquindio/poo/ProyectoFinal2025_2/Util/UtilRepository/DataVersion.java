@@ -0,0 +1,40 @@
+package co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A counter that moves forward every time some repository changes its data.
+ *
+ * <p>Writes reach disk through one of two paths, {@link RepositoryJournal} or {@link WriteBehindFlusher},
+ * and both call {@link #increment()}. A result derived from the repositories stays valid for as long
+ * as {@link #current()} returns the value read <em>before</em> the result was computed.</p>
+ *
+ * <p>The counter lives in memory only and restarts with the application, like everything cached
+ * against it.</p>
+ *
+ * @author Sistema de Gestión de Envíos
+ * @version 1.0
+ * @since 2025
+ */
+public final class DataVersion {
+
+    private static final AtomicLong VERSION = new AtomicLong();
+
+    private DataVersion() {
+        // Prevent instantiation
+    }
+
+    /**
+     * @return The current version of the repository data
+     */
+    public static long current() {
+        return VERSION.get();
+    }
+
+    /**
+     * Records that repository data changed. Called after the in-memory change, before or while it is persisted.
+     */
+    static void increment() {
+        VERSION.incrementAndGet();
+    }
+}
@@ -2,13 +2,32 @@ package co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository;
 
 import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.Logger;
 import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 
 import java.io.*;
+import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * Centralized JSON file I/O handler for all repositories.
@@ -18,25 +37,27 @@ import java.util.Optional;
  *
  * <p><b>Core Functionality:</b></p>
  * <ul>
- *     <li><b>Save Operations:</b> {@link #saveToFile(String, List, Gson)}</li>
- *     <li><b>Load Operations:</b> {@link #loadFromFile(String, Type, Gson)}</li>
+ *     <li><b>Save Operations:</b> {@link #saveToFile(String, Collection, Gson)}</li>
+ *     <li><b>Load Operations:</b> {@link #loadEach(String, Class, Gson, Consumer)},
+ *         {@link #loadFromFile(String, Type, Gson)}</li>
  *     <li><b>File Utilities:</b> {@link #ensureDirectoryExists(String)}, {@link #fileExists(String)}</li>
  * </ul>
  *
+ * <p><b>Streaming:</b> files are read and written one entity at a time through Gson's
+ * {@link JsonReader}/{@link JsonWriter} on buffered file channels. A repository saves straight from
+ * its map values, so no intermediate copy of the data set is built. Loads check a file in a first
+ * streaming pass that only skips over its values, then deserialize it in a second pass that hands each
+ * entity to the repository as soon as it is read.</p>
+ *
  * <p><b>Usage Examples:</b></p>
  * <pre>
  * // In Repositories - Save:
  * Gson gson = GsonProvider.createGsonWithPrettyPrinting();
- * List&lt;Admin&gt; admins = new ArrayList&lt;&gt;(adminsById.values());
- * JsonFileHandler.saveToFile(RepositoryPaths.ADMINS_PATH, admins, gson);
+ * JsonFileHandler.saveToFile(RepositoryPaths.ADMINS_PATH, adminsById.values(), gson);
  *
  * // In Repositories - Load:
- * Type listType = new TypeToken&lt;ArrayList&lt;Admin&gt;&gt;() {}.getType();
- * Optional&lt;List&lt;Admin&gt;&gt; loadedAdmins = JsonFileHandler.loadFromFile(
- *     RepositoryPaths.ADMINS_PATH,
- *     listType,
- *     gson
- * );
+ * JsonFileHandler.loadEach(RepositoryPaths.ADMINS_PATH, Admin.class, gson,
+ *     admin -&gt; adminsById.put(admin.getId(), admin));
  * </pre>
  *
  * <p><b>Design Benefits:</b></p>
@@ -48,6 +69,26 @@ import java.util.Optional;
  *     <li>Single point of modification for file I/O behavior</li>
  * </ul>
  *
+ * <p><b>Crash Safety:</b></p>
+ * <ul>
+ *     <li>Saves write a temporary sibling file, {@code fsync} it and atomically rename it over the
+ *         target, so a crash leaves either the old or the new file, never a truncated one</li>
+ *     <li>The first save of a file in a run, and then at most one save every {@code app.data.backupIntervalMinutes}
+ *         (system property, default {@value #DEFAULT_BACKUP_INTERVAL_MINUTES}), keeps the current file as
+ *         {@code <file>.bak.1}, shifting older backups up to {@code app.data.backups} copies (system property,
+ *         default {@value #DEFAULT_BACKUP_COUNT}). Saves in between replace only the file, so the backups span
+ *         runs and minutes rather than the last few coalesced writes</li>
+ *     <li>Saves of the same file are serialized, even when issued from different threads</li>
+ *     <li>Loads fall back to the newest backup that parses when the file is missing, empty, truncated or
+ *         corrupt</li>
+ *     <li>If neither the file nor any backup parses, saves of that file are refused for the rest of the run
+ *         ({@link #isSaveBlocked(String)}), so a partial repository never overwrites it</li>
+ * </ul>
+ *
+ * <p><b>Binary Snapshots:</b> with {@code -Dapp.data.binary=true} saves write a
+ * {@link BinarySnapshotCodec} snapshot next to the JSON file instead of the JSON itself. Loads use
+ * whichever of the two was written last, so switching the property off again keeps the data.</p>
+ *
  * <p><b>Error Handling:</b></p>
  * <ul>
  *     <li>Returns {@code Optional.empty()} on load failures (null-safe)</li>
@@ -64,6 +105,73 @@ import java.util.Optional;
  */
 public final class JsonFileHandler {
 
+    // =================================================================================================================
+    // CONSTANTS
+    // =================================================================================================================
+
+    /**
+     * Size in characters of the read and write buffers placed over the file channels.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Number of rolling backups kept when the {@code app.data.backups} property is not set.
+     */
+    public static final int DEFAULT_BACKUP_COUNT = 3;
+
+    /**
+     * Number of rolling backups kept per data file; 0 disables backups.
+     */
+    public static final int BACKUP_COUNT = Math.max(0, Integer.getInteger("app.data.backups", DEFAULT_BACKUP_COUNT));
+
+    /**
+     * Minimum minutes between two rotations of the same file when the {@code app.data.backupIntervalMinutes}
+     * property is not set.
+     */
+    public static final long DEFAULT_BACKUP_INTERVAL_MINUTES = 10;
+
+    /**
+     * Minimum time between two rotations of the same file; 0 rotates on every save.
+     */
+    public static final long BACKUP_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(
+            Math.max(0, Long.getLong("app.data.backupIntervalMinutes", DEFAULT_BACKUP_INTERVAL_MINUTES)));
+
+    /**
+     * Suffix of the backups, followed by their generation ({@code users.json.bak.1} is the newest).
+     */
+    public static final String BACKUP_SUFFIX = ".bak.";
+
+    /**
+     * Suffix of the temporary file a save writes before renaming it over the target.
+     */
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * Bytes read from the end of a file to check that its JSON array is closed.
+     */
+    private static final int TAIL_CHECK_BYTES = 64;
+
+    /**
+     * Returned by the binary reader when no snapshot could be read at all.
+     */
+    private static final int NOT_READ = -2;
+
+    /**
+     * One monitor per normalized file path, serializing saves of the same file.
+     */
+    private static final ConcurrentMap<Path, Object> SAVE_LOCKS = new ConcurrentHashMap<>();
+
+    /**
+     * Data files whose load failed; see {@link #isSaveBlocked(String)}.
+     */
+    private static final Set<Path> SAVE_BLOCKED = ConcurrentHashMap.newKeySet();
+    private static final Set<Path> REFUSED_SAVES_LOGGED = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Time of the last backup rotation per normalized file path, in this run.
+     */
+    private static final ConcurrentMap<Path, Long> LAST_ROTATION = new ConcurrentHashMap<>();
+
     // =================================================================================================================
     // CONSTRUCTOR
     // =================================================================================================================
@@ -83,7 +191,7 @@ public final class JsonFileHandler {
     // =================================================================================================================
 
     /**
-     * Saves a list of entities to a JSON file.
+     * Saves a collection of entities to a JSON file as a JSON array.
      *
      * <p>This method handles directory creation, file writing, and error logging automatically.
      * It uses the provided Gson instance for serialization, allowing repositories to control
@@ -92,59 +200,166 @@ public final class JsonFileHandler {
      * <p><b>Behavior:</b></p>
      * <ul>
      *     <li>Creates parent directories if they don't exist</li>
-     *     <li>Overwrites existing file (use append=false mode)</li>
-     *     <li>Flushes and closes file writer properly</li>
+     *     <li>Writes {@code <file>.tmp}, forces it to disk and atomically renames it over the file</li>
+     *     <li>Keeps the replaced file as the newest of {@link #BACKUP_COUNT} rolling backups, at most once
+     *         per {@link #BACKUP_INTERVAL_MILLIS}</li>
+     *     <li>Writes the entities one by one, so the collection can be a live view such as {@code map.values()}</li>
+     *     <li>Leaves the existing file untouched if writing fails</li>
      *     <li>Logs success/failure via {@link Logger}</li>
      * </ul>
      *
+     * <p>The collection is iterated while writing: callers passing a live view must hold the lock
+     * that guards its modifications.</p>
+     *
      * <p><b>Example:</b></p>
      * <pre>
      * Gson gson = GsonProvider.createGsonWithPrettyPrinting();
-     * List&lt;User&gt; users = userRepository.getAllUsers();
-     * JsonFileHandler.saveToFile(RepositoryPaths.USERS_PATH, users, gson);
+     * JsonFileHandler.saveToFile(RepositoryPaths.USERS_PATH, usersById.values(), gson);
      * </pre>
      *
-     * @param <T>      The type of entities in the list
+     * @param <T>      The type of entities in the collection
      * @param filePath The absolute or relative path to the JSON file
-     * @param entities The list of entities to serialize and save
+     * @param entities The entities to serialize and save
      * @param gson     The Gson instance to use for serialization
      * @return {@code true} if save was successful, {@code false} otherwise
      */
-    public static <T> boolean saveToFile(String filePath, List<T> entities, Gson gson) {
+    public static <T> boolean saveToFile(String filePath, Collection<? extends T> entities, Gson gson) {
+        // In binary mode the snapshot replaces the JSON file as the copy that gets written
+        String targetPath = BinarySnapshotCodec.ENABLED ? BinarySnapshotCodec.snapshotPathFor(filePath) : filePath;
+        if (isSaveBlocked(filePath)) {
+            if (REFUSED_SAVES_LOGGED.add(normalize(filePath))) {
+                Logger.error("JsonFileHandler: Refusing to save " + targetPath + ": it could not be loaded, so the repository"
+                        + " did not start from its latest data. Repair or restore the file and restart the application.");
+            }
+            return false;
+        }
         try {
             // Ensure parent directory exists
-            if (!ensureDirectoryExists(filePath)) {
-                Logger.error("JsonFileHandler: Failed to create directory for: " + filePath);
+            if (!ensureDirectoryExists(targetPath)) {
+                Logger.error("JsonFileHandler: Failed to create directory for: " + targetPath);
                 return false;
             }
 
-            File file = new File(filePath);
-            Logger.info("JsonFileHandler: Saving " + entities.size() + " entities to " + filePath);
+            Logger.info("JsonFileHandler: Saving " + entities.size() + " entities to " + targetPath);
 
-            // Write JSON to file
-            try (FileWriter writer = new FileWriter(file, false)) {
-                gson.toJson(entities, writer);
-                writer.flush();
-            }
+            writeAtomically(Path.of(targetPath), channel -> {
+                if (BinarySnapshotCodec.ENABLED) {
+                    OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+                    BinarySnapshotCodec.write(entities, gson, out);
+                    out.flush();
+                } else {
+                    writeJsonArray(channel, entities, gson);
+                }
+            });
 
-            Logger.info("JsonFileHandler: Successfully saved " + entities.size() + " entities to " + filePath);
+            Logger.info("JsonFileHandler: Successfully saved " + entities.size() + " entities to " + targetPath);
             return true;
 
-        } catch (IOException e) {
-            Logger.error("JsonFileHandler: Error saving to file: " + filePath, e);
+        } catch (IOException | JsonParseException e) {
+            Logger.error("JsonFileHandler: Error saving to file: " + targetPath, e);
             return false;
         }
     }
 
+    /**
+     * Writes the content of a file through a temporary sibling that is forced to disk and renamed
+     * over the target, keeping the replaced file as the newest backup when a rotation is due.
+     *
+     * @param path    The file to replace
+     * @param content Writes the new content to the temporary file's channel
+     * @throws IOException if writing or renaming fails; the existing file is left untouched
+     */
+    static void writeAtomically(Path path, ChannelWriter content) throws IOException {
+        Path target = path.toAbsolutePath().normalize();
+        Path temp = Path.of(target + TEMP_SUFFIX);
+        synchronized (SAVE_LOCKS.computeIfAbsent(target, k -> new Object())) {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                content.write(channel);
+                channel.force(true);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+
+            rotateBackups(target);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            syncDirectory(target.getParent());
+        }
+    }
+
+    /**
+     * Streams a JSON array to a channel, one entity at a time. The channel is left open.
+     */
+    static <T> void writeJsonArray(FileChannel channel, Iterable<? extends T> entities, Gson gson) throws IOException {
+        Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), BUFFER_SIZE);
+        JsonWriter jsonWriter = gson.newJsonWriter(writer);
+        jsonWriter.beginArray();
+        for (T entity : entities) {
+            if (entity == null) {
+                jsonWriter.nullValue();
+            } else {
+                gson.toJson(entity, entity.getClass(), jsonWriter);
+            }
+        }
+        jsonWriter.endArray();
+        jsonWriter.flush();
+    }
+
+    /**
+     * Writes the new content of a file in {@link #writeAtomically(Path, ChannelWriter)}.
+     */
+    @FunctionalInterface
+    interface ChannelWriter {
+        void write(FileChannel channel) throws IOException;
+    }
+
     // =================================================================================================================
     // LOAD OPERATIONS
     // =================================================================================================================
 
+    /**
+     * Reads the entities of a JSON array file one at a time and hands each one to a consumer.
+     *
+     * <p>Only the entity being read is held by this method, so a repository can put entities
+     * straight into its maps without first building a list of the whole file.</p>
+     *
+     * <p><b>Behavior:</b></p>
+     * <ul>
+     *     <li>Returns 0 if the file doesn't exist or is empty (not an error)</li>
+     *     <li>Skips {@code null} array elements</li>
+     *     <li>Checks the whole file before passing any entity on; a file that is cut off or does not parse is
+     *         replaced by its newest backup that does</li>
+     *     <li>If an entity of a checked file fails to deserialize, keeps the entities passed so far, logs the error
+     *         and blocks saves of the file</li>
+     *     <li>If nothing parses, logs the error, passes nothing and blocks saves of the file</li>
+     *     <li>If a binary snapshot is newer than the JSON file but neither it nor a backup of it decodes,
+     *         passes the older JSON entities and blocks saves, so the snapshot is never overwritten by them</li>
+     * </ul>
+     *
+     * <p><b>Example:</b></p>
+     * <pre>
+     * int count = JsonFileHandler.loadEach(RepositoryPaths.ORDERS_PATH, Order.class, gson,
+     *     order -&gt; ordersById.put(order.getId(), order));
+     * </pre>
+     *
+     * @param <T>        The type of the entities
+     * @param filePath   The absolute or relative path to the JSON file
+     * @param entityType The class of the array elements
+     * @param gson       The Gson instance to use for deserialization
+     * @param consumer   Receives each entity in file order
+     * @return The number of entities passed to the consumer, or -1 if neither the file nor a backup could be
+     *         read completely
+     */
+    public static <T> int loadEach(String filePath, Class<T> entityType, Gson gson, Consumer<? super T> consumer) {
+        return readEach(filePath, entityType, gson, consumer);
+    }
+
     /**
      * Loads a list of entities from a JSON file.
      *
-     * <p>This method handles file existence checks, empty file detection, and JSON parsing
-     * errors gracefully. It returns an {@link Optional} to encourage null-safe handling.</p>
+     * <p>Prefer {@link #loadEach(String, Class, Gson, Consumer)} when the entities go into another
+     * structure anyway; this method collects them into a list first.</p>
      *
      * <p><b>Behavior:</b></p>
      * <ul>
@@ -164,11 +379,6 @@ public final class JsonFileHandler {
      *     listType,
      *     gson
      * );
-     *
-     * loadedOrders.ifPresent(orders -> {
-     *     orders.forEach(order -> ordersById.put(order.getId(), order));
-     *     Logger.info("Loaded " + orders.size() + " orders");
-     * });
      * </pre>
      *
      * @param <T>      The type of entities in the list
@@ -180,37 +390,313 @@ public final class JsonFileHandler {
      * @see TypeToken
      */
     public static <T> Optional<List<T>> loadFromFile(String filePath, Type listType, Gson gson) {
-        File file = new File(filePath);
+        Type elementType = listType instanceof ParameterizedType
+                ? ((ParameterizedType) listType).getActualTypeArguments()[0]
+                : Object.class;
 
-        // File doesn't exist - this is normal on first run
-        if (!file.exists()) {
-            Logger.info("JsonFileHandler: File not found, starting with empty repository: " + filePath);
+        List<T> loadedEntities = new ArrayList<>();
+        int read = JsonFileHandler.<T>readEach(filePath, elementType, gson, loadedEntities::add);
+        if (read < 0 || loadedEntities.isEmpty()) {
             return Optional.empty();
         }
+        return Optional.of(loadedEntities);
+    }
 
-        // File is empty - this is normal on first run
-        if (file.length() == 0) {
-            Logger.info("JsonFileHandler: File is empty, starting with empty repository: " + filePath);
-            return Optional.empty();
+    /**
+     * Streams the elements of a JSON array file to a consumer.
+     *
+     * @return The number of elements consumed, or -1 if neither the file nor a backup could be read completely
+     */
+    private static <T> int readEach(String filePath, Type elementType, Gson gson, Consumer<? super T> consumer) {
+        // A binary snapshot at least as recent as the JSON file holds the latest saved state
+        Path snapshot = Path.of(BinarySnapshotCodec.snapshotPathFor(filePath));
+        if (BinarySnapshotCodec.isPreferredOver(snapshot, Path.of(filePath))) {
+            int read = readBinary(filePath, snapshot, elementType, gson, consumer);
+            if (read != NOT_READ) {
+                return read;
+            }
+            // The JSON file is older than the snapshot: usable to run with, but saving it would bury the snapshot
+            Logger.error("JsonFileHandler: Neither " + snapshot + " nor any backup of it could be decoded;"
+                    + " loading the older " + filePath + " read-only");
+            blockSaves(filePath);
         }
 
-        try (Reader reader = new FileReader(file)) {
-            List<T> loadedEntities = gson.fromJson(reader, listType);
+        // The file first, then its backups from newest to oldest; the first one that parses completely wins
+        Path path = Path.of(filePath);
+        boolean found = false;
+        for (int generation = 0; generation <= BACKUP_COUNT; generation++) {
+            Path source = generation == 0 ? path : backupPath(path, generation);
+            if (!Files.exists(source)) {
+                continue;
+            }
+            if (isEmpty(source)) {
+                Logger.info("JsonFileHandler: File is empty: " + source);
+                continue;
+            }
+            found = true;
 
-            if (loadedEntities == null || loadedEntities.isEmpty()) {
-                Logger.info("JsonFileHandler: No valid entities found in file: " + filePath);
-                return Optional.empty();
+            if (isValidJsonArray(source, gson)) {
+                if (generation > 0) {
+                    Logger.warning("JsonFileHandler: " + filePath + " is missing or unreadable, loaded backup " + source.getFileName());
+                }
+                return streamJsonArray(filePath, source, elementType, gson, consumer);
             }
+        }
 
-            Logger.info("JsonFileHandler: Successfully loaded " + loadedEntities.size() + " entities from " + filePath);
-            return Optional.of(loadedEntities);
+        if (!found) {
+            // No file at all - this is normal on first run
+            Logger.info("JsonFileHandler: File not found or empty, starting with empty repository: " + filePath);
+            return 0;
+        }
+
+        Logger.error("JsonFileHandler: Could not load " + filePath + " nor any backup");
+        blockSaves(filePath);
+        return -1;
+    }
+
+    /**
+     * First load pass: checks that a file is a complete, well-formed JSON array (or {@code null}) by
+     * skipping over its values, without deserializing or keeping any of them.
+     *
+     * @return {@code true} if the file can be streamed to the repository
+     */
+    private static boolean isValidJsonArray(Path source, Gson gson) {
+        if (!isComplete(source)) {
+            Logger.error("JsonFileHandler: File is truncated: " + source);
+            return false;
+        }
+
+        int skipped = 0;
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ);
+             Reader reader = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8), BUFFER_SIZE);
+             JsonReader jsonReader = gson.newJsonReader(reader)) {
+
+            if (jsonReader.peek() == JsonToken.NULL) {
+                return true;
+            }
+            jsonReader.beginArray();
+            while (jsonReader.hasNext()) {
+                jsonReader.skipValue();
+                skipped++;
+            }
+            jsonReader.endArray();
+            return true;
 
         } catch (IOException e) {
-            Logger.error("JsonFileHandler: Error reading file: " + filePath, e);
-            return Optional.empty();
-        } catch (Exception e) {
-            Logger.error("JsonFileHandler: Error parsing JSON from file: " + filePath, e);
-            return Optional.empty();
+            Logger.error("JsonFileHandler: Error reading file: " + source + " (after " + skipped + " entities)", e);
+            return false;
+        } catch (RuntimeException e) {
+            Logger.error("JsonFileHandler: Error parsing JSON from file: " + source + " (after " + skipped + " entities)", e);
+            return false;
+        }
+    }
+
+    /**
+     * Second load pass: deserializes the entities of a file checked by {@link #isValidJsonArray} and
+     * passes each one to the consumer as soon as it is read.
+     *
+     * @return The number of entities consumed, or -1 if an entity failed to deserialize
+     */
+    private static <T> int streamJsonArray(String filePath, Path source, Type elementType, Gson gson,
+                                           Consumer<? super T> consumer) {
+        int consumed = 0;
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ);
+             Reader reader = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8), BUFFER_SIZE);
+             JsonReader jsonReader = gson.newJsonReader(reader)) {
+
+            if (jsonReader.peek() == JsonToken.NULL) {
+                Logger.info("JsonFileHandler: No valid entities found in file: " + source);
+                return 0;
+            }
+
+            jsonReader.beginArray();
+            while (jsonReader.hasNext()) {
+                T entity = gson.fromJson(jsonReader, elementType);
+                if (entity != null) {
+                    consumer.accept(entity);
+                    consumed++;
+                }
+            }
+            jsonReader.endArray();
+            Logger.info("JsonFileHandler: Successfully loaded " + consumed + " entities from " + source);
+            return consumed;
+
+        } catch (IOException | RuntimeException e) {
+            return failPartialLoad(filePath, source, consumed, e);
+        }
+    }
+
+    /**
+     * Decodes a binary snapshot and passes each entity to a consumer. Like the JSON load, a generation is
+     * checked completely (end marker and checksum) before any of its entities is handed over, so a snapshot
+     * that is cut off or damaged is replaced by its newest backup that decodes.
+     *
+     * @return The number of entities consumed, {@link #NOT_READ} if no generation could be decoded, or -1
+     *         if an entity of a checked generation failed to convert
+     */
+    private static <T> int readBinary(String filePath, Path snapshot, Type elementType, Gson gson,
+                                      Consumer<? super T> consumer) {
+        for (int generation = 0; generation <= BACKUP_COUNT; generation++) {
+            Path source = generation == 0 ? snapshot : backupPath(snapshot, generation);
+            if (!BinarySnapshotCodec.isComplete(source)) {
+                continue;
+            }
+            int[] consumed = {0};
+            try {
+                BinarySnapshotCodec.read(source, false, element -> {
+                    T entity = gson.fromJson(element, elementType);
+                    if (entity != null) {
+                        consumer.accept(entity);
+                        consumed[0]++;
+                    }
+                });
+            } catch (IOException | RuntimeException e) {
+                if (consumed[0] > 0) {
+                    return failPartialLoad(filePath, source, consumed[0], e);
+                }
+                Logger.error("JsonFileHandler: Error reading binary snapshot: " + source, e);
+                continue;
+            }
+
+            if (generation > 0) {
+                Logger.warning("JsonFileHandler: " + snapshot + " is unreadable, loaded backup " + source.getFileName());
+            }
+            Logger.info("JsonFileHandler: Successfully loaded " + consumed[0] + " entities from " + source);
+            return consumed[0];
+        }
+        return NOT_READ;
+    }
+
+    /**
+     * Handles a file that passed its checks but failed after some of its entities were already handed
+     * over. Falling back to a backup would mix two versions of the data, so the entities read so far are
+     * kept and saves are blocked, leaving the file on disk as it is.
+     */
+    private static int failPartialLoad(String filePath, Path source, int consumed, Exception e) {
+        Logger.error("JsonFileHandler: Error loading " + source + " after " + consumed
+                + " entities; keeping them and leaving the file untouched", e);
+        blockSaves(filePath);
+        return -1;
+    }
+
+    // =================================================================================================================
+    // BACKUP AND DURABILITY HELPERS
+    // =================================================================================================================
+
+    /**
+     * Returns whether saves of a data file are refused because its last load failed.
+     *
+     * <p>A repository whose file could not be read, nor any of its backups, starts without that data
+     * (journaled repositories still replay their journal). Saving that state would replace the file, and a few more saves would
+     * rotate the good backups away, so the file and its backups are left alone for the rest of the run. The same
+     * holds when a binary snapshot newer than the JSON file cannot be decoded and the repository runs on the older JSON.</p>
+     *
+     * @param filePath The data file path
+     * @return {@code true} if {@link #saveToFile} refuses to write the file
+     */
+    public static boolean isSaveBlocked(String filePath) {
+        return SAVE_BLOCKED.contains(normalize(filePath));
+    }
+
+    private static void blockSaves(String filePath) {
+        SAVE_BLOCKED.add(normalize(filePath));
+        Logger.error("JsonFileHandler: Saves of " + filePath + " are disabled for this run so the data on disk"
+                + " is not overwritten");
+    }
+
+    private static Path normalize(String filePath) {
+        return Path.of(filePath).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Returns the path of a backup generation of a data file.
+     *
+     * @param filePath   The data file path
+     * @param generation The generation, from 1 (newest) to {@link #BACKUP_COUNT}
+     * @return The backup path, e.g. {@code data/users.json.bak.1}
+     */
+    public static Path backupPath(Path filePath, int generation) {
+        return Path.of(filePath + BACKUP_SUFFIX + generation);
+    }
+
+    /**
+     * Shifts the backups of a file one generation up and keeps the current file as generation 1, unless
+     * the file was already rotated in this run less than {@link #BACKUP_INTERVAL_MILLIS} ago.
+     * The current file is hard-linked rather than copied where the file system allows it.
+     * Called with the file's save lock held.
+     */
+    private static void rotateBackups(Path target) throws IOException {
+        if (BACKUP_COUNT == 0 || !Files.exists(target)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Long lastRotation = LAST_ROTATION.get(target);
+        if (lastRotation != null && now - lastRotation < BACKUP_INTERVAL_MILLIS) {
+            return;
+        }
+        LAST_ROTATION.put(target, now);
+        Files.deleteIfExists(backupPath(target, BACKUP_COUNT));
+        for (int generation = BACKUP_COUNT - 1; generation >= 1; generation--) {
+            Path backup = backupPath(target, generation);
+            if (Files.exists(backup)) {
+                Files.move(backup, backupPath(target, generation + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Path newest = backupPath(target, 1);
+        try {
+            Files.createLink(newest, target);
+        } catch (UnsupportedOperationException | IOException e) {
+            Files.copy(target, newest, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Forces a directory entry change (the rename) to disk. Not every platform can open a
+     * directory for this; there the rename is still atomic, only its durability is left to the OS.
+     */
+    private static void syncDirectory(Path directory) {
+        if (directory == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException | UnsupportedOperationException e) {
+            // Best effort only
+        }
+    }
+
+    private static boolean isEmpty(Path path) {
+        try {
+            return Files.size(path) == 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Checks that a file exists and ends with the closing bracket of a JSON array (or is {@code null}).
+     * This catches files cut off by a crash without parsing them.
+     */
+    private static boolean isComplete(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return false;
+            }
+            ByteBuffer tail = ByteBuffer.allocate((int) Math.min(size, TAIL_CHECK_BYTES));
+            channel.position(size - tail.capacity());
+            while (tail.hasRemaining() && channel.read(tail) >= 0) {
+                // Read until the tail buffer is full
+            }
+            for (int i = tail.position() - 1; i >= 0; i--) {
+                char c = (char) tail.get(i);
+                if (!Character.isWhitespace(c)) {
+                    return c == ']' || c == 'l';
+                }
+            }
+            return false;
+        } catch (IOException e) {
+            return false;
         }
     }
 
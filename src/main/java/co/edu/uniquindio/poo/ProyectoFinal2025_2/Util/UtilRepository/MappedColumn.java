@@ -0,0 +1,142 @@
+package co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository;
+
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * One fixed-width primitive column of a column store, kept in a memory-mapped file.
+ *
+ * <p>Row {@code i} of a column of width {@code w} lives at byte offset {@code i * w}, so a scan
+ * reads the file sequentially and the values stay off the Java heap. The file starts empty on
+ * every open: the owner rebuilds it from its repository, so it is never read back across runs.</p>
+ *
+ * <p>If the file cannot be created or mapped (read-only directory, 32-bit address space, ...)
+ * the column falls back to a heap buffer and keeps working.</p>
+ *
+ * <p><b>Thread Safety:</b> not thread-safe; the owning store synchronizes access.</p>
+ *
+ * @author Sistema de Gestión de Envíos
+ * @version 1.0
+ * @since 2025
+ */
+public final class MappedColumn {
+
+    private final Path path;
+    private final int width;
+    private FileChannel channel;
+    private ByteBuffer buffer;
+    private int capacity;
+
+    /**
+     * Opens (and truncates) the column file.
+     *
+     * @param path            The column file
+     * @param width           Bytes per row: {@link Byte#BYTES}, {@link Integer#BYTES}, {@link Long#BYTES} or {@link Double#BYTES}
+     * @param initialCapacity Rows to map up front
+     */
+    public MappedColumn(Path path, int width, int initialCapacity) {
+        this.path = path;
+        this.width = width;
+        try {
+            Files.createDirectories(path.getParent());
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException | UnsupportedOperationException e) {
+            Logger.warning("MappedColumn: Cannot open " + path + ", keeping the column in memory (" + e.getMessage() + ")");
+            this.channel = null;
+        }
+        remap(Math.max(1, initialCapacity));
+    }
+
+    /**
+     * Grows the column so rows {@code 0 .. rows - 1} are addressable, doubling its capacity as needed.
+     *
+     * @param rows The number of rows needed
+     */
+    public void ensureCapacity(int rows) {
+        if (rows > capacity) {
+            remap((int) Math.min(Integer.MAX_VALUE / width, Math.max(rows, 2L * capacity)));
+        }
+    }
+
+    /**
+     * @return The number of rows currently addressable
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    public byte getByte(int row) {
+        return buffer.get(row);
+    }
+
+    public void putByte(int row, byte value) {
+        buffer.put(row, value);
+    }
+
+    public int getInt(int row) {
+        return buffer.getInt(row * Integer.BYTES);
+    }
+
+    public void putInt(int row, int value) {
+        buffer.putInt(row * Integer.BYTES, value);
+    }
+
+    public long getLong(int row) {
+        return buffer.getLong(row * Long.BYTES);
+    }
+
+    public void putLong(int row, long value) {
+        buffer.putLong(row * Long.BYTES, value);
+    }
+
+    public double getDouble(int row) {
+        return buffer.getDouble(row * Double.BYTES);
+    }
+
+    public void putDouble(int row, double value) {
+        buffer.putDouble(row * Double.BYTES, value);
+    }
+
+    /**
+     * Maps a larger region of the file. Mapping past the end extends the file, and the rows already
+     * written stay in place, so nothing is copied unless the column lives on the heap.
+     */
+    private void remap(int rows) {
+        long bytes = (long) rows * width;
+        if (channel != null) {
+            try {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes).order(ByteOrder.nativeOrder());
+                capacity = rows;
+                return;
+            } catch (IOException | RuntimeException e) {
+                Logger.warning("MappedColumn: Cannot map " + path + ", keeping the column in memory (" + e.getMessage() + ")");
+                closeChannel();
+            }
+        }
+        ByteBuffer heap = ByteBuffer.allocate((int) bytes).order(ByteOrder.nativeOrder());
+        if (buffer != null) {
+            ByteBuffer old = buffer.duplicate();
+            old.clear().limit(Math.min(old.capacity(), heap.capacity()));
+            heap.put(old).clear();
+        }
+        buffer = heap;
+        capacity = rows;
+    }
+
+    private void closeChannel() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // The mapping, if any, stays valid after the channel is closed
+        }
+        channel = null;
+    }
+}
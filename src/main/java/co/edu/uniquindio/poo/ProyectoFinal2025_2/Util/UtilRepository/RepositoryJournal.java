@@ -0,0 +1,617 @@
+package co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository;
+
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.Logger;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Append-only write-ahead log that lets a repository persist single mutations instead of
+ * rewriting its whole JSON file on every change.
+ *
+ * <p>Each repository keeps its regular JSON file (for example {@code data/shipments.json}) as a
+ * <b>snapshot</b>, and every mutation is appended as one compact JSON line to a sibling
+ * <b>journal</b> file ({@code data/shipments.journal}). A background compaction step periodically
+ * folds the journal into a fresh snapshot and truncates it.</p>
+ *
+ * <p><b>Core Functionality:</b></p>
+ * <ul>
+ *     <li><b>Append:</b> {@link #recordPut(String, Object)}, {@link #recordDelete(String)}</li>
+ *     <li><b>Startup:</b> {@link #replay(Map)} - applies pending records over the loaded snapshot</li>
+ *     <li><b>Compaction:</b> {@link #compact()} - runs automatically on a background thread</li>
+ *     <li><b>Transactions:</b> inside {@link RepositoryTransaction#execute(Supplier)} records are held
+ *         back until the commit; {@link #trackBefore(String, Object)} remembers what a rollback restores</li>
+ * </ul>
+ *
+ * <p><b>Usage Examples:</b></p>
+ * <pre>
+ * // In Repositories - Constructor:
+ * loadFromFile();
+ * this.journal = new RepositoryJournal&lt;&gt;(RepositoryPaths.SHIPMENTS_PATH, Shipment.class, gson,
+ *         this::snapshot, this::restore);
+ * journal.replay(shipmentsById);
+ *
+ * // In Repositories - Mutations:
+ * journal.trackBefore(shipment.getId(), shipmentsById.get(shipment.getId()));
+ * shipmentsById.put(shipment.getId(), shipment);
+ * journal.recordPut(shipment.getId(), shipment);
+ * </pre>
+ *
+ * <p><b>Journal Format:</b> one record per line. {@code seq} orders the records of all journals;
+ * a {@code SNAP} line written after a compaction says the snapshot holds every record up to its {@code seq}.</p>
+ * <pre>
+ * {"op":"PUT","id":"a1b2","seq":41,"data":{...full entity...}}
+ * {"op":"DEL","id":"c3d4","seq":42}
+ * {"op":"SNAP","seq":42}
+ * </pre>
+ *
+ * <p><b>Crash Safety:</b></p>
+ * <ul>
+ *     <li>Records carry the full entity, so replaying a record twice is harmless (idempotent)</li>
+ *     <li>Replay skips a record older than the entity's newest record or than the snapshot, so a record
+ *         appended late (e.g. recovered again from the transaction log) never overwrites a newer state</li>
+ *     <li>Compaction first rotates the journal to {@code *.journal.old}, then captures the snapshot,
+ *         and only deletes the rotated file once the snapshot has been written</li>
+ *     <li>A truncated last line (crash mid-append) is skipped with a warning during replay</li>
+ *     <li>If an append fails, the repository falls back to a synchronous full snapshot</li>
+ * </ul>
+ *
+ * <p><b>Thread Safety:</b> appends and journal rotation are serialized on an internal lock.
+ * The snapshot supplier is invoked without that lock held, so repositories must guard it with
+ * the same monitor as their mutating methods.</p>
+ *
+ * @param <T> The entity type stored by the owning repository
+ * @author Sistema de Gestión de Envíos
+ * @version 1.0
+ * @since 2025
+ * @see JsonFileHandler
+ * @see RepositoryPaths
+ */
+public final class RepositoryJournal<T> {
+
+    // =================================================================================================================
+    // CONSTANTS
+    // =================================================================================================================
+
+    /**
+     * File extension used for journal files, appended to the snapshot name without its {@code .json} suffix.
+     */
+    public static final String JOURNAL_EXTENSION = ".journal";
+
+    /**
+     * Suffix of the journal segment being folded into the snapshot during compaction.
+     */
+    private static final String ROTATED_SUFFIX = ".old";
+
+    /**
+     * Number of pending records that triggers an early compaction.
+     */
+    private static final int COMPACTION_THRESHOLD = 500;
+
+    /**
+     * Interval between periodic compaction checks.
+     */
+    private static final long COMPACTION_INTERVAL_SECONDS = 30;
+
+    private static final String OP_PUT = "PUT";
+    private static final String OP_DELETE = "DEL";
+    private static final String OP_SNAPSHOT = "SNAP";
+    private static final String FIELD_OP = "op";
+    private static final String FIELD_ID = "id";
+    private static final String FIELD_DATA = "data";
+    private static final String FIELD_SEQ = "seq";
+
+    /**
+     * Last sequence number handed out, advanced past every number read back from disk.
+     */
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    /**
+     * Shared single-threaded scheduler for all journals. Daemon so it never blocks JVM shutdown.
+     */
+    private static final ScheduledExecutorService COMPACTOR = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "repository-journal-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // =================================================================================================================
+    // FIELDS
+    // =================================================================================================================
+
+    private final String snapshotPath;
+    private final Path journalPath;
+    private final Path rotatedPath;
+    private final Type entityType;
+    private final Gson snapshotGson;
+    private final Gson recordGson;
+    private final Supplier<List<T>> snapshotSupplier;
+    private final BiConsumer<String, T> rollbackHandler;
+
+    private final Object lock = new Object();
+    private int pendingRecords;
+    private boolean compactionScheduled;
+
+    // =================================================================================================================
+    // CONSTRUCTOR
+    // =================================================================================================================
+
+    /**
+     * Creates a journal for the given snapshot file and registers it for periodic compaction.
+     *
+     * @param snapshotPath     The repository's JSON snapshot path (e.g. {@link RepositoryPaths#SHIPMENTS_PATH})
+     * @param entityType       The entity class used to deserialize journal records
+     * @param snapshotGson     The Gson instance the repository uses for its snapshot file
+     * @param snapshotSupplier Supplies a consistent copy of all entities when compacting
+     * @param rollbackHandler  Puts an entity back in memory when a transaction rolls back
+     *                         (a null entity means it did not exist before)
+     */
+    public RepositoryJournal(String snapshotPath, Type entityType, Gson snapshotGson, Supplier<List<T>> snapshotSupplier,
+                             BiConsumer<String, T> rollbackHandler) {
+        RepositoryTransaction.recover();
+        this.snapshotPath = snapshotPath;
+        this.journalPath = Paths.get(journalPathFor(snapshotPath));
+        this.rotatedPath = Paths.get(journalPathFor(snapshotPath) + ROTATED_SUFFIX);
+        this.entityType = entityType;
+        this.snapshotGson = snapshotGson;
+        this.recordGson = GsonProvider.createGson();
+        this.snapshotSupplier = snapshotSupplier;
+        this.rollbackHandler = rollbackHandler;
+
+        COMPACTOR.scheduleWithFixedDelay(this::compactIfDirty,
+                COMPACTION_INTERVAL_SECONDS, COMPACTION_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Derives the journal path for a snapshot path ({@code data/orders.json -> data/orders.journal}).
+     *
+     * @param snapshotPath The JSON snapshot path
+     * @return The journal file path
+     */
+    public static String journalPathFor(String snapshotPath) {
+        String base = snapshotPath.endsWith(".json")
+                ? snapshotPath.substring(0, snapshotPath.length() - ".json".length())
+                : snapshotPath;
+        return base + JOURNAL_EXTENSION;
+    }
+
+    // =================================================================================================================
+    // APPEND OPERATIONS
+    // =================================================================================================================
+
+    /**
+     * Appends an insert/update record containing the full entity.
+     *
+     * @param id     The entity ID
+     * @param entity The entity state after the mutation
+     */
+    public void recordPut(String id, T entity) {
+        JsonObject record = toRecord(OP_PUT, id, recordGson.toJsonTree(entity, entityType));
+        Changes changes = transactionChanges();
+        if (changes != null) {
+            changes.records.put(id, record);
+        } else {
+            append(Collections.singletonList(record));
+        }
+    }
+
+    /**
+     * Appends insert/update records for several entities with a single file write.
+     *
+     * @param entities The entity states after the mutation, keyed by ID
+     */
+    public void recordPutAll(Map<String, T> entities) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        Changes changes = transactionChanges();
+        List<JsonObject> records = new ArrayList<>(entities.size());
+        entities.forEach((id, entity) -> {
+            JsonObject record = toRecord(OP_PUT, id, recordGson.toJsonTree(entity, entityType));
+            if (changes != null) {
+                changes.records.put(id, record);
+            } else {
+                records.add(record);
+            }
+        });
+        if (changes == null) {
+            append(records);
+        }
+    }
+
+    /**
+     * Appends a delete record.
+     *
+     * @param id The ID of the removed entity
+     */
+    public void recordDelete(String id) {
+        JsonObject record = toRecord(OP_DELETE, id, null);
+        Changes changes = transactionChanges();
+        if (changes != null) {
+            changes.records.put(id, record);
+        } else {
+            append(Collections.singletonList(record));
+        }
+    }
+
+    /**
+     * Remembers the state an entity has before the current transaction changes it, so a rollback can
+     * put it back. Only the first call per entity in a transaction counts; outside transactions it does nothing.
+     *
+     * <p>Repositories call it from {@code findById} and before every write, with the entity currently in
+     * their map (null if there is none).</p>
+     *
+     * @param id      The entity ID
+     * @param current The entity as stored right now, or null if the ID is not stored
+     */
+    public void trackBefore(String id, T current) {
+        Changes changes = transactionChanges();
+        if (changes != null && !changes.before.containsKey(id)) {
+            changes.before.put(id, current != null ? recordGson.toJsonTree(current, entityType) : JsonNull.INSTANCE);
+        }
+    }
+
+    private Changes transactionChanges() {
+        return RepositoryTransaction.enlist(this, Changes::new);
+    }
+
+    private void append(List<JsonObject> records) {
+        DataVersion.increment();
+        boolean appended;
+        boolean thresholdReached;
+
+        synchronized (lock) {
+            appended = writeLines(records);
+            if (appended) {
+                pendingRecords += records.size();
+            }
+            thresholdReached = pendingRecords >= COMPACTION_THRESHOLD && !compactionScheduled;
+            if (thresholdReached) {
+                compactionScheduled = true;
+            }
+        }
+
+        if (!appended) {
+            // Never lose a mutation: fall back to the classic full rewrite. The caller may hold its
+            // repository's monitor, which an open transaction could be waiting for, so don't wait for them
+            Logger.warning("RepositoryJournal: Append failed, writing full snapshot for " + snapshotPath);
+            compact(false);
+        } else if (thresholdReached) {
+            COMPACTOR.execute(this::compact);
+        }
+    }
+
+    private boolean writeLines(List<JsonObject> records) {
+        try {
+            if (!JsonFileHandler.ensureDirectoryExists(journalPath.toString())) {
+                return false;
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(journalPath, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (JsonObject record : records) {
+                    writer.write(record.toString());
+                    writer.newLine();
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            Logger.error("RepositoryJournal: Error appending to journal: " + journalPath, e);
+            return false;
+        }
+    }
+
+    // =================================================================================================================
+    // REPLAY
+    // =================================================================================================================
+
+    /**
+     * Applies pending journal records on top of an already loaded snapshot.
+     *
+     * <p>Must be called once from the repository constructor, after the snapshot has been loaded
+     * into {@code target}. Records left over from an interrupted compaction are replayed first.</p>
+     *
+     * @param target The repository's primary map (ID to entity)
+     * @return The number of records applied
+     */
+    public int replay(Map<String, T> target) {
+        synchronized (lock) {
+            List<JsonObject> records = new ArrayList<>();
+            readRecords(rotatedPath, records);
+            readRecords(journalPath, records);
+
+            long watermark = -1;
+            for (JsonObject record : records) {
+                long seq = sequenceOf(record);
+                advanceSequence(seq);
+                if (OP_SNAPSHOT.equals(record.get(FIELD_OP).getAsString())) {
+                    watermark = Math.max(watermark, seq);
+                }
+            }
+
+            Map<String, Long> newest = new HashMap<>();
+            int applied = 0;
+            int skipped = 0;
+            for (JsonObject record : records) {
+                String op = record.get(FIELD_OP).getAsString();
+                if (OP_SNAPSHOT.equals(op)) {
+                    continue;
+                }
+                String id = record.get(FIELD_ID).getAsString();
+                long seq = sequenceOf(record);
+                // Records written before sequence numbers existed (seq -1) keep file order
+                if (seq >= 0 && (seq <= watermark || seq <= newest.getOrDefault(id, -1L))) {
+                    skipped++;
+                    continue;
+                }
+                if (apply(record, op, id, target)) {
+                    newest.put(id, seq);
+                    applied++;
+                }
+            }
+
+            pendingRecords = applied + skipped;
+            if (applied > 0) {
+                Logger.info("RepositoryJournal: Replayed " + applied + " journal records for " + snapshotPath);
+            }
+            if (skipped > 0) {
+                Logger.info("RepositoryJournal: Skipped " + skipped + " outdated journal records for " + snapshotPath);
+            }
+            return applied;
+        }
+    }
+
+    private boolean apply(JsonObject record, String op, String id, Map<String, T> target) {
+        try {
+            if (OP_DELETE.equals(op)) {
+                target.remove(id);
+                return true;
+            }
+            if (OP_PUT.equals(op) && record.has(FIELD_DATA)) {
+                target.put(id, recordGson.fromJson(record.get(FIELD_DATA), entityType));
+                return true;
+            }
+        } catch (JsonParseException e) {
+            Logger.warning("RepositoryJournal: Skipping unreadable record of " + id + " in " + snapshotPath);
+        }
+        return false;
+    }
+
+    private void readRecords(Path file, List<JsonObject> records) {
+        if (!Files.exists(file)) {
+            return;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    JsonObject record = JsonParser.parseString(line).getAsJsonObject();
+                    String op = record.get(FIELD_OP).getAsString();
+                    if (!OP_SNAPSHOT.equals(op)) {
+                        record.get(FIELD_ID).getAsString();
+                    }
+                    records.add(record);
+                } catch (JsonParseException | IllegalStateException | NullPointerException e) {
+                    // Typically a torn last line after a crash; everything before it is still valid
+                    Logger.warning("RepositoryJournal: Skipping corrupt record at " + file + ":" + lineNumber);
+                }
+            }
+        } catch (IOException e) {
+            Logger.error("RepositoryJournal: Error reading journal: " + file, e);
+        }
+    }
+
+    /**
+     * Moves the sequence past a number found on disk, so records written from now on are newer than it.
+     *
+     * @param seen A sequence number read back from a journal or the transaction log
+     */
+    static void advanceSequence(long seen) {
+        SEQUENCE.accumulateAndGet(seen, Math::max);
+    }
+
+    /**
+     * @return The record's sequence number, or -1 for records written before sequence numbers existed
+     */
+    static long sequenceOf(JsonObject record) {
+        JsonElement seq = record.get(FIELD_SEQ);
+        return seq != null && seq.isJsonPrimitive() ? seq.getAsLong() : -1;
+    }
+
+    // =================================================================================================================
+    // COMPACTION
+    // =================================================================================================================
+
+    /**
+     * Folds the journal into a fresh snapshot and discards the folded records.
+     *
+     * <p>The journal is rotated before the snapshot is captured, so any record appended while the
+     * snapshot is being written lands in the new journal and is replayed on the next start.
+     * The snapshot is captured once no {@link RepositoryTransaction} is open. Once it is written, a
+     * {@code SNAP} line with the last sequence number handed out before the rotation is appended to the
+     * new journal, and only then is the rotated journal deleted.</p>
+     */
+    public void compact() {
+        if (RepositoryTransaction.isActive()) {
+            // The snapshot must wait for open transactions, including the caller's own
+            COMPACTOR.execute(this::compact);
+            return;
+        }
+        compact(true);
+    }
+
+    private void compact(boolean waitForTransactions) {
+        long watermark;
+        synchronized (lock) {
+            compactionScheduled = false;
+            if (!rotateJournal()) {
+                return;
+            }
+            pendingRecords = 0;
+            // Every record numbered so far describes a change already made in memory, so the snapshot holds it
+            watermark = SEQUENCE.get();
+        }
+
+        List<T> snapshot = waitForTransactions
+                ? RepositoryTransaction.withoutOpenTransactions(snapshotSupplier)
+                : snapshotSupplier.get();
+        if (!JsonFileHandler.saveToFile(snapshotPath, snapshot, snapshotGson)) {
+            Logger.error("RepositoryJournal: Compaction failed, journal kept for replay: " + rotatedPath);
+            return;
+        }
+
+        JsonObject marker = new JsonObject();
+        marker.addProperty(FIELD_OP, OP_SNAPSHOT);
+        marker.addProperty(FIELD_SEQ, watermark);
+        boolean marked;
+        synchronized (lock) {
+            marked = writeLines(Collections.singletonList(marker));
+        }
+        if (marked) {
+            try {
+                Files.deleteIfExists(rotatedPath);
+            } catch (IOException e) {
+                Logger.error("RepositoryJournal: Could not delete rotated journal: " + rotatedPath, e);
+            }
+        } else {
+            // Without the marker, records recovered late could not be told apart from newer ones
+            Logger.error("RepositoryJournal: Could not mark snapshot, journal kept for replay: " + rotatedPath);
+        }
+    }
+
+    /**
+     * Periodic compaction check. Never throws: an exception escaping a task of
+     * {@code scheduleWithFixedDelay} cancels every later run of it.
+     */
+    private void compactIfDirty() {
+        boolean dirty;
+        synchronized (lock) {
+            dirty = pendingRecords > 0 || Files.exists(rotatedPath);
+        }
+        if (!dirty) {
+            return;
+        }
+        try {
+            compact();
+        } catch (RuntimeException e) {
+            // The rotated journal is only deleted after a successful save, so the next run retries it
+            Logger.error("RepositoryJournal: Compaction failed, journal kept for the next run: " + rotatedPath, e);
+        }
+    }
+
+    /**
+     * Moves the active journal aside so new appends start a fresh file.
+     * If a previous compaction failed, the active journal is appended to the rotated one instead.
+     *
+     * @return {@code false} if rotation failed and compaction must be skipped
+     */
+    private boolean rotateJournal() {
+        try {
+            if (!Files.exists(journalPath)) {
+                return true;
+            }
+            if (Files.exists(rotatedPath)) {
+                Files.write(rotatedPath, Files.readAllBytes(journalPath), StandardOpenOption.APPEND);
+                Files.delete(journalPath);
+            } else {
+                Files.move(journalPath, rotatedPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return true;
+        } catch (IOException e) {
+            Logger.error("RepositoryJournal: Could not rotate journal: " + journalPath, e);
+            return false;
+        }
+    }
+
+    // =================================================================================================================
+    // TRANSACTIONS
+    // =================================================================================================================
+
+    /**
+     * Records and prior states this journal holds for the transaction of the calling thread.
+     */
+    private final class Changes implements RepositoryTransaction.Participant {
+        private final Map<String, JsonObject> records = new LinkedHashMap<>();
+        private final Map<String, JsonElement> before = new HashMap<>();
+
+        @Override
+        public String snapshotPath() {
+            return snapshotPath;
+        }
+
+        @Override
+        public List<JsonObject> records() {
+            return new ArrayList<>(records.values());
+        }
+
+        @Override
+        public void apply() {
+            if (!records.isEmpty()) {
+                append(records());
+            }
+        }
+
+        @Override
+        public void rollback() {
+            DataVersion.increment();
+            for (String id : records.keySet()) {
+                JsonElement image = before.get(id);
+                if (image == null) {
+                    Logger.warning("RepositoryJournal: No prior state of " + id + " in " + snapshotPath + ", keeping it");
+                } else {
+                    rollbackHandler.accept(id, image.isJsonNull() ? null : recordGson.fromJson(image, entityType));
+                }
+            }
+        }
+    }
+
+    // =================================================================================================================
+    // RECORD FORMAT
+    // =================================================================================================================
+
+    /**
+     * Builds a single journal line with the next sequence number. {@code data} is omitted for deletes.
+     * Called after the entity changed in memory, which the compaction watermark relies on.
+     */
+    private static JsonObject toRecord(String op, String id, JsonElement data) {
+        JsonObject record = new JsonObject();
+        record.addProperty(FIELD_OP, op);
+        record.addProperty(FIELD_ID, id);
+        record.addProperty(FIELD_SEQ, SEQUENCE.incrementAndGet());
+        if (data != null) {
+            record.add(FIELD_DATA, data);
+        }
+        return record;
+    }
+}
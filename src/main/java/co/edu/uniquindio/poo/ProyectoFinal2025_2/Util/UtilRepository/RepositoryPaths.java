@@ -12,6 +12,8 @@ package co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository;
  *     <li><b>Person Entities:</b> {@link #ADMINS_PATH}, {@link #USERS_PATH}, {@link #DELIVERY_PERSONS_PATH}</li>
  *     <li><b>Business Entities:</b> {@link #ORDERS_PATH}, {@link #SHIPMENTS_PATH}, {@link #PAYMENTS_PATH}</li>
  *     <li><b>Supporting Entities:</b> {@link #INVOICES_PATH}, {@link #TARIFFS_PATH}, {@link #VEHICLES_PATH}, {@link #ADDRESSES_PATH}</li>
+ *     <li><b>Transactions:</b> {@link #TRANSACTIONS_PATH}</li>
+ *     <li><b>Analytics:</b> {@link #ANALYTICS_DIR}</li>
  * </ul>
  *
  * <p><b>Usage Examples:</b></p>
@@ -47,7 +49,9 @@ package co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository;
  * ├── invoices.json
  * ├── tariffs.json
  * ├── vehicles.json
- * └── addresses.json
+ * ├── addresses.json
+ * ├── transactions.journal   (only while a transaction is being committed)
+ * └── analytics/             (column files, rebuilt on every start)
  * </pre>
  *
  * @author Sistema de Gestión de Envíos
@@ -77,8 +81,10 @@ public final class RepositoryPaths {
     /**
      * Base directory for all data files.
      * All repository JSON files are stored under this directory.
+     * It can be redirected with the {@code app.data.dir} system property, e.g. so benchmarks
+     * run against a scratch directory instead of the real data.
      */
-    public static final String DATA_DIR = "data";
+    public static final String DATA_DIR = System.getProperty("app.data.dir", "data");
 
     // =================================================================================================================
     // PERSON ENTITY PATHS
@@ -179,4 +185,28 @@ public final class RepositoryPaths {
      * <p><b>Contains:</b> Address entities for deliveries and users</p>
      */
     public static final String ADDRESSES_PATH = DATA_DIR + "/addresses.json";
+
+    // =================================================================================================================
+    // TRANSACTION LOG
+    // =================================================================================================================
+
+    /**
+     * File path for the log of multi-repository transactions.
+     *
+     * <p><b>Used by:</b> {@code RepositoryTransaction}</p>
+     * <p><b>Contains:</b> One line per committed transaction with the journal records of every repository it changed</p>
+     */
+    public static final String TRANSACTIONS_PATH = DATA_DIR + "/transactions.journal";
+
+    // =================================================================================================================
+    // ANALYTICS
+    // =================================================================================================================
+
+    /**
+     * Directory of the memory-mapped column files used for report aggregations.
+     *
+     * <p><b>Used by:</b> {@code ShipmentColumnStore}, {@code InvoiceColumnStore}</p>
+     * <p><b>Contains:</b> One {@code .col} file per column; derived from the repositories and rebuilt when they load</p>
+     */
+    public static final String ANALYTICS_DIR = DATA_DIR + "/analytics";
 }
@@ -0,0 +1,404 @@
+package co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository;
+
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.Logger;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Unit of work spanning the journaled repositories (orders, shipments, payments and invoices).
+ *
+ * <p>Inside {@link #execute(Supplier)} the repositories keep updating their in-memory maps at once,
+ * but their {@link RepositoryJournal}s hold the records back instead of appending them. When the work
+ * returns, the records of every repository it touched are written as one line of the transaction log
+ * ({@link RepositoryPaths#TRANSACTIONS_PATH}); that single write is the commit point. The records are
+ * then appended to each repository's own journal and the log entry is retired. If the work throws,
+ * nothing is written and every entity it changed is put back in memory as it was.</p>
+ *
+ * <p><b>Usage Examples:</b></p>
+ * <pre>
+ * // In Services:
+ * return RepositoryTransaction.execute(() -&gt; {
+ *     paymentRepository.addPayment(payment);
+ *     orderService.confirmOrderPayment(orderId, payment.getId());   // may throw: the payment is undone
+ *     return payment;
+ * });
+ * </pre>
+ *
+ * <p><b>Crash Safety:</b></p>
+ * <ul>
+ *     <li>A torn log line is skipped, so a transaction is in the log either whole or not at all</li>
+ *     <li>On the next start, logged transactions that were not retired are appended to the repository
+ *         journals before the first repository replays its journal</li>
+ *     <li>An entry may be appended again after it reached the journals, when recovery stopped half-way or
+ *         the retirement line was not written. Records carry full entities and sequence numbers, and
+ *         replay skips a record older than what the journal or snapshot already holds for that entity,
+ *         so a late copy never overwrites newer writes</li>
+ * </ul>
+ *
+ * <p><b>Rollback:</b> an entity is restored to the state it had the first time the work read it with
+ * {@code findById} or wrote it. Entities changed in place must be read with {@code findById} inside
+ * the work, or their earlier state is already lost when the repository sees them.</p>
+ *
+ * <p><b>Isolation:</b> none beyond the repositories' own locks; other threads see the changes in memory
+ * before the commit. Journal compaction waits for open transactions, so uncommitted changes never
+ * reach a snapshot. Nested calls join the outer transaction.</p>
+ *
+ * @author Sistema de Gestión de Envíos
+ * @version 1.0
+ * @since 2025
+ * @see RepositoryJournal
+ */
+public final class RepositoryTransaction {
+
+    // =================================================================================================================
+    // CONSTANTS
+    // =================================================================================================================
+
+    private static final String FIELD_TX = "tx";
+    private static final String FIELD_CHANGES = "changes";
+    private static final String FIELD_DONE = "done";
+
+    private static final ThreadLocal<RepositoryTransaction> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Held shared by every open transaction and exclusively while a journal captures its snapshot.
+     */
+    private static final ReentrantReadWriteLock SNAPSHOT_GATE = new ReentrantReadWriteLock();
+
+    private static final Path LOG_PATH = Paths.get(RepositoryPaths.TRANSACTIONS_PATH);
+    private static final Object LOG_LOCK = new Object();
+
+    // Guarded by LOG_LOCK
+    private static int unretiredCommits;
+    private static boolean recovered;
+    private static boolean unrecoveredEntries;
+
+    // =================================================================================================================
+    // FIELDS
+    // =================================================================================================================
+
+    private final String id = UUID.randomUUID().toString();
+    private final Map<Object, Participant> participants = new LinkedHashMap<>();
+    private boolean rollbackOnly;
+
+    private RepositoryTransaction() {
+    }
+
+    // =================================================================================================================
+    // EXECUTION
+    // =================================================================================================================
+
+    /**
+     * Runs work as one transaction over the journaled repositories.
+     *
+     * @param work The repository changes; joins the current transaction if there is one
+     * @param <R>  The result type
+     * @return The result of {@code work}
+     * @throws IllegalStateException if the transaction log cannot be written (the work is rolled back)
+     */
+    public static <R> R execute(Supplier<R> work) {
+        RepositoryTransaction outer = CURRENT.get();
+        if (outer != null) {
+            try {
+                return work.get();
+            } catch (RuntimeException | Error e) {
+                outer.rollbackOnly = true;
+                throw e;
+            }
+        }
+
+        RepositoryTransaction transaction = new RepositoryTransaction();
+        boolean logged;
+        R result;
+        SNAPSHOT_GATE.readLock().lock();
+        CURRENT.set(transaction);
+        try {
+            result = work.get();
+            if (transaction.rollbackOnly) {
+                throw new IllegalStateException("Transaction rolled back: a nested unit of work failed");
+            }
+            logged = transaction.writeLog();
+        } catch (RuntimeException | Error e) {
+            transaction.rollback();
+            throw e;
+        } finally {
+            CURRENT.remove();
+            SNAPSHOT_GATE.readLock().unlock();
+        }
+
+        if (logged) {
+            transaction.apply();
+        }
+        return result;
+    }
+
+    /**
+     * Returns whether the calling thread is inside a transaction.
+     *
+     * @return {@code true} within {@link #execute(Supplier)}
+     */
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * Returns the participant of an owner in the current transaction, creating it on first use.
+     *
+     * @param owner   The journal taking part
+     * @param factory Creates the participant
+     * @param <P>     The participant type
+     * @return The participant, or null when the calling thread is not in a transaction
+     */
+    @SuppressWarnings("unchecked")
+    static <P extends Participant> P enlist(Object owner, Supplier<P> factory) {
+        RepositoryTransaction transaction = CURRENT.get();
+        if (transaction == null) {
+            return null;
+        }
+        return (P) transaction.participants.computeIfAbsent(owner, k -> factory.get());
+    }
+
+    /**
+     * Runs an action once no transaction is open, keeping new ones from starting meanwhile.
+     *
+     * @param action Typically the capture of a journal snapshot
+     * @param <R>    The result type
+     * @return The result of {@code action}
+     */
+    static <R> R withoutOpenTransactions(Supplier<R> action) {
+        SNAPSHOT_GATE.writeLock().lock();
+        try {
+            return action.get();
+        } finally {
+            SNAPSHOT_GATE.writeLock().unlock();
+        }
+    }
+
+    // =================================================================================================================
+    // COMMIT AND ROLLBACK
+    // =================================================================================================================
+
+    /**
+     * Writes all held records as one log line.
+     *
+     * @return {@code false} if the work changed nothing
+     */
+    private boolean writeLog() {
+        JsonObject changes = new JsonObject();
+        for (Participant participant : participants.values()) {
+            List<JsonObject> records = participant.records();
+            if (!records.isEmpty()) {
+                JsonArray array = new JsonArray();
+                records.forEach(array::add);
+                changes.add(participant.snapshotPath(), array);
+            }
+        }
+        if (changes.size() == 0) {
+            return false;
+        }
+
+        JsonObject entry = new JsonObject();
+        entry.addProperty(FIELD_TX, id);
+        entry.add(FIELD_CHANGES, changes);
+        synchronized (LOG_LOCK) {
+            if (!appendLine(entry)) {
+                throw new IllegalStateException("Could not write transaction log: " + LOG_PATH);
+            }
+            unretiredCommits++;
+        }
+        return true;
+    }
+
+    /**
+     * Appends the committed records to the repository journals and retires the log entry.
+     * The log is deleted once no commit is left to retire.
+     */
+    private void apply() {
+        for (Participant participant : participants.values()) {
+            participant.apply();
+        }
+
+        synchronized (LOG_LOCK) {
+            unretiredCommits--;
+            try {
+                if (unretiredCommits == 0 && !unrecoveredEntries) {
+                    Files.deleteIfExists(LOG_PATH);
+                    return;
+                }
+            } catch (IOException e) {
+                Logger.warning("RepositoryTransaction: Could not delete transaction log, marking entry as done");
+            }
+            JsonObject done = new JsonObject();
+            done.addProperty(FIELD_DONE, id);
+            appendLine(done);
+        }
+    }
+
+    private void rollback() {
+        Logger.warning("RepositoryTransaction: Rolling back transaction " + id);
+        for (Participant participant : participants.values()) {
+            try {
+                participant.rollback();
+            } catch (RuntimeException e) {
+                Logger.error("RepositoryTransaction: Rollback failed for " + participant.snapshotPath(), e);
+            }
+        }
+    }
+
+    private static boolean appendLine(JsonObject line) {
+        try {
+            if (!JsonFileHandler.ensureDirectoryExists(LOG_PATH.toString())) {
+                return false;
+            }
+            // One write call per line, so a crash leaves at most a torn last line
+            Files.write(LOG_PATH, (line + System.lineSeparator()).getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            return true;
+        } catch (IOException e) {
+            Logger.error("RepositoryTransaction: Error appending to transaction log: " + LOG_PATH, e);
+            return false;
+        }
+    }
+
+    // =================================================================================================================
+    // RECOVERY
+    // =================================================================================================================
+
+    /**
+     * Appends the records of logged but unretired transactions to the repository journals.
+     *
+     * <p>Runs once per process, from the first {@link RepositoryJournal} constructor, so before any
+     * repository replays its journal. The log is kept if a journal cannot be written, and its entries
+     * are appended again on the next start; see the crash safety notes of the class.</p>
+     */
+    static void recover() {
+        synchronized (LOG_LOCK) {
+            if (recovered) {
+                return;
+            }
+            recovered = true;
+            if (!Files.exists(LOG_PATH)) {
+                return;
+            }
+
+            Map<String, JsonObject> pending = readUnretired();
+            boolean complete = true;
+            for (JsonObject changes : pending.values()) {
+                for (Map.Entry<String, JsonElement> file : changes.entrySet()) {
+                    JsonArray records = file.getValue().getAsJsonArray();
+                    // Even records that stay in the log must be older than anything written from now on
+                    for (JsonElement record : records) {
+                        RepositoryJournal.advanceSequence(RepositoryJournal.sequenceOf(record.getAsJsonObject()));
+                    }
+                    complete &= appendToJournal(file.getKey(), records);
+                }
+            }
+
+            if (!complete) {
+                unrecoveredEntries = true;
+                Logger.error("RepositoryTransaction: Recovery incomplete, transaction log kept: " + LOG_PATH);
+                return;
+            }
+            try {
+                Files.deleteIfExists(LOG_PATH);
+            } catch (IOException e) {
+                Logger.error("RepositoryTransaction: Could not delete transaction log: " + LOG_PATH, e);
+            }
+            if (!pending.isEmpty()) {
+                Logger.info("RepositoryTransaction: Recovered " + pending.size() + " committed transactions");
+            }
+        }
+    }
+
+    private static Map<String, JsonObject> readUnretired() {
+        Map<String, JsonObject> pending = new LinkedHashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(LOG_PATH, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    JsonObject entry = JsonParser.parseString(line).getAsJsonObject();
+                    if (entry.has(FIELD_DONE)) {
+                        pending.remove(entry.get(FIELD_DONE).getAsString());
+                    } else {
+                        pending.put(entry.get(FIELD_TX).getAsString(), entry.getAsJsonObject(FIELD_CHANGES));
+                    }
+                } catch (JsonParseException | IllegalStateException | NullPointerException | ClassCastException e) {
+                    // A torn last line is a transaction that never committed
+                    Logger.warning("RepositoryTransaction: Skipping corrupt transaction log entry");
+                }
+            }
+        } catch (IOException e) {
+            Logger.error("RepositoryTransaction: Error reading transaction log: " + LOG_PATH, e);
+        }
+        return pending;
+    }
+
+    private static boolean appendToJournal(String snapshotPath, JsonArray records) {
+        Path journal = Paths.get(RepositoryJournal.journalPathFor(snapshotPath));
+        StringBuilder lines = new StringBuilder();
+        for (JsonElement record : records) {
+            lines.append(record).append(System.lineSeparator());
+        }
+        try {
+            if (!JsonFileHandler.ensureDirectoryExists(journal.toString())) {
+                return false;
+            }
+            Files.write(journal, lines.toString().getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            return true;
+        } catch (IOException e) {
+            Logger.error("RepositoryTransaction: Error appending recovered records to " + journal, e);
+            return false;
+        }
+    }
+
+    // =================================================================================================================
+    // PARTICIPANTS
+    // =================================================================================================================
+
+    /**
+     * Changes one journal holds back during a transaction.
+     */
+    interface Participant {
+
+        /**
+         * @return The snapshot path identifying the journal
+         */
+        String snapshotPath();
+
+        /**
+         * @return The held records, one per changed entity
+         */
+        List<JsonObject> records();
+
+        /**
+         * Appends the held records to the journal after the commit.
+         */
+        void apply();
+
+        /**
+         * Restores the in-memory state of every changed entity.
+         */
+        void rollback();
+    }
+}
@@ -0,0 +1,148 @@
+package co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository;
+
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.AddressRepository;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.AdminRepository;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.DeliveryPersonRepository;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.InvoiceRepository;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.OrderRepository;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.PaymentMethodRepository;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.PaymentRepository;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.ShipmentRepository;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.TariffRepository;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.UserRepository;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.VehicleRepository;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.Logger;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Loads every repository in parallel on background threads when the application starts.
+ *
+ * <p>Each repository reads its whole file the first time its {@code getInstance()} is called. Without a
+ * warm-up that happens one repository at a time, on the JavaFX thread, whenever a screen first touches it.
+ * {@link #start()} calls every {@code getInstance()} from a small pool instead, largest files first, while
+ * the first screen is being built.</p>
+ *
+ * <p>Nothing has to wait for the warm-up as a whole: {@code getInstance()} is synchronized, so a screen
+ * that needs a repository still being loaded blocks until that one is ready and no longer, while
+ * repositories it does not use keep loading behind it.</p>
+ *
+ * <p><b>Report:</b> each load is logged with its time and entity count, then a summary compares the wall
+ * time with the sum of the loads. A repository some other thread started loading first is reported with
+ * the time spent waiting for it.</p>
+ *
+ * @author Sistema de Gestión de Envíos
+ * @version 1.0
+ * @since 2025
+ */
+public final class RepositoryWarmup {
+
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    // Guarded by RepositoryWarmup.class
+    private static CompletableFuture<Void> warmup;
+
+    private RepositoryWarmup() {
+        // Prevent instantiation
+    }
+
+    /**
+     * Starts loading all repositories in the background. Later calls return the same warm-up.
+     *
+     * @return Completes once every repository has been loaded (or has failed to)
+     */
+    public static synchronized CompletableFuture<Void> start() {
+        if (warmup != null) {
+            return warmup;
+        }
+
+        // Shipments and orders are the largest files; queue them first so they don't finish last
+        List<Load<?>> loads = List.of(
+                new Load<>("ShipmentRepository", ShipmentRepository::getInstance, r -> r.findAll().size()),
+                new Load<>("OrderRepository", OrderRepository::getInstance, r -> r.findAll().size()),
+                new Load<>("PaymentRepository", PaymentRepository::getInstance, r -> r.findAll().size()),
+                new Load<>("InvoiceRepository", InvoiceRepository::getInstance, r -> r.findAll().size()),
+                new Load<>("UserRepository", UserRepository::getInstance, r -> r.getUsers().size()),
+                new Load<>("AddressRepository", AddressRepository::getInstance, r -> r.findAll().size()),
+                new Load<>("DeliveryPersonRepository", DeliveryPersonRepository::getInstance,
+                        r -> r.getAllDeliveryPersons().size()),
+                new Load<>("VehicleRepository", VehicleRepository::getInstance, r -> r.findAll().size()),
+                new Load<>("PaymentMethodRepository", PaymentMethodRepository::getInstance, r -> r.findAll().size()),
+                new Load<>("AdminRepository", AdminRepository::getInstance, r -> r.getAdmins().size()),
+                new Load<>("TariffRepository", TariffRepository::getInstance, r -> r.findAll().size()));
+
+        int threads = Math.max(2, Math.min(Runtime.getRuntime().availableProcessors(), loads.size()));
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "repository-warmup-" + THREAD_NUMBER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long startNanos = System.nanoTime();
+        CompletableFuture<?>[] futures = loads.stream()
+                .map(load -> CompletableFuture.runAsync(load::run, executor))
+                .toArray(CompletableFuture[]::new);
+        executor.shutdown();
+
+        Logger.info("RepositoryWarmup: Loading " + loads.size() + " repositories on " + threads + " threads");
+        warmup = CompletableFuture.allOf(futures).whenComplete((ignored, error) -> logSummary(loads, startNanos));
+        return warmup;
+    }
+
+    private static void logSummary(List<Load<?>> loads, long startNanos) {
+        long wallMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        long loadMillis = 0;
+        int entities = 0;
+        int failed = 0;
+        for (Load<?> load : loads) {
+            loadMillis += load.millis;
+            if (load.count >= 0) {
+                entities += load.count;
+            } else {
+                failed++;
+            }
+        }
+        Logger.info("RepositoryWarmup: " + (loads.size() - failed) + " repositories, " + entities
+                + " entities ready in " + wallMillis + " ms (" + loadMillis + " ms of loading)"
+                + (failed > 0 ? ", " + failed + " failed" : ""));
+    }
+
+    /**
+     * The load of one repository and its outcome.
+     */
+    private static final class Load<R> {
+        private final String name;
+        private final Supplier<R> repository;
+        private final ToIntFunction<R> counter;
+
+        // Written by the loading thread, read after the warm-up completes
+        private volatile long millis;
+        private volatile int count = -1;
+
+        private Load(String name, Supplier<R> repository, ToIntFunction<R> counter) {
+            this.name = name;
+            this.repository = repository;
+            this.counter = counter;
+        }
+
+        private void run() {
+            long startNanos = System.nanoTime();
+            try {
+                R instance = repository.get();
+                millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+                count = counter.applyAsInt(instance);
+                Logger.info("RepositoryWarmup: " + name + " loaded " + count + " entities in " + millis + " ms");
+            } catch (RuntimeException e) {
+                millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+                Logger.error("RepositoryWarmup: " + name + " failed to load", e);
+            }
+        }
+    }
+}
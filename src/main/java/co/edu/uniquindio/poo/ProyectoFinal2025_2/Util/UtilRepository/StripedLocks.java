@@ -0,0 +1,94 @@
+package co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository;
+
+import java.util.Collection;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Fixed set of locks shared by entity IDs, for read-modify-write sequences on single entities.
+ *
+ * <p>Repository methods are atomic one by one, but a service that reads an entity, checks it and
+ * writes it back spans several calls. Holding the entity's stripe for the whole sequence makes two
+ * such sequences on the same entity run one after the other, while sequences on other entities
+ * (almost always on other stripes) run in parallel. The locks are reentrant, so a locked sequence
+ * may call another one for the same entity.</p>
+ *
+ * <p><b>Lock Ordering:</b> {@link #withLocks(Collection, Supplier)} acquires stripes in ascending
+ * index order, so batches cannot deadlock with each other or with single-entity sequences.</p>
+ *
+ * @author Sistema de Gestión de Envíos
+ * @version 1.0
+ * @since 2025
+ */
+public final class StripedLocks {
+
+    private final ReentrantLock[] stripes;
+
+    /**
+     * Creates the lock set.
+     *
+     * @param stripeCount Number of locks, rounded up to a power of two
+     */
+    public StripedLocks(int stripeCount) {
+        int size = 1;
+        while (size < stripeCount) {
+            size <<= 1;
+        }
+        stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Runs an action while holding the stripe of one key.
+     *
+     * @param key    The entity ID (null uses stripe 0)
+     * @param action The read-modify-write sequence
+     * @param <R>    The result type
+     * @return The action's result
+     */
+    public <R> R withLock(Object key, Supplier<R> action) {
+        ReentrantLock lock = stripes[indexOf(key)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs an action while holding the stripes of several keys.
+     *
+     * @param keys   The entity IDs
+     * @param action The sequence touching those entities
+     * @param <R>    The result type
+     * @return The action's result
+     */
+    public <R> R withLocks(Collection<?> keys, Supplier<R> action) {
+        TreeSet<Integer> indexes = new TreeSet<>();
+        for (Object key : keys) {
+            indexes.add(indexOf(key));
+        }
+        for (int index : indexes) {
+            stripes[index].lock();
+        }
+        try {
+            return action.get();
+        } finally {
+            for (int index : indexes.descendingSet()) {
+                stripes[index].unlock();
+            }
+        }
+    }
+
+    private int indexOf(Object key) {
+        if (key == null) {
+            return 0;
+        }
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (stripes.length - 1);
+    }
+}
@@ -0,0 +1,265 @@
+package co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository;
+
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.Logger;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Write-behind scheduler that coalesces the full-file saves of repositories.
+ *
+ * <p>Repositories that rewrite their whole JSON file on every change call
+ * {@link #markDirty(String, BooleanSupplier)} instead of saving right away. The first mark of a file starts
+ * a timer of {@link #FLUSH_DELAY_MILLIS}; further marks within that window join the same pending
+ * write, so one user action that touches a repository several times costs a single rewrite.</p>
+ *
+ * <p><b>Usage Examples:</b></p>
+ * <pre>
+ * // In Repositories - Mutations:
+ * usersById.put(user.getId(), user);
+ * WriteBehindFlusher.getInstance().markDirty(RepositoryPaths.USERS_PATH, this::saveToFile);
+ *
+ * // On application close:
+ * WriteBehindFlusher.getInstance().flush();
+ * </pre>
+ *
+ * <p><b>Data-Loss Bound:</b> the timer is never postponed by later marks, so a change reaches disk at
+ * most {@link #FLUSH_DELAY_MILLIS} plus the duration of the write after it was made. {@link #flush()}
+ * writes everything pending immediately; it runs on application close and from a JVM shutdown hook.
+ * The window comes from the {@code app.persistence.flushDelayMillis} system property
+ * (default {@value #DEFAULT_FLUSH_DELAY_MILLIS}); 0 saves synchronously on every mark.</p>
+ *
+ * <p><b>Failed Writes:</b> a save that fails is retried with exponential backoff, starting at the
+ * coalescing window and capped at {@link #MAX_RETRY_DELAY_MILLIS}. Retries do not bump {@link DataVersion},
+ * as the data did not change. After {@link #MAX_SAVE_ATTEMPTS} consecutive failures the file is reported
+ * once and left alone until the repository changes again or {@link #flush()} runs on close; a file whose
+ * load failed ({@link JsonFileHandler#isSaveBlocked(String)}) is never retried.</p>
+ *
+ * <p><b>Thread Safety:</b> save actions run on a background thread (or the thread calling
+ * {@link #flush()}), one at a time. They must take the repository's own lock while they read its
+ * data, as the repository keeps changing it meanwhile.</p>
+ *
+ * @author Sistema de Gestión de Envíos
+ * @version 1.0
+ * @since 2025
+ * @see JsonFileHandler
+ * @see RepositoryJournal
+ */
+public final class WriteBehindFlusher {
+
+    // =================================================================================================================
+    // CONSTANTS
+    // =================================================================================================================
+
+    /**
+     * Coalescing window used when the {@code app.persistence.flushDelayMillis} property is not set.
+     */
+    public static final long DEFAULT_FLUSH_DELAY_MILLIS = 200;
+
+    /**
+     * Maximum time a marked file waits before it is written; 0 disables write-behind.
+     */
+    public static final long FLUSH_DELAY_MILLIS =
+            Math.max(0, Long.getLong("app.persistence.flushDelayMillis", DEFAULT_FLUSH_DELAY_MILLIS));
+
+    /**
+     * Consecutive failed saves of a file after which it is reported and no longer retried on a timer.
+     */
+    public static final int MAX_SAVE_ATTEMPTS = 8;
+
+    /**
+     * Upper bound of the delay between two retries of a failed save.
+     */
+    public static final long MAX_RETRY_DELAY_MILLIS = 30_000;
+
+    private static WriteBehindFlusher instance;
+
+    // =================================================================================================================
+    // FIELDS
+    // =================================================================================================================
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "repository-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** Pending save actions by file, in the order the files were first marked. */
+    private final Map<String, BooleanSupplier> pendingSaves = new LinkedHashMap<>();
+    private final Object lock = new Object();
+    private final Object flushLock = new Object();
+    private boolean flushScheduled;
+
+    /** Consecutive failed saves by file; cleared on the next successful save. */
+    private final Map<String, Integer> failedAttempts = new HashMap<>();
+    /** Latest save action of every file whose last save failed, retried by {@link #flush()}. */
+    private final Map<String, BooleanSupplier> failedSaves = new HashMap<>();
+    /** Files with a backoff retry on the timer. */
+    private final Set<String> retriesScheduled = new HashSet<>();
+
+    // =================================================================================================================
+    // CONSTRUCTOR
+    // =================================================================================================================
+
+    private WriteBehindFlusher() {
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "repository-flusher-shutdown"));
+    }
+
+    /**
+     * Returns the shared flusher.
+     *
+     * @return the unique instance of {@code WriteBehindFlusher}
+     */
+    public static synchronized WriteBehindFlusher getInstance() {
+        if (instance == null) {
+            instance = new WriteBehindFlusher();
+        }
+        return instance;
+    }
+
+    // =================================================================================================================
+    // SCHEDULING
+    // =================================================================================================================
+
+    /**
+     * Records that a file must be rewritten and schedules the write if none is pending.
+     *
+     * @param filePath The data file, used to coalesce marks of the same file
+     * @param save     Writes the file with the repository's current state; returns {@code false} if the write failed
+     */
+    public void markDirty(String filePath, BooleanSupplier save) {
+        DataVersion.increment();
+        if (FLUSH_DELAY_MILLIS == 0) {
+            runSave(filePath, save);
+            return;
+        }
+        synchronized (lock) {
+            pendingSaves.put(filePath, save);
+            if (!flushScheduled) {
+                flushScheduled = true;
+                scheduler.schedule(this::flushScheduled, FLUSH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Writes every pending file now, on the calling thread, and tries once more every file whose last
+     * save failed. Returns once all of them have been written, including any write already in progress.
+     */
+    public void flush() {
+        writePending(true);
+    }
+
+    /**
+     * Writes the pending files; run by the coalescing timer.
+     */
+    private void flushScheduled() {
+        writePending(false);
+    }
+
+    private void writePending(boolean includeFailed) {
+        synchronized (flushLock) {
+            Map<String, BooleanSupplier> saves;
+            synchronized (lock) {
+                flushScheduled = false;
+                saves = new LinkedHashMap<>(pendingSaves);
+                pendingSaves.clear();
+                if (includeFailed) {
+                    failedSaves.forEach(saves::putIfAbsent);
+                }
+            }
+            for (Map.Entry<String, BooleanSupplier> save : saves.entrySet()) {
+                runSave(save.getKey(), save.getValue());
+            }
+        }
+    }
+
+    /**
+     * Retries a failed save when its backoff delay expires, unless a newer mark already covers it.
+     */
+    private void retrySave(String filePath) {
+        synchronized (flushLock) {
+            BooleanSupplier save;
+            synchronized (lock) {
+                retriesScheduled.remove(filePath);
+                save = failedSaves.get(filePath);
+                if (save == null || pendingSaves.containsKey(filePath)) {
+                    return;
+                }
+            }
+            runSave(filePath, save);
+        }
+    }
+
+    /**
+     * Returns whether some file has changes that are not written yet.
+     *
+     * @return {@code true} if a flush is pending
+     */
+    public boolean hasPendingWrites() {
+        synchronized (lock) {
+            return !pendingSaves.isEmpty();
+        }
+    }
+
+    private void runSave(String filePath, BooleanSupplier save) {
+        boolean saved;
+        try {
+            saved = save.getAsBoolean();
+        } catch (RuntimeException e) {
+            Logger.error("WriteBehindFlusher: Save threw an exception: " + filePath, e);
+            saved = false;
+        }
+        if (saved) {
+            Integer failures;
+            synchronized (lock) {
+                failures = failedAttempts.remove(filePath);
+                failedSaves.remove(filePath);
+            }
+            if (failures != null && failures >= MAX_SAVE_ATTEMPTS) {
+                Logger.info("WriteBehindFlusher: Save succeeded again: " + filePath);
+            }
+            return;
+        }
+        if (JsonFileHandler.isSaveBlocked(filePath)) {
+            // A blocked file is refused on purpose; retrying would not change that
+            return;
+        }
+
+        int failures;
+        long retryDelay = 0;
+        synchronized (lock) {
+            failures = failedAttempts.merge(filePath, 1, Integer::sum);
+            failedSaves.put(filePath, save);
+            if (failures < MAX_SAVE_ATTEMPTS && FLUSH_DELAY_MILLIS > 0 && retriesScheduled.add(filePath)) {
+                retryDelay = retryDelayMillis(failures);
+                scheduler.schedule(() -> retrySave(filePath), retryDelay, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (retryDelay > 0) {
+            Logger.warning("WriteBehindFlusher: Save failed (attempt " + failures + "), retrying in "
+                    + retryDelay + " ms: " + filePath);
+        } else if (failures < MAX_SAVE_ATTEMPTS) {
+            Logger.warning("WriteBehindFlusher: Save failed (attempt " + failures + "): " + filePath);
+        } else if (failures == MAX_SAVE_ATTEMPTS) {
+            Logger.error("WriteBehindFlusher: Save failed " + failures + " times, giving up until the data "
+                    + "changes again or the application closes: " + filePath);
+        }
+    }
+
+    /**
+     * Returns the backoff delay after a number of consecutive failures: the coalescing window doubled
+     * per failure, capped at {@link #MAX_RETRY_DELAY_MILLIS}.
+     */
+    private static long retryDelayMillis(int failures) {
+        int shift = Math.min(failures - 1, 20);
+        return Math.min(FLUSH_DELAY_MILLIS << shift, MAX_RETRY_DELAY_MILLIS);
+    }
+}
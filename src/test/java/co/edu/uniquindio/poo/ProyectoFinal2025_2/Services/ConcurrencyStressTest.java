@@ -0,0 +1,372 @@
+package co.edu.uniquindio.poo.ProyectoFinal2025_2.Services;
+
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.ShipmentStatus;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Observer.ShipmentEventBus;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Shipment;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.StatusChange;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.User;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.ShipmentAggregates;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.ShipmentRepository;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.UserRepository;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.Seeder.SyntheticDataSeeder;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.WriteBehindFlusher;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Stress test for the thread safety of the repositories and of the locked update paths of
+ * {@link ShipmentService}.
+ *
+ * <p>Every test starts all its writer threads at once on the same entities, while reader threads keep
+ * copying and querying the repositories, and checks its invariants once the writers are done. Afterwards
+ * {@code findByStatus} and the {@link ShipmentAggregates} counters must match a full scan.</p>
+ *
+ * <p>The repositories are singletons that read {@code app.data.dir} once, so the data directory is
+ * pointed at a temporary directory before any of them is loaded. The JavaFX toolkit is not started, so
+ * {@code NotificationObserver} logs a "Toolkit not initialized" error for status events; the event bus
+ * isolates observer failures and they do not affect the checks.</p>
+ *
+ * <p>Load can be raised with {@code -Dstress.threads}, {@code -Dstress.readers}, {@code -Dstress.shipments}
+ * and {@code -Dstress.inserts}.</p>
+ */
+@Timeout(value = 2, unit = TimeUnit.MINUTES)
+class ConcurrencyStressTest {
+
+    private static final int THREADS = Integer.getInteger("stress.threads", 16);
+    private static final int READERS = Integer.getInteger("stress.readers", 4);
+    private static final int SHIPMENTS = Integer.getInteger("stress.shipments", 300);
+    private static final int INSERTS = Integer.getInteger("stress.inserts", 100);
+    private static final long SEED = 42;
+
+    private static final List<ShipmentStatus> DELIVERY_CHAIN = List.of(
+            ShipmentStatus.IN_TRANSIT, ShipmentStatus.OUT_FOR_DELIVERY, ShipmentStatus.DELIVERED);
+
+    @TempDir
+    static Path dataDir;
+
+    private static SyntheticDataSeeder seeder;
+
+    /** Violated invariants and unexpected exceptions, from any thread. */
+    private final ConcurrentLinkedQueue<String> failures = new ConcurrentLinkedQueue<>();
+
+    @BeforeAll
+    static void useTemporaryDataDir() {
+        // Must happen before any repository or RepositoryPaths is loaded
+        System.setProperty("app.data.dir", dataDir.toString());
+        seeder = new SyntheticDataSeeder(SEED);
+        seeder.seedRepositories(50, 10, 1000);
+    }
+
+    @AfterAll
+    static void stopBackgroundWriters() {
+        WriteBehindFlusher.getInstance().flush();
+        ShipmentEventBus.getInstance().shutdown(2000);
+    }
+
+    @BeforeEach
+    void clearFailures() {
+        failures.clear();
+    }
+
+    // ===========================
+    // Tests
+    // ===========================
+
+    @Test
+    void cancellationRaceCancelsEachShipmentOnce() throws InterruptedException {
+        ShipmentService shipmentService = new ShipmentService();
+        List<String> ids = addShipments(seeder.unassignedShipments(SHIPMENTS));
+        Map<String, AtomicInteger> successes = counters(ids);
+
+        run("Cancellation race", thread -> {
+            for (String id : shuffled(ids, SEED + thread)) {
+                try {
+                    if (shipmentService.cancelShipment(id)) {
+                        successes.get(id).incrementAndGet();
+                    }
+                } catch (IllegalArgumentException e) {
+                    // Expected for every thread but the first: the shipment is no longer pending
+                }
+            }
+        });
+
+        ShipmentRepository repository = ShipmentRepository.getInstance();
+        for (String id : ids) {
+            check(successes.get(id).get() == 1, id + " cancelled " + successes.get(id) + " times");
+            Shipment shipment = repository.findById(id).orElse(null);
+            if (shipment == null) {
+                failures.add(id + " disappeared after cancellation");
+                continue;
+            }
+            check(shipment.getStatus() == ShipmentStatus.CANCELLED, id + " ended as " + shipment.getStatus());
+            check(countChanges(shipment, ShipmentStatus.CANCELLED) == 1,
+                    id + " has " + countChanges(shipment, ShipmentStatus.CANCELLED) + " cancellations in its history");
+        }
+        checkIndexes();
+        assertNoFailures();
+    }
+
+    @Test
+    void statusRaceAppliesEachTransitionOnce() throws InterruptedException {
+        ShipmentService shipmentService = new ShipmentService();
+        List<Shipment> ready = seeder.unassignedShipments(SHIPMENTS);
+        for (Shipment shipment : ready) {
+            shipment.setStatus(ShipmentStatus.READY_FOR_PICKUP);
+            shipment.setDeliveryPersonId(seeder.getDeliveryPersonIds().get(0));
+        }
+        List<String> ids = addShipments(ready);
+        Map<ShipmentStatus, Map<String, AtomicInteger>> successes = new EnumMap<>(ShipmentStatus.class);
+        DELIVERY_CHAIN.forEach(status -> successes.put(status, counters(ids)));
+
+        run("Status race", thread -> {
+            for (String id : shuffled(ids, SEED * 31 + thread)) {
+                for (ShipmentStatus status : DELIVERY_CHAIN) {
+                    try {
+                        if (shipmentService.changeStatus(id, status, "stress", "STRESS-" + thread)) {
+                            successes.get(status).get(id).incrementAndGet();
+                        }
+                    } catch (IllegalArgumentException e) {
+                        // Expected when another thread made this transition first
+                    }
+                }
+            }
+        });
+
+        ShipmentRepository repository = ShipmentRepository.getInstance();
+        for (String id : ids) {
+            Shipment shipment = repository.findById(id).orElse(null);
+            if (shipment == null) {
+                failures.add(id + " disappeared during status changes");
+                continue;
+            }
+            check(shipment.getStatus() == ShipmentStatus.DELIVERED, id + " ended as " + shipment.getStatus());
+            check(shipment.getDeliveredDate() != null, id + " is delivered without a delivery date");
+            for (ShipmentStatus status : DELIVERY_CHAIN) {
+                int applied = successes.get(status).get(id).get();
+                check(applied == 1, id + " moved to " + status + " " + applied + " times");
+                check(countChanges(shipment, status) == 1,
+                        id + " has " + countChanges(shipment, status) + " changes to " + status + " in its history");
+            }
+        }
+        checkIndexes();
+        assertNoFailures();
+    }
+
+    @Test
+    void concurrentInsertsAreAllStored() throws InterruptedException {
+        ShipmentRepository shipmentRepository = ShipmentRepository.getInstance();
+        UserRepository userRepository = UserRepository.getInstance();
+        int shipmentsBefore = shipmentRepository.findAll().size();
+        int usersBefore = userRepository.getUsers().size();
+
+        // The seeder is not thread-safe, so every entity is created up front
+        List<List<Shipment>> shipments = new ArrayList<>();
+        List<List<User>> users = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            shipments.add(seeder.shipments(INSERTS));
+            List<User> batch = new ArrayList<>(INSERTS);
+            for (int j = 0; j < INSERTS; j++) {
+                batch.add(seeder.user());
+            }
+            users.add(batch);
+        }
+
+        run("Concurrent inserts", thread -> {
+            List<Shipment> ownShipments = shipments.get(thread);
+            List<User> ownUsers = users.get(thread);
+            for (int i = 0; i < INSERTS; i++) {
+                shipmentRepository.addShipment(ownShipments.get(i));
+                userRepository.addUser(ownUsers.get(i));
+            }
+        });
+
+        int expected = THREADS * INSERTS;
+        check(shipmentRepository.findAll().size() == shipmentsBefore + expected,
+                "shipments: expected " + (shipmentsBefore + expected) + ", found " + shipmentRepository.findAll().size());
+        check(userRepository.getUsers().size() == usersBefore + expected,
+                "users: expected " + (usersBefore + expected) + ", found " + userRepository.getUsers().size());
+        for (int i = 0; i < THREADS; i++) {
+            for (Shipment shipment : shipments.get(i)) {
+                check(shipmentRepository.findById(shipment.getId()).isPresent(), "shipment " + shipment.getId() + " lost");
+            }
+            for (User user : users.get(i)) {
+                check(userRepository.findById(user.getId()).isPresent(), "user " + user.getId() + " lost");
+                check(userRepository.findByEmail(user.getEmail()).isPresent(), "user " + user.getId() + " not found by email");
+            }
+        }
+        checkIndexes();
+        assertNoFailures();
+    }
+
+    /**
+     * Compares the status index and the aggregate counters with a full scan.
+     */
+    private void checkIndexes() {
+        ShipmentRepository repository = ShipmentRepository.getInstance();
+        List<Shipment> all = repository.findAll();
+
+        Map<ShipmentStatus, Long> scanned = new EnumMap<>(ShipmentStatus.class);
+        for (Shipment shipment : all) {
+            scanned.merge(shipment.getStatus(), 1L, Long::sum);
+        }
+        for (ShipmentStatus status : ShipmentStatus.values()) {
+            long expected = scanned.getOrDefault(status, 0L);
+            long indexed = repository.findByStatus(status).size();
+            check(indexed == expected, "findByStatus(" + status + ") returned " + indexed + ", scan found " + expected);
+        }
+
+        ShipmentAggregates aggregates = repository.getAggregates();
+        check(aggregates.getTotalShipments() == all.size(),
+                "aggregates count " + aggregates.getTotalShipments() + " shipments, scan found " + all.size());
+        long cancelled = scanned.getOrDefault(ShipmentStatus.CANCELLED, 0L);
+        check(aggregates.getCancelledShipments() == cancelled,
+                "aggregates count " + aggregates.getCancelledShipments() + " cancelled, scan found " + cancelled);
+    }
+
+    // ===========================
+    // Execution
+    // ===========================
+
+    /** The work of one writer thread, numbered from 0. */
+    @FunctionalInterface
+    private interface Worker {
+        void run(int thread) throws Exception;
+    }
+
+    @FunctionalInterface
+    private interface Task {
+        void run() throws Exception;
+    }
+
+    /**
+     * Starts all writers at once, keeps the readers busy until the writers are done, and records any
+     * exception a thread did not expect.
+     */
+    private void run(String scenario, Worker writer) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<Thread> writerThreads = new ArrayList<>();
+        List<Thread> readerThreads = new ArrayList<>();
+
+        for (int i = 0; i < THREADS; i++) {
+            int thread = i;
+            writerThreads.add(start(scenario + " writer " + i, start, () -> writer.run(thread)));
+        }
+        for (int i = 0; i < READERS; i++) {
+            readerThreads.add(start(scenario + " reader " + i, start, () -> {
+                while (writing.get()) {
+                    read();
+                }
+            }));
+        }
+
+        start.countDown();
+        for (Thread thread : writerThreads) {
+            thread.join();
+        }
+        writing.set(false);
+        for (Thread thread : readerThreads) {
+            thread.join();
+        }
+    }
+
+    private Thread start(String name, CountDownLatch start, Task body) {
+        Thread thread = new Thread(() -> {
+            try {
+                start.await();
+                body.run();
+            } catch (Exception | AssertionError e) {
+                failures.add(name + ": " + e);
+            }
+        }, name);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * One round of the reads the UI does while writers are busy; every copy must be usable as it is.
+     */
+    private void read() {
+        ShipmentRepository shipmentRepository = ShipmentRepository.getInstance();
+        for (Shipment shipment : shipmentRepository.findAll()) {
+            if (shipment == null || shipment.getId() == null) {
+                failures.add("findAll returned an incomplete shipment");
+                return;
+            }
+        }
+        for (Shipment shipment : shipmentRepository.findByStatus(ShipmentStatus.IN_TRANSIT)) {
+            shipmentRepository.findById(shipment.getId());
+        }
+        shipmentRepository.getAggregates().getActiveShipmentsByStatus();
+        UserRepository.getInstance().getUsers();
+    }
+
+    // ===========================
+    // Helpers
+    // ===========================
+
+    private static List<String> addShipments(List<Shipment> shipments) {
+        ShipmentRepository repository = ShipmentRepository.getInstance();
+        List<String> ids = new ArrayList<>(shipments.size());
+        for (Shipment shipment : shipments) {
+            repository.addShipment(shipment);
+            ids.add(shipment.getId());
+        }
+        return ids;
+    }
+
+    private static Map<String, AtomicInteger> counters(List<String> ids) {
+        Map<String, AtomicInteger> counters = new ConcurrentHashMap<>();
+        ids.forEach(id -> counters.put(id, new AtomicInteger()));
+        return counters;
+    }
+
+    /** Each thread visits the shipments in its own order, so threads collide on different shipments. */
+    private static List<String> shuffled(List<String> ids, long seed) {
+        List<String> copy = new ArrayList<>(ids);
+        Collections.shuffle(copy, new Random(seed));
+        return copy;
+    }
+
+    private static long countChanges(Shipment shipment, ShipmentStatus status) {
+        if (shipment.getStatusHistory() == null) {
+            return 0;
+        }
+        return shipment.getStatusHistory().stream()
+                .map(StatusChange::getNewStatus)
+                .filter(newStatus -> newStatus == status)
+                .count();
+    }
+
+    private void check(boolean condition, String failure) {
+        if (!condition) {
+            failures.add(failure);
+        }
+    }
+
+    private void assertNoFailures() {
+        assertTrue(failures.isEmpty(), () -> failures.size() + " problems:\n  "
+                + failures.stream().limit(50).collect(Collectors.joining("\n  ")));
+    }
+}
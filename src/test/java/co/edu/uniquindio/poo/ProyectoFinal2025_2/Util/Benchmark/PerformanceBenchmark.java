@@ -0,0 +1,307 @@
+package co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.Benchmark;
+
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.CoverageArea;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.ServiceType;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.ShipmentStatus;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Observer.ShipmentEventBus;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Shipment;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.dto.ShipmentFilterDTO;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.ShipmentRepository;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Services.DashboardService;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Services.ShipmentService;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Services.TariffService;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.Seeder.SyntheticDataSeeder;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.Seeder.TariffSeeder;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.GsonProvider;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.JsonFileHandler;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilRepository.RepositoryPaths;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Micro-benchmark harness for the application's hot paths, meant to be run before each release
+ * to catch performance regressions.
+ *
+ * <p>Each scenario is warmed up so the JIT has compiled it, then timed over several iterations.
+ * Results are reported per operation (mean, median, p95 and best), and every result is consumed
+ * so the JIT cannot discard the work.</p>
+ *
+ * <p><b>Scenarios:</b></p>
+ * <ul>
+ *     <li>{@code JsonFileHandler} save and load of shipment lists at each configured size</li>
+ *     <li>{@code ShipmentRepository.search} with several {@link ShipmentFilterDTO} shapes</li>
+ *     <li>{@code TariffService.calculateTotalCost}</li>
+ *     <li>{@code DashboardService.calculateDashboardStats}</li>
+ *     <li>{@code ShipmentService.autoAssignShipments} over a fresh batch of pending shipments</li>
+ * </ul>
+ *
+ * <p><b>Usage:</b></p>
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:java
+ * mvn -Pbenchmark test-compile exec:java -Dexec.args="sizes=1000,10000 shipments=5000 iterations=10"
+ * </pre>
+ *
+ * <p>The benchmark lives in the test sources, so it is never packaged with the application.</p>
+ *
+ * <p><b>Options</b> ({@code key=value}): {@code sizes} (default 1000,10000,100000), {@code shipments}
+ * stored in the repository (default 10000), {@code users} (default 200), {@code couriers} (default 40),
+ * {@code iterations} (default 15), {@code warmup} (default 5) and {@code seed} (default 42).</p>
+ *
+ * <p>Unless {@code app.data.dir} is already set, the benchmark runs against a temporary data directory
+ * that is deleted afterwards, so the real application data is never touched.</p>
+ *
+ * @author Sistema de Gestión de Envíos
+ * @version 1.0
+ * @since 2025
+ * @see SyntheticDataSeeder
+ */
+public final class PerformanceBenchmark {
+
+    // =================================================================================================================
+    // CONSTRUCTOR
+    // =================================================================================================================
+
+    private PerformanceBenchmark() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    /** Receives every benchmark result so the measured work cannot be optimized away. */
+    private static volatile Object sink;
+
+    // =================================================================================================================
+    // ENTRY POINT
+    // =================================================================================================================
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = parseOptions(args);
+        int[] sizes = Arrays.stream(options.getOrDefault("sizes", "1000,10000,100000").split(","))
+                .mapToInt(size -> Integer.parseInt(size.trim())).toArray();
+        int storedShipments = Integer.parseInt(options.getOrDefault("shipments", "10000"));
+        int users = Integer.parseInt(options.getOrDefault("users", "200"));
+        int couriers = Integer.parseInt(options.getOrDefault("couriers", "40"));
+        int iterations = Integer.parseInt(options.getOrDefault("iterations", "15"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "5"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+
+        // Must happen before any repository or RepositoryPaths is loaded
+        Path scratchDir = null;
+        if (System.getProperty("app.data.dir") == null) {
+            scratchDir = Files.createTempDirectory("benchmark-data");
+            System.setProperty("app.data.dir", scratchDir.toString());
+        }
+
+        List<Result> results = new ArrayList<>();
+        try {
+            SyntheticDataSeeder seeder = new SyntheticDataSeeder(seed);
+            benchmarkJsonFiles(seeder, sizes, iterations, warmup, results);
+
+            TariffSeeder.seedDefaultTariff();
+            seeder.seedRepositories(users, couriers, storedShipments);
+            benchmarkSearch(seeder, iterations, warmup, results);
+            benchmarkPricing(seed, iterations, warmup, results);
+            benchmarkDashboard(iterations, warmup, results);
+            benchmarkAutoAssign(seeder, iterations, warmup, results);
+        } finally {
+            ShipmentEventBus.getInstance().shutdown(2000);
+            if (scratchDir != null) {
+                deleteRecursively(scratchDir);
+            }
+        }
+
+        printResults(results, storedShipments);
+        System.exit(0);
+    }
+
+    // =================================================================================================================
+    // SCENARIOS
+    // =================================================================================================================
+
+    private static void benchmarkJsonFiles(SyntheticDataSeeder seeder, int[] sizes, int iterations, int warmup,
+                                           List<Result> results) {
+        Gson gson = GsonProvider.createGson();
+        Type listType = new TypeToken<ArrayList<Shipment>>() {}.getType();
+        for (int size : sizes) {
+            List<Shipment> shipments = seeder.shipments(size);
+            String path = RepositoryPaths.DATA_DIR + "/benchmark_shipments_" + size + ".json";
+            // Large files take seconds per round; scale the rounds down so the run stays bounded
+            int rounds = Math.max(3, (int) Math.min(iterations, 100_000L * iterations / (10L * size)));
+            int warmupRounds = Math.max(1, Math.min(warmup, rounds));
+
+            results.add(measure("JsonFileHandler.saveToFile [" + size + "]", warmupRounds, rounds, 1,
+                    () -> JsonFileHandler.saveToFile(path, shipments, gson)));
+            results.add(measure("JsonFileHandler.loadFromFile [" + size + "]", warmupRounds, rounds, 1,
+                    () -> JsonFileHandler.loadFromFile(path, listType, gson)));
+        }
+    }
+
+    private static void benchmarkSearch(SyntheticDataSeeder seeder, int iterations, int warmup, List<Result> results) {
+        ShipmentRepository repository = ShipmentRepository.getInstance();
+        String userId = seeder.getUserIds().get(0);
+        String deliveryPersonId = seeder.getDeliveryPersonIds().get(0);
+        LocalDate today = LocalDate.now();
+
+        Map<String, ShipmentFilterDTO> filters = new LinkedHashMap<>();
+        filters.put("empty", new ShipmentFilterDTO());
+        filters.put("status", filter(f -> f.setStatus(ShipmentStatus.IN_TRANSIT)));
+        filters.put("user", filter(f -> f.setUserId(userId)));
+        filters.put("deliveryPerson", filter(f -> f.setDeliveryPersonId(deliveryPersonId)));
+        filters.put("last 7 days", filter(f -> {
+            f.setDateFrom(today.minusDays(7));
+            f.setDateTo(today);
+        }));
+        filters.put("zone + text", filter(f -> {
+            f.setZone(CoverageArea.NORTH);
+            f.setSearchText("calle 1");
+        }));
+        filters.put("delayed", filter(f -> f.setOnlyDelayed(true)));
+        filters.put("combined", filter(f -> {
+            f.setStatus(ShipmentStatus.DELIVERED);
+            f.setDateFrom(today.minusDays(30));
+            f.setMinPriority(3);
+            f.setOnlyActive(true);
+        }));
+
+        for (Map.Entry<String, ShipmentFilterDTO> entry : filters.entrySet()) {
+            ShipmentFilterDTO filter = entry.getValue();
+            results.add(measure("ShipmentRepository.search [" + entry.getKey() + "]", warmup, iterations, 1,
+                    () -> repository.search(filter)));
+        }
+    }
+
+    private static void benchmarkPricing(long seed, int iterations, int warmup, List<Result> results) {
+        TariffService tariffService = new TariffService();
+        Random random = new Random(seed);
+        int quotesPerIteration = 1000;
+        List<ServiceType> services = List.of(ServiceType.INSURANCE, ServiceType.FRAGILE);
+
+        results.add(measure("TariffService.calculateTotalCost", warmup, iterations, quotesPerIteration, () -> {
+            double total = 0;
+            for (int i = 0; i < quotesPerIteration; i++) {
+                total += tariffService.calculateTotalCost(random.nextDouble() * 50, random.nextDouble() * 30,
+                        random.nextDouble() * 0.5, 1 + random.nextInt(5), random.nextBoolean() ? services : List.of());
+            }
+            return total;
+        }));
+    }
+
+    private static void benchmarkDashboard(int iterations, int warmup, List<Result> results) {
+        DashboardService dashboardService = new DashboardService();
+        results.add(measure("DashboardService.calculateDashboardStats", warmup, iterations, 1,
+                dashboardService::calculateDashboardStats));
+    }
+
+    private static void benchmarkAutoAssign(SyntheticDataSeeder seeder, int iterations, int warmup,
+                                            List<Result> results) {
+        ShipmentService shipmentService = new ShipmentService();
+        ShipmentRepository repository = ShipmentRepository.getInstance();
+        int batchSize = 200;
+
+        // Each round assigns a fresh batch; loading it is setup and stays out of the timing
+        results.add(measure("ShipmentService.autoAssignShipments [" + batchSize + "]", warmup, iterations, 1,
+                () -> seeder.unassignedShipments(batchSize).forEach(repository::addShipment),
+                () -> shipmentService.autoAssignShipments(null)));
+    }
+
+    // =================================================================================================================
+    // MEASUREMENT
+    // =================================================================================================================
+
+    private static Result measure(String name, int warmup, int iterations, int operationsPerIteration,
+                                  Supplier<?> operation) {
+        return measure(name, warmup, iterations, operationsPerIteration, () -> { }, operation);
+    }
+
+    private static Result measure(String name, int warmup, int iterations, int operationsPerIteration,
+                                  Runnable setup, Supplier<?> operation) {
+        for (int i = 0; i < warmup; i++) {
+            setup.run();
+            sink = operation.get();
+        }
+        long[] nanos = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            setup.run();
+            long start = System.nanoTime();
+            sink = operation.get();
+            nanos[i] = (System.nanoTime() - start) / operationsPerIteration;
+        }
+        Arrays.sort(nanos);
+        double mean = Arrays.stream(nanos).average().orElse(0);
+        return new Result(name, iterations, mean, nanos[nanos.length / 2],
+                nanos[Math.min(nanos.length - 1, (int) Math.ceil(nanos.length * 0.95) - 1)], nanos[0]);
+    }
+
+    private static void printResults(List<Result> results, int storedShipments) {
+        System.out.println();
+        System.out.println("Benchmark results (" + storedShipments + " shipments in repository), microseconds per operation");
+        System.out.println(String.format("%-58s %6s %12s %12s %12s %12s", "Scenario", "Runs", "Mean", "Median", "p95", "Best"));
+        for (Result result : results) {
+            System.out.println(String.format("%-58s %6d %12.1f %12.1f %12.1f %12.1f", result.name, result.iterations,
+                    result.meanNanos / 1000.0, result.medianNanos / 1000.0, result.p95Nanos / 1000.0,
+                    result.bestNanos / 1000.0));
+        }
+    }
+
+    // =================================================================================================================
+    // HELPERS
+    // =================================================================================================================
+
+    private static ShipmentFilterDTO filter(Consumer<ShipmentFilterDTO> configure) {
+        ShipmentFilterDTO filter = new ShipmentFilterDTO();
+        configure.accept(filter);
+        return filter;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            String[] parts = arg.split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            }
+            options.put(parts[0].trim(), parts[1].trim());
+        }
+        return options;
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static final class Result {
+        private final String name;
+        private final int iterations;
+        private final double meanNanos;
+        private final long medianNanos;
+        private final long p95Nanos;
+        private final long bestNanos;
+
+        private Result(String name, int iterations, double meanNanos, long medianNanos, long p95Nanos, long bestNanos) {
+            this.name = name;
+            this.iterations = iterations;
+            this.meanNanos = meanNanos;
+            this.medianNanos = medianNanos;
+            this.p95Nanos = p95Nanos;
+            this.bestNanos = bestNanos;
+        }
+    }
+}
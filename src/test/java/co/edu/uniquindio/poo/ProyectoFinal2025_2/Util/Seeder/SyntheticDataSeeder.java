@@ -0,0 +1,415 @@
+package co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.Seeder;
+
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.AdditionalService;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Address;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.DeliveryPerson;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.AvailabilityStatus;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.CoverageArea;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.IncidentType;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.ServiceType;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.ShipmentStatus;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Enums.VehicleType;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Incident;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.Shipment;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.StatusChange;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Model.User;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.DeliveryPersonRepository;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.ShipmentRepository;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Repositories.UserRepository;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Services.VehicleService;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.Logger;
+import co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.UtilModel.PasswordUtility;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates realistic synthetic users, couriers and shipments for benchmarks and load testing.
+ *
+ * <p>All entities are created through the model {@code Builder}s, so they go through the same
+ * construction path as the rest of the application. Generation is driven by a seeded {@link Random},
+ * so two runs with the same seed produce the same data set and their timings are comparable.</p>
+ *
+ * <p><b>Core Functionality:</b></p>
+ * <ul>
+ *     <li><b>Single Entities:</b> {@link #address(CoverageArea)}, {@link #user()}, {@link #shipment(String, String)}</li>
+ *     <li><b>In-Memory Sets:</b> {@link #shipments(int)} - e.g. to measure serialization without repositories</li>
+ *     <li><b>Repository Seed:</b> {@link #seedRepositories(int, int, int)} - Persists a full data set</li>
+ * </ul>
+ *
+ * <p><b>Usage:</b></p>
+ * <pre>
+ * SyntheticDataSeeder seeder = new SyntheticDataSeeder(42);
+ * seeder.seedRepositories(200, 40, 10_000);
+ * List&lt;Shipment&gt; pending = seeder.unassignedShipments(500);
+ * </pre>
+ *
+ * <p><b>Warning:</b> {@link #seedRepositories(int, int, int)} writes to the configured data directory.
+ * Point {@code app.data.dir} to a scratch directory before using it (see {@code RepositoryPaths}).
+ * The seeder is part of the test sources and is not packaged with the application.</p>
+ *
+ * @author Sistema de Gestión de Envíos
+ * @version 1.0
+ * @since 2025
+ * @see co.edu.uniquindio.poo.ProyectoFinal2025_2.Util.Benchmark.PerformanceBenchmark
+ * @see co.edu.uniquindio.poo.ProyectoFinal2025_2.Services.ConcurrencyStressTest
+ */
+public final class SyntheticDataSeeder {
+
+    // =================================================================================================================
+    // CONSTANTS
+    // =================================================================================================================
+
+    /** Armenia, Quindío: every generated address falls within about 15 km of it. */
+    private static final double CENTER_LATITUDE = 4.5339;
+    private static final double CENTER_LONGITUDE = -75.6811;
+    private static final double SPREAD_DEGREES = 0.12;
+
+    private static final int HISTORY_DAYS = 180;
+
+    /** Relative frequency of each status, in {@link ShipmentStatus} declaration order. */
+    private static final int[] STATUS_WEIGHTS = {8, 6, 5, 10, 6, 55, 4, 6};
+
+    private static final String[] FIRST_NAMES = {"Ana", "Carlos", "Laura", "Andrés", "Valentina", "Juan", "Camila", "Felipe"};
+    private static final String[] LAST_NAMES = {"Gómez", "Rodríguez", "Martínez", "López", "García", "Ramírez", "Torres", "Castro"};
+
+    // =================================================================================================================
+    // STATE
+    // =================================================================================================================
+
+    private final Random random;
+    private final List<String> userIds = new ArrayList<>();
+    private final List<String> deliveryPersonIds = new ArrayList<>();
+    private String passwordHash;
+    private long sequence;
+
+    /**
+     * Creates a generator.
+     *
+     * @param seed Seed of the random generator; the same seed always yields the same data
+     */
+    public SyntheticDataSeeder(long seed) {
+        this.random = new Random(seed);
+    }
+
+    // =================================================================================================================
+    // SINGLE ENTITIES
+    // =================================================================================================================
+
+    /**
+     * Creates an address with coordinates inside the given area.
+     *
+     * @param area The coverage area; its name is reflected in the city so zone detection works
+     * @return A new address
+     */
+    public Address address(CoverageArea area) {
+        double latitudeOffset = (random.nextDouble() - 0.5) * SPREAD_DEGREES;
+        if (area == CoverageArea.NORTH) {
+            latitudeOffset = Math.abs(latitudeOffset);
+        } else if (area == CoverageArea.SOUTH) {
+            latitudeOffset = -Math.abs(latitudeOffset);
+        }
+        String city = switch (area) {
+            case NORTH -> "Armenia Norte";
+            case SOUTH -> "Armenia Sur";
+            default -> "Armenia";
+        };
+        return new Address.Builder()
+                .withId(nextId("ADR"))
+                .withAlias("Dirección " + sequence)
+                .withStreet("Calle " + (1 + random.nextInt(60)) + " # " + (1 + random.nextInt(40)) + "-" + random.nextInt(99))
+                .withCity(city)
+                .withState("Quindío")
+                .withCountry("Colombia")
+                .withZipCode("630001")
+                .withLatitude(CENTER_LATITUDE + latitudeOffset)
+                .withLongitude(CENTER_LONGITUDE + (random.nextDouble() - 0.5) * SPREAD_DEGREES)
+                .build();
+    }
+
+    /**
+     * Creates an active customer account.
+     *
+     * @return A new user
+     */
+    public User user() {
+        String id = nextId("USR");
+        return new User.Builder()
+                .withId(id)
+                .withName(pick(FIRST_NAMES))
+                .withLastName(pick(LAST_NAMES))
+                .withEmail(id.toLowerCase() + "@synthetic.test")
+                .withPhone("300" + String.format("%07d", random.nextInt(10_000_000)))
+                .withPassword(passwordHash())
+                .withIsActive(true)
+                .build();
+    }
+
+    /**
+     * Creates an available courier working in the given area.
+     *
+     * @param vehiclePlate Plate of the courier's active vehicle
+     * @param area The courier's coverage area
+     * @return A new delivery person
+     */
+    public DeliveryPerson deliveryPerson(String vehiclePlate, CoverageArea area) {
+        String id = nextId("DLV");
+        return new DeliveryPerson.Builder()
+                .withId(id)
+                .withName(pick(FIRST_NAMES))
+                .withLastName(pick(LAST_NAMES))
+                .withEmail(id.toLowerCase() + "@synthetic.test")
+                .withPhone("310" + String.format("%07d", random.nextInt(10_000_000)))
+                .withPassword(passwordHash())
+                .withDocumentId(String.valueOf(1_000_000_000L + random.nextInt(900_000_000)))
+                .withAvailability(AvailabilityStatus.AVAILABLE)
+                .withVehiclePlates(new ArrayList<>(List.of(vehiclePlate)))
+                .withActiveVehiclePlate(vehiclePlate)
+                .withCoverageArea(area)
+                .build();
+    }
+
+    /**
+     * Creates a shipment in a random status, with a consistent history, costs and dates.
+     *
+     * @param userId Owner of the shipment
+     * @param deliveryPersonId Courier for statuses past assignment (may be null)
+     * @return A new shipment
+     */
+    public Shipment shipment(String userId, String deliveryPersonId) {
+        ShipmentStatus status = randomStatus();
+        LocalDateTime createdAt = LocalDateTime.now()
+                .minusDays(random.nextInt(HISTORY_DAYS))
+                .minusMinutes(random.nextInt(24 * 60));
+        Shipment shipment = baseShipment(userId, createdAt, status);
+
+        if (status != ShipmentStatus.PENDING_ASSIGNMENT && status != ShipmentStatus.CANCELLED) {
+            shipment.setDeliveryPersonId(deliveryPersonId);
+            shipment.setAssignmentDate(createdAt.plusHours(1));
+        }
+        if (status == ShipmentStatus.DELIVERED) {
+            shipment.setDeliveredDate(createdAt.plusHours(4 + random.nextInt(72)));
+        }
+        if (random.nextInt(100) < 6) {
+            IncidentType type = IncidentType.values()[random.nextInt(IncidentType.values().length)];
+            shipment.setIncident(new Incident(nextId("INC"), type, "Incidente generado", deliveryPersonId));
+        }
+        shipment.setStatusHistory(historyOf(status, createdAt));
+        return shipment;
+    }
+
+    /**
+     * Creates a shipment waiting for a courier, as {@code autoAssignShipments} expects to find it.
+     *
+     * @param userId Owner of the shipment
+     * @return A new shipment in {@link ShipmentStatus#PENDING_ASSIGNMENT}
+     */
+    public Shipment unassignedShipment(String userId) {
+        Shipment shipment = baseShipment(userId, LocalDateTime.now().minusMinutes(random.nextInt(600)),
+                ShipmentStatus.PENDING_ASSIGNMENT);
+        shipment.setStatusHistory(historyOf(ShipmentStatus.PENDING_ASSIGNMENT, shipment.getCreatedAt()));
+        return shipment;
+    }
+
+    // =================================================================================================================
+    // SETS
+    // =================================================================================================================
+
+    /**
+     * Creates shipments without touching any repository. Owners and couriers are the ones
+     * seeded so far, or synthetic IDs if nothing was seeded.
+     *
+     * @param count Number of shipments
+     * @return The shipments
+     */
+    public List<Shipment> shipments(int count) {
+        List<Shipment> shipments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            shipments.add(shipment(randomUserId(), randomDeliveryPersonId()));
+        }
+        return shipments;
+    }
+
+    /**
+     * Creates unassigned shipments without touching any repository.
+     *
+     * @param count Number of shipments
+     * @return The shipments
+     */
+    public List<Shipment> unassignedShipments(int count) {
+        List<Shipment> shipments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            shipments.add(unassignedShipment(randomUserId()));
+        }
+        return shipments;
+    }
+
+    /**
+     * Persists a complete data set: users, couriers with their vehicles, and shipments.
+     *
+     * @param users Number of users
+     * @param deliveryPersons Number of couriers, spread over all coverage areas
+     * @param shipments Number of shipments, owned by random users
+     */
+    public void seedRepositories(int users, int deliveryPersons, int shipments) {
+        Logger.info("SyntheticDataSeeder: Seeding " + users + " users, " + deliveryPersons
+                + " delivery persons and " + shipments + " shipments...");
+
+        UserRepository userRepository = UserRepository.getInstance();
+        for (int i = 0; i < users; i++) {
+            User user = user();
+            userRepository.addUser(user);
+            userIds.add(user.getId());
+        }
+
+        VehicleService vehicleService = VehicleService.getInstance();
+        DeliveryPersonRepository deliveryPersonRepository = DeliveryPersonRepository.getInstance();
+        CoverageArea[] areas = CoverageArea.values();
+        VehicleType[] vehicleTypes = VehicleType.values();
+        for (int i = 0; i < deliveryPersons; i++) {
+            VehicleType type = vehicleTypes[i % vehicleTypes.length];
+            String plate = nextId("SYN");
+            vehicleService.createVehicle(plate, 100 + random.nextInt(900), type, true);
+            DeliveryPerson deliveryPerson = deliveryPerson(plate, areas[i % areas.length]);
+            deliveryPersonRepository.addDeliveryPerson(deliveryPerson);
+            deliveryPersonIds.add(deliveryPerson.getId());
+        }
+
+        ShipmentRepository shipmentRepository = ShipmentRepository.getInstance();
+        for (Shipment shipment : shipments(shipments)) {
+            shipmentRepository.addShipment(shipment);
+        }
+
+        Logger.info("SyntheticDataSeeder: Seed completed.");
+    }
+
+    public List<String> getUserIds() {
+        return Collections.unmodifiableList(userIds);
+    }
+
+    public List<String> getDeliveryPersonIds() {
+        return Collections.unmodifiableList(deliveryPersonIds);
+    }
+
+    // =================================================================================================================
+    // HELPERS
+    // =================================================================================================================
+
+    private Shipment baseShipment(String userId, LocalDateTime createdAt, ShipmentStatus status) {
+        CoverageArea[] areas = CoverageArea.values();
+        double height = 10 + random.nextInt(60);
+        double width = 10 + random.nextInt(60);
+        double length = 10 + random.nextInt(80);
+        double baseCost = 8_000 + random.nextInt(40_000);
+        int priority = 1 + random.nextInt(5);
+
+        List<AdditionalService> services = new ArrayList<>();
+        double servicesCost = 0;
+        for (ServiceType type : ServiceType.values()) {
+            if (random.nextInt(100) < 15) {
+                AdditionalService service = new AdditionalService(type, baseCost);
+                services.add(service);
+                servicesCost += service.getCost();
+            }
+        }
+
+        return new Shipment.Builder()
+                .withId(nextId("SHP"))
+                .withUserId(userId)
+                .withOrigin(address(areas[random.nextInt(areas.length)]))
+                .withDestination(address(areas[random.nextInt(areas.length)]))
+                .withCreatedAt(createdAt)
+                .withRequestedPickupDate(createdAt.plusHours(2))
+                .withEstimatedDate(createdAt.plusHours(24 + random.nextInt(48)))
+                .withStatus(status)
+                .withWeightKg(0.5 + random.nextDouble() * (random.nextInt(10) == 0 ? 300 : 20))
+                .withHeightCm(height)
+                .withWidthCm(width)
+                .withLengthCm(length)
+                .withVolumeM3(height * width * length / 1_000_000.0)
+                .withBaseCost(baseCost)
+                .withServicesCost(servicesCost)
+                .withTotalCost(baseCost + servicesCost)
+                .withPriority(priority)
+                .withAdditionalServices(services)
+                .withActive(true)
+                .build();
+    }
+
+    /**
+     * Builds a plausible status history ending at the given status.
+     */
+    private List<StatusChange> historyOf(ShipmentStatus status, LocalDateTime createdAt) {
+        List<StatusChange> history = new ArrayList<>();
+        history.add(new StatusChange(null, ShipmentStatus.PENDING_ASSIGNMENT, createdAt));
+        if (status == ShipmentStatus.PENDING_ASSIGNMENT) {
+            return history;
+        }
+        if (status == ShipmentStatus.CANCELLED) {
+            history.add(new StatusChange(ShipmentStatus.PENDING_ASSIGNMENT, status, createdAt.plusHours(1)));
+            return history;
+        }
+
+        ShipmentStatus[] flow = {ShipmentStatus.READY_FOR_PICKUP, ShipmentStatus.PICKED_UP, ShipmentStatus.IN_TRANSIT,
+                ShipmentStatus.OUT_FOR_DELIVERY, ShipmentStatus.DELIVERED};
+        ShipmentStatus previous = ShipmentStatus.PENDING_ASSIGNMENT;
+        LocalDateTime timestamp = createdAt;
+        for (ShipmentStatus next : flow) {
+            ShipmentStatus target = status == ShipmentStatus.RETURNED && next == ShipmentStatus.DELIVERED
+                    ? ShipmentStatus.RETURNED : next;
+            timestamp = timestamp.plusHours(1 + random.nextInt(12));
+            history.add(new StatusChange(previous, target, timestamp));
+            if (target == status) {
+                break;
+            }
+            previous = target;
+        }
+        return history;
+    }
+
+    private ShipmentStatus randomStatus() {
+        int total = 0;
+        for (int weight : STATUS_WEIGHTS) {
+            total += weight;
+        }
+        int roll = random.nextInt(total);
+        ShipmentStatus[] statuses = ShipmentStatus.values();
+        for (int i = 0; i < statuses.length; i++) {
+            roll -= STATUS_WEIGHTS[i];
+            if (roll < 0) {
+                return statuses[i];
+            }
+        }
+        return ShipmentStatus.DELIVERED;
+    }
+
+    private String randomUserId() {
+        return userIds.isEmpty() ? "USR-" + random.nextInt(500) : userIds.get(random.nextInt(userIds.size()));
+    }
+
+    private String randomDeliveryPersonId() {
+        return deliveryPersonIds.isEmpty() ? "DLV-" + random.nextInt(50)
+                : deliveryPersonIds.get(random.nextInt(deliveryPersonIds.size()));
+    }
+
+    /**
+     * Hashes the shared password once; BCrypt is far too slow to run per generated account.
+     */
+    private String passwordHash() {
+        if (passwordHash == null) {
+            passwordHash = PasswordUtility.hashPassword("Synthetic123!");
+        }
+        return passwordHash;
+    }
+
+    private String nextId(String prefix) {
+        return prefix + "-" + (++sequence);
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}